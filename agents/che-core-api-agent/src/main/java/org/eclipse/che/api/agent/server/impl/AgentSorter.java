@@ -21,8 +21,10 @@ import org.eclipse.che.api.agent.shared.model.AgentKey;
 import org.eclipse.che.commons.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -70,6 +72,41 @@ public class AgentSorter {
         return sorted;
     }
 
+    /**
+     * Groups agents into levels respecting dependencies between them.
+     * Agents of the same level don't depend on each other, each of them depends only
+     * on agents of the previous levels, so agents of a level may be launched simultaneously.
+     * Handles circular dependencies.
+     *
+     * @see #sort(List)
+     *
+     * @param agentKeys list of agents to sort
+     * @return levels of agents in proper order, agents of each level keep the order of {@link #sort(List)}
+     *
+     * @throws AgentException
+     *      if circular dependency found or agent creation failed or other unexpected error
+     */
+    public List<List<AgentKey>> sortByLevels(@Nullable List<String> agentKeys) throws AgentException {
+        List<List<AgentKey>> levels = new ArrayList<>();
+        Map<String, Integer> agentLevels = new HashMap<>();
+
+        for (AgentKey agentKey : sort(agentKeys)) {
+            // dependencies are always sorted before dependent agent
+            int level = 0;
+            for (String dependency : agentRegistry.getAgent(agentKey).getDependencies()) {
+                level = Math.max(level, agentLevels.get(AgentKeyImpl.parse(dependency).getId()) + 1);
+            }
+            agentLevels.put(agentKey.getId(), level);
+
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(agentKey);
+        }
+
+        return levels;
+    }
+
     private void doSort(AgentKey agentKey, List<AgentKey> sorted, Set<String> pending) throws AgentException {
         String agentId = agentKey.getId();
 
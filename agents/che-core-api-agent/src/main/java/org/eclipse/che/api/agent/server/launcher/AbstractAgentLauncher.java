@@ -31,9 +31,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.lang.String.format;
@@ -41,6 +47,7 @@ import static java.lang.String.format;
 /**
  * Launch agent script asynchronously over target instance and wait when it run.
  * The policy of checking if agent is run might be different for agents.
+ * Repeated checks are scheduled, so no thread sleeps while agent is launching.
  *
  * @see Agent#getScript()
  * @see AgentLaunchingChecker
@@ -56,6 +63,12 @@ public abstract class AbstractAgentLauncher implements AgentLauncher {
                                                                             LoggingUncaughtExceptionHandler.getInstance())
                                                                     .setDaemon(true)
                                                                     .build());
+    private static final ScheduledExecutorService checkScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("AgentLaunchingChecker")
+                                                                                 .setUncaughtExceptionHandler(
+                                                                                         LoggingUncaughtExceptionHandler.getInstance())
+                                                                                 .setDaemon(true)
+                                                                                 .build());
 
     private final AgentLaunchingChecker agentLaunchingChecker;
     private final long                  agentPingDelayMs;
@@ -82,26 +95,38 @@ public abstract class AbstractAgentLauncher implements AgentLauncher {
                 agentLogger.writeLine(line);
             }
         };
+        CompletableFuture<Void> launched = null;
         try {
             final InstanceProcess process = start(machine, agent, lineConsumer);
             LOG.debug("Waiting for agent {} is launched. Workspace ID:{}", agent.getId(), machine.getWorkspaceId());
 
-            final long pingStartTimestamp = System.currentTimeMillis();
-            while (System.currentTimeMillis() - pingStartTimestamp < agentMaxStartTimeMs) {
-                if (agentLaunchingChecker.isLaunched(agent, process, machine)) {
-                    return;
-                } else {
-                    Thread.sleep(agentPingDelayMs);
-                }
+            // the first check is done right away in the calling thread, the next ones are scheduled
+            // so the calling thread just waits for the result and no thread sleeps between checks
+            if (agentLaunchingChecker.isLaunched(agent, process, machine)) {
+                return;
+            }
+            launched = checkLaunchedAsync(agent, process, machine);
+            try {
+                launched.get(agentMaxStartTimeMs, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException ignored) {
+                launched.cancel(false);
             }
             LOG.error(format("Fail launching agent '%s' in '%s' workspace due to timeout",
                              agent.getName(), machine.getWorkspaceId()));
 
             process.kill();
+        } catch (ExecutionException e) {
+            logAsErrorAgentStartLogs(machine, agent.getName(), agentLogger.getText());
+            if (e.getCause() instanceof MachineException) {
+                throw new ServerException(((MachineException)e.getCause()).getServiceError());
+            }
+            throw new ServerException(e.getCause().getLocalizedMessage(), e.getCause());
         } catch (MachineException e) {
             logAsErrorAgentStartLogs(machine, agent.getName(), agentLogger.getText());
             throw new ServerException(e.getServiceError());
         } catch (InterruptedException e) {
+            launched.cancel(false);
             Thread.currentThread().interrupt();
             throw new ServerException(format("Launching agent %s is interrupted", agent.getName()));
         } finally {
@@ -117,6 +142,48 @@ public abstract class AbstractAgentLauncher implements AgentLauncher {
                                              agent.getName(), machine.getWorkspaceId()));
     }
 
+    /**
+     * Checks whether agent is launched every {@code agentPingDelayMs} until it is or the resulting future is cancelled.
+     * Waiting between checks is done by the scheduler while checks themselves are performed in the launcher pool,
+     * so slow checks of different agents don't delay each other.
+     */
+    private CompletableFuture<Void> checkLaunchedAsync(Agent agent, InstanceProcess process, Instance machine) {
+        final CompletableFuture<Void> launched = new CompletableFuture<>();
+        scheduleCheck(launched, new Runnable() {
+            @Override
+            public void run() {
+                if (launched.isDone()) {
+                    return;
+                }
+                try {
+                    if (agentLaunchingChecker.isLaunched(agent, process, machine)) {
+                        launched.complete(null);
+                    } else {
+                        scheduleCheck(launched, this);
+                    }
+                } catch (Exception e) {
+                    launched.completeExceptionally(e);
+                }
+            }
+        });
+        return launched;
+    }
+
+    private void scheduleCheck(CompletableFuture<Void> launched, Runnable check) {
+        final Runnable wrapped = ThreadLocalPropagateContext.wrap(check);
+        try {
+            checkScheduler.schedule(() -> {
+                try {
+                    executor.execute(wrapped);
+                } catch (RejectedExecutionException e) {
+                    launched.completeExceptionally(e);
+                }
+            }, agentPingDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            launched.completeExceptionally(e);
+        }
+    }
+
     protected InstanceProcess start(Instance machine, Agent agent, LineConsumer lineConsumer) throws ServerException {
         Command command = new CommandImpl(agent.getId(), agent.getScript(), "agent");
         InstanceProcess process = machine.createProcess(command, null);
@@ -75,6 +75,30 @@ public class AgentSorterTest {
         assertEquals(sorted.get(2).getId(), "fqn2");
     }
 
+    @Test
+    public void sortAgentsByLevelsRespectingDependencies() throws Exception {
+        List<List<AgentKey>> levels = agentSorter.sortByLevels(Arrays.asList("fqn1", "fqn2", "fqn3"));
+
+        assertEquals(levels.size(), 2);
+        assertEquals(levels.get(0).size(), 1);
+        assertEquals(levels.get(0).get(0).getId(), "fqn3");
+        assertEquals(levels.get(1).size(), 2);
+        assertEquals(levels.get(1).get(0).getId(), "fqn1");
+        assertEquals(levels.get(1).get(1).getId(), "fqn2");
+    }
+
+    @Test
+    public void sortAgentsByLevelsWhenDependencyIsNotListed() throws Exception {
+        when(agent2.getDependencies()).thenReturn(singletonList("fqn1"));
+
+        List<List<AgentKey>> levels = agentSorter.sortByLevels(singletonList("fqn2"));
+
+        assertEquals(levels.size(), 3);
+        assertEquals(levels.get(0).get(0).getId(), "fqn3");
+        assertEquals(levels.get(1).get(0).getId(), "fqn1");
+        assertEquals(levels.get(2).get(0).getId(), "fqn2");
+    }
+
     @Test(expectedExceptions = AgentException.class, expectedExceptionsMessageRegExp = ".*fqn1.*fqn2.*")
     public void sortingShouldFailIfCircularDependenciesFound() throws Exception {
         when(agent1.getDependencies()).thenReturn(singletonList("fqn2"));
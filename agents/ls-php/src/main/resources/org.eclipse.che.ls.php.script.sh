@@ -52,6 +52,16 @@ mkdir -p ${LS_DIR}
 ### Install packages ###
 ########################
 
+# Package managers lock their databases, so agents launched at the same time take
+# turns at installing packages, a lock left by a killed script is ignored after 5 minutes
+PACKAGES_LOCK=/tmp/.che-agents-packages.lock
+PACKAGES_LOCK_WAIT=0
+until mkdir ${PACKAGES_LOCK} 2>/dev/null || [ ${PACKAGES_LOCK_WAIT} -ge 300 ]; do
+    sleep 1
+    PACKAGES_LOCK_WAIT=$((PACKAGES_LOCK_WAIT + 1))
+done
+trap "rmdir ${PACKAGES_LOCK} 2>/dev/null" EXIT
+
 # Red Hat Enterprise Linux 7
 ############################
 if echo ${LINUX_TYPE} | grep -qi "rhel"; then
@@ -119,6 +129,8 @@ else
     >&2 cat /etc/os-release
     exit 1
 fi
+rmdir ${PACKAGES_LOCK} 2>/dev/null
+trap - EXIT
 
 
 ######################
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc.commons;
+
+/**
+ * Single JSON RPC structure of an incoming message already unmarshalled
+ * to a request or to a response. If the structure is neither a request
+ * nor a response both of them are {@code null}.
+ */
+public class JsonRpcEnvelope {
+    private final JsonRpcRequest  request;
+    private final JsonRpcResponse response;
+
+    public JsonRpcEnvelope(JsonRpcRequest request, JsonRpcResponse response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    public boolean isRequest() {
+        return request != null;
+    }
+
+    public boolean isResponse() {
+        return response != null;
+    }
+
+    public JsonRpcRequest getRequest() {
+        return request;
+    }
+
+    public JsonRpcResponse getResponse() {
+        return response;
+    }
+}
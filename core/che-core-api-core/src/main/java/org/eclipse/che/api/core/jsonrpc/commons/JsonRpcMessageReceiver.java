@@ -24,7 +24,8 @@ import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Receives and process messages coming from web socket service. Basically
  * it validates, qualifies and transforms a raw web socket message to a JSON
- * RPC known structure and pass it further to appropriate dispatchers. In case
+ * RPC known structure (all of it is done by {@link JsonRpcUnmarshaller} in
+ * one go) and pass it further to appropriate dispatchers. In case
  * of any {@link JsonRpcException} happens during request/response processing
  * this class is also responsible for an error transmission.
  */
@@ -61,18 +62,25 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
         checkNotNull(message, "Message must not be null");
         checkArgument(!message.isEmpty(), "Message must not be empty");
 
-        LOGGER.debug("Receiving message: " + message + ", from endpoint: " + endpointId);
-        if (!jsonRpcQualifier.isValidJson(message)) {
-            String error = "An error occurred on the server while parsing the JSON text";
-            errorTransmitter.transmit(endpointId, new JsonRpcException(-32700, error));
+        LOGGER.debug("Receiving message: {}, from endpoint: {}", message, endpointId);
+        List<JsonRpcEnvelope> envelopes;
+        try {
+            envelopes = jsonRpcUnmarshaller.unmarshalEnvelopes(message, jsonRpcQualifier);
+        } catch (JsonRpcException e) {
+            errorTransmitter.transmit(endpointId, e);
+            return;
         }
 
-        List<String> messages = jsonRpcUnmarshaller.unmarshalArray(message);
-        for (String innerMessage : messages) {
-            if (jsonRpcQualifier.isJsonRpcRequest(innerMessage)) {
-                requestProcessor.process(() -> processRequest(endpointId, innerMessage));
-            } else if (jsonRpcQualifier.isJsonRpcResponse(innerMessage)) {
-                processResponse(endpointId, innerMessage);
+        for (JsonRpcEnvelope envelope : envelopes) {
+            if (envelope.isRequest()) {
+                JsonRpcRequest request = envelope.getRequest();
+                try {
+                    requestProcessor.process(endpointId, request.getMethod(), () -> processRequest(endpointId, request));
+                } catch (JsonRpcException e) {
+                    transmitError(endpointId, request, e);
+                }
+            } else if (envelope.isResponse()) {
+                responseDispatcher.dispatch(endpointId, envelope.getResponse());
             } else {
                 processError();
             }
@@ -86,22 +94,19 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
         throw exception;
     }
 
-    private void processResponse(String endpointId, String innerMessage) {
-        JsonRpcResponse response = jsonRpcUnmarshaller.unmarshalResponse(innerMessage);
-        responseDispatcher.dispatch(endpointId, response);
-    }
-
-    private void processRequest(String endpointId, String innerMessage) {
-        JsonRpcRequest request = null;
+    private void processRequest(String endpointId, JsonRpcRequest request) {
         try {
-            request = jsonRpcUnmarshaller.unmarshalRequest(innerMessage);
             requestDispatcher.dispatch(endpointId, request);
         } catch (JsonRpcException e) {
-            if (request == null || request.getId() == null) {
-                errorTransmitter.transmit(endpointId, e);
-            } else {
-                errorTransmitter.transmit(endpointId, new JsonRpcException(e.getCode(), e.getMessage(), request.getId()));
-            }
+            transmitError(endpointId, request, e);
+        }
+    }
+
+    private void transmitError(String endpointId, JsonRpcRequest request, JsonRpcException e) {
+        if (request.getId() == null) {
+            errorTransmitter.transmit(endpointId, e);
+        } else {
+            errorTransmitter.transmit(endpointId, new JsonRpcException(e.getCode(), e.getMessage(), request.getId()));
         }
     }
 }
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.jsonrpc.commons;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -43,4 +44,37 @@ public interface JsonRpcUnmarshaller {
      * @return JSON RPC response entity
      */
     JsonRpcResponse unmarshalResponse(String message);
+
+    /**
+     * Unmarshals a message that is a single JSON RPC structure or an array
+     * of them into requests and responses. Default implementation qualifies
+     * and unmarshals each structure separately with help of {@code qualifier},
+     * implementations may do all of it in a single pass over the message.
+     *
+     * @param message
+     *         incoming message
+     * @param qualifier
+     *         qualifier of JSON RPC structures
+     * @return list of unmarshalled structures in order of their appearance
+     * @throws JsonRpcException
+     *         if message is not a valid JSON
+     */
+    default List<JsonRpcEnvelope> unmarshalEnvelopes(String message, JsonRpcQualifier qualifier) throws JsonRpcException {
+        if (!qualifier.isValidJson(message)) {
+            throw new JsonRpcException(-32700, "An error occurred on the server while parsing the JSON text");
+        }
+
+        List<String> messages = unmarshalArray(message);
+        List<JsonRpcEnvelope> envelopes = new ArrayList<>(messages.size());
+        for (String innerMessage : messages) {
+            if (qualifier.isJsonRpcRequest(innerMessage)) {
+                envelopes.add(new JsonRpcEnvelope(unmarshalRequest(innerMessage), null));
+            } else if (qualifier.isJsonRpcResponse(innerMessage)) {
+                envelopes.add(new JsonRpcEnvelope(null, unmarshalResponse(innerMessage)));
+            } else {
+                envelopes.add(new JsonRpcEnvelope(null, null));
+            }
+        }
+        return envelopes;
+    }
 }
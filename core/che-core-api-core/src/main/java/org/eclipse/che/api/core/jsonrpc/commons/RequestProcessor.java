@@ -21,4 +21,19 @@ public interface RequestProcessor {
      * @param runnable runnable to be called for processing of a request
      */
     void process(Runnable runnable);
+
+    /**
+     * Process a runnable interface that handles a request with specified method
+     * received from specified endpoint. Implementation may use endpoint and method
+     * to order and to limit processing of requests, it may reject a request by
+     * throwing {@link JsonRpcException}. By default the endpoint and the method
+     * are ignored.
+     *
+     * @param endpointId endpoint the request is received from
+     * @param method method of the request
+     * @param runnable runnable to be called for processing of a request
+     */
+    default void process(String endpointId, String method, Runnable runnable) {
+        process(runnable);
+    }
 }
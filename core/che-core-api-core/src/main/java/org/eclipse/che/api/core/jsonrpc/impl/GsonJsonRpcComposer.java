@@ -20,6 +20,7 @@ import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResult;
 import org.eclipse.che.dto.server.DtoFactory;
 
 import java.util.List;
+import java.util.StringJoiner;
 
 import static java.util.Collections.emptyList;
 import static org.eclipse.che.api.core.jsonrpc.commons.JsonRpcUtils.cast;
@@ -47,6 +48,10 @@ public class GsonJsonRpcComposer implements JsonRpcComposer {
     }
 
     private <T> T composeOne(Class<T> type, Object paramObject) {
+        if (paramObject instanceof RawJson) {
+            return DtoFactory.getInstance().createDtoFromJson(paramObject.toString(), type);
+        }
+
         if (paramObject instanceof JsonElement) {
             JsonElement jsonElement = (JsonElement)paramObject;
             return DtoFactory.getInstance().createDtoFromJson(jsonElement.toString(), type);
@@ -60,6 +65,14 @@ public class GsonJsonRpcComposer implements JsonRpcComposer {
             return emptyList();
         }
 
+        if (paramsList.get(0) instanceof RawJson) {
+            StringJoiner jsonArray = new StringJoiner(",", "[", "]");
+            for (Object param : paramsList) {
+                jsonArray.add(String.valueOf(param));
+            }
+            return DtoFactory.getInstance().createListDtoFromJson(jsonArray.toString(), type);
+        }
+
         if (paramsList.get(0) instanceof JsonElement) {
             JsonArray jsonArray = new JsonArray();
             for (int i = 0; i < paramsList.size(); i++) {
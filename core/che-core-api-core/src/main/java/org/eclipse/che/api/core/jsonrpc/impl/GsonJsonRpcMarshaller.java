@@ -10,12 +10,10 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.jsonrpc.impl;
 
-import com.google.gson.JsonArray;
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonNull;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import com.google.inject.Inject;
 
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
@@ -27,144 +25,178 @@ import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResult;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonSerializable;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.List;
 
-import static org.eclipse.che.api.core.jsonrpc.commons.JsonRpcUtils.cast;
-
+/**
+ * Writes JSON RPC requests and responses with a {@link JsonWriter}, DTOs
+ * of params and results are serialized straight into the message without
+ * intermediate JSON text or JSON tree. Each thread reuses its own buffer
+ * unless the buffer has grown too large.
+ */
 public class GsonJsonRpcMarshaller implements JsonRpcMarshaller {
+    private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<StringWriter> BUFFERS = ThreadLocal.withInitial(StringWriter::new);
+
     private final JsonParser jsonParser;
+    private final Gson       gson;
 
     @Inject
     public GsonJsonRpcMarshaller(JsonParser jsonParser) {
         this.jsonParser = jsonParser;
+        this.gson = DtoFactory.getInstance().getGson();
     }
 
     @Override
     public String marshall(JsonRpcResponse response) {
-        JsonElement jsonId = getId(response);
-        JsonElement jsonResult = getResult(response);
-        JsonElement jsonError = getError(response);
-
-        return getResponse(jsonId, jsonResult, jsonError).toString();
+        return write(writer -> {
+            writer.beginObject();
+            writer.name("jsonrpc").value("2.0");
+            if (response.hasId()) {
+                writer.name("id").value(response.getId());
+            }
+
+            if (response.hasResult()) {
+                writer.name("result");
+                writeResult(writer, response.getResult());
+            } else {
+                writer.name("error");
+                writeError(writer, response.getError());
+            }
+            writer.endObject();
+        });
     }
 
     @Override
     public String marshall(JsonRpcRequest request) {
-        JsonElement method = getMethod(request);
-        JsonElement id = getId(request);
-        JsonElement params = getParams(request);
-
-        return getRequest(method, id, params).toString();
+        return write(writer -> {
+            writer.beginObject();
+            writer.name("jsonrpc").value("2.0");
+            writer.name("method").value(request.getMethod());
+            if (request.hasId()) {
+                writer.name("id").value(request.getId());
+            }
+
+            if (request.hasParams()) {
+                writer.name("params");
+                writeParams(writer, request.getParams());
+            }
+            writer.endObject();
+        });
     }
 
-    private JsonObject getRequest(JsonElement jsonMethod, JsonElement jsonId, JsonElement jsonParams) {
-        JsonObject jsonRequest = new JsonObject();
-        jsonRequest.addProperty("jsonrpc", "2.0");
-        jsonRequest.add("method", jsonMethod);
-
-        if (jsonId != null) {
-            jsonRequest.add("id", jsonId);
+    private String write(JsonWriting writing) {
+        StringWriter buffer = BUFFERS.get();
+        buffer.getBuffer().setLength(0);
+        try {
+            JsonWriter writer = new JsonWriter(buffer);
+            writer.setLenient(true);
+            writing.write(writer);
+            writer.flush();
+            return buffer.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (buffer.getBuffer().capacity() > MAX_REUSED_BUFFER_SIZE) {
+                BUFFERS.remove();
+            }
         }
+    }
 
-        if (jsonParams != null) {
-            jsonRequest.add("params", jsonParams);
+    private void writeParams(JsonWriter writer, JsonRpcParams params) throws IOException {
+        if (params.isSingle()) {
+            writeOne(writer, params.getOne());
+        } else {
+            writeMany(writer, params.getMany());
         }
-        return jsonRequest;
     }
 
-    private JsonElement getParams(JsonRpcRequest request) {
-        if (!request.hasParams()) {
-            return null;
+    private void writeResult(JsonWriter writer, JsonRpcResult result) throws IOException {
+        if (result.isSingle()) {
+            writeOne(writer, result.getOne());
+        } else {
+            writeMany(writer, result.getMany());
         }
-
-        JsonRpcParams params = request.getParams();
-        return params.isSingle() ? getElement(params.getOne()) : getElements(params.getMany());
     }
 
-    private JsonElement getId(JsonRpcRequest request) {
-        return request.hasId() ? new JsonPrimitive(request.getId()) : null;
-    }
+    private void writeError(JsonWriter writer, JsonRpcError error) throws IOException {
+        if (error == null) {
+            writer.nullValue();
+            return;
+        }
 
-    private JsonPrimitive getMethod(JsonRpcRequest request) {
-        return new JsonPrimitive(request.getMethod());
+        writer.beginObject();
+        writer.name("code").value(error.getCode());
+        writer.name("message").value(error.getMessage());
+        writer.endObject();
     }
 
-    private JsonObject getResponse(JsonElement jsonId, JsonElement jsonResult, JsonElement jsonError) {
-        JsonObject jsonResponse = new JsonObject();
-        jsonResponse.addProperty("jsonrpc", "2.0");
-        if (jsonId != null) {
-            jsonResponse.add("id", jsonId);
+    private void writeMany(JsonWriter writer, List<?> items) throws IOException {
+        writer.beginArray();
+        for (Object item : items) {
+            writeItem(writer, toWritable(item));
         }
+        writer.endArray();
+    }
 
-        if (jsonResult != null) {
-            jsonResponse.add("result", jsonResult);
+    /** Single item is written as is if it is a JSON object, otherwise it is wrapped into an array. */
+    private void writeOne(JsonWriter writer, Object item) throws IOException {
+        Object writable = toWritable(item);
+        if (isJsonObject(writable)) {
+            writeItem(writer, writable);
         } else {
-            jsonResponse.add("error", jsonError);
+            writer.beginArray();
+            writeItem(writer, writable);
+            writer.endArray();
         }
-        return jsonResponse;
     }
 
-    private JsonObject getError(JsonRpcResponse response) {
-        if (!response.hasError()) {
-            return null;
+    private void writeItem(JsonWriter writer, Object item) throws IOException {
+        if (item == null) {
+            writer.nullValue();
+        } else if (item instanceof String) {
+            writer.value((String)item);
+        } else if (item instanceof Boolean) {
+            writer.value(((Boolean)item).booleanValue());
+        } else if (item instanceof Double) {
+            writer.value(((Double)item).doubleValue());
+        } else if (item instanceof JsonSerializable) {
+            gson.toJson(item, item.getClass(), writer);
+        } else if (item instanceof RawJson) {
+            gson.toJson(((RawJson)item).toJsonElement(jsonParser), writer);
+        } else {
+            gson.toJson((JsonElement)item, writer);
         }
-
-        JsonObject jsonError = new JsonObject();
-        JsonRpcError error = response.getError();
-        jsonError.add("code", new JsonPrimitive(error.getCode()));
-        jsonError.add("message", new JsonPrimitive(error.getMessage()));
-        return jsonError;
     }
 
-    private JsonElement getResult(JsonRpcResponse response) {
-        if (!response.hasResult()) {
-            return null;
+    private boolean isJsonObject(Object item) {
+        if (item instanceof JsonSerializable) {
+            return true;
         }
-
-        JsonRpcResult result = response.getResult();
-        return result.isSingle() ? getElement(result.getOne()) : getElements(result.getMany());
-    }
-
-    private JsonElement getId(JsonRpcResponse response) {
-        return response.hasId() ? new JsonPrimitive(response.getId()) : null;
-    }
-
-    private JsonElement getElements(List<?> params) {
-        JsonArray elements = new JsonArray();
-        params.forEach(param -> elements.add(getJsonElement(param)));
-        return elements;
+        if (item instanceof RawJson) {
+            return item.toString().startsWith("{");
+        }
+        return item instanceof JsonElement && ((JsonElement)item).isJsonObject();
     }
 
-    private JsonElement getElement(Object param) {
-        JsonElement jsonElement = getJsonElement(param);
-        if (jsonElement.isJsonObject()) {
-            return jsonElement;
+    /** Items that are neither DTOs nor JSON values are expected to represent JSON by their {@code toString()}. */
+    private Object toWritable(Object item) {
+        if (item == null
+            || item instanceof String
+            || item instanceof Boolean
+            || item instanceof Double
+            || item instanceof JsonSerializable
+            || item instanceof JsonElement
+            || item instanceof RawJson) {
+            return item;
         }
-
-        JsonArray array = new JsonArray();
-        array.add(jsonElement);
-        return array;
+        return jsonParser.parse(item.toString());
     }
-    private JsonElement getJsonElement(Object param) {
-        if (param == null) {
-            return JsonNull.INSTANCE;
-        }
-        if (param instanceof JsonElement) {
-            return cast(param);
-        }
-        if (param instanceof String) {
-            return new JsonPrimitive((String)param);
-        }
-        if (param instanceof Boolean) {
-            return new JsonPrimitive((Boolean)param);
-        }
-        if (param instanceof Double) {
-            return new JsonPrimitive((Double)param);
-        }
-        try {
-            return jsonParser.parse(DtoFactory.getInstance().toJson(param));
-        } catch (IllegalArgumentException e){
-            return jsonParser.parse(param.toString());
-        }
+
+    private interface JsonWriting {
+        void write(JsonWriter writer) throws IOException;
     }
 }
@@ -18,8 +18,11 @@ import com.google.gson.JsonPrimitive;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcEnvelope;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcQualifier;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResult;
@@ -46,6 +49,18 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
         return getArray(message, jsonParser.parse(message).isJsonArray());
     }
 
+    /**
+     * Reads the message in a single pass without building a JSON tree, objects
+     * in params and results are kept as raw JSON until they are composed to DTOs.
+     */
+    @Override
+    public List<JsonRpcEnvelope> unmarshalEnvelopes(String message, JsonRpcQualifier qualifier) throws JsonRpcException {
+        checkNotNull(message, "Message must not be null");
+        checkArgument(!message.isEmpty(), "Message must not be empty");
+
+        return new JsonRpcMessageScanner(message).scan();
+    }
+
     @Override
     public JsonRpcRequest unmarshalRequest(String message) {
         checkNotNull(message, "Message must not be null");
@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcEnvelope;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Reads an incoming message, that is a single JSON RPC structure or an array
+ * of them, in a single pass. The whole message is validated, but only members
+ * of JSON RPC structures are decoded, objects and arrays met in params and
+ * results are kept as {@link RawJson} slices of the message.
+ */
+class JsonRpcMessageScanner {
+    private static final int      PARSE_ERROR = -32700;
+    private static final String[] LITERALS    = {"true", "false", "null"};
+
+    private final String message;
+    private final int    length;
+
+    private int position;
+
+    JsonRpcMessageScanner(String message) {
+        this.message = message;
+        this.length = message.length();
+    }
+
+    List<JsonRpcEnvelope> scan() throws JsonRpcException {
+        skipWhitespaces();
+        List<JsonRpcEnvelope> envelopes;
+        if (peek() == '[') {
+            position++;
+            envelopes = new ArrayList<>();
+            skipWhitespaces();
+            if (peek() == ']') {
+                position++;
+            } else {
+                do {
+                    envelopes.add(readStructure());
+                } while (nextSeparator(']'));
+            }
+        } else {
+            envelopes = singletonList(readStructure());
+        }
+        skipWhitespaces();
+        if (position != length) {
+            throw error("Unexpected data after the end of JSON text");
+        }
+        return envelopes;
+    }
+
+    private JsonRpcEnvelope readStructure() {
+        skipWhitespaces();
+        if (peek() != '{') {
+            skipValue();
+            return new JsonRpcEnvelope(null, null);
+        }
+        position++;
+
+        String id = null;
+        String method = null;
+        boolean hasMethod = false;
+        JsonRpcParams params = null;
+        JsonRpcResult result = null;
+        JsonRpcError error = null;
+
+        skipWhitespaces();
+        if (peek() == '}') {
+            position++;
+        } else {
+            do {
+                String name = readName();
+                switch (name) {
+                    case "id":
+                        id = readPrimitive();
+                        break;
+                    case "method":
+                        hasMethod = true;
+                        method = readPrimitive();
+                        break;
+                    case "params":
+                        params = readParams();
+                        break;
+                    case "result":
+                        result = readResult();
+                        break;
+                    case "error":
+                        error = readError();
+                        break;
+                    default:
+                        skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+
+        if (hasMethod) {
+            return new JsonRpcEnvelope(new JsonRpcRequest(id, method, params), null);
+        }
+        if ((result != null) != (error != null)) {
+            return new JsonRpcEnvelope(null, new JsonRpcResponse(id, result, error));
+        }
+        return new JsonRpcEnvelope(null, null);
+    }
+
+    /** Reads params, top level array is split into separate items. */
+    private JsonRpcParams readParams() {
+        skipWhitespaces();
+        return peek() == '[' ? new JsonRpcParams(readItems()) : new JsonRpcParams(readItem());
+    }
+
+    /** Reads result, top level array is split into separate items. */
+    private JsonRpcResult readResult() {
+        skipWhitespaces();
+        return peek() == '[' ? new JsonRpcResult(readItems()) : new JsonRpcResult(readItem());
+    }
+
+    private List<Object> readItems() {
+        position++;
+        List<Object> items = new ArrayList<>();
+        skipWhitespaces();
+        if (peek() == ']') {
+            position++;
+        } else {
+            do {
+                items.add(readItem());
+            } while (nextSeparator(']'));
+        }
+        return items;
+    }
+
+    private Object readItem() {
+        skipWhitespaces();
+        char c = peek();
+        if (c == '{' || c == '[') {
+            int start = position;
+            skipValue();
+            return new RawJson(message, start, position);
+        }
+        if (c == '"') {
+            return readString();
+        }
+        if (c == 't' || c == 'f') {
+            return Boolean.valueOf(readLiteral());
+        }
+        if (c == 'n') {
+            readLiteral();
+            return null;
+        }
+        return Double.valueOf(readNumber());
+    }
+
+    private JsonRpcError readError() {
+        skipWhitespaces();
+        if (peek() != '{') {
+            throw error("Error member must be an object");
+        }
+        position++;
+        int code = 0;
+        String errorMessage = null;
+        skipWhitespaces();
+        if (peek() == '}') {
+            position++;
+        } else {
+            do {
+                String name = readName();
+                if ("code".equals(name)) {
+                    code = (int)Double.parseDouble(readNumber());
+                } else if ("message".equals(name)) {
+                    errorMessage = readPrimitive();
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+        return new JsonRpcError(code, errorMessage);
+    }
+
+    /** Reads string, number, boolean or null value as a string, {@code null} is read as {@code null}. */
+    private String readPrimitive() {
+        skipWhitespaces();
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == 't' || c == 'f') {
+            return readLiteral();
+        }
+        if (c == 'n') {
+            readLiteral();
+            return null;
+        }
+        if (c == '{' || c == '[') {
+            throw error("Primitive value expected");
+        }
+        return readNumber();
+    }
+
+    private String readName() {
+        skipWhitespaces();
+        if (peek() != '"') {
+            throw error("Member name expected");
+        }
+        String name = readString();
+        skipWhitespaces();
+        if (next() != ':') {
+            throw error("':' expected");
+        }
+        return name;
+    }
+
+    /** Consumes separator of object members or array items, returns {@code false} when {@code end} is met. */
+    private boolean nextSeparator(char end) {
+        skipWhitespaces();
+        char c = next();
+        if (c == ',') {
+            return true;
+        }
+        if (c == end) {
+            return false;
+        }
+        throw error("',' or '" + end + "' expected");
+    }
+
+    private void skipValue() {
+        skipWhitespaces();
+        char c = peek();
+        if (c == '{') {
+            position++;
+            skipWhitespaces();
+            if (peek() == '}') {
+                position++;
+                return;
+            }
+            do {
+                readName();
+                skipValue();
+            } while (nextSeparator('}'));
+        } else if (c == '[') {
+            position++;
+            skipWhitespaces();
+            if (peek() == ']') {
+                position++;
+                return;
+            }
+            do {
+                skipValue();
+            } while (nextSeparator(']'));
+        } else if (c == '"') {
+            skipString();
+        } else if (c == 't' || c == 'f' || c == 'n') {
+            readLiteral();
+        } else {
+            readNumber();
+        }
+    }
+
+    private String readString() {
+        int start = position + 1;
+        boolean escaped = skipString();
+        int end = position - 1;
+        if (!escaped) {
+            return message.substring(start, end);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = message.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            c = message.charAt(++i);
+            switch (c) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    sb.append((char)Integer.parseInt(message.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Skips string and returns {@code true} if it contains escape sequences. */
+    private boolean skipString() {
+        if (next() != '"') {
+            throw error("'\"' expected");
+        }
+        boolean escaped = false;
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return escaped;
+            }
+            if (c < ' ') {
+                throw error("Unescaped control character in string");
+            }
+            if (c == '\\') {
+                escaped = true;
+                c = next();
+                if (c == 'u') {
+                    for (int i = 0; i < 4; i++) {
+                        if (Character.digit(next(), 16) < 0) {
+                            throw error("Invalid unicode escape sequence");
+                        }
+                    }
+                } else if ("\"\\/bfnrt".indexOf(c) < 0) {
+                    throw error("Invalid escape sequence");
+                }
+            }
+        }
+    }
+
+    private String readNumber() {
+        skipWhitespaces();
+        int start = position;
+        if (peek() == '-') {
+            position++;
+        }
+        if (peek() == '0') {
+            position++;
+        } else {
+            skipDigits();
+        }
+        if (position < length && message.charAt(position) == '.') {
+            position++;
+            skipDigits();
+        }
+        if (position < length && (message.charAt(position) == 'e' || message.charAt(position) == 'E')) {
+            position++;
+            if (peek() == '+' || peek() == '-') {
+                position++;
+            }
+            skipDigits();
+        }
+        return message.substring(start, position);
+    }
+
+    private void skipDigits() {
+        int start = position;
+        while (position < length && message.charAt(position) >= '0' && message.charAt(position) <= '9') {
+            position++;
+        }
+        if (start == position) {
+            throw error("Digit expected");
+        }
+    }
+
+    private String readLiteral() {
+        for (String literal : LITERALS) {
+            if (message.startsWith(literal, position)) {
+                position += literal.length();
+                return literal;
+            }
+        }
+        throw error("Unexpected character '" + peek() + "'");
+    }
+
+    private void skipWhitespaces() {
+        while (position < length) {
+            char c = message.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= length) {
+            throw error("Unexpected end of JSON text");
+        }
+        return message.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private JsonRpcException error(String reason) {
+        return new JsonRpcException(PARSE_ERROR, "An error occurred on the server while parsing the JSON text: " + reason +
+                                                 " at position " + position);
+    }
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * JSON object or array that is a part of an incoming message, kept as a
+ * slice of the message text. It is neither parsed nor copied until a
+ * request handler asks for params or result of a specific type.
+ */
+class RawJson {
+    private final String message;
+    private final int    start;
+    private final int    end;
+
+    private String json;
+
+    RawJson(String message, int start, int end) {
+        this.message = message;
+        this.start = start;
+        this.end = end;
+    }
+
+    JsonElement toJsonElement(JsonParser jsonParser) {
+        return jsonParser.parse(toString());
+    }
+
+    @Override
+    public String toString() {
+        if (json == null) {
+            json = message.substring(start, end);
+        }
+        return json;
+    }
+}
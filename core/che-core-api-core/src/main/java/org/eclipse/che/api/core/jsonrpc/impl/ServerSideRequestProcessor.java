@@ -13,35 +13,109 @@ package org.eclipse.che.api.core.jsonrpc.impl;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerManager;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.slf4j.Logger;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
-import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * Processes requests with a fixed number of threads. Requests are processed concurrently in order
+ * they were received, except of requests of methods listed in {@value #ORDERED_METHODS_PROPERTY}.
+ * Such requests received from the same endpoint form a lane and are processed one by one in order
+ * they were received, so a slow request holds back the following ordered requests of its endpoint,
+ * but not requests of other endpoints or requests of other methods. Lanes are served in turns,
+ * after a request is processed its lane goes to the end of the line, so a burst of requests from
+ * one endpoint does not hold back requests of other endpoints.
+ * <p>
+ * Number of requests that wait for processing or are being processed is limited, requests that
+ * exceed the limit are rejected with JSON RPC error {@value #OVERLOADED_ERROR_CODE}. Statistics
+ * of processed requests are logged periodically with debug level.
+ */
 @Singleton
 public class ServerSideRequestProcessor implements RequestProcessor {
+    private static final Logger LOG = getLogger(ServerSideRequestProcessor.class);
+
+    public static final String THREADS_PROPERTY             = "che.core.jsonrpc.processor.threads";
+    public static final String MAX_QUEUED_REQUESTS_PROPERTY = "che.core.jsonrpc.processor.max_queued_requests";
+    public static final String ORDERED_METHODS_PROPERTY     = "che.core.jsonrpc.processor.ordered_methods";
+
+    static final int OVERLOADED_ERROR_CODE = -32000;
+
+    @Inject(optional = true)
+    @Named(THREADS_PROPERTY)
+    private int threads = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    @Inject(optional = true)
+    @Named(MAX_QUEUED_REQUESTS_PROPERTY)
+    private int maxQueuedRequests = 10_000;
+
+    private final Set<String> orderedMethods = new HashSet<>();
+
+    private final RequestHandlerManager         handlerManager;
+    private final Map<String, Lane>             lanes      = new ConcurrentHashMap<>();
+    private final Map<String, MethodStatistics> statistics = new ConcurrentHashMap<>();
+    private final AtomicInteger                 queued     = new AtomicInteger();
+
     private ExecutorService executorService;
 
+    @Inject
+    public ServerSideRequestProcessor(RequestHandlerManager handlerManager) {
+        this.handlerManager = handlerManager;
+    }
+
+    ServerSideRequestProcessor(RequestHandlerManager handlerManager, int threads, int maxQueuedRequests, String... orderedMethods) {
+        this(handlerManager);
+        this.threads = threads;
+        this.maxQueuedRequests = maxQueuedRequests;
+        setOrderedMethods(orderedMethods);
+    }
+
+    /** Methods which requests received from the same endpoint are processed one by one in order they were received. */
+    @Inject(optional = true)
+    void setOrderedMethods(@Named(ORDERED_METHODS_PROPERTY) String[] orderedMethods) {
+        this.orderedMethods.addAll(asList(orderedMethods));
+    }
+
     @PostConstruct
-    private void postConstruct(){
+    void postConstruct() {
         ThreadFactory factory = new ThreadFactoryBuilder().setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
-                                                          .setNameFormat(ServerSideRequestProcessor.class.getSimpleName())
+                                                          .setNameFormat(ServerSideRequestProcessor.class.getSimpleName() + "-%d")
                                                           .setDaemon(true)
                                                           .build();
 
-        executorService = newCachedThreadPool(factory);
+        executorService = new ThreadPoolExecutor(threads, threads, 0L, MILLISECONDS, new LinkedBlockingQueue<>(), factory);
     }
 
     @PreDestroy
-    private void preDestroy() {
+    void preDestroy() {
         executorService.shutdown();
         try {
             if (executorService.awaitTermination(5, SECONDS)) {
@@ -56,6 +130,172 @@ public class ServerSideRequestProcessor implements RequestProcessor {
 
     @Override
     public void process(Runnable runnable) {
-        executorService.execute(runnable);
+        reserve();
+        executorService.execute(() -> {
+            try {
+                runnable.run();
+            } finally {
+                queued.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public void process(String endpointId, String method, Runnable runnable) {
+        reserve();
+        final Request request = new Request(method, runnable);
+        if (!orderedMethods.contains(method)) {
+            executorService.execute(request::process);
+            return;
+        }
+        while (!lanes.computeIfAbsent(endpointId, Lane::new).offer(request)) {
+            // lane was released by another thread right after it was found, create a new one
+        }
+    }
+
+    /** Returns number of requests that wait for processing or are being processed. */
+    public int getQueuedRequests() {
+        return queued.get();
+    }
+
+    /** Returns statistics of processed requests by their methods, only methods with registered handlers are counted. */
+    public Map<String, MethodStatistics> getStatistics() {
+        return unmodifiableMap(statistics);
+    }
+
+    @ScheduleRate(initialDelay = 1, period = 1, unit = MINUTES)
+    void logStatistics() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("JSON RPC requests waiting for processing or being processed: {}", queued.get());
+            statistics.forEach((method, methodStatistics) -> LOG.debug(
+                    "JSON RPC method '{}': {} requests, wait time total {} ms max {} ms, handling time total {} ms",
+                    method, methodStatistics.getRequests(), methodStatistics.getTotalWaitTime(),
+                    methodStatistics.getMaxWaitTime(), methodStatistics.getTotalHandlingTime()));
+        }
+    }
+
+    private void reserve() {
+        if (queued.incrementAndGet() > maxQueuedRequests) {
+            queued.decrementAndGet();
+            throw new JsonRpcException(OVERLOADED_ERROR_CODE, "Server is overloaded, too many requests are waiting for processing");
+        }
+    }
+
+    /** Time that requests of a method spent waiting for processing and being processed. */
+    public static class MethodStatistics {
+        private final LongAdder       requests           = new LongAdder();
+        private final LongAdder       totalWaitNanos     = new LongAdder();
+        private final LongAdder       totalHandlingNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos       = new LongAccumulator(Math::max, 0);
+
+        void add(long waitNanos, long handlingNanos) {
+            requests.increment();
+            totalWaitNanos.add(waitNanos);
+            totalHandlingNanos.add(handlingNanos);
+            maxWaitNanos.accumulate(waitNanos);
+        }
+
+        /** Returns number of processed requests. */
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        /** Returns total time that requests waited for processing, in milliseconds. */
+        public long getTotalWaitTime() {
+            return NANOSECONDS.toMillis(totalWaitNanos.sum());
+        }
+
+        /** Returns the longest time that a request waited for processing, in milliseconds. */
+        public long getMaxWaitTime() {
+            return NANOSECONDS.toMillis(maxWaitNanos.get());
+        }
+
+        /** Returns total time of processing of requests, in milliseconds. */
+        public long getTotalHandlingTime() {
+            return NANOSECONDS.toMillis(totalHandlingNanos.sum());
+        }
+    }
+
+    private class Request {
+        private final String   method;
+        private final Runnable runnable;
+        private final long     received;
+
+        Request(String method, Runnable runnable) {
+            this.method = method;
+            this.runnable = runnable;
+            this.received = System.nanoTime();
+        }
+
+        void process() {
+            final long started = System.nanoTime();
+            try {
+                runnable.run();
+            } catch (RuntimeException e) {
+                LOG.error("Error while processing request of method '{}'", method, e);
+            } finally {
+                if (handlerManager.isRegistered(method)) {
+                    statistics.computeIfAbsent(method, m -> new MethodStatistics()).add(started - received, System.nanoTime() - started);
+                }
+                queued.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Requests of ordered methods received from one endpoint. The lane is scheduled for execution when its
+     * first request is offered and is released once all its requests are processed.
+     */
+    private class Lane implements Runnable {
+        private final String         key;
+        private final Deque<Request> requests = new ArrayDeque<>();
+
+        private boolean scheduled;
+        private boolean released;
+
+        Lane(String key) {
+            this.key = key;
+        }
+
+        /** Adds request to the lane, returns {@code false} if the lane is released and can't accept requests anymore. */
+        boolean offer(Request request) {
+            synchronized (this) {
+                if (released) {
+                    return false;
+                }
+                requests.add(request);
+                if (scheduled) {
+                    return true;
+                }
+                scheduled = true;
+            }
+            executorService.execute(this);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            final Request request;
+            synchronized (this) {
+                request = requests.poll();
+            }
+            try {
+                request.process();
+            } finally {
+                final boolean hasMore;
+                synchronized (this) {
+                    hasMore = !requests.isEmpty();
+                    if (!hasMore) {
+                        scheduled = false;
+                        released = true;
+                    }
+                }
+                if (hasMore) {
+                    executorService.execute(this);
+                } else {
+                    lanes.remove(key, this);
+                }
+            }
+        }
     }
 }
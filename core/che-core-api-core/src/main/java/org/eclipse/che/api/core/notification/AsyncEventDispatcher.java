@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Delivers events to {@link AsyncEventSubscriber}s. Each pair of subscriber and partition key
+ * is bound to one of stripes, every stripe has its own thread and delivers events one by one,
+ * that keeps events of a partition in order. Number of events that wait for delivery in a stripe
+ * is limited, when the limit is reached publisher waits until there is room for the event.
+ * When dispatcher is stopped it doesn't accept events any more and delivers the events which are
+ * already waiting for delivery, those that are not delivered within {@link #STOP_TIMEOUT_MILLIS}
+ * are dropped and their number is logged.
+ */
+class AsyncEventDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEventDispatcher.class);
+
+    static final long STOP_TIMEOUT_MILLIS = SECONDS.toMillis(5);
+
+    private final Stripe[]                                                                   stripes;
+    private final int                                                                        queueSize;
+    private final long                                                                       publishTimeoutMillis;
+    private final Map<EventSubscriber<?>, Map<Class<?>, EventService.SubscriberStatistics>> statistics;
+
+    private volatile boolean stopped;
+
+    AsyncEventDispatcher(int threads, int queueSize, long publishTimeoutMillis) {
+        this.queueSize = queueSize;
+        this.publishTimeoutMillis = publishTimeoutMillis;
+        this.statistics = new ConcurrentHashMap<>();
+        final ThreadFactory factory = new ThreadFactoryBuilder().setNameFormat("EventServiceAsyncDispatcher-%d")
+                                                                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                                                                .setDaemon(true)
+                                                                .build();
+        stripes = new Stripe[threads];
+        for (int i = 0; i < threads; i++) {
+            stripes[i] = new Stripe();
+            stripes[i].thread = factory.newThread(stripes[i]);
+            stripes[i].thread.start();
+        }
+    }
+
+    /**
+     * Passes event to a stripe of the subscriber and the event's partition.
+     *
+     * @param subscriber
+     *         subscriber to deliver event to
+     * @param eventType
+     *         type of events the subscriber is subscribed to, statistics of delivery are collected by it
+     * @param event
+     *         event to deliver
+     */
+    @SuppressWarnings("unchecked")
+    void dispatch(AsyncEventSubscriber subscriber, Class<?> eventType, Object event) {
+        final Object partitionKey = subscriber.getPartitionKey(event);
+        final int hash = 31 * System.identityHashCode(subscriber) + (partitionKey == null ? 0 : partitionKey.hashCode());
+        final Stripe stripe = stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+        final EventService.SubscriberStatistics subscriberStatistics =
+                statistics.computeIfAbsent(subscriber, s -> new ConcurrentHashMap<>())
+                          .computeIfAbsent(eventType, t -> new EventService.SubscriberStatistics());
+
+        final long published = System.nanoTime();
+        final Runnable delivery = () -> {
+            final long started = System.nanoTime();
+            try {
+                LOG.debug("Publish event {} for {}", event, subscriber);
+                subscriber.onEvent(event);
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            } finally {
+                subscriberStatistics.add(started - published, System.nanoTime() - started);
+            }
+        };
+        if (!stripe.offer(delivery)) {
+            subscriberStatistics.drop();
+            if (stopped) {
+                LOG.warn("Event {} is not delivered to {}, delivery of events is stopped", event, subscriber);
+            } else {
+                LOG.error("Event {} is not delivered to {}, too many events are waiting for delivery", event, subscriber);
+            }
+        }
+    }
+
+    /** Returns statistics of delivery by subscribers and types of events they are subscribed to. */
+    Map<EventSubscriber<?>, Map<Class<?>, EventService.SubscriberStatistics>> getStatistics() {
+        final Map<EventSubscriber<?>, Map<Class<?>, EventService.SubscriberStatistics>> copy = new HashMap<>();
+        statistics.forEach((subscriber, byEventType) -> copy.put(subscriber, unmodifiableMap(byEventType)));
+        return copy;
+    }
+
+    /** Drops statistics of the subscriber which is unsubscribed from events of the given type. */
+    void remove(EventSubscriber<?> subscriber, Class<?> eventType) {
+        statistics.computeIfPresent(subscriber, (s, byEventType) -> {
+            byEventType.remove(eventType);
+            return byEventType.isEmpty() ? null : byEventType;
+        });
+    }
+
+    /**
+     * Stops accepting events and waits up to {@link #STOP_TIMEOUT_MILLIS} until events which wait
+     * for delivery are delivered, then stops dispatching threads and drops the rest of events.
+     */
+    void stop() {
+        stopped = true;
+        for (Stripe stripe : stripes) {
+            stripe.stop();
+        }
+        final long deadline = System.nanoTime() + MILLISECONDS.toNanos(STOP_TIMEOUT_MILLIS);
+        try {
+            for (Stripe stripe : stripes) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining > 0 && stripe.thread != Thread.currentThread()) {
+                    stripe.thread.join(Math.max(1, NANOSECONDS.toMillis(remaining)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int dropped = 0;
+        for (Stripe stripe : stripes) {
+            dropped += stripe.clear();
+            stripe.thread.interrupt();
+        }
+        if (dropped > 0) {
+            LOG.warn("{} events are not delivered to asynchronous subscribers, they were not delivered within {} ms after stop",
+                     dropped, STOP_TIMEOUT_MILLIS);
+        }
+    }
+
+    private class Stripe implements Runnable {
+        private final Deque<Runnable> deliveries = new ArrayDeque<>();
+        private final ReentrantLock   lock       = new ReentrantLock();
+        private final Condition       notEmpty   = lock.newCondition();
+        private final Condition       notFull    = lock.newCondition();
+
+        private Thread  thread;
+        private boolean stopped;
+
+        /**
+         * Adds delivery to the stripe, waits if the stripe is full. Stripe's own thread never waits,
+         * so subscriber may publish events without risk of deadlock. Returns {@code false} if there
+         * is no room for the delivery or the stripe is stopped.
+         */
+        boolean offer(Runnable delivery) {
+            lock.lock();
+            try {
+                if (Thread.currentThread() != thread) {
+                    long nanos = MILLISECONDS.toNanos(publishTimeoutMillis);
+                    while (!stopped && deliveries.size() >= queueSize) {
+                        if (nanos <= 0) {
+                            return false;
+                        }
+                        nanos = notFull.awaitNanos(nanos);
+                    }
+                }
+                if (stopped) {
+                    return false;
+                }
+                deliveries.add(delivery);
+                notEmpty.signal();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Stops accepting deliveries, the thread ends once all the accepted deliveries are done. */
+        void stop() {
+            lock.lock();
+            try {
+                stopped = true;
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Drops deliveries which are not done yet, returns their number. */
+        int clear() {
+            lock.lock();
+            try {
+                final int size = deliveries.size();
+                deliveries.clear();
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                final Runnable delivery;
+                lock.lock();
+                try {
+                    while (deliveries.isEmpty()) {
+                        if (stopped) {
+                            return;
+                        }
+                        notEmpty.await();
+                    }
+                    delivery = deliveries.poll();
+                    notFull.signal();
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+                delivery.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+/**
+ * Receives notification events from EventService asynchronously, {@link #onEvent(Object)}
+ * is called by one of EventService's dispatching threads rather than by the thread which
+ * published an event. Events are delivered to the subscriber in order they were published
+ * if they belong to the same partition, see {@link #getPartitionKey(Object)}.
+ *
+ * @see EventService
+ */
+public interface AsyncEventSubscriber<T> extends EventSubscriber<T> {
+    /**
+     * Returns key of partition the event belongs to, e.g. identifier of workspace the event
+     * is related to. Events of different partitions may be delivered concurrently.
+     * By default all events belong to the same partition.
+     */
+    default Object getPartitionKey(T event) {
+        return null;
+    }
+}
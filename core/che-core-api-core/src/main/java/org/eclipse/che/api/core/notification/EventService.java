@@ -13,20 +13,30 @@ package org.eclipse.che.api.core.notification;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +50,10 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * Subscribers are called by the thread which publishes an event, except {@link AsyncEventSubscriber}s
+ * which are called by dispatching threads of EventService. Number of events that wait for delivery
+ * to asynchronous subscribers is limited, when the limit is reached publisher waits until
+ * there is room for the event.
  *
  * @author andrew00x
  */
@@ -51,9 +65,30 @@ public class EventService {
     private static final int CACHE_MASK = CACHE_NUM - 1;
     private static final int SEG_SIZE   = 32;
 
+    public static final String ASYNC_THREADS_PROPERTY         = "che.core.event_service.async.threads";
+    public static final String ASYNC_QUEUE_SIZE_PROPERTY      = "che.core.event_service.async.queue_size";
+    public static final String ASYNC_PUBLISH_TIMEOUT_PROPERTY = "che.core.event_service.async.publish_timeout_ms";
+
     private final LoadingCache<Class<?>, Set<Class<?>>>[]       typeCache;
     private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
 
+    /** Number of threads that deliver events to asynchronous subscribers. */
+    @Inject(optional = true)
+    @Named(ASYNC_THREADS_PROPERTY)
+    private int asyncThreads = Runtime.getRuntime().availableProcessors();
+
+    /** Maximal number of events that wait for delivery in one dispatching thread. */
+    @Inject(optional = true)
+    @Named(ASYNC_QUEUE_SIZE_PROPERTY)
+    private int asyncQueueSize = 10_000;
+
+    /** How long publisher waits for room in a full queue before the event is dropped. */
+    @Inject(optional = true)
+    @Named(ASYNC_PUBLISH_TIMEOUT_PROPERTY)
+    private long asyncPublishTimeoutMillis = 10_000;
+
+    private volatile AsyncEventDispatcher asyncDispatcher;
+
     @SuppressWarnings("unchecked")
     public EventService() {
         subscribersByEventType = new ConcurrentHashMap<>();
@@ -101,6 +136,10 @@ public class EventService {
             final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
             if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
                 for (EventSubscriber eventSubscriber : eventSubscribers) {
+                    if (eventSubscriber instanceof AsyncEventSubscriber) {
+                        asyncDispatcher.dispatch((AsyncEventSubscriber)eventSubscriber, clazz, event);
+                        continue;
+                    }
                     try {
                         LOG.debug("Publish event {} for {}", event, eventSubscriber);
                         eventSubscriber.onEvent(event);
@@ -136,7 +175,36 @@ public class EventService {
         doSubscribe(subscriber, eventType);
     }
 
+    /**
+     * Returns statistics of event delivery to asynchronous subscribers by types of events they are subscribed to.
+     *
+     * @see AsyncEventSubscriber
+     */
+    public Map<EventSubscriber<?>, Map<Class<?>, SubscriberStatistics>> getAsyncSubscriberStatistics() {
+        final AsyncEventDispatcher dispatcher = asyncDispatcher;
+        return dispatcher == null ? emptyMap() : unmodifiableMap(dispatcher.getStatistics());
+    }
+
+    /**
+     * Stops threads that deliver events to asynchronous subscribers, events which already wait for
+     * delivery are delivered if it takes no longer than a few seconds, otherwise they are dropped.
+     */
+    @PreDestroy
+    public void stop() {
+        final AsyncEventDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
     private void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
+        if (subscriber instanceof AsyncEventSubscriber && asyncDispatcher == null) {
+            synchronized (this) {
+                if (asyncDispatcher == null) {
+                    asyncDispatcher = new AsyncEventDispatcher(asyncThreads, asyncQueueSize, asyncPublishTimeoutMillis);
+                }
+            }
+        }
         Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries == null) {
             Set<EventSubscriber> newEntries = new CopyOnWriteArraySet<>();
@@ -171,6 +239,9 @@ public class EventService {
                 if (entries.isEmpty()) {
                     subscribersByEventType.remove(eventType);
                 }
+                if (subscriber instanceof AsyncEventSubscriber) {
+                    asyncDispatcher.remove(subscriber, eventType);
+                }
             }
         }
     }
@@ -183,7 +254,7 @@ public class EventService {
                 if (type instanceof ParameterizedType) {
                     final ParameterizedType parameterizedType = (ParameterizedType)type;
                     final Type rawType = parameterizedType.getRawType();
-                    if (EventSubscriber.class == rawType) {
+                    if (EventSubscriber.class == rawType || AsyncEventSubscriber.class == rawType) {
                         final Type[] typeArguments = parameterizedType.getActualTypeArguments();
                         if (typeArguments.length == 1) {
                             if (typeArguments[0] instanceof Class) {
@@ -200,4 +271,49 @@ public class EventService {
         }
         return eventType;
     }
+
+    /** Time that events spent waiting for delivery to an asynchronous subscriber and being handled by it. */
+    public static class SubscriberStatistics {
+        private final LongAdder       events             = new LongAdder();
+        private final LongAdder       droppedEvents      = new LongAdder();
+        private final LongAdder       totalWaitNanos     = new LongAdder();
+        private final LongAdder       totalHandlingNanos = new LongAdder();
+        private final LongAccumulator maxHandlingNanos   = new LongAccumulator(Math::max, 0);
+
+        void add(long waitNanos, long handlingNanos) {
+            events.increment();
+            totalWaitNanos.add(waitNanos);
+            totalHandlingNanos.add(handlingNanos);
+            maxHandlingNanos.accumulate(handlingNanos);
+        }
+
+        void drop() {
+            droppedEvents.increment();
+        }
+
+        /** Returns number of events delivered to the subscriber. */
+        public long getEvents() {
+            return events.sum();
+        }
+
+        /** Returns number of events that were not delivered because too many events were waiting for delivery. */
+        public long getDroppedEvents() {
+            return droppedEvents.sum();
+        }
+
+        /** Returns total time that events waited for delivery, in milliseconds. */
+        public long getTotalWaitTime() {
+            return NANOSECONDS.toMillis(totalWaitNanos.sum());
+        }
+
+        /** Returns total time of handling of events by the subscriber, in milliseconds. */
+        public long getTotalHandlingTime() {
+            return NANOSECONDS.toMillis(totalHandlingNanos.sum());
+        }
+
+        /** Returns the longest time of handling of an event by the subscriber, in milliseconds. */
+        public long getMaxHandlingTime() {
+            return NANOSECONDS.toMillis(maxHandlingNanos.get());
+        }
+    }
 }
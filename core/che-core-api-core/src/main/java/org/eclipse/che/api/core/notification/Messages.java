@@ -11,9 +11,11 @@
 package org.eclipse.che.api.core.notification;
 
 import org.eclipse.che.commons.lang.NameGenerator;
+import org.everrest.core.impl.provider.json.ArrayValue;
 import org.everrest.core.impl.provider.json.JsonGenerator;
 import org.everrest.core.impl.provider.json.JsonParser;
 import org.everrest.core.impl.provider.json.JsonValue;
+import org.everrest.core.impl.provider.json.ObjectValue;
 import org.everrest.core.impl.provider.json.JsonWriter;
 import org.everrest.core.impl.provider.json.ObjectBuilder;
 import org.everrest.core.impl.provider.json.StringValue;
@@ -25,6 +27,10 @@ import org.everrest.websockets.message.RestOutputMessage;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.MediaType;
@@ -33,6 +39,12 @@ import javax.ws.rs.core.MediaType;
  * @author andrew00x
  */
 class Messages {
+    /**
+     * Field of the object which carries a batch of events. Batch is wrapped in an object so that subscribers,
+     * e.g. IDE message bus, can tell it from a single event without parsing the body of every message.
+     */
+    static final String BATCH_FIELD = "$batch";
+
     static RestInputMessage clientMessage(Object event) throws Exception {
         RestInputMessage message = new RestInputMessage();
         message.setBody(toJson(event));
@@ -55,8 +67,51 @@ class Messages {
         return message;
     }
 
-    static Object restoreEventFromBroadcastMessage(RestOutputMessage message) throws Exception {
-        return fromJson(message.getBody());
+    /**
+     * Creates message which contains all the given events serialized as JSON array in the {@value #BATCH_FIELD}
+     * field of an object. Single event is sent the same way as {@link #broadcastMessage(String, Object)} does.
+     */
+    static ChannelBroadcastMessage broadcastMessage(String channel, List<?> events) throws Exception {
+        if (events.size() == 1) {
+            return broadcastMessage(channel, events.get(0));
+        }
+        final JsonValue array = new ArrayValue();
+        for (Object event : events) {
+            array.addElement(toJsonValue(event));
+        }
+        final JsonValue json = new ObjectValue();
+        json.addElement(BATCH_FIELD, array);
+        final ChannelBroadcastMessage message = new ChannelBroadcastMessage();
+        message.setBody(write(json));
+        message.setChannel(channel);
+        return message;
+    }
+
+    /** Restores events from message which contains either single event or batch of events. */
+    static List<Object> restoreEventsFromBroadcastMessage(RestOutputMessage message) throws Exception {
+        final String body = message.getBody();
+        if (body == null || body.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final JsonParser parser = new JsonParser();
+        parser.parse(new StringReader(body));
+        final JsonValue node = parser.getJsonObject();
+        final JsonValue batch = node.getElement(BATCH_FIELD);
+        final List<Object> events = new ArrayList<>();
+        if (batch != null && batch.isArray()) {
+            for (Iterator<JsonValue> it = batch.getElements(); it.hasNext(); ) {
+                final Object event = fromJsonValue(it.next());
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+        } else {
+            final Object event = fromJsonValue(node);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
     }
 
     static Object restoreEventFromClientMessage(String message) throws Exception {
@@ -67,9 +122,17 @@ class Messages {
     }
 
     private static String toJson(Object event) throws Exception {
+        return write(toJsonValue(event));
+    }
+
+    private static JsonValue toJsonValue(Object event) throws Exception {
         final String type = event.getClass().getName();
         final JsonValue json = JsonGenerator.createJsonObject(event);
         json.addElement("$type", new StringValue(type));
+        return json;
+    }
+
+    private static String write(JsonValue json) throws Exception {
         final Writer w = new StringWriter();
         json.writeTo(new JsonWriter(w));
         return w.toString();
@@ -81,7 +144,10 @@ class Messages {
         }
         final JsonParser parser = new JsonParser();
         parser.parse(new StringReader(json));
-        final JsonValue node = parser.getJsonObject();
+        return fromJsonValue(parser.getJsonObject());
+    }
+
+    private static Object fromJsonValue(JsonValue node) throws Exception {
         final JsonValue typeNode = node.getElement("$type");
         final String type;
         if (typeNode == null || (type = typeNode.getStringValue()) == null) {
@@ -208,8 +208,7 @@ public final class WSocketEventBusClient {
                         if ("x-everrest-websocket-channel".equals(header.getName())) {
                             final String channel = header.getValue();
                             if (channel != null && channels.contains(channel)) {
-                                final Object event = Messages.restoreEventFromBroadcastMessage(message);
-                                if (event != null) {
+                                for (Object event : Messages.restoreEventsFromBroadcastMessage(message)) {
                                     eventService.publish(event);
                                 }
                             }
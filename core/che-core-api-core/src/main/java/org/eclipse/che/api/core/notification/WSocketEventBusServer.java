@@ -10,21 +10,42 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.notification;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.everrest.websockets.WSConnectionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.eclipse.che.commons.annotation.Nullable;
 import javax.annotation.PostConstruct;
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.core.MediaType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 /**
+ * Propagates server events into websocket channels named by {@link EventOrigin}.
+ *
+ * <p>Events of the same channel which are propagated within {@code che.core.event_bus.batch_delay_ms} are
+ * sent as a single message with JSON array of events, batch is sent earlier if it reaches
+ * {@code che.core.event_bus.max_batch_size} events. Batch of a single event is sent as plain event message,
+ * batches are unpacked by {@link WSocketEventBusClient} and by IDE message bus. Zero delay turns batching off.
+ *
  * @author andrew00x
  */
 @Singleton
@@ -32,9 +53,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public final class WSocketEventBusServer {
     private static final Logger LOG = LoggerFactory.getLogger(WSocketEventBusServer.class);
 
-    private final EventService                 eventService;
-    private final ServerEventPropagationPolicy policy;
-    private final AtomicBoolean                start;
+    private final EventService                        eventService;
+    private final ServerEventPropagationPolicy        policy;
+    private final AtomicBoolean                       start;
+    private final ConcurrentMap<String, ChannelBatch> batches;
+
+    @Inject(optional = true)
+    @Named("che.core.event_bus.batch_delay_ms")
+    private long batchDelayMs = 50;
+
+    @Inject(optional = true)
+    @Named("che.core.event_bus.max_batch_size")
+    private int maxBatchSize = 500;
+
+    private ScheduledExecutorService scheduler;
 
     @Inject
     public WSocketEventBusServer(EventService eventService, @Nullable ServerEventPropagationPolicy policy) {
@@ -42,6 +74,7 @@ public final class WSocketEventBusServer {
         this.policy = policy;
 
         start = new AtomicBoolean(false);
+        batches = new ConcurrentHashMap<>();
     }
 
     @POST
@@ -61,6 +94,13 @@ public final class WSocketEventBusServer {
     void start() {
         if (start.compareAndSet(false, true)) {
             if (policy != null) {
+                if (batchDelayMs > 0) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(
+                            new ThreadFactoryBuilder().setNameFormat("WSocketEventBusServer-batches")
+                                                      .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                                                      .setDaemon(true)
+                                                      .build());
+                }
                 eventService.subscribe(new EventSubscriber<Object>() {
                     @Override
                     public void onEvent(Object event) {
@@ -71,10 +111,27 @@ public final class WSocketEventBusServer {
         }
     }
 
+    @PreDestroy
+    void stop() {
+        if (start.compareAndSet(true, false) && scheduler != null) {
+            scheduler.shutdown();
+            for (ChannelBatch batch : batches.values()) {
+                batch.flush();
+            }
+        }
+    }
+
     protected void propagate(Object event) {
         if (policy.shouldPropagated(event)) {
             try {
-                WSConnectionContext.sendMessage(Messages.broadcastMessage(resolveChannelName(event), event));
+                final String channel = resolveChannelName(event);
+                if (scheduler == null) {
+                    WSConnectionContext.sendMessage(Messages.broadcastMessage(channel, event));
+                } else {
+                    while (!batches.computeIfAbsent(channel, ChannelBatch::new).add(event)) {
+                        // batch is being sent, the next one is created for the event
+                    }
+                }
             } catch (Exception e) {
                 LOG.error(e.getMessage(), e);
             }
@@ -88,4 +145,66 @@ public final class WSocketEventBusServer {
         }
         return eventOrigin.value();
     }
+
+    /**
+     * Events of the channel collected since the first of them was propagated.
+     * Once the batch is released it doesn't accept events any more and is removed from {@link #batches}.
+     */
+    private class ChannelBatch {
+        final String       channel;
+        final List<Object> events;
+
+        boolean released;
+
+        ChannelBatch(String channel) {
+            this.channel = channel;
+            this.events = new ArrayList<>();
+        }
+
+        synchronized boolean add(Object event) {
+            if (released) {
+                return false;
+            }
+            events.add(event);
+            if (events.size() >= maxBatchSize) {
+                release();
+                submit(this::send, 0);
+            } else if (events.size() == 1) {
+                submit(this::flush, batchDelayMs);
+            }
+            return true;
+        }
+
+        void flush() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                release();
+            }
+            send();
+        }
+
+        private void release() {
+            released = true;
+            batches.remove(channel, this);
+        }
+
+        private void submit(Runnable task, long delayMs) {
+            try {
+                scheduler.schedule(task, delayMs, MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // server is being stopped, batch is sent by the caller
+                task.run();
+            }
+        }
+
+        private void send() {
+            try {
+                WSConnectionContext.sendMessage(Messages.broadcastMessage(channel, events));
+            } catch (Exception e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
 }
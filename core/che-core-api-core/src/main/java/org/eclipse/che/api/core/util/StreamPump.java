@@ -10,33 +10,53 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.util;
 
-import java.io.BufferedReader;
+import org.eclipse.che.commons.lang.execution.OutputPoller;
+
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.List;
 
-/** @author andrew00x */
-public final class StreamPump implements Runnable {
+/**
+ * Pumps output of the process into {@link LineConsumer}.
+ * Output is read by the shared {@link OutputPoller} thread and lines are passed to the consumer
+ * in batches, see {@link LineConsumer#writeLines(List)}.
+ *
+ * @author andrew00x
+ */
+public final class StreamPump {
 
-    private BufferedReader bufferedReader;
-    private LineConsumer   lineConsumer;
+    private OutputPoller.Source source;
 
     private Exception exception;
     private boolean   done;
 
     public synchronized void start(Process process, LineConsumer lineConsumer) {
-        this.lineConsumer = lineConsumer;
-        bufferedReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        final Thread t = new Thread(this, "StreamPump");
-        t.setDaemon(true);
-        t.start();
+        source = new OutputPoller.Source(new InputStreamReader(process.getInputStream()), false) {
+            @Override
+            protected void onLines(List<String> lines) throws IOException {
+                lineConsumer.writeLines(lines);
+            }
+
+            @Override
+            protected boolean isInputFinished() {
+                return !process.isAlive();
+            }
+
+            @Override
+            protected void onClosed(IOException error) {
+                synchronized (StreamPump.this) {
+                    exception = error;
+                    done = true;
+                    StreamPump.this.notifyAll();
+                }
+            }
+        };
+        OutputPoller.getDefault().register(source);
     }
 
+    /** Reads output which is already available and stops pumping. */
     public synchronized void stop() {
-        // Not clear do we need close original stream, but since it was wrapped by BufferedReader close it anyway.
-        try {
-            bufferedReader.close();
-        } catch (IOException ignored) {
-        }
+        source.stop();
     }
 
     public synchronized void await() throws InterruptedException {
@@ -49,28 +69,11 @@ public final class StreamPump implements Runnable {
         return done;
     }
 
-    public boolean hasError() {
+    public synchronized boolean hasError() {
         return null != exception;
     }
 
-    public Exception getException() {
+    public synchronized Exception getException() {
         return exception;
     }
-
-    @Override
-    public void run() {
-        String line;
-        try {
-            while ((line = bufferedReader.readLine()) != null) {
-                lineConsumer.writeLine(line);
-            }
-        } catch (IOException e) {
-            exception = e;
-        } finally {
-            synchronized (this) {
-                done = true;
-                notifyAll();
-            }
-        }
-    }
 }
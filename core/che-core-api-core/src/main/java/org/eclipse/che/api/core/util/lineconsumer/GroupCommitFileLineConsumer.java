@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util.lineconsumer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.util.LineConsumer;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Consumes logs and writes them into file in groups.
+ *
+ * <p>Lines are put into a non-blocking queue and written to the file with a single write operation
+ * when either {@code flushThreshold} characters are pending or {@code flushIntervalMs} elapsed since
+ * the consumer was scheduled for the last time. The thread which exceeds the threshold writes the group
+ * itself unless another thread is already writing, so producers never wait for each other.
+ *
+ * <p>When {@code maxFileSize} is positive, the file is rotated before it grows beyond that size:
+ * current content is moved to the file with the {@code .1} suffix (previous backup is replaced)
+ * and writing continues into the empty file.
+ *
+ * <p>This implementation is thread safe. Lines written concurrently with {@link #close()} may be skipped.
+ */
+public class GroupCommitFileLineConsumer implements LineConsumer {
+    private static final Logger LOG = getLogger(GroupCommitFileLineConsumer.class);
+
+    public static final int  DEFAULT_FLUSH_THRESHOLD   = 8 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 500;
+    public static final long DEFAULT_MAX_FILE_SIZE     = 0;
+
+    private static final ScheduledExecutorService FLUSHER =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("GroupCommitFileLineConsumer")
+                                                                                 .setDaemon(true)
+                                                                                 .build());
+
+    private final File               file;
+    private final File               backup;
+    private final int                flushThreshold;
+    private final long               maxFileSize;
+    private final Charset            charset;
+    private final Queue<String>      pending;
+    private final AtomicInteger      pendingChars;
+    private final ReentrantLock      flushLock;
+    private final ScheduledFuture<?> flushTask;
+
+    private FileChannel channel;
+    private long        fileSize;
+
+    private volatile boolean isOpen;
+
+    public GroupCommitFileLineConsumer(File file) throws IOException {
+        this(file, DEFAULT_FLUSH_THRESHOLD, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_MAX_FILE_SIZE);
+    }
+
+    /**
+     * @param file
+     *         file to write lines into, existing content is truncated
+     * @param flushThreshold
+     *         number of pending characters which causes immediate write of the group
+     * @param flushIntervalMs
+     *         max time in milliseconds lines stay pending before they are written
+     * @param maxFileSize
+     *         size of the file in bytes which causes rotation, non-positive value disables rotation
+     */
+    public GroupCommitFileLineConsumer(File file, int flushThreshold, long flushIntervalMs, long maxFileSize) throws IOException {
+        this.file = file;
+        this.backup = new File(file.getPath() + ".1");
+        this.flushThreshold = flushThreshold;
+        this.maxFileSize = maxFileSize;
+        this.charset = Charset.defaultCharset();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.pendingChars = new AtomicInteger();
+        this.flushLock = new ReentrantLock();
+        this.channel = openChannel();
+        this.isOpen = true;
+        this.flushTask = FLUSHER.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        if (!isOpen) {
+            return;
+        }
+        final String entry = line == null ? "\n" : line + '\n';
+        pending.offer(entry);
+        flushIfExceeded(pendingChars.addAndGet(entry.length()));
+    }
+
+    @Override
+    public void writeLines(List<String> lines) throws IOException {
+        if (!isOpen) {
+            return;
+        }
+        int chars = 0;
+        for (String line : lines) {
+            final String entry = line == null ? "\n" : line + '\n';
+            pending.offer(entry);
+            chars += entry.length();
+        }
+        flushIfExceeded(pendingChars.addAndGet(chars));
+    }
+
+    /** Writes all pending lines into the file. */
+    public void flush() throws IOException {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isOpen) {
+            flushLock.lock();
+            try {
+                if (!isOpen) {
+                    return;
+                }
+                isOpen = false;
+                flushTask.cancel(false);
+                try {
+                    flushPending();
+                } finally {
+                    channel.close();
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void flushIfExceeded(int pendingSize) throws IOException {
+        if (pendingSize >= flushThreshold && flushLock.tryLock()) {
+            try {
+                flushPending();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void scheduledFlush() {
+        if (isOpen && flushLock.tryLock()) {
+            try {
+                flushPending();
+            } catch (ConsumerAlreadyClosedException e) {
+                isOpen = false;
+                flushTask.cancel(false);
+            } catch (IOException e) {
+                LOG.error(String.format("Failed to write logs into file '%s'", file), e);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /** Must be called under {@link #flushLock}. */
+    private void flushPending() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        final StringBuilder group = new StringBuilder(Math.max(pendingChars.get(), 16));
+        int chars = 0;
+        for (String entry; (entry = pending.poll()) != null; ) {
+            group.append(entry);
+            chars += entry.length();
+        }
+        pendingChars.addAndGet(-chars);
+        final ByteBuffer bytes = charset.encode(group.toString());
+        if (maxFileSize > 0 && fileSize > 0 && fileSize + bytes.remaining() > maxFileSize) {
+            rotate();
+        }
+        try {
+            while (bytes.hasRemaining()) {
+                fileSize += channel.write(bytes);
+            }
+        } catch (ClosedChannelException e) {
+            throw new ConsumerAlreadyClosedException("Log file '" + file + "' is already closed");
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        Files.move(file.toPath(), backup.toPath(), REPLACE_EXISTING);
+        channel = openChannel();
+        fileSize = 0;
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file.toPath(), CREATE, TRUNCATE_EXISTING, WRITE);
+    }
+}
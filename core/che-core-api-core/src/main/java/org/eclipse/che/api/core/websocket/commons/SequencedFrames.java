@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.websocket.commons;
+
+/**
+ * Frames of the sequenced WEB SOCKET protocol. A client turns the protocol on by adding
+ * {@code sequenced=true} to the query of the connection URL. Then both sides number the
+ * messages they send and acknowledge the messages they receive, so when a connection is
+ * re-established only the messages the other side has not received are sent again.
+ * <ul>
+ * <li>{@code #<sequence>:<message>} - message with its sequence number, each side numbers
+ * its messages starting from 1</li>
+ * <li>{@code ack:<sequence>} - sequence number of the last message received from the other
+ * side, each side sends it as the first frame of a session and then periodically</li>
+ * </ul>
+ * Messages are not sent until the acknowledgement of the other side is received within a
+ * session, then all the messages it has not acknowledged are sent in order.
+ */
+public final class SequencedFrames {
+    /** Query parameter which turns the protocol on. */
+    public static final String QUERY_PARAMETER = "sequenced";
+
+    /** Number of received messages after which an acknowledgement is sent. */
+    public static final int ACK_INTERVAL = 32;
+
+    private static final String MESSAGE_PREFIX = "#";
+    private static final String ACK_PREFIX     = "ack:";
+
+    /** Checks whether the query string or URL turns the protocol on. */
+    public static boolean isSequenced(String query) {
+        if (query == null) {
+            return false;
+        }
+        for (String param : query.substring(query.indexOf('?') + 1).split("&")) {
+            if (param.equals(QUERY_PARAMETER + "=true")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String message(long sequence, String message) {
+        return MESSAGE_PREFIX + sequence + ':' + message;
+    }
+
+    public static String ack(long sequence) {
+        return ACK_PREFIX + sequence;
+    }
+
+    public static boolean isMessage(String frame) {
+        return frame.startsWith(MESSAGE_PREFIX);
+    }
+
+    public static boolean isAck(String frame) {
+        return frame.startsWith(ACK_PREFIX);
+    }
+
+    /** Returns the sequence number carried by a message or acknowledgement frame. */
+    public static long sequenceOf(String frame) {
+        if (isAck(frame)) {
+            return Long.parseLong(frame.substring(ACK_PREFIX.length()));
+        }
+        return Long.parseLong(frame.substring(MESSAGE_PREFIX.length(), frame.indexOf(':')));
+    }
+
+    /** Returns the message carried by a message frame. */
+    public static String messageOf(String frame) {
+        return frame.substring(frame.indexOf(':') + 1);
+    }
+
+    private SequencedFrames() {
+    }
+}
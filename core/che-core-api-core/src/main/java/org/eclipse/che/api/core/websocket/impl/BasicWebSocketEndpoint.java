@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
+import org.eclipse.che.api.core.websocket.commons.SequencedFrames;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageReceiver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +63,7 @@ abstract public class BasicWebSocketEndpoint {
 
         session.setMaxIdleTimeout(0);
 
+        reSender.open(combinedEndpointId, SequencedFrames.isSequenced(session.getQueryString()));
         registry.add(combinedEndpointId, session);
         reSender.resend(combinedEndpointId);
     }
@@ -83,7 +85,10 @@ abstract public class BasicWebSocketEndpoint {
 
             LOG.warn("Processing messing within unidentified session");
         }
-        receiver.receive(combinedEndpointId, message);
+        message = reSender.receive(combinedEndpointId, message);
+        if (message != null) {
+            receiver.receive(combinedEndpointId, message);
+        }
     }
 
     @OnClose
@@ -99,6 +104,7 @@ abstract public class BasicWebSocketEndpoint {
             LOG.debug("Close reason: {}:{}", closeReason.getReasonPhrase(), closeReason.getCloseCode());
 
             registry.remove(combinedEndpointId);
+            reSender.close(combinedEndpointId);
         } else {
             LOG.warn("Closing unidentified session");
         }
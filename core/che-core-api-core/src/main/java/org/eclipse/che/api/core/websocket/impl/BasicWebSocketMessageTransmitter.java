@@ -10,21 +10,42 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
+import com.google.gson.stream.JsonReader;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import org.eclipse.che.api.core.websocket.commons.SequencedFrames;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
 import org.slf4j.Logger;
 
-import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static java.lang.String.format;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Transmits messages over WEB SOCKET to a specific endpoint or broadcasts them.
  * If WEB SOCKET session is not opened adds messages to re-sender to try to send
- * them when session will be opened again.
+ * them when session will be opened again. Messages of endpoints which use the
+ * {@link SequencedFrames sequenced protocol} are passed to re-sender which numbers
+ * and keeps them until they are acknowledged.
+ * <p>
+ * Each endpoint has its own queue of outgoing messages. Messages of a queue are
+ * sent one by one with asynchronous remote of the session, so a slow endpoint
+ * does not delay messages sent to other endpoints. Depth of a queue is limited,
+ * see {@link OverflowPolicy} for what happens when the limit is reached.
  *
  * @author Dmitry Kuleshov
  */
@@ -32,17 +53,57 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmitter {
     private static final Logger LOG = getLogger(BasicWebSocketMessageTransmitter.class);
 
+    public static final String MAX_QUEUE_DEPTH_PROPERTY = "che.websocket.send_queue.max_depth";
+    public static final String OVERFLOW_POLICY_PROPERTY = "che.websocket.send_queue.overflow_policy";
+
+    /** Defines what to do with a message that is transmitted to an endpoint which send queue is full. */
+    public enum OverflowPolicy {
+        /**
+         * The oldest JSON RPC notification waiting in the queue is dropped to free space for the message.
+         * If there are no notifications in the queue the message is rejected as with {@link #REJECT} policy.
+         */
+        DROP_OLDEST_NOTIFICATION,
+        /** The message is rejected, {@link #transmit(String, String)} throws {@link IllegalStateException}. */
+        REJECT
+    }
+
     private final WebSocketSessionRegistry registry;
     private final MessagesReSender         reSender;
+    private final Map<String, SendQueue>   queues;
+    private final AtomicInteger            peakQueueDepth;
+    private final AtomicLong               droppedMessages;
+
+    @Inject(optional = true)
+    @Named(MAX_QUEUE_DEPTH_PROPERTY)
+    private int maxQueueDepth;
+
+    @Inject(optional = true)
+    @Named(OVERFLOW_POLICY_PROPERTY)
+    private OverflowPolicy overflowPolicy;
 
     @Inject
     public BasicWebSocketMessageTransmitter(WebSocketSessionRegistry registry, MessagesReSender reSender) {
+        this(registry, reSender, 1000, OverflowPolicy.DROP_OLDEST_NOTIFICATION);
+    }
+
+    BasicWebSocketMessageTransmitter(WebSocketSessionRegistry registry,
+                                     MessagesReSender reSender,
+                                     int maxQueueDepth,
+                                     OverflowPolicy overflowPolicy) {
         this.registry = registry;
         this.reSender = reSender;
+        this.maxQueueDepth = maxQueueDepth;
+        this.overflowPolicy = overflowPolicy;
+        this.queues = new ConcurrentHashMap<>();
+        this.peakQueueDepth = new AtomicInteger();
+        this.droppedMessages = new AtomicLong();
     }
 
     @Override
-    public synchronized void transmit(String endpointId, String message) {
+    public void transmit(String endpointId, String message) {
+        if (reSender.sequence(endpointId, message)) {
+            return;
+        }
         final Optional<Session> sessionOptional = registry.get(endpointId);
 
         if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
@@ -50,13 +111,173 @@ public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmi
 
             reSender.add(endpointId, message);
         } else {
-            LOG.debug("Session registered and open, sending message");
+            LOG.debug("Session registered and open, adding message to send queue");
+
+            while (!queues.computeIfAbsent(endpointId, SendQueue::new).offer(sessionOptional.get(), message)) {
+                // queue was released by another thread right after it was found, create a new one
+            }
+        }
+    }
+
+    /**
+     * Sends a frame of the {@link SequencedFrames sequenced protocol} if session of the endpoint is open,
+     * otherwise the frame is dropped as {@link MessagesReSender} keeps messages until they are acknowledged.
+     */
+    void sendFrame(String endpointId, String frame) {
+        final Optional<Session> sessionOptional = registry.get(endpointId);
+
+        if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
+            LOG.debug("Session is not registered or closed, frame is not sent");
+        } else {
+            while (!queues.computeIfAbsent(endpointId, SendQueue::new).offer(sessionOptional.get(), frame)) {
+                // queue was released by another thread right after it was found, create a new one
+            }
+        }
+    }
+
+    /** Returns number of messages that wait to be sent to the endpoint. */
+    public int getQueueDepth(String endpointId) {
+        final SendQueue queue = queues.get(endpointId);
+        return queue == null ? 0 : queue.size();
+    }
 
+    /** Returns the greatest number of messages that waited to be sent to a single endpoint. */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    /** Returns number of messages that were dropped or rejected because send queues were full. */
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * Checks whether the message is a JSON RPC notification, i.e. a request without identifier.
+     * Message is read only up to the identifier if there is one.
+     */
+    static boolean isNotification(String message) {
+        if (SequencedFrames.isMessage(message)) {
+            message = SequencedFrames.messageOf(message);
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(message))) {
+            boolean hasMethod = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("id".equals(name)) {
+                    return false;
+                }
+                hasMethod |= "method".equals(name);
+                reader.skipValue();
+            }
+            return hasMethod;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Messages to be sent to a single endpoint. The queue is started by the first offered message
+     * and is released once all its messages are sent, a new queue is created for further messages.
+     */
+    private class SendQueue {
+        private final String        endpointId;
+        private final Deque<String> messages;
+
+        private Session session;
+        private boolean sending;
+        private boolean released;
+
+        SendQueue(String endpointId) {
+            this.endpointId = endpointId;
+            this.messages = new ArrayDeque<>();
+        }
+
+        /** Adds message to the queue, returns {@code false} if the queue is released and can't accept messages anymore. */
+        boolean offer(Session session, String message) {
+            synchronized (this) {
+                if (released) {
+                    return false;
+                }
+                this.session = session;
+                if (messages.size() >= maxQueueDepth && !makeRoomFor(message)) {
+                    droppedMessages.incrementAndGet();
+                    throw new IllegalStateException(format("Send queue of endpoint '%s' is full, message is rejected", endpointId));
+                }
+                messages.add(message);
+                peakQueueDepth.accumulateAndGet(messages.size(), Math::max);
+                if (sending) {
+                    return true;
+                }
+                sending = true;
+            }
+            sendNext();
+            return true;
+        }
+
+        synchronized int size() {
+            return messages.size();
+        }
+
+        private boolean makeRoomFor(String message) {
+            if (overflowPolicy != OverflowPolicy.DROP_OLDEST_NOTIFICATION) {
+                return false;
+            }
+            for (Iterator<String> it = messages.iterator(); it.hasNext(); ) {
+                if (isNotification(it.next())) {
+                    it.remove();
+                    droppedMessages.incrementAndGet();
+                    LOG.warn("Send queue of endpoint '{}' is full, the oldest notification is dropped", endpointId);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void sendNext() {
+            final Session current;
+            final String message;
+            synchronized (this) {
+                message = messages.poll();
+                if (message == null) {
+                    sending = false;
+                    released = true;
+                    current = null;
+                } else {
+                    current = session;
+                }
+            }
+            if (message == null) {
+                queues.remove(endpointId, this);
+                return;
+            }
             try {
-                sessionOptional.get().getBasicRemote().sendText(message);
-            } catch (IOException e) {
-                LOG.error("Error while trying to send a message to a basic websocket remote endpoint", e);
+                current.getAsyncRemote().sendText(message, result -> onSent(current, message, result));
+            } catch (RuntimeException e) {
+                onSent(current, message, new SendResult(e));
+            }
+        }
+
+        private void onSent(Session session, String message, SendResult result) {
+            if (!result.isOK()) {
+                if (session.isOpen()) {
+                    LOG.error("Error while trying to send a message to an async websocket remote endpoint", result.getException());
+                } else {
+                    LOG.debug("Session is closed, adding message and all queued messages to pending");
+
+                    final Deque<String> undelivered = new ArrayDeque<>();
+                    undelivered.add(message);
+                    synchronized (this) {
+                        undelivered.addAll(messages);
+                        messages.clear();
+                    }
+                    // frames of sequenced endpoints are kept by re-sender until they are acknowledged
+                    undelivered.stream()
+                               .filter(m -> !SequencedFrames.isMessage(m) && !SequencedFrames.isAck(m))
+                               .forEach(m -> reSender.add(endpointId, m));
+                }
             }
+            sendNext();
         }
     }
 }
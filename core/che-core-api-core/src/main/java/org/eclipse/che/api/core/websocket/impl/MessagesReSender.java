@@ -10,76 +10,325 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
-import javax.inject.Inject;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import org.eclipse.che.api.core.websocket.commons.SequencedFrames;
+import org.slf4j.Logger;
+
+import javax.inject.Provider;
 import javax.inject.Singleton;
-import javax.websocket.Session;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.eclipse.che.api.core.websocket.commons.SequencedFrames.ACK_INTERVAL;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
- * Instance is responsible for re-sending messages that were not sent during the period
- * when WEB SOCKET session was closed. If session is closed during re-send process it
- * stops and left messages will be re-sent as WEB SOCKET session becomes open again.
+ * Instance is responsible for re-sending messages that were not delivered to an endpoint
+ * because its WEB SOCKET session was closed. Messages of an endpoint are kept in a bounded
+ * outbox, when size of kept messages exceeds the limit the oldest messages are dropped.
+ * Outbox of an endpoint which does not reconnect within the reconnect timeout is evicted
+ * along with its messages.
+ * <p>
+ * Endpoints which use {@link SequencedFrames sequenced protocol} get all their messages
+ * numbered and kept in the outbox until the endpoint acknowledges them, so messages
+ * which were written to a session that was closed before they reached the endpoint are
+ * sent again, and messages the endpoint has already received are not. For other endpoints
+ * only the messages transmitted while the session was closed or which could not be written
+ * to the session are kept, messages lost after they were written are not sent again.
  *
  * @author Dmitry Kuleshov
  */
 @Singleton
 public class MessagesReSender {
-    private static final int MAX_MESSAGES = 100;
+    private static final Logger LOG = getLogger(MessagesReSender.class);
+
+    public static final String MAX_OUTBOX_SIZE_PROPERTY   = "che.websocket.resend.max_outbox_size";
+    public static final String RECONNECT_TIMEOUT_PROPERTY = "che.websocket.resend.reconnect_timeout_ms";
 
-    private final WebSocketSessionRegistry registry;
+    private final Provider<BasicWebSocketMessageTransmitter> transmitterProvider;
+    private final Map<String, Outbox>                        outboxes;
 
-    private final Map<String, List<String>> messagesMap = new HashMap<>();
+    /** Limit of total length of messages kept for one endpoint, in characters. */
+    @Inject(optional = true)
+    @Named(MAX_OUTBOX_SIZE_PROPERTY)
+    private long maxOutboxSize = 1024 * 1024;
+
+    /** Time after which outbox of an endpoint with closed session is evicted. */
+    @Inject(optional = true)
+    @Named(RECONNECT_TIMEOUT_PROPERTY)
+    private long reconnectTimeoutMs = 60_000;
 
     @Inject
-    public MessagesReSender(WebSocketSessionRegistry registry) {
-        this.registry = registry;
+    public MessagesReSender(Provider<BasicWebSocketMessageTransmitter> transmitterProvider) {
+        this.transmitterProvider = transmitterProvider;
+        this.outboxes = new ConcurrentHashMap<>();
     }
 
-    public void add(String endpointId, String message) {
-        List<String> messages = messagesMap.get(endpointId);
+    MessagesReSender(Provider<BasicWebSocketMessageTransmitter> transmitterProvider, long maxOutboxSize, long reconnectTimeoutMs) {
+        this(transmitterProvider);
+        this.maxOutboxSize = maxOutboxSize;
+        this.reconnectTimeoutMs = reconnectTimeoutMs;
+    }
 
-        if (messages == null) {
-            messages = new LinkedList<>();
-            messagesMap.put(endpointId, messages);
+    /**
+     * Prepares the outbox of an endpoint which session is being opened,
+     * must be called before the session is registered.
+     */
+    public void open(String endpointId, boolean sequenced) {
+        evictExpired();
+        if (sequenced) {
+            while (!outboxes.computeIfAbsent(endpointId, Outbox::new).open(true)) {
+                // outbox was evicted right after it was found, create a new one
+            }
+        } else {
+            final Outbox outbox = outboxes.get(endpointId);
+            if (outbox != null) {
+                outbox.open(false);
+            }
         }
+    }
 
-        if (messages.size() <= MAX_MESSAGES) {
-            messages.add(message);
+    /**
+     * Re-sends kept messages once session of the endpoint is registered. Messages of a
+     * sequenced endpoint are re-sent as soon as the endpoint acknowledges received ones.
+     */
+    public void resend(String endpointId) {
+        final Outbox outbox = outboxes.get(endpointId);
+        if (outbox != null) {
+            outbox.resend();
         }
     }
 
-    public void resend(String endpointId) {
-        final List<String> messages = messagesMap.remove(endpointId);
+    /** Starts the reconnect timeout of an endpoint which session is closed. */
+    public void close(String endpointId) {
+        final Outbox outbox = outboxes.get(endpointId);
+        if (outbox != null) {
+            outbox.close();
+        }
+        evictExpired();
+    }
 
-        if (messages == null || messages.isEmpty()) {
-            return;
+    /** Adds a message which was not delivered to a not sequenced endpoint. */
+    public void add(String endpointId, String message) {
+        while (!outboxes.computeIfAbsent(endpointId, Outbox::new).addPending(message)) {
+            // outbox was evicted right after it was found, create a new one
         }
+    }
+
+    /**
+     * Numbers, keeps and sends the message if the endpoint is sequenced.
+     *
+     * @return {@code false} if the endpoint is not sequenced and the message should be transmitted as is
+     */
+    public boolean sequence(String endpointId, String message) {
+        final Outbox outbox = outboxes.get(endpointId);
+        return outbox != null && outbox.sequence(message);
+    }
+
+    /**
+     * Handles a frame received from the endpoint.
+     *
+     * @return the message to process or {@code null} if there is nothing to process
+     */
+    public String receive(String endpointId, String frame) {
+        final Outbox outbox = outboxes.get(endpointId);
+        return outbox == null ? frame : outbox.receive(frame);
+    }
+
+    private void evictExpired() {
+        final long now = System.currentTimeMillis();
+        outboxes.values().removeIf(outbox -> outbox.evictIfExpired(now));
+    }
+
+    private class Outbox {
+        private final String        endpointId;
+        /** Messages of a not sequenced endpoint which were not delivered. */
+        private final Deque<String> pending;
+        /** Messages of a sequenced endpoint which are not acknowledged, the first one has number {@code acknowledged + 1}. */
+        private final Deque<String> unacknowledged;
 
-        final Optional<Session> sessionOptional = registry.get(endpointId);
+        private long    length;
+        private boolean sequenced;
+        /** Whether acknowledgement of the endpoint is received within the current session. */
+        private boolean synced;
+        private long    acknowledged;
+        private long    sent;
+        private long    received;
+        private int     receivedSinceAck;
+        private long    closedAt;
+        private boolean evicted;
 
-        if (!sessionOptional.isPresent()) {
-            return;
+        Outbox(String endpointId) {
+            this.endpointId = endpointId;
+            this.pending = new ArrayDeque<>();
+            this.unacknowledged = new ArrayDeque<>();
+            this.closedAt = System.currentTimeMillis();
         }
 
-        final Session session = sessionOptional.get();
+        synchronized boolean open(boolean sequenced) {
+            if (evicted) {
+                return false;
+            }
+            if (sequenced && !this.sequenced) {
+                unacknowledged.addAll(pending);
+                pending.clear();
+            }
+            this.sequenced = sequenced;
+            synced = false;
+            closedAt = 0;
+            return true;
+        }
 
-        final List<String> backing = new ArrayList<>(messages);
-        messages.clear();
+        synchronized void close() {
+            synced = false;
+            closedAt = System.currentTimeMillis();
+        }
 
-        for (String message : backing) {
+        synchronized boolean evictIfExpired(long now) {
+            evicted = closedAt != 0 && now - closedAt >= reconnectTimeoutMs;
+            if (evicted && !(pending.isEmpty() && unacknowledged.isEmpty())) {
+                LOG.warn("Endpoint '{}' did not reconnect in time, {} kept messages are dropped",
+                         endpointId,
+                         pending.size() + unacknowledged.size());
+            }
+            return evicted;
+        }
 
-            if (session.isOpen()) {
-                session.getAsyncRemote().sendText(message);
+        synchronized boolean addPending(String message) {
+            if (evicted) {
+                return false;
+            }
+            pending.add(message);
+            length += message.length();
+            trim();
+            return true;
+        }
+
+        void resend() {
+            final Deque<String> messages;
+            synchronized (this) {
+                if (sequenced) {
+                    // the endpoint responds with its own acknowledgement, then unacknowledged messages are sent
+                    sendFrame(SequencedFrames.ack(received));
+                    receivedSinceAck = 0;
+                    return;
+                }
+                messages = new ArrayDeque<>(pending);
+                pending.clear();
+                messages.forEach(message -> length -= message.length());
+            }
+
+            final BasicWebSocketMessageTransmitter transmitter = transmitterProvider.get();
+            for (String message = messages.peek(); message != null; message = messages.peek()) {
+                try {
+                    transmitter.transmit(endpointId, message);
+                    messages.poll();
+                } catch (RuntimeException e) {
+                    LOG.warn("Can't re-send messages to endpoint '{}', {} messages are kept", endpointId, messages.size(), e);
+                    synchronized (this) {
+                        messages.descendingIterator().forEachRemaining(pending::addFirst);
+                        messages.forEach(kept -> length += kept.length());
+                        trim();
+                    }
+                    return;
+                }
+            }
+        }
+
+        synchronized boolean sequence(String message) {
+            if (!sequenced || evicted) {
+                return false;
+            }
+            unacknowledged.add(message);
+            length += message.length();
+            final long number = acknowledged + unacknowledged.size();
+            trim();
+            if (synced) {
+                sendFrame(SequencedFrames.message(number, message));
+                sent = number;
+            }
+            return true;
+        }
+
+        synchronized String receive(String frame) {
+            if (!sequenced) {
+                return frame;
+            }
+            if (SequencedFrames.isAck(frame)) {
+                acknowledge(SequencedFrames.sequenceOf(frame));
+                return null;
+            }
+            if (!SequencedFrames.isMessage(frame)) {
+                return frame;
+            }
+            final long number = SequencedFrames.sequenceOf(frame);
+            if (number <= received) {
+                return null;
+            }
+            if (number > received + 1) {
+                LOG.warn("Messages {}-{} of endpoint '{}' are lost", received + 1, number - 1, endpointId);
+            }
+            received = number;
+            if (++receivedSinceAck >= ACK_INTERVAL) {
+                sendFrame(SequencedFrames.ack(received));
+                receivedSinceAck = 0;
+            }
+            return SequencedFrames.messageOf(frame);
+        }
+
+        private void acknowledge(long number) {
+            if (synced) {
+                removeAcknowledged(number);
+                return;
+            }
+            if (number > sent) {
+                // the endpoint has received more messages than this outbox sent, so the outbox
+                // was created anew, continue numbering of the messages the endpoint has received
+                removeAcknowledged(sent);
+                acknowledged = number;
+                sent = number;
+            } else if (number < acknowledged) {
+                LOG.warn("Messages {}-{} of endpoint '{}' were dropped from the outbox", number + 1, acknowledged, endpointId);
             } else {
-                messages.add(message);
+                removeAcknowledged(number);
+            }
+            long next = acknowledged;
+            for (String message : unacknowledged) {
+                sendFrame(SequencedFrames.message(++next, message));
+            }
+            sent = Math.max(sent, next);
+            synced = true;
+        }
+
+        private void removeAcknowledged(long number) {
+            while (acknowledged < number && !unacknowledged.isEmpty()) {
+                length -= unacknowledged.poll().length();
+                acknowledged++;
             }
         }
 
-        messagesMap.put(endpointId, messages);
+        private void trim() {
+            int dropped = 0;
+            while (length > maxOutboxSize) {
+                if (!unacknowledged.isEmpty()) {
+                    length -= unacknowledged.poll().length();
+                    acknowledged++;
+                } else {
+                    length -= pending.poll().length();
+                }
+                dropped++;
+            }
+            if (dropped > 0) {
+                LOG.warn("Outbox of endpoint '{}' is full, {} oldest messages are dropped", endpointId, dropped);
+            }
+        }
+
+        private void sendFrame(String frame) {
+            transmitterProvider.get().sendFrame(endpointId, frame);
+        }
     }
 }
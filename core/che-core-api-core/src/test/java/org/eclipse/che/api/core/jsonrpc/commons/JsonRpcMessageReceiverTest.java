@@ -10,18 +10,23 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.jsonrpc.commons;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 /**
  * Tests for {@link JsonRpcMessageReceiver}
@@ -48,24 +53,25 @@ public class JsonRpcMessageReceiverTest {
     JsonRpcMessageReceiver  jsonRpcMessageReceiver;
 
     @Test
-    public void shouldValidateMessage() throws Exception {
+    public void shouldUnmarshalEnvelopes() throws Exception {
         jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-        verify(jsonRpcQualifier).isValidJson(MESSAGE);
+        verify(jsonRpcUnmarshaller).unmarshalEnvelopes(MESSAGE, jsonRpcQualifier);
     }
 
     @Test
-    public void shouldTransmitErrorWhenValidationFailed() throws Exception {
-        when(jsonRpcQualifier.isValidJson(MESSAGE)).thenReturn(false);
+    public void shouldTransmitErrorWhenUnmarshallingFailed() throws Exception {
+        when(jsonRpcUnmarshaller.unmarshalEnvelopes(MESSAGE, jsonRpcQualifier)).thenThrow(new JsonRpcException(-32700, "error"));
 
         jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
         verify(errorTransmitter).transmit(eq(ENDPOINT_ID), any(JsonRpcException.class));
+        verify(requestProcessor, never()).process(any(), any(), any());
     }
 
     @Test
-    public void shouldNotTransmitErrorWhenValidationSucceeded() throws Exception {
-        when(jsonRpcQualifier.isValidJson(MESSAGE)).thenReturn(true);
+    public void shouldNotTransmitErrorWhenUnmarshallingSucceeded() throws Exception {
+        when(jsonRpcUnmarshaller.unmarshalEnvelopes(MESSAGE, jsonRpcQualifier)).thenReturn(emptyList());
 
         jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
@@ -73,31 +79,37 @@ public class JsonRpcMessageReceiverTest {
     }
 
     @Test
-    public void shouldUnmarshalArray() throws Exception {
+    public void shouldDispatchResponseIfResponseReceived() throws Exception {
+        JsonRpcEnvelope envelope = new JsonRpcEnvelope(null, mock(JsonRpcResponse.class));
+        when(jsonRpcUnmarshaller.unmarshalEnvelopes(MESSAGE, jsonRpcQualifier)).thenReturn(singletonList(envelope));
+
         jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-        verify(jsonRpcUnmarshaller).unmarshalArray(MESSAGE);
+        verify(responseDispatcher).dispatch(eq(ENDPOINT_ID), eq(envelope.getResponse()));
     }
 
     @Test
-    public void shouldDispatchResponseIfResponseReceived() throws Exception {
-        when(jsonRpcQualifier.isJsonRpcResponse(MESSAGE)).thenReturn(true);
-        when(jsonRpcQualifier.isJsonRpcRequest(MESSAGE)).thenReturn(false);
-        when(jsonRpcUnmarshaller.unmarshalArray(any())).thenReturn(singletonList(MESSAGE));
+    public void shouldDispatchRequestIfRequestReceived() throws Exception {
+        JsonRpcEnvelope envelope = new JsonRpcEnvelope(mock(JsonRpcRequest.class), null);
+        when(jsonRpcUnmarshaller.unmarshalEnvelopes(MESSAGE, jsonRpcQualifier)).thenReturn(singletonList(envelope));
 
         jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-        verify(responseDispatcher).dispatch(eq(ENDPOINT_ID), any(JsonRpcResponse.class));
+        verify(requestProcessor).process(eq(ENDPOINT_ID), any(), any());
     }
 
     @Test
-    public void shouldDispatchRequestIfRequestReceived() throws Exception {
-        when(jsonRpcQualifier.isJsonRpcRequest(MESSAGE)).thenReturn(true);
-        when(jsonRpcQualifier.isJsonRpcResponse(MESSAGE)).thenReturn(false);
-        when(jsonRpcUnmarshaller.unmarshalArray(any())).thenReturn(singletonList(MESSAGE));
+    public void shouldTransmitErrorWhenRequestIsRejectedByProcessor() throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest("1", "method", null);
+        JsonRpcEnvelope envelope = new JsonRpcEnvelope(request, null);
+        when(jsonRpcUnmarshaller.unmarshalEnvelopes(MESSAGE, jsonRpcQualifier)).thenReturn(singletonList(envelope));
+        doThrow(new JsonRpcException(-32000, "overloaded")).when(requestProcessor).process(eq(ENDPOINT_ID), eq("method"), any());
 
         jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-        verify(requestProcessor).process(any());
+        ArgumentCaptor<JsonRpcException> captor = ArgumentCaptor.forClass(JsonRpcException.class);
+        verify(errorTransmitter).transmit(eq(ENDPOINT_ID), captor.capture());
+        assertEquals(captor.getValue().getCode(), -32000);
+        assertEquals(captor.getValue().getId(), "1");
     }
 }
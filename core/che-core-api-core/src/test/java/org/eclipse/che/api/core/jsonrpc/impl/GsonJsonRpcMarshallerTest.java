@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResult;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link GsonJsonRpcMarshaller}
+ */
+public class GsonJsonRpcMarshallerTest {
+    private GsonJsonRpcMarshaller marshaller;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        marshaller = new GsonJsonRpcMarshaller(new JsonParser());
+    }
+
+    @Test
+    public void shouldWrapSinglePrimitiveParamIntoArray() throws Exception {
+        String json = marshaller.marshall(new JsonRpcRequest("1", "method", new JsonRpcParams("value")));
+
+        assertEquals(json, "{\"jsonrpc\":\"2.0\",\"method\":\"method\",\"id\":\"1\",\"params\":[\"value\"]}");
+    }
+
+    @Test
+    public void shouldWriteSingleObjectParamAsIs() throws Exception {
+        JsonObject param = new JsonObject();
+        param.addProperty("key", "value");
+
+        String json = marshaller.marshall(new JsonRpcRequest(null, "method", new JsonRpcParams(param)));
+
+        assertEquals(json, "{\"jsonrpc\":\"2.0\",\"method\":\"method\",\"params\":{\"key\":\"value\"}}");
+    }
+
+    @Test
+    public void shouldWriteRawJsonResults() throws Exception {
+        String message = "{\"a\":[1,2]}";
+        JsonRpcResult result = new JsonRpcResult(asList(new RawJson(message, 0, message.length()), 2.0, true, null));
+
+        String json = marshaller.marshall(new JsonRpcResponse("1", result, null));
+
+        assertEquals(json, "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":[{\"a\":[1,2]},2.0,true,null]}");
+    }
+
+    @Test
+    public void shouldWriteError() throws Exception {
+        String json = marshaller.marshall(new JsonRpcResponse("1", null, new JsonRpcError(-32601, "not found")));
+
+        assertEquals(json, "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"error\":{\"code\":-32601,\"message\":\"not found\"}}");
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import com.google.gson.JsonParser;
+
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcEnvelope;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link GsonJsonRpcUnmarshaller}
+ */
+public class GsonJsonRpcUnmarshallerTest {
+    private GsonJsonRpcUnmarshaller unmarshaller;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        unmarshaller = new GsonJsonRpcUnmarshaller(new JsonParser());
+    }
+
+    @Test
+    public void shouldUnmarshalRequestWithObjectParams() throws Exception {
+        String message = "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"method\":\"a/b\",\"params\":{\"text\":\"x\\\"y\",\"list\":[1,{}]}}";
+
+        List<JsonRpcEnvelope> envelopes = unmarshaller.unmarshalEnvelopes(message, null);
+
+        assertEquals(envelopes.size(), 1);
+        JsonRpcRequest request = envelopes.get(0).getRequest();
+        assertEquals(request.getId(), "1");
+        assertEquals(request.getMethod(), "a/b");
+        assertTrue(request.getParams().isSingle());
+        assertEquals(request.getParams().getOne().toString(), "{\"text\":\"x\\\"y\",\"list\":[1,{}]}");
+    }
+
+    @Test
+    public void shouldUnmarshalNotificationWithPrimitiveParams() throws Exception {
+        String message = "{\"jsonrpc\":\"2.0\",\"method\":\"m\",\"params\":[\"a\\n\\u0041\", 2.5, true, null]}";
+
+        JsonRpcRequest request = unmarshaller.unmarshalEnvelopes(message, null).get(0).getRequest();
+
+        assertFalse(request.hasId());
+        assertFalse(request.getParams().isSingle());
+        assertEquals(request.getParams().getMany().get(0), "a\nA");
+        assertEquals(request.getParams().getMany().get(1), 2.5);
+        assertEquals(request.getParams().getMany().get(2), true);
+        assertNull(request.getParams().getMany().get(3));
+    }
+
+    @Test
+    public void shouldUnmarshalBatchOfResponses() throws Exception {
+        String message = "[{\"jsonrpc\":\"2.0\",\"id\":7,\"result\":\"ok\"}, " +
+                         "{\"jsonrpc\":\"2.0\",\"id\":\"8\",\"error\":{\"code\":-32601,\"message\":\"not found\"}}]";
+
+        List<JsonRpcEnvelope> envelopes = unmarshaller.unmarshalEnvelopes(message, null);
+
+        assertEquals(envelopes.size(), 2);
+        JsonRpcResponse result = envelopes.get(0).getResponse();
+        assertEquals(result.getId(), "7");
+        assertEquals(result.getResult().getOne(), "ok");
+        JsonRpcResponse error = envelopes.get(1).getResponse();
+        assertEquals(error.getId(), "8");
+        assertEquals(error.getError().getCode(), -32601);
+        assertEquals(error.getError().getMessage(), "not found");
+    }
+
+    @Test
+    public void shouldNotQualifyStructureWithoutMethodResultAndError() throws Exception {
+        JsonRpcEnvelope envelope = unmarshaller.unmarshalEnvelopes("{\"id\":\"1\"}", null).get(0);
+
+        assertFalse(envelope.isRequest());
+        assertFalse(envelope.isResponse());
+    }
+
+    @Test(expectedExceptions = JsonRpcException.class)
+    public void shouldFailOnInvalidJson() throws Exception {
+        unmarshaller.unmarshalEnvelopes("{\"method\":\"m\",\"params\":{\"a\":}}", null);
+    }
+
+    @Test(expectedExceptions = JsonRpcException.class)
+    public void shouldFailOnTrailingData() throws Exception {
+        unmarshaller.unmarshalEnvelopes("{\"method\":\"m\"} x", null);
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerManager;
+import org.eclipse.che.api.core.jsonrpc.impl.ServerSideRequestProcessor.MethodStatistics;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link ServerSideRequestProcessor}
+ */
+public class ServerSideRequestProcessorTest {
+    private RequestHandlerManager      handlerManager;
+    private ServerSideRequestProcessor processor;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        handlerManager = new RequestHandlerManager(null, null, null);
+        processor = new ServerSideRequestProcessor(handlerManager, 4, 100, "method", "a", "b");
+        processor.postConstruct();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        processor.preDestroy();
+    }
+
+    @Test
+    public void shouldProcessRequestsOfTheSameEndpointAndOrderedMethodInOrder() throws Exception {
+        final List<Integer> processed = synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(50);
+
+        for (int i = 0; i < 50; i++) {
+            final int number = i;
+            processor.process("endpoint", "method", () -> {
+                processed.add(number);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, SECONDS));
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(i);
+        }
+        assertEquals(processed, expected);
+    }
+
+    @Test
+    public void shouldNotHoldBackRequestsOfOtherEndpointsWhileRequestIsProcessed() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch otherProcessed = new CountDownLatch(1);
+
+        processor.process("slow", "method", () -> await(release));
+        processor.process("fast", "method", otherProcessed::countDown);
+
+        assertTrue(otherProcessed.await(10, SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void shouldProcessRequestsOfDifferentOrderedMethodsOfTheSameEndpointInOrder() throws Exception {
+        final List<String> processed = synchronizedList(new ArrayList<>());
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        processor.process("endpoint", "a", () -> {
+            await(release);
+            processed.add("a");
+            done.countDown();
+        });
+        processor.process("endpoint", "b", () -> {
+            processed.add("b");
+            done.countDown();
+        });
+        release.countDown();
+
+        assertTrue(done.await(10, SECONDS));
+        assertEquals(processed, asList("a", "b"));
+    }
+
+    @Test
+    public void shouldNotHoldBackRequestsOfNotOrderedMethodWhileOtherRequestOfEndpointIsProcessed() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch concurrentProcessed = new CountDownLatch(1);
+
+        processor.process("endpoint", "method", () -> await(release));
+        processor.process("endpoint", "concurrent", concurrentProcessed::countDown);
+
+        assertTrue(concurrentProcessed.await(10, SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void shouldProcessRequestsOfTheSameEndpointAndNotOrderedMethodConcurrently() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch secondProcessed = new CountDownLatch(1);
+
+        processor.process("endpoint", "concurrent", () -> await(release));
+        processor.process("endpoint", "concurrent", secondProcessed::countDown);
+
+        assertTrue(secondProcessed.await(10, SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void shouldRejectRequestsWhenTooManyRequestsAreQueued() throws Exception {
+        processor.preDestroy();
+        processor = new ServerSideRequestProcessor(handlerManager, 4, 3);
+        processor.postConstruct();
+        final CountDownLatch release = new CountDownLatch(1);
+        processor.process("endpoint", "method", () -> await(release));
+        processor.process("endpoint", "method", () -> await(release));
+        processor.process("endpoint", "other", () -> await(release));
+
+        try {
+            processor.process("endpoint", "method", () -> {});
+            fail("Request must be rejected");
+        } catch (JsonRpcException e) {
+            assertEquals(e.getCode(), ServerSideRequestProcessor.OVERLOADED_ERROR_CODE);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldCollectStatisticsOfRegisteredMethods() throws Exception {
+        handlerManager.registerNoneToNone("a", endpointId -> {});
+        handlerManager.registerNoneToNone("b", endpointId -> {});
+        final CountDownLatch done = new CountDownLatch(4);
+
+        processor.process("endpoint-1", "a", done::countDown);
+        processor.process("endpoint-2", "a", done::countDown);
+        processor.process("endpoint-1", "b", done::countDown);
+        processor.process("endpoint-1", "not-registered", done::countDown);
+
+        assertTrue(done.await(10, SECONDS));
+        waitUntilNoQueuedRequests();
+        final MethodStatistics statistics = processor.getStatistics().get("a");
+        assertEquals(statistics.getRequests(), 2);
+        assertEquals(processor.getStatistics().get("b").getRequests(), 1);
+        assertEquals(processor.getStatistics().keySet(), new HashSet<>(asList("a", "b")));
+    }
+
+    private void waitUntilNoQueuedRequests() throws InterruptedException {
+        for (int i = 0; i < 100 && processor.getQueuedRequests() > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(processor.getQueuedRequests(), 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
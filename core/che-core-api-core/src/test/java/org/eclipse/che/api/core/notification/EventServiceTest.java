@@ -11,12 +11,22 @@
 package org.eclipse.che.api.core.notification;
 
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.synchronizedList;
+import static java.util.Collections.synchronizedSet;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * @author andrew00x
@@ -29,6 +39,11 @@ public class EventServiceTest {
         bus = new EventService();
     }
 
+    @AfterMethod
+    public void tearDown() {
+        bus.stop();
+    }
+
     @Test
     public void testSimpleEvent() {
         final List<Object> events = new ArrayList<>();
@@ -191,6 +206,109 @@ public class EventServiceTest {
         bus.unsubscribe(sb, CustomEventImpl.class);
     }
 
+    @Test
+    public void shouldDeliverEventsToAsyncSubscriberInOrderByDispatchingThread() throws Exception {
+        final List<String> events = synchronizedList(new ArrayList<>());
+        final Set<Thread> threads = synchronizedSet(new HashSet<>());
+        final CountDownLatch delivered = new CountDownLatch(100);
+        bus.subscribe(new AsyncEventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+                threads.add(Thread.currentThread());
+                delivered.countDown();
+            }
+        });
+
+        final List<String> published = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            published.add(bus.publish(new Event(Integer.toString(i))).data);
+        }
+
+        Assert.assertTrue(delivered.await(10, SECONDS));
+        Assert.assertEquals(events, published);
+        Assert.assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void shouldCollectStatisticsOfAsyncSubscriber() throws Exception {
+        final CountDownLatch delivered = new CountDownLatch(2);
+        final AsyncEventSubscriber<String> subscriber = new AsyncEventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                delivered.countDown();
+            }
+
+            @Override
+            public Object getPartitionKey(String event) {
+                return event;
+            }
+        };
+        bus.subscribe(subscriber);
+
+        bus.publish("first");
+        bus.publish("second");
+
+        Assert.assertTrue(delivered.await(10, SECONDS));
+        final EventService.SubscriberStatistics statistics = bus.getAsyncSubscriberStatistics().get(subscriber).get(String.class);
+        for (int i = 0; i < 100 && statistics.getEvents() < 2; i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(statistics.getEvents(), 2);
+        Assert.assertEquals(statistics.getDroppedEvents(), 0);
+
+        bus.unsubscribe(subscriber);
+        Assert.assertTrue(bus.getAsyncSubscriberStatistics().isEmpty());
+    }
+
+    @Test
+    public void shouldKeepStatisticsOfOtherEventTypeWhenAsyncSubscriberIsUnsubscribedFromOneType() throws Exception {
+        final CountDownLatch delivered = new CountDownLatch(2);
+        final AsyncEventSubscriber<String> subscriber = new AsyncEventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                delivered.countDown();
+            }
+        };
+        bus.subscribe(subscriber, String.class);
+        bus.subscribe(subscriber, CharSequence.class);
+
+        bus.publish("event");
+
+        Assert.assertTrue(delivered.await(10, SECONDS));
+        Assert.assertEquals(bus.getAsyncSubscriberStatistics().get(subscriber).keySet(),
+                            new HashSet<>(asList(String.class, CharSequence.class)));
+
+        bus.unsubscribe(subscriber, String.class);
+        Assert.assertEquals(bus.getAsyncSubscriberStatistics().get(subscriber).keySet(), singleton(CharSequence.class));
+    }
+
+    @Test
+    public void shouldDeliverEventsWhichWaitForDeliveryWhenStopped() throws Exception {
+        final List<String> events = synchronizedList(new ArrayList<>());
+        final AsyncEventSubscriber<String> subscriber = new AsyncEventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                events.add(event);
+            }
+        };
+        bus.subscribe(subscriber);
+        for (int i = 0; i < 5; i++) {
+            bus.publish(Integer.toString(i));
+        }
+
+        bus.stop();
+        bus.publish("after stop");
+
+        Assert.assertEquals(events, asList("0", "1", "2", "3", "4"));
+        Assert.assertEquals(bus.getAsyncSubscriberStatistics().get(subscriber).get(String.class).getDroppedEvents(), 1);
+    }
+
     static class CustomEventSubscriber<T extends CustomEvent> implements EventSubscriber<T> {
         final List<String> events = new ArrayList<>();
 
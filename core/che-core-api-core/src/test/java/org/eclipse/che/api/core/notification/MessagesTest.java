@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.everrest.websockets.message.RestOutputMessage;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class MessagesTest {
+
+    @Test
+    public void shouldRestoreEventsFromBatchMessage() throws Exception {
+        ChannelBroadcastMessage message = Messages.broadcastMessage("channel", asList(new TestEvent("a"), new TestEvent("b")));
+
+        List<Object> events = Messages.restoreEventsFromBroadcastMessage(toOutputMessage(message));
+
+        assertTrue(message.getBody().startsWith("{\"" + Messages.BATCH_FIELD + "\":["));
+        assertEquals(events.size(), 2);
+        assertEquals(((TestEvent)events.get(0)).getName(), "a");
+        assertEquals(((TestEvent)events.get(1)).getName(), "b");
+    }
+
+    @Test
+    public void shouldSendSingleEventBatchAsPlainEvent() throws Exception {
+        ChannelBroadcastMessage batch = Messages.broadcastMessage("channel", asList(new TestEvent("a")));
+        ChannelBroadcastMessage single = Messages.broadcastMessage("channel", new TestEvent("a"));
+
+        List<Object> events = Messages.restoreEventsFromBroadcastMessage(toOutputMessage(batch));
+
+        assertEquals(batch.getBody(), single.getBody());
+        assertEquals(events.size(), 1);
+        assertEquals(((TestEvent)events.get(0)).getName(), "a");
+    }
+
+    private static RestOutputMessage toOutputMessage(ChannelBroadcastMessage message) {
+        RestOutputMessage output = new RestOutputMessage();
+        output.setBody(message.getBody());
+        return output;
+    }
+
+    public static class TestEvent {
+        private String name;
+
+        public TestEvent() {
+        }
+
+        public TestEvent(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
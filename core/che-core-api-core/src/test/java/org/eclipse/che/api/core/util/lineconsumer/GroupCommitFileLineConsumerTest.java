@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util.lineconsumer;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class GroupCommitFileLineConsumerTest {
+    private File file;
+    private File backup;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = File.createTempFile("file", ".tmp");
+        backup = new File(file.getPath() + ".1");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+        backup.delete();
+    }
+
+    @Test
+    public void shouldKeepLinesPendingUntilThresholdIsExceeded() throws Exception {
+        GroupCommitFileLineConsumer consumer = new GroupCommitFileLineConsumer(file, 10, 60_000, 0);
+
+        consumer.writeLine("line1");
+        assertEquals(read(file), "");
+
+        consumer.writeLine("line2");
+        assertEquals(read(file), "line1\nline2\n");
+        consumer.close();
+    }
+
+    @Test
+    public void shouldWritePendingLinesAfterFlushInterval() throws Exception {
+        GroupCommitFileLineConsumer consumer = new GroupCommitFileLineConsumer(file, 1024, 50, 0);
+
+        consumer.writeLine("line");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (read(file).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(read(file), "line\n");
+        consumer.close();
+    }
+
+    @Test
+    public void shouldWritePendingLinesOnClose() throws Exception {
+        GroupCommitFileLineConsumer consumer = new GroupCommitFileLineConsumer(file, 1024, 60_000, 0);
+
+        consumer.writeLine("line");
+        consumer.writeLine(null);
+        consumer.close();
+
+        assertFalse(consumer.isOpen());
+        assertEquals(read(file), "line\n\n");
+    }
+
+    @Test
+    public void shouldNotWriteIntoFileAfterConsumerClosing() throws Exception {
+        GroupCommitFileLineConsumer consumer = new GroupCommitFileLineConsumer(file, 1, 60_000, 0);
+        consumer.close();
+
+        consumer.writeLine("line");
+
+        assertEquals(read(file), "");
+    }
+
+    @Test
+    public void shouldRotateFileWhenMaxSizeIsExceeded() throws Exception {
+        GroupCommitFileLineConsumer consumer = new GroupCommitFileLineConsumer(file, 1, 60_000, 12);
+
+        consumer.writeLine("line1");
+        consumer.writeLine("line2");
+        consumer.writeLine("line3");
+        consumer.close();
+
+        assertTrue(backup.exists());
+        assertEquals(read(backup), "line1\nline2\n");
+        assertEquals(read(file), "line3\n");
+    }
+
+    @Test
+    public void shouldWriteAllLinesWrittenSimultaneously() throws Exception {
+        GroupCommitFileLineConsumer consumer = new GroupCommitFileLineConsumer(file, 64, 10, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    try {
+                        consumer.writeLine("line");
+                    } catch (Exception ignore) {
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        consumer.close();
+
+        assertEquals(Files.readAllLines(file.toPath(), Charset.defaultCharset()).size(), 4000);
+    }
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset());
+    }
+}
@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.websocket.impl.BasicWebSocketMessageTransmitter.OverflowPolicy;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -18,16 +18,27 @@ import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 /**
  * Test for {@link BasicWebSocketMessageTransmitter}
@@ -36,24 +47,38 @@ import static org.mockito.Mockito.when;
  */
 @Listeners(MockitoTestNGListener.class)
 public class BasicWebSocketMessageTransmitterTest {
-    private static final String MESSAGE     = "message";
-    private static final String ENDPOINT_ID = "id";
+    private static final String MESSAGE      = "message";
+    private static final String ENDPOINT_ID  = "id";
+    private static final String NOTIFICATION = "{\"jsonrpc\":\"2.0\",\"method\":\"event\",\"params\":{\"id\":\"x\"}}";
+    private static final String REQUEST      = "{\"jsonrpc\":\"2.0\",\"method\":\"call\",\"id\":\"1\",\"params\":[]}";
 
     @Mock
-    private WebSocketSessionRegistry         registry;
+    private WebSocketSessionRegistry registry;
     @Mock
-    private MessagesReSender                 reSender;
-    @InjectMocks
+    private MessagesReSender         reSender;
+
     private BasicWebSocketMessageTransmitter transmitter;
+    private List<String>                     sent;
+    private List<SendHandler>                handlers;
 
     @Mock
     private Session              session;
     @Mock
-    private RemoteEndpoint.Basic remote;
+    private RemoteEndpoint.Async remote;
 
     @BeforeMethod
     public void setUp() throws Exception {
-        when(session.getBasicRemote()).thenReturn(remote);
+        transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 2, OverflowPolicy.DROP_OLDEST_NOTIFICATION);
+
+        sent = new ArrayList<>();
+        handlers = new ArrayList<>();
+        doAnswer(invocation -> {
+            sent.add((String)invocation.getArguments()[0]);
+            handlers.add((SendHandler)invocation.getArguments()[1]);
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+
+        when(session.getAsyncRemote()).thenReturn(remote);
         when(session.isOpen()).thenReturn(true);
 
         when(registry.get(ENDPOINT_ID)).thenReturn(Optional.of(session));
@@ -64,8 +89,8 @@ public class BasicWebSocketMessageTransmitterTest {
     public void shouldSendDirectMessageIfSessionIsOpenAndEndpointIsSet() throws IOException {
         transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-        verify(session).getBasicRemote();
-        verify(remote).sendText(MESSAGE);
+        verify(session).getAsyncRemote();
+        verify(remote).sendText(eq(MESSAGE), any(SendHandler.class));
         verify(reSender, never()).add(eq(ENDPOINT_ID), anyString());
     }
 
@@ -75,8 +100,77 @@ public class BasicWebSocketMessageTransmitterTest {
 
         transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-        verify(session, never()).getBasicRemote();
-        verify(remote, never()).sendText(MESSAGE);
+        verify(session, never()).getAsyncRemote();
+        verify(remote, never()).sendText(eq(MESSAGE), any(SendHandler.class));
         verify(reSender).add(ENDPOINT_ID, MESSAGE);
     }
+
+    @Test
+    public void shouldSendNextMessageOnlyWhenPreviousIsSent() throws Exception {
+        transmitter.transmit(ENDPOINT_ID, "first");
+        transmitter.transmit(ENDPOINT_ID, "second");
+
+        assertEquals(sent, singletonList("first"));
+        assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 1);
+
+        handlers.get(0).onResult(new SendResult());
+
+        assertEquals(sent, asList("first", "second"));
+        assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 0);
+    }
+
+    @Test
+    public void shouldDropOldestNotificationWhenQueueIsFull() throws Exception {
+        transmitter.transmit(ENDPOINT_ID, MESSAGE);
+        transmitter.transmit(ENDPOINT_ID, NOTIFICATION);
+        transmitter.transmit(ENDPOINT_ID, REQUEST);
+        transmitter.transmit(ENDPOINT_ID, REQUEST);
+
+        assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 2);
+        assertEquals(transmitter.getDroppedMessages(), 1);
+        assertEquals(transmitter.getPeakQueueDepth(), 2);
+
+        handlers.get(0).onResult(new SendResult());
+        handlers.get(1).onResult(new SendResult());
+        assertEquals(sent, asList(MESSAGE, REQUEST, REQUEST));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldRejectMessageWhenQueueIsFullAndHasNoNotifications() throws Exception {
+        transmitter.transmit(ENDPOINT_ID, MESSAGE);
+        transmitter.transmit(ENDPOINT_ID, REQUEST);
+        transmitter.transmit(ENDPOINT_ID, REQUEST);
+
+        transmitter.transmit(ENDPOINT_ID, NOTIFICATION);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldRejectMessageWhenQueueIsFullAndPolicyIsReject() throws Exception {
+        transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 1, OverflowPolicy.REJECT);
+        transmitter.transmit(ENDPOINT_ID, MESSAGE);
+        transmitter.transmit(ENDPOINT_ID, NOTIFICATION);
+
+        transmitter.transmit(ENDPOINT_ID, NOTIFICATION);
+    }
+
+    @Test
+    public void shouldAddQueuedMessagesToPendingWhenSessionIsClosedWhileSending() throws Exception {
+        transmitter.transmit(ENDPOINT_ID, "first");
+        transmitter.transmit(ENDPOINT_ID, "second");
+        when(session.isOpen()).thenReturn(false);
+
+        handlers.get(0).onResult(new SendResult(new IOException("closed")));
+
+        verify(reSender).add(ENDPOINT_ID, "first");
+        verify(reSender).add(ENDPOINT_ID, "second");
+        assertEquals(sent, singletonList("first"));
+    }
+
+    @Test
+    public void shouldRecognizeNotifications() throws Exception {
+        assertTrue(BasicWebSocketMessageTransmitter.isNotification(NOTIFICATION));
+        assertFalse(BasicWebSocketMessageTransmitter.isNotification(REQUEST));
+        assertFalse(BasicWebSocketMessageTransmitter.isNotification("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":null}"));
+        assertFalse(BasicWebSocketMessageTransmitter.isNotification(MESSAGE));
+    }
 }
@@ -10,25 +10,25 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.websocket.commons.SequencedFrames;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
-import javax.websocket.RemoteEndpoint;
-import javax.websocket.Session;
-
-import java.util.Optional;
-
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 /**
  * Tests for {@link MessagesReSender}
@@ -41,116 +41,176 @@ public class MessagesReSenderTest {
     private static final String ENDPOINT_ID = "id";
 
     @Mock
-    private WebSocketSessionRegistry sessionRegistry;
-    @InjectMocks
-    private MessagesReSender         reSender;
-
-    @Mock
-    private Session               session;
-    @Mock
-    private RemoteEndpoint.Async  endpoint;
+    private BasicWebSocketMessageTransmitter transmitter;
 
-    @BeforeMethod
-    public void beforeMethod() {
-        when(sessionRegistry.get(anyString())).thenReturn(Optional.of(session));
-        when(session.getAsyncRemote()).thenReturn(endpoint);
-        when(session.isOpen()).thenReturn(true);
-    }
+    private MessagesReSender reSender;
 
     @BeforeMethod
     public void before() {
-        reSender = new MessagesReSender(sessionRegistry);
+        reSender = new MessagesReSender(() -> transmitter, 20, 60_000);
     }
 
     @Test
-    public void shouldStopIfSessionIsNotRegistered() {
-        when(sessionRegistry.get(anyString())).thenReturn(Optional.empty());
+    public void shouldNotResendIfNothingIsAdded() {
+        reSender.resend(ENDPOINT_ID);
 
+        verify(transmitter, never()).transmit(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldProperlyAddForSingleEndpoint() {
         reSender.add(ENDPOINT_ID, MESSAGE);
 
         reSender.resend(ENDPOINT_ID);
 
-        verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(session, never()).getAsyncRemote();
-        verify(endpoint, never()).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
     }
 
     @Test
-    public void shouldKeepMessagesIfSessionIsClosed() {
+    public void shouldProperlyAddForSeveralEndpoints() {
         reSender.add(ENDPOINT_ID, MESSAGE);
+        reSender.add("1", MESSAGE);
 
-        when(session.isOpen()).thenReturn(false);
         reSender.resend(ENDPOINT_ID);
+        reSender.resend("1");
 
-        verify(session, never()).getAsyncRemote();
-        verify(endpoint, never()).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+        verify(transmitter).transmit("1", MESSAGE);
+    }
+
+    @Test
+    public void shouldResendMessagesInOrderTheyWereAdded() {
+        reSender.add(ENDPOINT_ID, "first");
+        reSender.add(ENDPOINT_ID, "second");
+        reSender.add(ENDPOINT_ID, "third");
 
-        when(session.isOpen()).thenReturn(true);
         reSender.resend(ENDPOINT_ID);
 
-        verify(session).getAsyncRemote();
-        verify(endpoint).sendText(MESSAGE);
+        InOrder inOrder = inOrder(transmitter);
+        inOrder.verify(transmitter).transmit(ENDPOINT_ID, "first");
+        inOrder.verify(transmitter).transmit(ENDPOINT_ID, "second");
+        inOrder.verify(transmitter).transmit(ENDPOINT_ID, "third");
     }
 
     @Test
-    public void shouldProperlyAddForSingleEndpoint() {
+    public void shouldClearOnExtractionForSingleEndpoint() {
         reSender.add(ENDPOINT_ID, MESSAGE);
 
+        reSender.resend(ENDPOINT_ID);
         reSender.resend(ENDPOINT_ID);
 
-        verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(session).getAsyncRemote();
-        verify(endpoint).sendText(MESSAGE);
+        verify(transmitter, times(1)).transmit(ENDPOINT_ID, MESSAGE);
     }
 
     @Test
-    public void shouldProperlyAddForSeveralEndpoints() {
-        reSender.add(ENDPOINT_ID, MESSAGE);
-        reSender.add("1", MESSAGE);
+    public void shouldDropOldestMessagesWhenOutboxIsFull() {
+        reSender.add(ENDPOINT_ID, "message-1");
+        reSender.add(ENDPOINT_ID, "message-2");
+        reSender.add(ENDPOINT_ID, "message-3");
 
         reSender.resend(ENDPOINT_ID);
-        reSender.resend("1");
 
-        verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(sessionRegistry).get("1");
-        verify(session, times(2)).getAsyncRemote();
-        verify(endpoint, times(2)).sendText(MESSAGE);
+        verify(transmitter, never()).transmit(ENDPOINT_ID, "message-1");
+        verify(transmitter).transmit(ENDPOINT_ID, "message-2");
+        verify(transmitter).transmit(ENDPOINT_ID, "message-3");
     }
 
     @Test
-    public void shouldClearOnExtractionForSingleEndpoint() {
-        reSender.add(ENDPOINT_ID, MESSAGE);
+    public void shouldKeepMessagesThatCanNotBeResent() {
+        reSender.add(ENDPOINT_ID, "first");
+        reSender.add(ENDPOINT_ID, "second");
+        doThrow(new IllegalStateException("queue is full")).when(transmitter).transmit(ENDPOINT_ID, "first");
+
+        reSender.resend(ENDPOINT_ID);
 
+        verify(transmitter, never()).transmit(ENDPOINT_ID, "second");
+
+        reset(transmitter);
         reSender.resend(ENDPOINT_ID);
-        verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(session).getAsyncRemote();
-        verify(endpoint).sendText(MESSAGE);
 
+        InOrder inOrder = inOrder(transmitter);
+        inOrder.verify(transmitter).transmit(ENDPOINT_ID, "first");
+        inOrder.verify(transmitter).transmit(ENDPOINT_ID, "second");
+    }
+
+    @Test
+    public void shouldSendSequencedMessagesAfterEndpointAcknowledgement() {
+        reSender.open(ENDPOINT_ID, true);
         reSender.resend(ENDPOINT_ID);
-        verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(session).getAsyncRemote();
-        verify(endpoint).sendText(MESSAGE);
+        assertTrue(reSender.sequence(ENDPOINT_ID, "first"));
+
+        verify(transmitter).sendFrame(ENDPOINT_ID, "ack:0");
+        verify(transmitter, never()).sendFrame(ENDPOINT_ID, "#1:first");
+
+        assertNull(reSender.receive(ENDPOINT_ID, "ack:0"));
+        reSender.sequence(ENDPOINT_ID, "second");
+
+        InOrder inOrder = inOrder(transmitter);
+        inOrder.verify(transmitter).sendFrame(ENDPOINT_ID, "#1:first");
+        inOrder.verify(transmitter).sendFrame(ENDPOINT_ID, "#2:second");
+        verify(transmitter, never()).transmit(anyString(), anyString());
     }
 
     @Test
-    public void shouldClearOnExtractionForSeveralEndpoint() {
-        reSender.add(ENDPOINT_ID, MESSAGE);
-        reSender.add("1", MESSAGE);
+    public void shouldResendOnlyMessagesNotReceivedByEndpointAfterReconnect() {
+        reSender.open(ENDPOINT_ID, true);
+        reSender.receive(ENDPOINT_ID, "ack:0");
+        reSender.sequence(ENDPOINT_ID, "first");
+        reSender.sequence(ENDPOINT_ID, "second");
+        reSender.sequence(ENDPOINT_ID, "third");
+        reSender.close(ENDPOINT_ID);
+        reset(transmitter);
+
+        reSender.open(ENDPOINT_ID, true);
+        reSender.resend(ENDPOINT_ID);
+        reSender.receive(ENDPOINT_ID, "ack:1");
+
+        verify(transmitter, never()).sendFrame(ENDPOINT_ID, "#1:first");
+        InOrder inOrder = inOrder(transmitter);
+        inOrder.verify(transmitter).sendFrame(ENDPOINT_ID, "#2:second");
+        inOrder.verify(transmitter).sendFrame(ENDPOINT_ID, "#3:third");
+    }
+
+    @Test
+    public void shouldContinueNumberingOfEndpointWhenOutboxIsCreatedAnew() {
+        reSender.open(ENDPOINT_ID, true);
+        reSender.sequence(ENDPOINT_ID, "first");
+
+        reSender.receive(ENDPOINT_ID, "ack:41");
 
+        verify(transmitter).sendFrame(ENDPOINT_ID, "#42:first");
+    }
+
+    @Test
+    public void shouldSkipDuplicatesAndAcknowledgeReceivedMessages() {
+        reSender.open(ENDPOINT_ID, true);
         reSender.resend(ENDPOINT_ID);
-        reSender.resend("1");
 
-        verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(sessionRegistry).get("1");
-        verify(session, times(2)).getAsyncRemote();
-        verify(endpoint, times(2)).sendText(MESSAGE);
+        assertEquals(reSender.receive(ENDPOINT_ID, "#1:first"), "first");
+        assertNull(reSender.receive(ENDPOINT_ID, "#1:first"));
+        for (int i = 2; i <= SequencedFrames.ACK_INTERVAL; i++) {
+            reSender.receive(ENDPOINT_ID, "#" + i + ":message");
+        }
+
+        verify(transmitter).sendFrame(ENDPOINT_ID, "ack:" + SequencedFrames.ACK_INTERVAL);
+    }
+
+    @Test
+    public void shouldNotChangeMessagesOfNotSequencedEndpoint() {
+        reSender.open(ENDPOINT_ID, false);
+
+        assertFalse(reSender.sequence(ENDPOINT_ID, MESSAGE));
+        assertEquals(reSender.receive(ENDPOINT_ID, "#1:" + MESSAGE), "#1:" + MESSAGE);
+    }
 
+    @Test
+    public void shouldEvictOutboxWhenEndpointDoesNotReconnectInTime() {
+        reSender = new MessagesReSender(() -> transmitter, 20, 0);
+        reSender.add(ENDPOINT_ID, MESSAGE);
+
+        reSender.close("another");
         reSender.resend(ENDPOINT_ID);
-        reSender.resend("1");
 
-        verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(sessionRegistry).get("1");
-        verify(session, times(2)).getAsyncRemote();
-        verify(endpoint, times(2)).sendText(MESSAGE);
+        verify(transmitter, never()).transmit(anyString(), anyString());
     }
 }
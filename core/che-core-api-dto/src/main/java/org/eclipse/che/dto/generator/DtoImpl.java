@@ -190,6 +190,26 @@ abstract class DtoImpl {
         return getters.keySet();
     }
 
+    /**
+     * Gets getters of fields that are declared in implementation of given {@code dto} interface and in implementations of its super
+     * DTO interfaces, one getter per field. Fields of the most specific implementation come first.
+     */
+    protected List<Method> getImplFieldGetters(Class<?> dto) {
+        final List<Method> getters = new ArrayList<>();
+        for (Class<?> current = dto; current != null; current = getSuperDtoInterface(current)) {
+            final Map<String, Method> currentGetters = new HashMap<>();
+            addDtoGetters(current, currentGetters);
+            addSuperGetters(current, currentGetters);
+            final Set<String> superGetterNames = getSuperGetterNames(current);
+            for (Method getter : currentGetters.values()) {
+                if (!superGetterNames.contains(getter.getName())) {
+                    getters.add(getter);
+                }
+            }
+        }
+        return getters;
+    }
+
     /**
      * Adds all getters from parent <b>NOT DTO</b> interfaces for given {@code dto} interface.
      * Does not add method when it is already present in getters map.
@@ -11,6 +11,7 @@
 
 package org.eclipse.che.dto.generator;
 
+import org.eclipse.che.dto.server.DtoTypeAdapter;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
@@ -41,6 +42,9 @@ public class DtoImplServerTemplate extends DtoImpl {
     private static final String JSON_MAP_IMPL     = JsonStringMapImpl.class.getCanonicalName();
     private static final String SERVER_DTO_MARKER = "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
 
+    /** Simple name of type adapter class that is generated inside of each DTO implementation. */
+    static final String TYPE_ADAPTER_CLASS = "JsonAdapter";
+
     DtoImplServerTemplate(DtoTemplate template, Class<?> superInterface) {
         super(template, superInterface);
     }
@@ -74,6 +78,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         emitSerializer(methods, builder);
         emitDeserializer(methods, builder);
         emitDeserializerShortcut(builder);
+        emitTypeAdapter(builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
         emitDelegateMethods(builder);
@@ -322,6 +327,166 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("      return gson.fromJson(jsonString, ").append(getImplClassName()).append(".class);\n");
         builder.append("    }\n\n");
     }
+    /**
+     * Generates Gson type adapter that reads and writes fields of DTO implementation directly. Strings, booleans and
+     * {@code int}, {@code long}, {@code double} numbers are handled inline, DTOs and 'any' values are written with adapter
+     * of their runtime type, all other values are delegated to adapters that Gson provides for the field type.
+     * Fields inherited from implementations of super DTO interfaces are handled as well.
+     */
+    private void emitTypeAdapter(StringBuilder builder) {
+        final String implClassName = getImplClassName();
+        final List<Method> fields = getImplFieldGetters(getDtoInterface());
+
+        builder.append("    public static class ").append(TYPE_ADAPTER_CLASS)
+               .append(" extends ").append(DtoTypeAdapter.class.getCanonicalName()).append("<").append(implClassName).append("> {\n");
+        for (Method getter : fields) {
+            if (hasFieldAdapter(getter)) {
+                builder.append("      private final com.google.gson.TypeAdapter<").append(getAdaptedTypeName(getter)).append("> ")
+                       .append(getJavaFieldName(getter.getName())).append("Adapter;\n");
+            }
+        }
+        builder.append("\n");
+        builder.append("      public ").append(TYPE_ADAPTER_CLASS).append("(Gson gson) {\n");
+        builder.append("        super(gson);\n");
+        for (Method getter : fields) {
+            if (hasFieldAdapter(getter)) {
+                builder.append("        this.").append(getJavaFieldName(getter.getName())).append("Adapter = gson.getAdapter(");
+                if (getter.getGenericReturnType() instanceof Class<?>) {
+                    builder.append(getAdaptedTypeName(getter)).append(".class");
+                } else {
+                    builder.append("new com.google.gson.reflect.TypeToken<").append(getAdaptedTypeName(getter)).append(">() {}");
+                }
+                builder.append(");\n");
+            }
+        }
+        builder.append("      }\n\n");
+
+        builder.append("      @Override\n");
+        builder.append("      public void write(com.google.gson.stream.JsonWriter out, ").append(implClassName)
+               .append(" value) throws java.io.IOException {\n");
+        builder.append("        if (value == null) {\n");
+        builder.append("          out.nullValue();\n");
+        builder.append("          return;\n");
+        builder.append("        }\n");
+        builder.append("        out.beginObject();\n");
+        for (Method getter : fields) {
+            final String fieldName = getJavaFieldName(getter.getName());
+            builder.append("        out.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+            switch (getAdaptedFieldKind(getter)) {
+                case STRING:
+                case BOOLEAN:
+                case INT:
+                case LONG:
+                case DOUBLE:
+                    builder.append("        out.value(value.").append(fieldName).append(");\n");
+                    break;
+                case RUNTIME_TYPE:
+                    builder.append("        writeRuntimeType(out, value.").append(fieldName).append(");\n");
+                    break;
+                default:
+                    builder.append("        ").append(fieldName).append("Adapter.write(out, value.").append(fieldName).append(");\n");
+            }
+        }
+        builder.append("        out.endObject();\n");
+        builder.append("      }\n\n");
+
+        builder.append("      @Override\n");
+        builder.append("      public ").append(implClassName)
+               .append(" read(com.google.gson.stream.JsonReader in) throws java.io.IOException {\n");
+        builder.append("        if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n");
+        builder.append("          in.nextNull();\n");
+        builder.append("          return null;\n");
+        builder.append("        }\n");
+        builder.append("        ").append(implClassName).append(" value = new ").append(implClassName).append("();\n");
+        builder.append("        in.beginObject();\n");
+        builder.append("        while (in.hasNext()) {\n");
+        builder.append("          switch (in.nextName()) {\n");
+        for (Method getter : fields) {
+            final String fieldName = getJavaFieldName(getter.getName());
+            final String target = "value." + fieldName;
+            builder.append("            case ").append(quoteStringLiteral(getJsonFieldName(getter))).append(":\n");
+            switch (getAdaptedFieldKind(getter)) {
+                case STRING:
+                    builder.append("              ").append(target).append(" = readString(in);\n");
+                    break;
+                case BOOLEAN:
+                    builder.append("              ").append(target).append(" = readBoolean(in, ").append(target).append(");\n");
+                    break;
+                case INT:
+                    builder.append("              ").append(target).append(" = readInt(in, ").append(target).append(");\n");
+                    break;
+                case LONG:
+                    builder.append("              ").append(target).append(" = readLong(in, ").append(target).append(");\n");
+                    break;
+                case DOUBLE:
+                    builder.append("              ").append(target).append(" = readDouble(in, ").append(target).append(");\n");
+                    break;
+                case RUNTIME_TYPE:
+                    builder.append("              ").append(target).append(" = ").append(fieldName).append("Adapter.read(in);\n");
+                    break;
+                default:
+                    if (getter.getReturnType().isPrimitive()) {
+                        // null is not assigned to a primitive field, same as Gson's reflective adapter does
+                        builder.append("              ").append(getAdaptedTypeName(getter)).append(" ").append(fieldName)
+                               .append("Value = ").append(fieldName).append("Adapter.read(in);\n");
+                        builder.append("              if (").append(fieldName).append("Value != null) {\n");
+                        builder.append("                ").append(target).append(" = ").append(fieldName).append("Value;\n");
+                        builder.append("              }\n");
+                    } else {
+                        builder.append("              ").append(target).append(" = ").append(fieldName).append("Adapter.read(in);\n");
+                    }
+            }
+            builder.append("              break;\n");
+        }
+        builder.append("            default:\n");
+        builder.append("              in.skipValue();\n");
+        builder.append("          }\n");
+        builder.append("        }\n");
+        builder.append("        in.endObject();\n");
+        builder.append("        return value;\n");
+        builder.append("      }\n");
+        builder.append("    }\n\n");
+    }
+
+    /** Describes how value of the field is read and written by generated type adapter. */
+    private enum FieldKind {
+        STRING, BOOLEAN, INT, LONG, DOUBLE, RUNTIME_TYPE, DELEGATED
+    }
+
+    private FieldKind getAdaptedFieldKind(Method getter) {
+        final Class<?> type = getter.getReturnType();
+        if (type == String.class) {
+            return FieldKind.STRING;
+        } else if (type == boolean.class) {
+            return FieldKind.BOOLEAN;
+        } else if (type == int.class) {
+            return FieldKind.INT;
+        } else if (type == long.class) {
+            return FieldKind.LONG;
+        } else if (type == double.class) {
+            return FieldKind.DOUBLE;
+        } else if (isAny(type) || (type.isInterface() && !isList(type) && !isMap(type)
+                                   && type != JsonArray.class && type != JsonStringMap.class)) {
+            return FieldKind.RUNTIME_TYPE;
+        }
+        return FieldKind.DELEGATED;
+    }
+
+    /** Tells whether generated type adapter needs Gson's adapter of the field type for reading or writing it. */
+    private boolean hasFieldAdapter(Method getter) {
+        final FieldKind kind = getAdaptedFieldKind(getter);
+        return kind == FieldKind.RUNTIME_TYPE || kind == FieldKind.DELEGATED;
+    }
+
+    /** Returns type of field as it is seen by Gson, primitive types are replaced with their wrappers. */
+    private String getAdaptedTypeName(Method getter) {
+        final Class<?> type = getter.getReturnType();
+        if (type.isPrimitive()) {
+            return Primitives.wrap(type).getCanonicalName();
+        }
+        return getImplName(getter.getGenericReturnType(), false);
+    }
+
     private static StringBuilder appendNaiveCopyJsonExpression(String inValue, StringBuilder builder) {
         builder.append("((");
         builder.append(inValue);
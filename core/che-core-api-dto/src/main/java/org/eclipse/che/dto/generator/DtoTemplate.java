@@ -250,6 +250,11 @@ public class DtoTemplate {
                 builder.append("        }\n\n");
                 builder.append("        public ").append(dtoInterface).append(" clone(").append(dtoInterface).append(" origin) {\n")
                        .append("            return new ").append(dto.getImplClassName()).append("(origin);\n");
+                builder.append("        }\n\n");
+                builder.append("        public com.google.gson.TypeAdapter<").append(dto.getImplClassName())
+                       .append("> createTypeAdapter(Gson gson) {\n")
+                       .append("            return new ").append(dto.getImplClassName()).append(".")
+                       .append(DtoImplServerTemplate.TYPE_ADAPTER_CLASS).append("(gson);\n");
                 builder.append("        }\n");
                 builder.append("    });\n");
             }
@@ -101,7 +101,8 @@ public final class DtoFactory {
     private final Gson dtoGson = new GsonBuilder()
             .registerTypeAdapterFactory(new NullAsEmptyTAF<>(Collection.class, Collections.emptyList()))
             .registerTypeAdapterFactory(new NullAsEmptyTAF<>(Map.class, Collections.emptyMap()))
-            .registerTypeAdapterFactory(new DtoInterfaceTAF()).create();
+            .registerTypeAdapterFactory(new DtoInterfaceTAF())
+            .registerTypeAdapterFactory(new DtoImplTAF()).create();
 
     /**
      * Created deep copy of DTO object.
@@ -473,6 +474,22 @@ public final class DtoFactory {
         }
     }
 
+    /**
+     * Uses adapters generated together with DTO implementation classes, see {@link DtoProvider#createTypeAdapter(Gson)}.
+     * Implementations without generated adapter are left to Gson's reflective adapter.
+     */
+    private class DtoImplTAF implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            DtoProvider<?> prov = dtoImpl2Providers.get(type.getRawType());
+            if (prov != null) {
+                return (TypeAdapter<T>)prov.createTypeAdapter(gson);
+            }
+            return null;
+        }
+    }
+
     /**
      * Wraps Gson's default List/Map adapter factories serialize null List/Map fields as empty instead.
      * 
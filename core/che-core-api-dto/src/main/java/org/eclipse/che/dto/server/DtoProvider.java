@@ -10,7 +10,9 @@
  *******************************************************************************/
 package org.eclipse.che.dto.server;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
 
 /**
  * Provides implementation of DTO interface.
@@ -27,4 +29,12 @@ public interface DtoProvider<DTO> {
     DTO newInstance();
 
     DTO clone(DTO origin);
+
+    /**
+     * Creates adapter that reads and writes instances of {@link #getImplClass()} without reflection.
+     * Returns {@code null} if implementation should be handled by Gson's reflective adapter.
+     */
+    default TypeAdapter<? extends DTO> createTypeAdapter(Gson gson) {
+        return null;
+    }
 }
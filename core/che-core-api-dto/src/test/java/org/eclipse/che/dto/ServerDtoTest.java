@@ -28,6 +28,7 @@ import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.DtoTypeAdapter;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -381,6 +382,34 @@ public class ServerDtoTest {
         assertEquals(childDto.getParentField(), "parent-field");
     }
 
+    @Test
+    public void shouldUseGeneratedTypeAdapterForDtoImplementation() {
+        final SimpleDto dto = dtoFactory.createDto(SimpleDto.class);
+
+        assertTrue(dtoFactory.getGson().getAdapter(dto.getClass()) instanceof DtoTypeAdapter);
+    }
+
+    @Test
+    public void shouldSerializeAndDeserializeFieldsInheritedFromSuperDtoImplementation() {
+        final GrandchildDto dto = dtoFactory.createDto(GrandchildDto.class);
+        dto.setDtoField("dto-field");
+        dto.setChildField("child-field");
+        dto.setParentField("parent-field");
+        dto.setShadowedField(dtoFactory.createDto(GrandchildDto.class).withDtoField("shadowed"));
+
+        final String json = dtoFactory.toJson(dto);
+        final JsonObject jsonObject = new JsonParser().parse(json).getAsJsonObject();
+        assertEquals(jsonObject.get("dtoField").getAsString(), "dto-field");
+        assertEquals(jsonObject.get("childField").getAsString(), "child-field");
+        assertEquals(jsonObject.get("parentField").getAsString(), "parent-field");
+        assertEquals(jsonObject.getAsJsonObject("shadowedField").get("dtoField").getAsString(), "shadowed");
+
+        final GrandchildDto copy = dtoFactory.createDtoFromJson(json, GrandchildDto.class);
+        assertEquals(copy.getChildField(), "child-field");
+        assertEquals(copy.getParentField(), "parent-field");
+        assertEquals(copy.getDtoField(), "dto-field");
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class,
           expectedExceptionsMessageRegExp = "Only interfaces can be DTO, but class java.lang.String is not")
     public void shouldThrowExceptionWhenThereIsClassType() {
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.execution;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads output of many processes with a single daemon thread instead of a thread per stream.
+ *
+ * <p>Registered sources are polled in turn and only characters which are {@link Reader#ready() ready}
+ * are read, so a silent process never blocks reading of the others. Read characters are split into lines
+ * which are passed to the source in one batch per poll. The thread sleeps for a short time when none of the
+ * sources had new characters and waits without polling when there are no sources at all.
+ *
+ * <p>Lines are passed to sources in a separate pool of threads, so a slow consumer doesn't delay reading of
+ * the other processes. A source is not read while its previous lines are being consumed, so a slow consumer
+ * holds back only the output of its own process.
+ */
+public final class OutputPoller {
+    private static final Logger LOG = LoggerFactory.getLogger(OutputPoller.class);
+
+    private static final int SLEEP_WHEN_WAS_ACTIVE = 1;
+    private static final int SLEEP_WHEN_IDLE       = 5;
+    /** Limits reads from one source per poll, so a chatty process doesn't starve the others. */
+    private static final int MAX_READS_PER_POLL    = 8;
+    private static final int BUFFER_SIZE           = 8192;
+
+    private static final OutputPoller DEFAULT = new OutputPoller("OutputPoller");
+
+    /** Returns poller shared by all process readers. */
+    public static OutputPoller getDefault() {
+        return DEFAULT;
+    }
+
+    private final String          threadName;
+    private final Queue<Source>   sources;
+    private final char[]          buffer;
+    private final ExecutorService consumers;
+
+    private Thread thread;
+
+    OutputPoller(String threadName) {
+        this.threadName = threadName;
+        this.sources = new ConcurrentLinkedQueue<>();
+        this.buffer = new char[BUFFER_SIZE];
+        this.consumers = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat(threadName + "-consumer-%d")
+                                          .setDaemon(true)
+                                          .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                                          .build());
+    }
+
+    /** Starts reading of the given source. */
+    public void register(Source source) {
+        sources.add(source);
+        synchronized (this) {
+            if (thread == null) {
+                thread = new Thread(this::run, threadName);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            notifyAll();
+        }
+    }
+
+    /** Returns number of sources which are currently read. */
+    public int getSourcesCount() {
+        // closed sources are removed on the next poll
+        return (int)sources.stream().filter(source -> !source.isClosed()).count();
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                synchronized (this) {
+                    while (sources.isEmpty()) {
+                        wait();
+                    }
+                }
+                boolean active = false;
+                for (Source source : sources) {
+                    try {
+                        active |= source.poll(buffer, consumers);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getLocalizedMessage(), e);
+                        source.close(null);
+                    }
+                    if (source.isClosed()) {
+                        sources.remove(source);
+                    }
+                }
+                Thread.sleep(active ? SLEEP_WHEN_WAS_ACTIVE : SLEEP_WHEN_IDLE);
+            } catch (InterruptedException e) {
+                LOG.warn("Output poller thread is interrupted, process output reading continues");
+            }
+        }
+    }
+
+    /**
+     * Stream of characters read by {@link OutputPoller}.
+     *
+     * <p>When {@code keepLineSeparators} is {@code false} lines are split the same way as
+     * {@link java.io.BufferedReader#readLine()} does and incomplete line is held until it is terminated
+     * or input is finished. Otherwise each line keeps its trailing {@code '\n'} and incomplete line is passed
+     * as is at the end of each poll.
+     */
+    public abstract static class Source {
+        private final Reader         reader;
+        private final boolean        keepLineSeparators;
+        private final CountDownLatch closed;
+
+        private char[]  line;
+        private int     lineLength;
+        private boolean skipLineFeed;
+
+        private volatile boolean     isStopped;
+        private volatile boolean     isClosed;
+        /** Whether lines of the previous poll are still being consumed. */
+        private volatile boolean     isConsuming;
+        private volatile IOException error;
+
+        protected Source(Reader reader, boolean keepLineSeparators) {
+            this.reader = reader;
+            this.keepLineSeparators = keepLineSeparators;
+            this.closed = new CountDownLatch(1);
+            this.line = new char[128];
+        }
+
+        /** Consumes lines read during one poll. */
+        protected abstract void onLines(List<String> lines) throws IOException;
+
+        /** Returns {@code true} when no more characters are expected, e.g. process is terminated. */
+        protected boolean isInputFinished() {
+            return false;
+        }
+
+        /** Is called once after reader is closed, {@code error} is {@code null} when input is finished normally. */
+        protected void onClosed(IOException error) {
+        }
+
+        /** Reads characters which are already available and closes the source. */
+        public void stop() {
+            isStopped = true;
+        }
+
+        public boolean isClosed() {
+            return isClosed;
+        }
+
+        /** Returns error which caused closing of the source or {@code null}. */
+        public IOException getError() {
+            return error;
+        }
+
+        /** Waits until the source is closed. */
+        public void await() throws InterruptedException {
+            closed.await();
+        }
+
+        /** Waits until the source is closed, returns {@code false} if timeout elapsed. */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return closed.await(timeout, unit);
+        }
+
+        /**
+         * Reads available characters and passes the lines to the given executor for consuming.
+         *
+         * @return {@code true} if any characters were read
+         */
+        boolean poll(char[] buffer, Executor consumers) {
+            if (isClosed || isConsuming) {
+                return false;
+            }
+            // must be checked before reading, all the output written before the end is available then
+            boolean finish = isStopped || isInputFinished();
+            boolean read = false;
+            final List<String> lines = new ArrayList<>();
+            try {
+                boolean endOfStream = false;
+                for (int reads = 0; reads < MAX_READS_PER_POLL && !endOfStream && reader.ready(); reads++) {
+                    final int count = reader.read(buffer);
+                    if (count < 0) {
+                        endOfStream = true;
+                    } else if (count > 0) {
+                        read = true;
+                        split(buffer, count, lines);
+                    }
+                }
+                finish = endOfStream || finish && !reader.ready();
+            } catch (IOException e) {
+                error = e;
+                finish = true;
+            }
+            if ((finish || keepLineSeparators) && lineLength > 0) {
+                lines.add(new String(line, 0, lineLength));
+                lineLength = 0;
+            }
+            if (!lines.isEmpty() || finish) {
+                final boolean close = finish;
+                isConsuming = true;
+                consumers.execute(() -> consume(lines, close));
+            }
+            return read;
+        }
+
+        private void consume(List<String> lines, boolean finish) {
+            try {
+                try {
+                    if (!lines.isEmpty()) {
+                        onLines(lines);
+                    }
+                } catch (IOException e) {
+                    LOG.warn("Failed to consume process output, reading of the output is stopped", e);
+                    error = e;
+                    finish = true;
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to consume process output, reading of the output is stopped", e);
+                    finish = true;
+                }
+                if (finish) {
+                    close(error);
+                }
+            } finally {
+                isConsuming = false;
+            }
+        }
+
+        void close(IOException error) {
+            isClosed = true;
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+            try {
+                onClosed(error);
+            } finally {
+                closed.countDown();
+            }
+        }
+
+        private void split(char[] chars, int count, List<String> lines) {
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                final char c = chars[i];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        start = i + 1;
+                        continue;
+                    }
+                }
+                if (c == '\n') {
+                    lines.add(toLine(chars, start, keepLineSeparators ? i + 1 - start : i - start));
+                    start = i + 1;
+                } else if (c == '\r' && !keepLineSeparators) {
+                    lines.add(toLine(chars, start, i - start));
+                    start = i + 1;
+                    skipLineFeed = true;
+                }
+            }
+            append(chars, start, count - start);
+        }
+
+        /** Completes the held incomplete line with given characters, avoids copying if there is no such line. */
+        private String toLine(char[] chars, int offset, int length) {
+            if (lineLength == 0) {
+                return new String(chars, offset, length);
+            }
+            append(chars, offset, length);
+            final String result = new String(line, 0, lineLength);
+            lineLength = 0;
+            return result;
+        }
+
+        private void append(char[] chars, int offset, int length) {
+            if (length <= 0) {
+                return;
+            }
+            if (lineLength + length > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+            }
+            System.arraycopy(chars, offset, line, lineLength, length);
+            lineLength += length;
+        }
+    }
+}
@@ -152,7 +152,7 @@ public class ProcessHandler implements Executor {
     }
 
     private OutputReader createStdErrReader() {
-        return new OutputReader(new InputStreamReader(process.getErrorStream()), this, (s -> notifyOnText(s, ProcessOutputType.STDERR)));
+        return new OutputReader(new InputStreamReader(process.getErrorStream()), (s -> notifyOnText(s, ProcessOutputType.STDERR)));
     }
 
     private void notifyOnTerminating() {
@@ -164,7 +164,7 @@ public class ProcessHandler implements Executor {
     }
 
     private OutputReader createStdOutReader() {
-        return new OutputReader(new InputStreamReader(process.getInputStream()), this, (s -> {
+        return new OutputReader(new InputStreamReader(process.getInputStream()), (s -> {
             notifyOnText(s, ProcessOutputType.STDOUT);
         }));
     }
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.execution;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class OutputPollerTest {
+    private OutputPoller poller;
+
+    @BeforeMethod
+    public void setUp() {
+        poller = new OutputPoller("test-poller");
+    }
+
+    @Test
+    public void shouldSplitLinesTheSameWayAsBufferedReader() throws Exception {
+        CollectingSource source = new CollectingSource(new StringReader("first\nsecond\r\nthird\rfourth"), false);
+
+        poller.register(source);
+
+        assertTrue(source.await(5, TimeUnit.SECONDS));
+        assertEquals(source.lines, asList("first", "second", "third", "fourth"));
+    }
+
+    @Test
+    public void shouldKeepLineSeparatorsAndPassIncompleteLineWhenRequested() throws Exception {
+        PipedWriter writer = new PipedWriter();
+        CollectingSource source = new CollectingSource(new PipedReader(writer), true);
+        poller.register(source);
+
+        writer.write("first\nsec");
+        writer.flush();
+        waitForLines(source, 2);
+        source.stop();
+
+        assertTrue(source.await(5, TimeUnit.SECONDS));
+        assertEquals(source.lines, asList("first\n", "sec"));
+    }
+
+    @Test
+    public void shouldHoldIncompleteLineUntilItIsTerminated() throws Exception {
+        PipedWriter writer = new PipedWriter();
+        CollectingSource source = new CollectingSource(new PipedReader(writer), false);
+        poller.register(source);
+
+        writer.write("fir");
+        writer.flush();
+        writer.write("st\nsecond");
+        writer.flush();
+        waitForLines(source, 1);
+        source.stop();
+
+        assertTrue(source.await(5, TimeUnit.SECONDS));
+        assertEquals(source.lines, asList("first", "second"));
+    }
+
+    @Test
+    public void shouldReadManySourcesWithOneThread() throws Exception {
+        List<PipedWriter> writers = new ArrayList<>();
+        List<CollectingSource> sources = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            PipedWriter writer = new PipedWriter();
+            CollectingSource source = new CollectingSource(new PipedReader(writer), false);
+            writers.add(writer);
+            sources.add(source);
+            poller.register(source);
+        }
+
+        for (int i = 0; i < writers.size(); i++) {
+            writers.get(i).write("line" + i + '\n');
+            writers.get(i).flush();
+        }
+        for (CollectingSource source : sources) {
+            waitForLines(source, 1);
+            source.stop();
+            assertTrue(source.await(5, TimeUnit.SECONDS));
+        }
+
+        for (int i = 0; i < sources.size(); i++) {
+            assertEquals(sources.get(i).lines, asList("line" + i));
+        }
+        assertEquals(poller.getSourcesCount(), 0);
+    }
+
+    @Test
+    public void shouldCloseSourceWhenConsumerFails() throws Exception {
+        CollectingSource source = new CollectingSource(new StringReader("line\n"), false) {
+            @Override
+            protected void onLines(List<String> lines) throws IOException {
+                throw new IOException("failed");
+            }
+        };
+
+        poller.register(source);
+
+        assertTrue(source.await(5, TimeUnit.SECONDS));
+        assertNotNull(source.getError());
+        assertEquals(source.closedWith, source.getError());
+    }
+
+    @Test
+    public void shouldReadOtherSourcesWhileConsumerIsBlocked() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingSource blocked = new CollectingSource(new StringReader("blocked\n"), false) {
+            @Override
+            protected void onLines(List<String> lines) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onLines(lines);
+            }
+        };
+        CollectingSource source = new CollectingSource(new StringReader("line\n"), false);
+
+        poller.register(blocked);
+        poller.register(source);
+
+        assertTrue(source.await(5, TimeUnit.SECONDS));
+        assertEquals(source.lines, asList("line"));
+        assertFalse(blocked.isClosed());
+
+        release.countDown();
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        assertEquals(blocked.lines, asList("blocked"));
+    }
+
+    private static void waitForLines(CollectingSource source, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (source.lines.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class CollectingSource extends OutputPoller.Source {
+        final List<String> lines = new CopyOnWriteArrayList<>();
+
+        volatile IOException closedWith;
+
+        CollectingSource(Reader reader, boolean keepLineSeparators) {
+            super(reader, keepLineSeparators);
+        }
+
+        @Override
+        protected void onLines(List<String> lines) throws IOException {
+            this.lines.addAll(lines);
+        }
+
+        @Override
+        protected void onClosed(IOException error) {
+            closedWith = error;
+        }
+    }
+}
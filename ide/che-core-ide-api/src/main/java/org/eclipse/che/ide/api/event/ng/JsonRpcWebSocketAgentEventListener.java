@@ -15,6 +15,7 @@ import com.google.inject.Inject;
 import com.google.web.bindery.event.shared.EventBus;
 
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.websocket.commons.SequencedFrames;
 import org.eclipse.che.api.machine.shared.dto.execagent.event.DtoWithPid;
 import org.eclipse.che.api.project.shared.dto.event.ProjectTreeTrackingOperationDto;
 import org.eclipse.che.ide.api.app.AppContext;
@@ -96,7 +97,8 @@ public class JsonRpcWebSocketAgentEventListener implements WsAgentStateHandler {
         String wsAgentUrl = wsAgentWebSocketUrl.replaceFirst("api/ws", "wsagent");
         String execAgentUrl = devMachine.getExecAgentUrl();
         String separator = wsAgentUrl.contains("?") ? "&" : "?";
-        String queryParams = appContext.getApplicationWebsocketId().map(id -> separator + "clientId=" + id).orElse("");
+        String queryParams = separator + SequencedFrames.QUERY_PARAMETER + "=true"
+                             + appContext.getApplicationWebsocketId().map(id -> "&clientId=" + id).orElse("");
         Set<Runnable> initActions = appContext.getApplicationWebsocketId().isPresent() ? emptySet() : singleton(this::processWsId);
 
         initializer.initialize("ws-agent", singletonMap("url", wsAgentUrl + queryParams), initActions);
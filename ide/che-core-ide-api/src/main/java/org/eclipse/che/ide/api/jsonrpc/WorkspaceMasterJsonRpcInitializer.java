@@ -14,6 +14,7 @@ import com.google.gwt.user.client.Timer;
 import com.google.inject.Inject;
 
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.websocket.commons.SequencedFrames;
 import org.eclipse.che.ide.api.app.AppContext;
 import org.eclipse.che.ide.jsonrpc.JsonRpcInitializer;
 import org.eclipse.che.ide.util.loging.Log;
@@ -73,7 +74,8 @@ public class WorkspaceMasterJsonRpcInitializer {
         String context = getWebsocketContext();
         String url = protocol + host + context;
         String separator = url.contains("?") ? "&" : "?";
-        String queryParams = appContext.getApplicationWebsocketId().map(id -> separator + "clientId=" + id).orElse("");
+        String queryParams = separator + SequencedFrames.QUERY_PARAMETER + "=true"
+                             + appContext.getApplicationWebsocketId().map(id -> "&clientId=" + id).orElse("");
         Set<Runnable> initActions = appContext.getApplicationWebsocketId().isPresent() ? emptySet() : singleton(this::processWsId);
 
         initializer.initialize("ws-master", singletonMap("url", url + queryParams), initActions);
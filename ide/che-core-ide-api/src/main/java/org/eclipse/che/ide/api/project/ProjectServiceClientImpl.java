@@ -15,8 +15,10 @@ import com.google.inject.Inject;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
+import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
+import org.eclipse.che.api.promises.client.Function;
 import org.eclipse.che.api.promises.client.Promise;
 import org.eclipse.che.api.workspace.shared.dto.NewProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
@@ -44,6 +46,7 @@ import static com.google.gwt.http.client.RequestBuilder.DELETE;
 import static com.google.gwt.http.client.RequestBuilder.POST;
 import static com.google.gwt.http.client.RequestBuilder.PUT;
 import static com.google.gwt.safehtml.shared.UriUtils.encodeAllowEscapes;
+import static java.util.stream.Collectors.toList;
 import static org.eclipse.che.api.promises.client.callback.AsyncPromiseHelper.createFromAsyncRequest;
 import static org.eclipse.che.ide.MimeType.APPLICATION_JSON;
 import static org.eclipse.che.ide.rest.HTTPHeader.ACCEPT;
@@ -164,7 +167,13 @@ public class ProjectServiceClientImpl implements ProjectServiceClient {
         return reqFactory.createGetRequest(url + queryParameters.toString().replaceFirst("&", "?"))
                          .header(ACCEPT, MimeType.APPLICATION_JSON)
                          .loader(loaderFactory.newLoader("Searching..."))
-                         .send(unmarshaller.newListUnmarshaller(ItemReference.class));
+                         .send(unmarshaller.newListUnmarshaller(SearchResultDto.class))
+                         .then((Function<List<SearchResultDto>, List<ItemReference>>)this::toItemReferences);
+    }
+
+    /** Found files are returned by server together with lines that match the text query, only files are needed here. */
+    private List<ItemReference> toItemReferences(List<SearchResultDto> searchResults) {
+        return searchResults.stream().map(SearchResultDto::getItemReference).collect(toList());
     }
 
     /** {@inheritDoc} */
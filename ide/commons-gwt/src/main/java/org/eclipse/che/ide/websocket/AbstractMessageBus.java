@@ -12,6 +12,10 @@ package org.eclipse.che.ide.websocket;
 
 import com.google.gwt.core.client.JavaScriptException;
 import com.google.gwt.http.client.RequestBuilder;
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONParser;
+import com.google.gwt.json.client.JSONValue;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 
@@ -45,6 +49,9 @@ abstract class AbstractMessageBus implements MessageBus {
     /** Max. number of attempts to reconnect for every <code>RECONNECTION_PERIOD</code> ms. */
     private final static int    MAX_RECONNECTION_ATTEMPTS = 5;
     private final static String MESSAGE_TYPE_HEADER_NAME  = "x-everrest-websocket-message-type";
+    /** Field of the object which carries a batch of events broadcast by server event bus. */
+    private final static String EVENT_BATCH_FIELD         = "$batch";
+    private final static String EVENT_BATCH_PREFIX        = "{\"" + EVENT_BATCH_FIELD + "\":";
 
     /** Timer for sending heartbeat pings to prevent autoclosing an idle WebSocket connection. */
     private final Timer                                    heartbeatTimer;
@@ -229,18 +236,44 @@ abstract class AbstractMessageBus implements MessageBus {
     private void processSubscriptionMessage(Message message) {
         String channel = getChannel(message);
         List<MessageHandler> subscribersSet = channelToSubscribersMap.get(channel);
-        if (subscribersSet != null) {
-            for (MessageHandler handler : subscribersSet) {
-                //TODO this is nasty, need refactor this
-                if (handler instanceof SubscriptionHandler) {
-                    ((SubscriptionHandler)handler).onMessage(message);
-                } else {
-                    handler.onMessage(message.getBody());
+        if (subscribersSet == null) {
+            return;
+        }
+        String body = message.getBody();
+        if (body != null && body.startsWith(EVENT_BATCH_PREFIX)) {
+            // batch of events, subscribers receive them one by one
+            JSONObject batch = JSONParser.parseStrict(body).isObject();
+            JSONArray events = batch == null ? null : batch.get(EVENT_BATCH_FIELD).isArray();
+            if (events != null) {
+                for (int i = 0; i < events.size(); i++) {
+                    notifySubscribers(subscribersSet, copyWithBody(message, events.get(i)));
                 }
+                return;
+            }
+        }
+        notifySubscribers(subscribersSet, message);
+    }
+
+    private void notifySubscribers(List<MessageHandler> subscribersSet, Message message) {
+        for (MessageHandler handler : subscribersSet) {
+            //TODO this is nasty, need refactor this
+            if (handler instanceof SubscriptionHandler) {
+                ((SubscriptionHandler)handler).onMessage(message);
+            } else {
+                handler.onMessage(message.getBody());
             }
         }
     }
 
+    /** Creates message with the same headers and response code as the given one has, but with another body. */
+    private Message copyWithBody(Message message, JSONValue body) {
+        Message copy = Message.create();
+        copy.setHeaders(message.getHeaders());
+        copy.setResponseCode(message.getResponseCode());
+        copy.setBody(body.toString());
+        return copy;
+    }
+
     /**
      * Parse text message to {@link Message} object.
      *
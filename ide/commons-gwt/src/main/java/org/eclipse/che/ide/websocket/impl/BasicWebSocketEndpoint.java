@@ -62,6 +62,9 @@ public class BasicWebSocketEndpoint implements WebSocketEndpoint {
     public void onMessage(String url, String message) {
         Log.debug(getClass(), "Message received: " + message);
 
-        dispatcher.dispatch(url, message);
+        final String received = reSender.receive(url, message);
+        if (received != null) {
+            dispatcher.dispatch(url, received);
+        }
     }
 }
@@ -37,6 +37,10 @@ public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmi
 
     @Override
     public void transmit(String endpointId, String message) {
+        if (reSender.sequence(endpointId, message)) {
+            return;
+        }
+
         final String url = urlResolver.getUrl(endpointId);
 
         if (connectionManager.isConnectionOpen(url)) {
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.ide.websocket.impl;
 
+import org.eclipse.che.api.core.websocket.commons.SequencedFrames;
 import org.eclipse.che.ide.util.loging.Log;
 
 import javax.inject.Inject;
@@ -20,9 +21,15 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import static org.eclipse.che.api.core.websocket.commons.SequencedFrames.ACK_INTERVAL;
+
 /**
  * Caches messages that was transmitted when a web socket connection
  * was not opened and resends them when the connection is opened again.
+ * <p>
+ * Messages of connections which use {@link SequencedFrames sequenced protocol}
+ * are numbered and kept until the endpoint acknowledges them, when the connection
+ * is opened again only the messages the endpoint has not received are resent.
  *
  * @author Dmitry Kuleshov
  */
@@ -31,6 +38,7 @@ public class MessagesReSender {
     private static final int MAX_MESSAGES = 100;
 
     private final Map<String, List<String>> messageRegistry = new HashMap<>();
+    private final Map<String, Sequence>     sequences       = new HashMap<>();
 
     private final WebSocketConnectionManager connectionManager;
     private final UrlResolver                urlResolver;
@@ -59,9 +67,37 @@ public class MessagesReSender {
         }
     }
 
+    /**
+     * Numbers, keeps and sends the message if the connection is sequenced.
+     *
+     * @return {@code false} if the connection is not sequenced and the message should be transmitted as is
+     */
+    public boolean sequence(String endpointId, String message) {
+        final String url = urlResolver.getUrl(endpointId);
+        if (!SequencedFrames.isSequenced(url)) {
+            return false;
+        }
+
+        final Sequence sequence = sequences.computeIfAbsent(endpointId, k -> new Sequence());
+        final long number = sequence.add(message);
+        if (sequence.synced && connectionManager.isConnectionOpen(url)) {
+            connectionManager.sendMessage(url, SequencedFrames.message(number, message));
+        }
+        return true;
+    }
+
     public void reSend(String url) {
         String endpointId = urlResolver.resolve(url);
 
+        if (SequencedFrames.isSequenced(url)) {
+            // the endpoint responds with its own acknowledgement, then unacknowledged messages are sent
+            final Sequence sequence = sequences.computeIfAbsent(endpointId, k -> new Sequence());
+            sequence.synced = false;
+            sequence.receivedSinceAck = 0;
+            connectionManager.sendMessage(url, SequencedFrames.ack(sequence.received));
+            return;
+        }
+
         if (!messageRegistry.containsKey(endpointId)) {
             return;
         }
@@ -84,4 +120,95 @@ public class MessagesReSender {
             }
         }
     }
+
+    /**
+     * Handles a frame received over the connection.
+     *
+     * @return the message to dispatch or {@code null} if there is nothing to dispatch
+     */
+    public String receive(String url, String frame) {
+        if (!SequencedFrames.isSequenced(url)) {
+            return frame;
+        }
+
+        final Sequence sequence = sequences.computeIfAbsent(urlResolver.resolve(url), k -> new Sequence());
+        if (SequencedFrames.isAck(frame)) {
+            final boolean handshake = !sequence.synced;
+            final long first = sequence.acknowledge(SequencedFrames.sequenceOf(frame));
+            if (handshake) {
+                long number = first;
+                for (String message : sequence.unacknowledged) {
+                    connectionManager.sendMessage(url, SequencedFrames.message(number++, message));
+                }
+            }
+            return null;
+        }
+        if (!SequencedFrames.isMessage(frame)) {
+            return frame;
+        }
+
+        final long number = SequencedFrames.sequenceOf(frame);
+        if (number <= sequence.received) {
+            return null;
+        }
+        if (number > sequence.received + 1) {
+            Log.warn(getClass(), "Messages " + (sequence.received + 1) + '-' + (number - 1) + " are lost");
+        }
+        sequence.received = number;
+        if (++sequence.receivedSinceAck >= ACK_INTERVAL) {
+            sequence.receivedSinceAck = 0;
+            connectionManager.sendMessage(url, SequencedFrames.ack(number));
+        }
+        return SequencedFrames.messageOf(frame);
+    }
+
+    /** Numbering state of a sequenced connection. */
+    private static class Sequence {
+        /** Messages which are not acknowledged, the first one has number {@code acknowledged + 1}. */
+        final LinkedList<String> unacknowledged = new LinkedList<>();
+
+        boolean synced;
+        long    acknowledged;
+        long    sent;
+        long    received;
+        int     receivedSinceAck;
+
+        long add(String message) {
+            unacknowledged.add(message);
+            if (unacknowledged.size() > MAX_MESSAGES) {
+                Log.warn(MessagesReSender.class, "Too many not acknowledged messages, the oldest one is dropped");
+                unacknowledged.poll();
+                acknowledged++;
+            }
+            final long number = acknowledged + unacknowledged.size();
+            if (synced) {
+                sent = number;
+            }
+            return number;
+        }
+
+        /** Removes acknowledged messages, returns number of the first not acknowledged message. */
+        long acknowledge(long number) {
+            if (!synced && number > sent) {
+                // the endpoint has received more messages than were sent, so numbering was started
+                // anew on this side, continue numbering of the messages the endpoint has received
+                removeAcknowledged(sent);
+                acknowledged = number;
+            } else {
+                removeAcknowledged(number);
+            }
+            if (!synced) {
+                sent = Math.max(sent, acknowledged + unacknowledged.size());
+                synced = true;
+            }
+            return acknowledged + 1;
+        }
+
+        private void removeAcknowledged(long number) {
+            while (acknowledged < number && !unacknowledged.isEmpty()) {
+                unacknowledged.poll();
+                acknowledged++;
+            }
+        }
+    }
 }
@@ -16,7 +16,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests for {@link BasicWebSocketEndpoint}
@@ -74,9 +76,18 @@ public class BasicWebSocketEndpointTest {
 
     @Test
     public void shouldDispatchOnMessage(){
+        when(reSender.receive("url", "message")).thenReturn("message");
+
         endpoint.onMessage("url", "message");
 
         verify(dispatcher).dispatch("url", "message");
     }
 
+
+    @Test
+    public void shouldNotDispatchFramesConsumedByReSender(){
+        endpoint.onMessage("url", "ack:1");
+
+        verify(dispatcher, never()).dispatch("url", "ack:1");
+    }
 }
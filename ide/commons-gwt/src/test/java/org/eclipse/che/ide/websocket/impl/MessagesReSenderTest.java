@@ -13,12 +13,18 @@ package org.eclipse.che.ide.websocket.impl;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +36,8 @@ import static org.mockito.Mockito.when;
  */
 @RunWith(MockitoJUnitRunner.class)
 public class MessagesReSenderTest {
+    private static final String SEQUENCED_URL = "ws://host/websocket?sequenced=true";
+
     @Mock
     private WebSocketConnectionManager connectionManager;
     @Mock
@@ -71,4 +79,50 @@ public class MessagesReSenderTest {
 
         verify(connectionManager, times(3)).sendMessage(eq("url"), anyString());
     }
+
+    @Test
+    public void shouldSendSequencedMessagesAfterEndpointAcknowledgement() {
+        when(urlResolver.getUrl("sequenced")).thenReturn(SEQUENCED_URL);
+        when(urlResolver.resolve(SEQUENCED_URL)).thenReturn("sequenced");
+        when(connectionManager.isConnectionOpen(SEQUENCED_URL)).thenReturn(true);
+
+        reSender.reSend(SEQUENCED_URL);
+        assertTrue(reSender.sequence("sequenced", "first"));
+
+        verify(connectionManager).sendMessage(SEQUENCED_URL, "ack:0");
+        verify(connectionManager, never()).sendMessage(SEQUENCED_URL, "#1:first");
+
+        assertNull(reSender.receive(SEQUENCED_URL, "ack:0"));
+        reSender.sequence("sequenced", "second");
+
+        InOrder inOrder = inOrder(connectionManager);
+        inOrder.verify(connectionManager).sendMessage(SEQUENCED_URL, "#1:first");
+        inOrder.verify(connectionManager).sendMessage(SEQUENCED_URL, "#2:second");
+    }
+
+    @Test
+    public void shouldResendOnlyMessagesNotReceivedByEndpointAfterReconnect() {
+        when(urlResolver.getUrl("sequenced")).thenReturn(SEQUENCED_URL);
+        when(urlResolver.resolve(SEQUENCED_URL)).thenReturn("sequenced");
+        when(connectionManager.isConnectionOpen(SEQUENCED_URL)).thenReturn(true);
+        reSender.reSend(SEQUENCED_URL);
+        reSender.receive(SEQUENCED_URL, "ack:0");
+        reSender.sequence("sequenced", "first");
+        reSender.sequence("sequenced", "second");
+
+        reSender.reSend(SEQUENCED_URL);
+        reSender.receive(SEQUENCED_URL, "ack:1");
+
+        verify(connectionManager, times(1)).sendMessage(SEQUENCED_URL, "#1:first");
+        verify(connectionManager, times(2)).sendMessage(SEQUENCED_URL, "#2:second");
+    }
+
+    @Test
+    public void shouldSkipDuplicatedMessages() {
+        when(urlResolver.resolve(SEQUENCED_URL)).thenReturn("sequenced");
+
+        assertEquals(reSender.receive(SEQUENCED_URL, "#1:message"), "message");
+        assertNull(reSender.receive(SEQUENCED_URL, "#1:message"));
+        assertEquals(reSender.receive("url", "#1:message"), "#1:message");
+    }
 }
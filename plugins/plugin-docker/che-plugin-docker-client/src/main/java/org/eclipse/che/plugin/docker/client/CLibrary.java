@@ -11,9 +11,11 @@
 package org.eclipse.che.plugin.docker.client;
 
 import com.sun.jna.Library;
+import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 import com.sun.jna.ptr.LongByReference;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -22,8 +24,11 @@ import java.util.List;
  */
 // C language functions
 public interface CLibrary extends Library {
-    int AF_UNIX     = 1; // Defined in 'sys/socket.h'
-    int SOCK_STREAM = 1; // Defined in 'sys/socket.h'
+    int AF_UNIX      = 1; // Defined in 'sys/socket.h'
+    int SOCK_STREAM  = 1; // Defined in 'sys/socket.h'
+    int MSG_PEEK     = 0x02; // Defined in 'sys/socket.h'
+    int MSG_DONTWAIT = 0x40; // Defined in 'sys/socket.h'
+    int EAGAIN       = 11; // Defined in 'errno.h'
 
     // Defined in 'unix.h', see http://man7.org/linux/man-pages/man7/unix.7.html
     class SockAddrUn extends Structure {
@@ -53,10 +58,20 @@ public interface CLibrary extends Library {
 
     int connect(int fd, SockAddrUn sock_addr, int addr_len);
 
+    int bind(int fd, SockAddrUn sock_addr, int addr_len);
+
+    int listen(int fd, int backlog);
+
+    int accept(int fd, Pointer sock_addr, Pointer addr_len);
+
     int send(int fd, byte[] buffer, int count, int flags);
 
+    int send(int fd, ByteBuffer buffer, int count, int flags);
+
     int recv(int fd, byte[] buffer, int count, int flags);
 
+    int recv(int fd, ByteBuffer buffer, int count, int flags);
+
     int close(int fd);
 
     String strerror(int errno);
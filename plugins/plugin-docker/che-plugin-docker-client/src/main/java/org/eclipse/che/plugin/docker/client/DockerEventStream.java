@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.Filters;
+import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single long-lived stream of docker events shared by all the components which are interested in them.
+ *
+ * <p>Events are requested from docker once and each of them is decoded once, then it is passed to all the
+ * subscribers whose filters match the event. Supported filter keys are {@code event}, {@code container},
+ * {@code image} and {@code type}, values of the same key are alternatives, different keys must all match.
+ * Events of old docker API versions have no type, they are considered container events.
+ *
+ * <p>Docker is asked only for the events which may match some subscription: for each key which is used
+ * by all the subscriptions, except of {@code type} which is not known to old docker API versions, the union
+ * of their values is sent, events are then matched precisely on this side. When the set of subscriptions
+ * changes these filters the stream is reopened with the new ones since the current second, the previous
+ * stream dispatches events until the first event of that second and is closed.
+ *
+ * <p>The stream is opened with the first subscription and is read by a daemon thread. When the stream
+ * is broken it is reopened since the time of the last received event, or since the time the stream was
+ * opened if no event was received yet, events which were already dispatched are not dispatched again.
+ * Subscribers are notified in the stream thread, so they should not block for a long time.
+ */
+@Singleton
+public class DockerEventStream {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerEventStream.class);
+
+    private static final Set<String> SUPPORTED_FILTERS  = ImmutableSet.of("event", "container", "image", "type");
+    /** Filters which are matched only on this side, as old docker API versions fail on them. */
+    private static final Set<String> CLIENT_FILTERS     = ImmutableSet.of("type");
+    private static final long        RECONNECT_DELAY_MS = 1_000;
+
+    private final DockerConnector    dockerConnector;
+    private final List<Subscription> subscriptions;
+    /** Events of the {@link #lastEventTime} second, helps skip them when stream is reopened. */
+    private final Set<String>        lastSecondEvents;
+
+    private long    lastEventTime;
+    private Reader  reader;
+    private boolean stopped;
+
+    @Inject
+    public DockerEventStream(DockerConnectorProvider dockerConnectorProvider) {
+        this(dockerConnectorProvider.get());
+    }
+
+    @VisibleForTesting
+    DockerEventStream(DockerConnector dockerConnector) {
+        this.dockerConnector = dockerConnector;
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.lastSecondEvents = new HashSet<>();
+    }
+
+    /**
+     * Subscribes processor to events which match the given filters.
+     *
+     * @param filters
+     *         filters of needed events, {@code null} means all the events
+     * @param processor
+     *         processor of matched events
+     * @return subscription which stops notification of the processor when it is cancelled
+     * @throws IllegalArgumentException
+     *         when filters contain unsupported key
+     */
+    public Subscription subscribe(Filters filters, MessageProcessor<Event> processor) {
+        if (filters != null) {
+            for (String key : filters.getFilters().keySet()) {
+                if (!SUPPORTED_FILTERS.contains(key)) {
+                    throw new IllegalArgumentException("Unsupported events filter: " + key);
+                }
+            }
+        }
+        final Subscription subscription = new Subscription(filters, processor);
+        subscriptions.add(subscription);
+        subscriptionsChanged();
+        return subscription;
+    }
+
+    /** Stops reading of the stream, subscribers are not notified any more. */
+    @PreDestroy
+    public void stop() {
+        synchronized (this) {
+            stopped = true;
+            if (reader != null) {
+                reader.thread.interrupt();
+                reader = null;
+            }
+        }
+        subscriptions.clear();
+    }
+
+    private synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    /** Opens the stream with the first subscription, reopens it when daemon filters of subscriptions change. */
+    private synchronized void subscriptionsChanged() {
+        if (stopped || subscriptions.isEmpty()) {
+            return;
+        }
+        final Map<String, Set<String>> filters = daemonFilters();
+        if (reader == null) {
+            reader = new Reader(filters, null);
+        } else if (!Objects.equals(reader.filters, filters)) {
+            final long now = System.currentTimeMillis() / 1000;
+            reader.retire(now);
+            reader = new Reader(filters, now);
+        }
+    }
+
+    /**
+     * Returns filters of events which match at least one of the subscriptions,
+     * or {@code null} if all the events are needed.
+     */
+    private Map<String, Set<String>> daemonFilters() {
+        Map<String, Set<String>> union = null;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.filters == null) {
+                return null;
+            }
+            if (union == null) {
+                union = new TreeMap<>();
+                for (Map.Entry<String, List<String>> filter : subscription.filters.entrySet()) {
+                    if (!CLIENT_FILTERS.contains(filter.getKey())) {
+                        union.put(filter.getKey(), new TreeSet<>(filter.getValue()));
+                    }
+                }
+            } else {
+                // a key which is not used by the subscription does not restrict its events
+                union.keySet().retainAll(subscription.filters.keySet());
+                for (Map.Entry<String, Set<String>> filter : union.entrySet()) {
+                    filter.getValue().addAll(subscription.filters.get(filter.getKey()));
+                }
+            }
+        }
+        return union == null || union.isEmpty() ? null : union;
+    }
+
+    @VisibleForTesting
+    void dispatch(Event event) {
+        final String key = event.getTimeNano() + event.getStatus() + event.getId();
+        synchronized (lastSecondEvents) {
+            if (event.getTime() > lastEventTime) {
+                lastEventTime = event.getTime();
+                lastSecondEvents.clear();
+                lastSecondEvents.add(key);
+            } else if (event.getTime() == lastEventTime && !lastSecondEvents.add(key)) {
+                // already dispatched before reopening of the stream
+                return;
+            }
+            notifySubscribers(event);
+        }
+    }
+
+    private long getLastEventTime() {
+        synchronized (lastSecondEvents) {
+            return lastEventTime;
+        }
+    }
+
+    private void notifySubscribers(Event event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.matches(event)) {
+                try {
+                    subscription.processor.process(event);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+        }
+    }
+
+    /** Reads the stream with the same daemon filters until it is retired by a reader with other filters. */
+    private class Reader {
+        private final Map<String, Set<String>> filters;
+        private final Long                     since;
+        private final Thread                   thread;
+
+        /** Second since which events are read by the next reader, the stream is closed on the first of them. */
+        private volatile long until;
+
+        private Reader(Map<String, Set<String>> filters, Long since) {
+            this.filters = filters;
+            this.since = since;
+            this.until = Long.MAX_VALUE;
+            this.thread = new Thread(this::run, "DockerEventStream");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        private void retire(long until) {
+            this.until = until;
+        }
+
+        private boolean isRetired() {
+            return until != Long.MAX_VALUE;
+        }
+
+        private void run() {
+            final long openedAt = since != null ? since : System.currentTimeMillis() / 1000;
+            boolean reopened = since != null;
+            while (!Thread.currentThread().isInterrupted() && !isStopped() && !isRetired()) {
+                final GetEventsParams params = GetEventsParams.create();
+                if (filters != null) {
+                    final Filters daemonFilters = new Filters();
+                    filters.forEach((key, values) -> daemonFilters.withFilter(key, values.toArray(new String[values.size()])));
+                    params.withFilters(daemonFilters);
+                }
+                if (reopened) {
+                    // events which happened while the stream was broken, even if no event was received before,
+                    // the stream of changed filters is not read before the time it was opened with them
+                    final long lastEventTime = getLastEventTime();
+                    params.withSinceSecond(lastEventTime > 0 && (since == null || lastEventTime > since) ? lastEventTime : openedAt);
+                }
+                reopened = true;
+                try {
+                    dockerConnector.getEvents(params, this::process);
+                } catch (SocketTimeoutException e) {
+                    // no events during read timeout, reopen stream at once
+                    continue;
+                } catch (ReaderRetiredException e) {
+                    return;
+                } catch (IOException e) {
+                    LOG.debug(e.getLocalizedMessage(), e);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void process(Event event) {
+            if (event.getTime() >= until) {
+                // the event and the following ones are read by the next reader, close the stream
+                throw new ReaderRetiredException();
+            }
+            dispatch(event);
+        }
+    }
+
+    private static class ReaderRetiredException extends RuntimeException {
+        private ReaderRetiredException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /** Subscription to the events stream. */
+    public final class Subscription {
+        private final Map<String, List<String>> filters;
+        private final MessageProcessor<Event>   processor;
+
+        private Subscription(Filters filters, MessageProcessor<Event> processor) {
+            this.filters = filters == null ? null : filters.getFilters();
+            this.processor = processor;
+        }
+
+        /** Stops notification of the subscriber, does nothing if subscription is already cancelled. */
+        public void cancel() {
+            if (subscriptions.remove(this)) {
+                subscriptionsChanged();
+            }
+        }
+
+        private boolean matches(Event event) {
+            if (filters == null) {
+                return true;
+            }
+            for (Map.Entry<String, List<String>> filter : filters.entrySet()) {
+                final String value = valueOf(filter.getKey(), event);
+                if (value == null || !filter.getValue().contains(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String valueOf(String filter, Event event) {
+            switch (filter) {
+                case "event":
+                    return event.getStatus() != null ? event.getStatus() : event.getAction();
+                case "container":
+                    return event.getId();
+                case "image":
+                    return event.getFrom();
+                case "type":
+                    return event.getType() != null ? event.getType() : "container";
+                default:
+                    return null;
+            }
+        }
+    }
+}
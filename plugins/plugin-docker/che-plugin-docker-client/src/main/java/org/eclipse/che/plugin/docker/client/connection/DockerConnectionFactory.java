@@ -23,11 +23,18 @@ import java.net.URI;
  *
  * <p>Detects connection implementation by checking docker daemon URI.
  *
+ * <p>Unix socket connections are kept in the pool after completely read responses and reused by the next requests.
+ * Keeping of tcp connections by the JDK is disabled by default and can be enabled with
+ * {@value #TCP_CONNECTION_KEEP_ALIVE_PROPERTY} property.
+ *
  * @author Alexander Garagatyi
  */
 public class DockerConnectionFactory {
     public static final String CONNECTION_TIMEOUT_MS_PROPERTY      = "che.docker.tcp_connection_timeout_ms";
     public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY = "che.docker.tcp_connection_read_timeout_ms";
+    public static final String TCP_CONNECTION_KEEP_ALIVE_PROPERTY  = "che.docker.tcp_connection_keep_alive";
+    public static final String MAX_IDLE_CONNECTIONS_PROPERTY       = "che.docker.unix_socket.max_idle_connections";
+    public static final String IDLE_CONNECTION_TIMEOUT_MS_PROPERTY = "che.docker.unix_socket.idle_connection_timeout_ms";
 
     @Inject(optional = true)
     @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -37,8 +44,22 @@ public class DockerConnectionFactory {
     @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
     private int connectionReadTimeoutMs = 60000;
 
+    @Inject(optional = true)
+    @Named(TCP_CONNECTION_KEEP_ALIVE_PROPERTY)
+    private boolean tcpConnectionKeepAlive = false;
+
+    @Inject(optional = true)
+    @Named(MAX_IDLE_CONNECTIONS_PROPERTY)
+    private int maxIdleConnections = UnixSocketConnectionPool.DEFAULT_MAX_IDLE_CONNECTIONS;
+
+    @Inject(optional = true)
+    @Named(IDLE_CONNECTION_TIMEOUT_MS_PROPERTY)
+    private long idleConnectionTimeoutMs = UnixSocketConnectionPool.DEFAULT_IDLE_TIMEOUT_MS;
+
     private final DockerCertificates dockerCertificates;
 
+    private UnixSocketConnectionPool unixSocketPool;
+
     @Inject
     public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
         this.dockerCertificates = connectorConfiguration.getDockerCertificates();
@@ -46,9 +67,22 @@ public class DockerConnectionFactory {
 
     public DockerConnection openConnection(URI dockerDaemonUri) {
         if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-            return new UnixSocketConnection(dockerDaemonUri.getPath());
+            return new UnixSocketConnection(dockerDaemonUri.getPath(), getUnixSocketPool());
         } else {
-            return new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+            return new TcpConnection(dockerDaemonUri,
+                                     dockerCertificates,
+                                     connectionTimeoutMs,
+                                     connectionReadTimeoutMs,
+                                     tcpConnectionKeepAlive);
+        }
+    }
+
+    /** Returns pool of unix socket connections, e.g. to check its metrics. */
+    public synchronized UnixSocketConnectionPool getUnixSocketPool() {
+        // optional properties are injected after construction
+        if (unixSocketPool == null) {
+            unixSocketPool = new UnixSocketConnectionPool(maxIdleConnections, idleConnectionTimeoutMs);
         }
+        return unixSocketPool;
     }
 }
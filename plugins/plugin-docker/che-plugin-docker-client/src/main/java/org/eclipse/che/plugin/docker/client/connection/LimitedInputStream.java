@@ -33,7 +33,7 @@ public class LimitedInputStream extends InputStream {
         if (doRead(b, 0, 1) == -1) {
             return -1;
         }
-        return b[0];
+        return b[0] & 0xFF;
     }
 
     @Override
@@ -56,15 +56,22 @@ public class LimitedInputStream extends InputStream {
             return 0;
         }
 
-        return doRead(b, 0, len);
+        return doRead(b, off, len);
+    }
+
+    /** Returns {@code true} when all the {@code limit} bytes are read. */
+    synchronized boolean isEndReached() {
+        return pos >= limit;
     }
 
     private int doRead(byte[] b, int off, int len) throws IOException {
         if (pos >= limit) {
             return -1;
         }
-        int n = input.read(b, 0, Math.min(len - off, limit - pos));
-        pos += n;
+        int n = input.read(b, off, Math.min(len, limit - pos));
+        if (n > 0) {
+            pos += n;
+        }
         return n;
     }
 }
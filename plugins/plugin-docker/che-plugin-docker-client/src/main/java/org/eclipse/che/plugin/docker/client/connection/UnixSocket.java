@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.eclipse.che.plugin.docker.client.CLibrary;
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+
+import java.net.ConnectException;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EAGAIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_DONTWAIT;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_PEEK;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Connected unix socket along with its streams, which may be used for several HTTP exchanges.
+ */
+class UnixSocket {
+    private final String                 path;
+    private final int                    fd;
+    private final UnixSocketInputStream  input;
+    private final UnixSocketOutputStream output;
+
+    private long releaseTime;
+
+    static UnixSocket connect(String path) throws ConnectException {
+        final CLibrary cLib = getCLibrary();
+        int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+        if (fd == -1) {
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", path));
+        }
+        final SockAddrUn sockAddr = new SockAddrUn(path);
+        int c = cLib.connect(fd, sockAddr, sockAddr.size());
+        if (c == -1) {
+            cLib.close(fd);
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", path));
+        }
+        return new UnixSocket(path, fd);
+    }
+
+    private UnixSocket(String path, int fd) {
+        this.path = path;
+        this.fd = fd;
+        this.input = new UnixSocketInputStream(fd);
+        this.output = new UnixSocketOutputStream(fd);
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    UnixSocketInputStream getInputStream() {
+        return input;
+    }
+
+    UnixSocketOutputStream getOutputStream() {
+        return output;
+    }
+
+    long getReleaseTime() {
+        return releaseTime;
+    }
+
+    void setReleaseTime(long releaseTime) {
+        this.releaseTime = releaseTime;
+    }
+
+    /**
+     * Checks without blocking that the peer didn't close the socket and didn't send anything unexpected
+     * while the socket was idle, so it can be used for the next exchange.
+     */
+    boolean isReusable() {
+        if (input.available() > 0) {
+            return false;
+        }
+        final CLibrary cLib = getCLibrary();
+        try {
+            return cLib.recv(fd, new byte[1], 1, MSG_PEEK | MSG_DONTWAIT) == -1 && Native.getLastError() == EAGAIN;
+        } catch (LastErrorException e) {
+            return e.getErrorCode() == EAGAIN;
+        }
+    }
+
+    void close() {
+        getCLibrary().close(fd);
+    }
+}
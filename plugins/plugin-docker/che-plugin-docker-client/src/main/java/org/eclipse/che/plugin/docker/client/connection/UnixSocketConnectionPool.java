@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps connected unix sockets after HTTP exchanges, so next requests to the same socket file
+ * don't need to connect again. Sockets are reused only if the previous response was read completely.
+ *
+ * <p>At most {@code maxIdleConnections} sockets are kept per socket file, the socket which is kept longer than
+ * {@code idleTimeoutMs} or is closed by the peer is not reused. Non-positive {@code maxIdleConnections}
+ * disables keeping of sockets.
+ *
+ * <p>This implementation is thread safe.
+ */
+public class UnixSocketConnectionPool {
+    public static final int  DEFAULT_MAX_IDLE_CONNECTIONS = 8;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS      = 60_000;
+
+    private final int                                      maxIdleConnections;
+    private final long                                     idleTimeoutMs;
+    private final ConcurrentMap<String, Deque<UnixSocket>> idle;
+    private final AtomicLong                               openedCount;
+    private final AtomicLong                               reusedCount;
+    private final AtomicLong                               discardedCount;
+
+    public UnixSocketConnectionPool() {
+        this(DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_IDLE_TIMEOUT_MS);
+    }
+
+    public UnixSocketConnectionPool(int maxIdleConnections, long idleTimeoutMs) {
+        this.maxIdleConnections = maxIdleConnections;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.idle = new ConcurrentHashMap<>();
+        this.openedCount = new AtomicLong();
+        this.reusedCount = new AtomicLong();
+        this.discardedCount = new AtomicLong();
+    }
+
+    /** Returns number of sockets connected by this pool. */
+    public long getOpenedCount() {
+        return openedCount.get();
+    }
+
+    /** Returns number of requests which reused previously connected socket. */
+    public long getReusedCount() {
+        return reusedCount.get();
+    }
+
+    /** Returns number of sockets closed without being kept or after being kept. */
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    /** Returns number of sockets which are currently kept for the given socket file. */
+    public int getIdleCount(String socketPath) {
+        final Deque<UnixSocket> sockets = idle.get(socketPath);
+        if (sockets == null) {
+            return 0;
+        }
+        synchronized (sockets) {
+            return sockets.size();
+        }
+    }
+
+    /** Closes all the kept sockets. */
+    public void closeIdle() {
+        for (Deque<UnixSocket> sockets : idle.values()) {
+            for (UnixSocket socket; (socket = poll(sockets)) != null; ) {
+                discard(socket);
+            }
+        }
+    }
+
+    /** Returns the most recently kept reusable socket or connects the new one. */
+    UnixSocket acquire(String socketPath) throws IOException {
+        final Deque<UnixSocket> sockets = idle.get(socketPath);
+        if (sockets != null) {
+            final long now = System.currentTimeMillis();
+            for (UnixSocket socket; (socket = poll(sockets)) != null; ) {
+                if (now - socket.getReleaseTime() < idleTimeoutMs && socket.isReusable()) {
+                    reusedCount.incrementAndGet();
+                    return socket;
+                }
+                discard(socket);
+            }
+        }
+        final UnixSocket socket = UnixSocket.connect(socketPath);
+        openedCount.incrementAndGet();
+        return socket;
+    }
+
+    /** Keeps the socket whose last response was read completely. */
+    void release(UnixSocket socket) {
+        if (maxIdleConnections > 0) {
+            final Deque<UnixSocket> sockets = idle.computeIfAbsent(socket.getPath(), path -> new ArrayDeque<>());
+            synchronized (sockets) {
+                if (sockets.size() < maxIdleConnections) {
+                    socket.setReleaseTime(System.currentTimeMillis());
+                    sockets.push(socket);
+                    return;
+                }
+            }
+        }
+        discard(socket);
+    }
+
+    /** Closes the socket which can't be reused. */
+    void discard(UnixSocket socket) {
+        socket.close();
+        discardedCount.incrementAndGet();
+    }
+
+    private static UnixSocket poll(Deque<UnixSocket> sockets) {
+        synchronized (sockets) {
+            return sockets.poll();
+        }
+    }
+}
@@ -109,6 +109,41 @@ public class UnixSocketDockerResponse implements DockerResponse {
         return headers.toArray(new String[headers.size()]);
     }
 
+    /**
+     * Reads the rest of the response body which is already received, e.g. the end of JSON
+     * which was not needed by the parser, so the connection may be reused.
+     */
+    synchronized void skipReceived() {
+        if (data == null || data == rawData || data == EMPTY) {
+            return;
+        }
+        final byte[] skipped = new byte[512];
+        try {
+            while (rawData.available() > 0 && data.read(skipped) != -1) {
+                // skip
+            }
+        } catch (IOException ignored) {
+            // connection is not going to be reused
+        }
+    }
+
+    /**
+     * Returns {@code true} if the response is read completely and the connection
+     * is not going to be closed by the docker API, so it may be used for the next request.
+     */
+    synchronized boolean isCompleted() throws IOException {
+        if (headersFields == null || !headersFields[0].startsWith("HTTP/1.1") || "close".equalsIgnoreCase(getHeader("Connection"))) {
+            return false;
+        }
+        if (data == EMPTY) {
+            return true;
+        }
+        if (data instanceof LimitedInputStream) {
+            return ((LimitedInputStream)data).isEndReached();
+        }
+        return data instanceof ChunkedInputStream && ((ChunkedInputStream)data).isEndReached();
+    }
+
     @Override
     public synchronized InputStream getInputStream() throws IOException {
         if (this.headersFields != null) {
@@ -12,30 +12,42 @@ package org.eclipse.che.plugin.docker.client.connection;
 
 import org.eclipse.che.plugin.docker.client.CLibrary;
 import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
-* @author andrew00x
-*/
+ * Buffered stream of bytes received from unix socket.
+ *
+ * <p>Bytes are received into a direct buffer, so native call doesn't need to copy them into a temporary array.
+ * The stream doesn't read beyond the bytes which are already sent by the peer, so it may be kept
+ * along with the socket and used for the next HTTP exchange.
+ *
+ * @author andrew00x
+ */
 public class UnixSocketInputStream extends InputStream {
-    private final int fd;
-    private final CLibrary cLib = getCLibrary();
+    static final int BUFFER_SIZE = 8192;
+
+    private final int        fd;
+    private final CLibrary   cLib = getCLibrary();
+    private final ByteBuffer buffer;
 
     UnixSocketInputStream(int fd) {
         this.fd = fd;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
     }
 
     @Override
     public int read() throws IOException {
-        final byte[] bytes = new byte[1];
-        if (read(bytes) == 0) {
+        if (!buffer.hasRemaining() && fill() == -1) {
             return -1;
         }
-        return bytes[0];
+        return buffer.get() & 0xFF;
     }
 
     @Override
@@ -54,15 +66,32 @@ public class UnixSocketInputStream extends InputStream {
         if (len == 0) {
             return 0;
         }
+        if (!buffer.hasRemaining() && fill() == -1) {
+            return -1;
+        }
+        final int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    private int fill() throws IOException {
+        buffer.clear();
         int n;
         try {
-            n = cLib.recv(fd, b, len, 0);
+            n = cLib.recv(fd, buffer, buffer.capacity(), 0);
         } catch (LastErrorException e) {
             throw new IOException("error: " + cLib.strerror(e.getErrorCode()));
         }
-        if (n == 0) {
-            return -1;
+        if (n < 0) {
+            buffer.limit(0);
+            throw new IOException("error: " + cLib.strerror(Native.getLastError()));
         }
-        return n;
+        buffer.limit(n);
+        return n == 0 ? -1 : n;
     }
 }
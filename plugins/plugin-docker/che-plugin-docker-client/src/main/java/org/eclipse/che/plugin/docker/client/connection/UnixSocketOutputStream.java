@@ -12,26 +12,37 @@ package org.eclipse.che.plugin.docker.client.connection;
 
 import org.eclipse.che.plugin.docker.client.CLibrary;
 import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
-* @author andrew00x
-*/
+ * Buffered stream of bytes sent to unix socket.
+ *
+ * <p>Bytes are collected in a direct buffer and sent on {@link #flush()} or when the buffer is full.
+ *
+ * @author andrew00x
+ */
 public class UnixSocketOutputStream extends OutputStream {
-    private final int fd;
-    private final CLibrary cLib = getCLibrary();
+    private final int        fd;
+    private final CLibrary   cLib = getCLibrary();
+    private final ByteBuffer buffer;
 
     UnixSocketOutputStream(int fd) {
         this.fd = fd;
+        this.buffer = ByteBuffer.allocateDirect(UnixSocketInputStream.BUFFER_SIZE);
     }
 
     @Override
     public void write(int b) throws IOException {
-        write(new byte[]{(byte)b}, 0, 1);
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte)b);
     }
 
     public void write(byte[] b) throws IOException {
@@ -40,14 +51,41 @@ public class UnixSocketOutputStream extends OutputStream {
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
-        int n;
-        try {
-            n = cLib.send(fd, b, len, 0);
-        } catch (LastErrorException e) {
-            throw new IOException("error: " + cLib.strerror(e.getErrorCode()));
+        if (b == null) {
+            throw new NullPointerException();
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
         }
-        if (n != len) {
-            throw new IOException(String.format("Failed writing %d bytes", len));
+        while (len > 0) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                final int n;
+                try {
+                    n = cLib.send(fd, buffer.slice(), buffer.remaining(), 0);
+                } catch (LastErrorException e) {
+                    throw new IOException("error: " + cLib.strerror(e.getErrorCode()));
+                }
+                if (n < 0) {
+                    throw new IOException("error: " + cLib.strerror(Native.getLastError()));
+                }
+                buffer.position(buffer.position() + n);
+            }
+        } finally {
+            buffer.clear();
         }
     }
 }
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.Filters;
+import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertEqualsNoOrder;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class DockerEventStreamTest {
+    private DockerConnector   dockerConnector;
+    private DockerEventStream eventStream;
+
+    @BeforeMethod
+    public void setUp() {
+        dockerConnector = mock(DockerConnector.class);
+        eventStream = new DockerEventStream(dockerConnector);
+    }
+
+    @Test
+    public void shouldPassEventsToSubscribersWhoseFiltersMatch() throws Exception {
+        CollectingProcessor dies = new CollectingProcessor();
+        CollectingProcessor containerEvents = new CollectingProcessor();
+        CollectingProcessor all = new CollectingProcessor();
+        eventStream.subscribe(new Filters().withFilter("event", "die", "oom").withFilter("type", "container"), dies);
+        eventStream.subscribe(new Filters().withFilter("container", "container1"), containerEvents);
+        eventStream.subscribe(null, all);
+
+        Event die = event(1, "die", "container1");
+        Event start = event(2, "start", "container1");
+        Event oom = event(3, "oom", "container2");
+        Event network = event(4, "die", "network1").withType("network");
+        eventStream.dispatch(die);
+        eventStream.dispatch(start);
+        eventStream.dispatch(oom);
+        eventStream.dispatch(network);
+
+        assertEquals(dies.events, asList(die, oom));
+        assertEquals(containerEvents.events, asList(die, start));
+        assertEquals(all.events, asList(die, start, oom, network));
+    }
+
+    @Test
+    public void shouldNotPassEventsAfterSubscriptionIsCancelled() throws Exception {
+        CollectingProcessor processor = new CollectingProcessor();
+        DockerEventStream.Subscription subscription = eventStream.subscribe(null, processor);
+
+        eventStream.dispatch(event(1, "die", "container1"));
+        subscription.cancel();
+        eventStream.dispatch(event(2, "die", "container2"));
+
+        assertEquals(processor.events.size(), 1);
+    }
+
+    @Test
+    public void shouldPassEventsToOtherSubscribersWhenOneOfThemFails() throws Exception {
+        CollectingProcessor processor = new CollectingProcessor();
+        eventStream.subscribe(null, message -> {
+            throw new IllegalStateException("failed");
+        });
+        eventStream.subscribe(null, processor);
+
+        eventStream.dispatch(event(1, "die", "container1"));
+
+        assertEquals(processor.events.size(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldNotSubscribeWithUnsupportedFilter() throws Exception {
+        eventStream.subscribe(new Filters().withFilter("label", "che"), new CollectingProcessor());
+    }
+
+    @Test
+    public void shouldReopenStreamSinceLastEventAndSkipAlreadyPassedEvents() throws Exception {
+        Event first = event(10, "start", "container1").withTimeNano(10_000_000_001L);
+        Event second = event(10, "die", "container1").withTimeNano(10_000_000_002L);
+        CountDownLatch reopened = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            MessageProcessor<Event> processor = (MessageProcessor<Event>)invocation.getArguments()[1];
+            processor.process(first);
+            throw new IOException("Connection reset");
+        }).doAnswer(invocation -> {
+            MessageProcessor<Event> processor = (MessageProcessor<Event>)invocation.getArguments()[1];
+            processor.process(first);
+            processor.process(second);
+            reopened.countDown();
+            return null;
+        }).when(dockerConnector).getEvents(any(GetEventsParams.class), any());
+        CollectingProcessor processor = new CollectingProcessor();
+
+        eventStream.subscribe(null, processor);
+
+        assertTrue(reopened.await(10, TimeUnit.SECONDS));
+        ArgumentCaptor<GetEventsParams> paramsCaptor = ArgumentCaptor.forClass(GetEventsParams.class);
+        verify(dockerConnector, atLeast(2)).getEvents(paramsCaptor.capture(), any());
+        assertNull(paramsCaptor.getAllValues().get(0).getSinceSecond());
+        assertEquals(paramsCaptor.getAllValues().get(1).getSinceSecond(), Long.valueOf(10));
+        assertEquals(processor.events, asList(first, second));
+    }
+
+    @Test
+    public void shouldReopenStreamSinceItWasOpenedWhenNoEventsWereReceived() throws Exception {
+        CountDownLatch reopened = new CountDownLatch(1);
+        doThrow(new IOException("Connection refused")).doAnswer(invocation -> {
+            reopened.countDown();
+            return null;
+        }).when(dockerConnector).getEvents(any(GetEventsParams.class), any());
+        long before = System.currentTimeMillis() / 1000;
+
+        eventStream.subscribe(null, new CollectingProcessor());
+
+        assertTrue(reopened.await(10, TimeUnit.SECONDS));
+        ArgumentCaptor<GetEventsParams> paramsCaptor = ArgumentCaptor.forClass(GetEventsParams.class);
+        verify(dockerConnector, atLeast(2)).getEvents(paramsCaptor.capture(), any());
+        assertNull(paramsCaptor.getAllValues().get(0).getSinceSecond());
+        long since = paramsCaptor.getAllValues().get(1).getSinceSecond();
+        assertTrue(since >= before && since <= System.currentTimeMillis() / 1000);
+    }
+
+    @Test
+    public void shouldRequestEventsWhichMatchAnyOfSubscriptionsFromDocker() throws Exception {
+        BlockingQueue<GetEventsParams> requests = new LinkedBlockingQueue<>();
+        CountDownLatch subscribed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            requests.add((GetEventsParams)invocation.getArguments()[0]);
+            subscribed.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(dockerConnector).getEvents(any(GetEventsParams.class), any());
+
+        eventStream.subscribe(new Filters().withFilter("event", "die", "oom").withFilter("type", "container"),
+                              new CollectingProcessor());
+        eventStream.subscribe(new Filters().withFilter("event", "start").withFilter("container", "container1"),
+                              new CollectingProcessor());
+        subscribed.countDown();
+
+        GetEventsParams params;
+        do {
+            // stream opened with the filters of the first subscription is reopened with the union
+            params = requests.poll(10, TimeUnit.SECONDS);
+            assertNotNull(params);
+        } while (params.getFilters().getFilter("event").size() != 3);
+        assertEquals(params.getFilters().getFilters().keySet(), singleton("event"));
+        assertEquals(params.getFilters().getFilter("event"), asList("die", "oom", "start"));
+    }
+
+    @Test
+    public void shouldRequestAllEventsFromDockerWhenOneOfSubscriptionsHasNoFilters() throws Exception {
+        BlockingQueue<GetEventsParams> requests = new LinkedBlockingQueue<>();
+        doAnswer(invocation -> {
+            requests.add((GetEventsParams)invocation.getArguments()[0]);
+            return null;
+        }).when(dockerConnector).getEvents(any(GetEventsParams.class), any());
+
+        eventStream.subscribe(null, new CollectingProcessor());
+
+        GetEventsParams params = requests.poll(10, TimeUnit.SECONDS);
+        assertNotNull(params);
+        assertNull(params.getFilters());
+    }
+
+    @Test
+    public void shouldReopenStreamWithNewFiltersWhenSubscriptionsChange() throws Exception {
+        long now = System.currentTimeMillis() / 1000;
+        Event old = event(now - 1, "die", "container1");
+        Event start = event(now + 1, "start", "container2");
+        CountDownLatch subscribed = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        CountDownLatch reopened = new CountDownLatch(1);
+        BlockingQueue<GetEventsParams> requests = new LinkedBlockingQueue<>();
+        doAnswer(invocation -> {
+            GetEventsParams params = (GetEventsParams)invocation.getArguments()[0];
+            MessageProcessor<Event> processor = (MessageProcessor<Event>)invocation.getArguments()[1];
+            requests.add(params);
+            if (params.getFilters() != null) {
+                subscribed.await(10, TimeUnit.SECONDS);
+                try {
+                    processor.process(old);
+                    // is read by the reopened stream, so the stream must be closed on it
+                    processor.process(start);
+                    processor.process(event(now + 2, "die", "container2"));
+                } finally {
+                    closed.countDown();
+                }
+            } else {
+                processor.process(start);
+                reopened.countDown();
+            }
+            return null;
+        }).when(dockerConnector).getEvents(any(GetEventsParams.class), any());
+        CollectingProcessor dies = new CollectingProcessor();
+        CollectingProcessor all = new CollectingProcessor();
+
+        eventStream.subscribe(new Filters().withFilter("event", "die"), dies);
+        GetEventsParams first = requests.poll(10, TimeUnit.SECONDS);
+        eventStream.subscribe(null, all);
+        subscribed.countDown();
+
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertTrue(reopened.await(10, TimeUnit.SECONDS));
+        GetEventsParams second = requests.take();
+        assertEquals(first.getFilters().getFilter("event"), asList("die"));
+        assertNull(first.getSinceSecond());
+        assertNull(second.getFilters());
+        assertTrue(second.getSinceSecond() >= now);
+        assertEquals(dies.events, asList(old));
+        // events of the streams are read concurrently, each of them is passed once
+        assertEqualsNoOrder(all.events.toArray(), new Object[] {old, start});
+    }
+
+    @Test
+    public void shouldNotPassEventsAfterStreamIsStopped() throws Exception {
+        CollectingProcessor processor = new CollectingProcessor();
+        eventStream.subscribe(null, processor);
+
+        eventStream.stop();
+        eventStream.dispatch(event(1, "die", "container1"));
+
+        assertTrue(processor.events.isEmpty());
+    }
+
+    private static Event event(long time, String status, String id) {
+        return new Event().withTime(time)
+                          .withStatus(status)
+                          .withId(id);
+    }
+
+    private static class CollectingProcessor implements MessageProcessor<Event> {
+        final List<Event> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void process(Event message) {
+            events.add(message);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.util.SystemInfo;
+import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests {@link UnixSocketConnectionPool} against a fake docker daemon which listens on a socket file.
+ */
+public class UnixSocketConnectionPoolTest {
+    private static final String BIG_BODY = new String(new char[64 * 1024]).replace('\0', 'a');
+
+    private File                     socketDir;
+    private String                   socketPath;
+    private FakeDockerDaemon         daemon;
+    private UnixSocketConnectionPool pool;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        if (!SystemInfo.isLinux()) {
+            throw new SkipException("Unix socket connections are supported only on linux");
+        }
+        socketDir = Files.createTempDirectory("docker").toFile();
+        socketPath = new File(socketDir, "docker.sock").getPath();
+        daemon = new FakeDockerDaemon(socketPath);
+        daemon.start();
+        pool = new UnixSocketConnectionPool(2, 60_000);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (daemon != null) {
+            daemon.stop();
+            pool.closeIdle();
+            new File(socketPath).delete();
+            socketDir.delete();
+        }
+    }
+
+    @Test
+    public void shouldReuseSocketWhenResponseIsReadCompletely() throws Exception {
+        assertEquals(request("/length"), "{\"Id\":\"container\"}");
+        assertEquals(request("/length"), "{\"Id\":\"container\"}");
+        assertEquals(request("/length"), "{\"Id\":\"container\"}");
+
+        assertEquals(daemon.getConnectionsCount(), 1);
+        assertEquals(pool.getOpenedCount(), 1);
+        assertEquals(pool.getReusedCount(), 2);
+        assertEquals(pool.getIdleCount(socketPath), 1);
+    }
+
+    @Test
+    public void shouldReuseSocketWhenChunkedResponseIsReadCompletely() throws Exception {
+        assertEquals(request("/chunked"), "hello world");
+        assertEquals(request("/chunked"), "hello world");
+
+        assertEquals(daemon.getConnectionsCount(), 1);
+        assertEquals(pool.getReusedCount(), 1);
+    }
+
+    @Test
+    public void shouldReuseSocketWhenReceivedEndOfResponseIsNotRead() throws Exception {
+        try (DockerConnection connection = new UnixSocketConnection(socketPath, pool).method("GET").path("/chunked")) {
+            DockerResponse response = connection.request();
+            assertEquals(response.getStatus(), 200);
+            byte[] hello = new byte[5];
+            ByteStreams.readFully(response.getInputStream(), hello);
+            assertEquals(new String(hello), "hello");
+        }
+
+        assertEquals(request("/length"), "{\"Id\":\"container\"}");
+        assertEquals(daemon.getConnectionsCount(), 1);
+    }
+
+    @Test
+    public void shouldNotReuseSocketWhenResponseIsNotReadCompletely() throws Exception {
+        try (DockerConnection connection = new UnixSocketConnection(socketPath, pool).method("GET").path("/big")) {
+            DockerResponse response = connection.request();
+            assertEquals(response.getStatus(), 200);
+            response.getInputStream().read();
+        }
+
+        assertEquals(request("/length"), "{\"Id\":\"container\"}");
+        assertEquals(daemon.getConnectionsCount(), 2);
+        assertEquals(pool.getDiscardedCount(), 1);
+    }
+
+    @Test
+    public void shouldNotReuseSocketWhenDaemonRequestsClosing() throws Exception {
+        assertEquals(request("/close"), "bye");
+        assertEquals(request("/length"), "{\"Id\":\"container\"}");
+
+        assertEquals(daemon.getConnectionsCount(), 2);
+        assertEquals(pool.getReusedCount(), 0);
+    }
+
+    @Test
+    public void shouldNotReuseSocketClosedByDaemonWhileIdle() throws Exception {
+        assertEquals(request("/length"), "{\"Id\":\"container\"}");
+        daemon.closeConnections();
+
+        assertEquals(request("/length"), "{\"Id\":\"container\"}");
+        assertEquals(daemon.getConnectionsCount(), 2);
+        assertEquals(pool.getReusedCount(), 0);
+        assertEquals(pool.getDiscardedCount(), 1);
+    }
+
+    @Test
+    public void shouldNotKeepMoreIdleSocketsThanLimit() throws Exception {
+        DockerConnection[] connections = new DockerConnection[3];
+        for (int i = 0; i < connections.length; i++) {
+            connections[i] = new UnixSocketConnection(socketPath, pool).method("GET").path("/length");
+            ByteStreams.toByteArray(connections[i].request().getInputStream());
+        }
+        for (DockerConnection connection : connections) {
+            connection.close();
+        }
+
+        assertEquals(pool.getOpenedCount(), 3);
+        assertEquals(pool.getIdleCount(socketPath), 2);
+        assertEquals(pool.getDiscardedCount(), 1);
+    }
+
+    private String request(String path) throws IOException {
+        try (DockerConnection connection = new UnixSocketConnection(socketPath, pool).method("GET").path(path)) {
+            DockerResponse response = connection.request();
+            assertEquals(response.getStatus(), 200);
+            return new String(ByteStreams.toByteArray(response.getInputStream()));
+        }
+    }
+
+    /** Answers HTTP/1.1 requests over unix socket keeping connections alive. */
+    private static class FakeDockerDaemon {
+        private final CLibrary      cLib = getCLibrary();
+        private final String        path;
+        private final AtomicInteger connectionsCount;
+        private final int[]         clients;
+
+        private int    serverFd;
+        private Thread acceptor;
+
+        FakeDockerDaemon(String path) {
+            this.path = path;
+            this.connectionsCount = new AtomicInteger();
+            this.clients = new int[16];
+        }
+
+        void start() throws IOException {
+            serverFd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+            SockAddrUn address = new SockAddrUn(path);
+            if (cLib.bind(serverFd, address, address.size()) == -1 || cLib.listen(serverFd, 16) == -1) {
+                throw new IOException("Unable to listen on " + path);
+            }
+            acceptor = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    int client = cLib.accept(serverFd, null, null);
+                    if (client == -1) {
+                        return;
+                    }
+                    synchronized (clients) {
+                        clients[connectionsCount.getAndIncrement()] = client;
+                    }
+                    Thread handler = new Thread(() -> serve(client));
+                    handler.setDaemon(true);
+                    handler.start();
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getConnectionsCount() {
+            return connectionsCount.get();
+        }
+
+        void closeConnections() throws InterruptedException {
+            synchronized (clients) {
+                for (int i = 0; i < connectionsCount.get(); i++) {
+                    cLib.close(clients[i]);
+                }
+            }
+            // let the peer notice closing
+            Thread.sleep(100);
+        }
+
+        void stop() throws InterruptedException {
+            acceptor.interrupt();
+            closeConnections();
+            cLib.close(serverFd);
+        }
+
+        private void serve(int client) {
+            UnixSocketInputStream input = new UnixSocketInputStream(client);
+            UnixSocketOutputStream output = new UnixSocketOutputStream(client);
+            try {
+                for (String requestLine; (requestLine = readHeaders(input)) != null; ) {
+                    String path = requestLine.split(" ")[1];
+                    output.write(respond(path).getBytes());
+                    output.flush();
+                    if ("/close".equals(path)) {
+                        cLib.close(client);
+                        return;
+                    }
+                }
+            } catch (IOException ignored) {
+                // client is gone
+            }
+        }
+
+        private static String respond(String path) {
+            switch (path) {
+                case "/length":
+                    return "HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: 18\r\n\r\n{\"Id\":\"container\"}";
+                case "/chunked":
+                    return "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n6\r\n world\r\n0\r\n\r\n";
+                case "/big":
+                    return "HTTP/1.1 200 OK\r\nContent-Length: " + BIG_BODY.length() + "\r\n\r\n" + BIG_BODY;
+                case "/close":
+                    return "HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 3\r\n\r\nbye";
+                default:
+                    return "HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\n\r\n";
+            }
+        }
+
+        /** Returns request line or null if client closed connection. */
+        private static String readHeaders(UnixSocketInputStream input) throws IOException {
+            String requestLine = null;
+            StringBuilder line = new StringBuilder();
+            for (int c; (c = input.read()) != -1; ) {
+                if (c == '\n') {
+                    if (line.length() == 0) {
+                        return requestLine;
+                    }
+                    if (requestLine == null) {
+                        requestLine = line.toString();
+                    }
+                    line.setLength(0);
+                } else if (c != '\r') {
+                    line.append((char)c);
+                }
+            }
+            return null;
+        }
+    }
+}
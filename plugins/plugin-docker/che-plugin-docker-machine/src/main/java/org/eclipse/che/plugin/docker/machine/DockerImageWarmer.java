@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.environment.server.EnvironmentParser;
+import org.eclipse.che.api.environment.server.model.CheServiceImpl;
+import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.api.machine.server.model.impl.MachineSourceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
+import org.eclipse.che.api.workspace.server.spi.StackDao;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerConnectorProvider;
+import org.eclipse.che.plugin.docker.client.DockerFileException;
+import org.eclipse.che.plugin.docker.client.DockerImage;
+import org.eclipse.che.plugin.docker.client.DockerfileParser;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.params.PullParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.plugin.docker.machine.DockerInstance.LATEST_TAG;
+
+/**
+ * Pulls images which are likely to be used by workspaces before workspaces are started.
+ *
+ * <p>Images are ranked by the number of recent starts of machines which use them, the number is halved
+ * after each warming round so only recent starts matter. Images of the stacks fill the rest of the
+ * {@code che.docker.image_warmer.max_images} limit. For machines which are built from a dockerfile
+ * the base images are warmed. Images are pulled by at most {@code che.docker.image_warmer.threads} threads,
+ * that bounds the bandwidth consumed by warming.
+ *
+ * <p>When {@code che.docker.always_pull_image} is enabled, {@link MachineProviderImpl} skips the pull
+ * of an image which was warmed no longer than {@code che.docker.image_warmer.image_ttl_min} minutes ago.
+ * Warming is disabled when the max number of images is not positive.
+ */
+@Singleton
+public class DockerImageWarmer implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerImageWarmer.class);
+
+    private static final int MAX_STACKS = 500;
+
+    private final DockerConnector      docker;
+    private final StackDao             stackDao;
+    private final EnvironmentParser    environmentParser;
+    private final int                  maxImages;
+    private final long                 imageTtlMs;
+    private final ExecutorService      executor;
+    private final Map<String, Integer> recentStarts;
+    private final Map<String, Long>    warmedAt;
+    private final AtomicLong           hits;
+    private final AtomicLong           misses;
+
+    @Inject
+    public DockerImageWarmer(DockerConnectorProvider dockerProvider,
+                             StackDao stackDao,
+                             EnvironmentParser environmentParser,
+                             @Named("che.docker.image_warmer.max_images") int maxImages,
+                             @Named("che.docker.image_warmer.threads") int threads,
+                             @Named("che.docker.image_warmer.image_ttl_min") long imageTtlMin) {
+        this.docker = dockerProvider.get();
+        this.stackDao = stackDao;
+        this.environmentParser = environmentParser;
+        this.maxImages = maxImages;
+        this.imageTtlMs = TimeUnit.MINUTES.toMillis(imageTtlMin);
+        this.executor = Executors.newFixedThreadPool(Math.max(threads, 1),
+                                                     new ThreadFactoryBuilder().setNameFormat("DockerImageWarmer-%d")
+                                                                               .setUncaughtExceptionHandler(
+                                                                                       LoggingUncaughtExceptionHandler.getInstance())
+                                                                               .setDaemon(true)
+                                                                               .build());
+        this.recentStarts = new ConcurrentHashMap<>();
+        this.warmedAt = new ConcurrentHashMap<>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Registers start of the machine described by the given service.
+     *
+     * @return {@code true} if all the images of the service are warmed and fresh, so they don't need to be pulled,
+     * otherwise {@code false}
+     */
+    public boolean registerStart(CheServiceImpl service) {
+        if (maxImages <= 0) {
+            return false;
+        }
+        final Set<String> images = getImages(service);
+        if (images.isEmpty()) {
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        boolean fresh = true;
+        for (String image : images) {
+            recentStarts.merge(image, 1, Integer::sum);
+            final Long warmed = warmedAt.get(image);
+            fresh &= warmed != null && now - warmed <= imageTtlMs;
+        }
+        (fresh ? hits : misses).incrementAndGet();
+        return fresh;
+    }
+
+    /** Returns number of machine starts which used warm images. */
+    public long getHitsCount() {
+        return hits.get();
+    }
+
+    /** Returns number of machine starts which needed images that were not warm. */
+    public long getMissesCount() {
+        return misses.get();
+    }
+
+    /** Returns number of images which were warmed at least once. */
+    public int getWarmImagesCount() {
+        return warmedAt.size();
+    }
+
+    @ScheduleDelay(initialDelay = 1,
+                   delayParameterName = "che.docker.image_warmer.period_min",
+                   unit = TimeUnit.MINUTES)
+    @Override
+    public void run() {
+        if (maxImages <= 0) {
+            return;
+        }
+        final List<String> images = selectImages();
+        recentStarts.replaceAll((image, starts) -> starts / 2);
+        recentStarts.values().removeIf(starts -> starts == 0);
+
+        final List<Future<?>> futures = new ArrayList<>(images.size());
+        for (String image : images) {
+            futures.add(executor.submit(() -> warm(image)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                return;
+            } catch (ExecutionException e) {
+                LOG.error(e.getCause().getLocalizedMessage(), e.getCause());
+            }
+        }
+        LOG.info("Docker images warming is done. Warm images: {}, starts with warm images: {}, starts with cold images: {}",
+                 warmedAt.size(), hits.get(), misses.get());
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Returns the most recently started images followed by images of the stacks. */
+    private List<String> selectImages() {
+        final Set<String> candidates = new LinkedHashSet<>(recentStarts.keySet());
+        try {
+            for (StackImpl stack : stackDao.searchStacks(null, null, 0, MAX_STACKS)) {
+                if (stack.getWorkspaceConfig() == null) {
+                    continue;
+                }
+                for (EnvironmentImpl environment : stack.getWorkspaceConfig().getEnvironments().values()) {
+                    try {
+                        environmentParser.parse(environment)
+                                         .getServices()
+                                         .values()
+                                         .forEach(service -> candidates.addAll(getImages(service)));
+                    } catch (IllegalArgumentException | ServerException e) {
+                        LOG.debug("Skipping environment of stack '{}'. Cause: {}", stack.getId(), e.getLocalizedMessage());
+                    }
+                }
+            }
+        } catch (ServerException e) {
+            LOG.error("Failed to get stacks for images warming. Cause: {}", e.getLocalizedMessage());
+        }
+        return candidates.stream()
+                         .sorted(Comparator.comparingInt(image -> -recentStarts.getOrDefault(image, 0)))
+                         .limit(maxImages)
+                         .collect(toList());
+    }
+
+    private void warm(String image) {
+        final DockerMachineSource source = toSource(image);
+        if (source == null) {
+            return;
+        }
+        try {
+            docker.pull(PullParams.create(source.getRepository())
+                                  .withTag(source.getTag())
+                                  .withRegistry(source.getRegistry()),
+                        ProgressMonitor.DEV_NULL);
+            warmedAt.put(image, System.currentTimeMillis());
+        } catch (IOException e) {
+            LOG.warn("Failed to warm docker image '{}'. Cause: {}", image, e.getLocalizedMessage());
+        }
+    }
+
+    /** Returns images of the service or base images of the service dockerfile in the form of 'registry/repository:tag'. */
+    private static Set<String> getImages(CheServiceImpl service) {
+        final Set<String> images = new LinkedHashSet<>();
+        if (service.getBuild() != null && service.getBuild().getDockerfileContent() != null) {
+            try {
+                for (DockerImage dockerImage : DockerfileParser.parse(service.getBuild().getDockerfileContent()).getImages()) {
+                    addImage(dockerImage.getFrom(), images);
+                }
+            } catch (DockerFileException e) {
+                LOG.debug(e.getLocalizedMessage());
+            }
+        } else if (service.getBuild() == null || service.getBuild().getContext() == null) {
+            addImage(service.getImage(), images);
+        }
+        return images;
+    }
+
+    private static void addImage(String location, Set<String> images) {
+        // skip images which depend on build arguments and snapshots which are never shared
+        if (location == null || location.contains("$") || MachineProviderImpl.SNAPSHOT_LOCATION_PATTERN.matcher(location).matches()) {
+            return;
+        }
+        final DockerMachineSource source = toSource(location);
+        if (source != null) {
+            images.add(source.getLocation(false));
+        }
+    }
+
+    private static DockerMachineSource toSource(String location) {
+        try {
+            final DockerMachineSource source = new DockerMachineSource(new MachineSourceImpl("image").setLocation(location));
+            if (source.getRepository() == null) {
+                return null;
+            }
+            return source.withTag(MoreObjects.firstNonNull(source.getTag(), LATEST_TAG));
+        } catch (MachineException e) {
+            return null;
+        }
+    }
+}
@@ -147,6 +147,7 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     private final UserSpecificDockerRegistryCredentialsProvider dockerCredentials;
     private final ExecutorService                               executor;
     private final DockerInstanceStopDetector                    dockerInstanceStopDetector;
+    private final DockerImageWarmer                             imageWarmer;
     private final RequestTransmitter                            transmitter;
     private final JsonRpcEndpointToMachineNameHolder            jsonRpcEndpointToMachineNameHolder;
     private final boolean                                       doForcePullImage;
@@ -177,6 +178,7 @@ public class MachineProviderImpl implements MachineInstanceProvider {
                                UserSpecificDockerRegistryCredentialsProvider dockerCredentials,
                                DockerMachineFactory dockerMachineFactory,
                                DockerInstanceStopDetector dockerInstanceStopDetector,
+                               DockerImageWarmer imageWarmer,
                                RequestTransmitter transmitter,
                                JsonRpcEndpointToMachineNameHolder jsonRpcEndpointToMachineNameHolder,
                                @Named("machine.docker.dev_machine.machine_servers") Set<ServerConf> devMachineServers,
@@ -205,6 +207,7 @@ public class MachineProviderImpl implements MachineInstanceProvider {
         this.dockerCredentials = dockerCredentials;
         this.dockerMachineFactory = dockerMachineFactory;
         this.dockerInstanceStopDetector = dockerInstanceStopDetector;
+        this.imageWarmer = imageWarmer;
         this.transmitter = transmitter;
         this.doForcePullImage = doForcePullImage;
         this.privilegedMode = privilegedMode;
@@ -434,7 +437,8 @@ public class MachineProviderImpl implements MachineInstanceProvider {
 
         if (service.getBuild() != null && (service.getBuild().getContext() != null ||
                                            service.getBuild().getDockerfileContent() != null)) {
-            buildImage(service, imageName, doForcePullImage, progressMonitor);
+            boolean isWarm = imageWarmer.registerStart(service);
+            buildImage(service, imageName, doForcePullImage && !isWarm, progressMonitor);
         } else {
             pullImage(service, imageName, progressMonitor);
         }
@@ -521,7 +525,9 @@ public class MachineProviderImpl implements MachineInstanceProvider {
         try {
             boolean isSnapshot = SNAPSHOT_LOCATION_PATTERN.matcher(dockerMachineSource.getLocation()).matches();
             boolean isImageExistLocally = isDockerImageExistLocally(dockerMachineSource.getRepository());
-            if ((!isSnapshot && (doForcePullImage || !isImageExistLocally)) || (isSnapshot && snapshotUseRegistry)) {
+            // image warmed recently is considered as up to date even if pull is forced
+            boolean isWarm = imageWarmer.registerStart(service);
+            if ((!isSnapshot && ((doForcePullImage && !isWarm) || !isImageExistLocally)) || (isSnapshot && snapshotUseRegistry)) {
                 PullParams pullParams = PullParams.create(dockerMachineSource.getRepository())
                                                   .withTag(MoreObjects.firstNonNull(dockerMachineSource.getTag(),
                                                                                     LATEST_TAG))
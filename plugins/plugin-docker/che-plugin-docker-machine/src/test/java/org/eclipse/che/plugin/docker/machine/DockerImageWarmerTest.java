@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.eclipse.che.api.environment.server.EnvironmentParser;
+import org.eclipse.che.api.environment.server.model.CheServiceBuildContextImpl;
+import org.eclipse.che.api.environment.server.model.CheServiceImpl;
+import org.eclipse.che.api.environment.server.model.CheServicesEnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
+import org.eclipse.che.api.workspace.server.spi.StackDao;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerConnectorProvider;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.params.PullParams;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Listeners(MockitoTestNGListener.class)
+public class DockerImageWarmerTest {
+    @Mock
+    private DockerConnectorProvider dockerConnectorProvider;
+    @Mock
+    private DockerConnector         docker;
+    @Mock
+    private StackDao                stackDao;
+    @Mock
+    private EnvironmentParser       environmentParser;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        when(dockerConnectorProvider.get()).thenReturn(docker);
+    }
+
+    @Test
+    public void shouldWarmMostRecentlyStartedImagesFirst() throws Exception {
+        DockerImageWarmer warmer = createWarmer(1);
+        warmer.registerStart(new CheServiceImpl().withImage("codenvy/node"));
+        warmer.registerStart(new CheServiceImpl().withImage("codenvy/ubuntu_jdk8"));
+        warmer.registerStart(new CheServiceImpl().withImage("codenvy/ubuntu_jdk8:latest"));
+
+        warmer.run();
+
+        verify(docker).pull(eq(PullParams.create("codenvy/ubuntu_jdk8").withTag("latest")), any(ProgressMonitor.class));
+        verify(docker, never()).pull(eq(PullParams.create("codenvy/node").withTag("latest")), any(ProgressMonitor.class));
+    }
+
+    @Test
+    public void shouldReportWarmImageAsFreshAfterItIsPulled() throws Exception {
+        DockerImageWarmer warmer = createWarmer(10);
+        CheServiceImpl service = new CheServiceImpl().withImage("codenvy/ubuntu_jdk8");
+
+        assertFalse(warmer.registerStart(service));
+        warmer.run();
+        assertTrue(warmer.registerStart(service));
+
+        assertEquals(warmer.getWarmImagesCount(), 1);
+        assertEquals(warmer.getHitsCount(), 1);
+        assertEquals(warmer.getMissesCount(), 1);
+    }
+
+    @Test
+    public void shouldWarmBaseImagesOfStackDockerfiles() throws Exception {
+        EnvironmentImpl environment = new EnvironmentImpl();
+        WorkspaceConfigImpl workspaceConfig = new WorkspaceConfigImpl();
+        workspaceConfig.setEnvironments(singletonMap("env", environment));
+        StackImpl stack = mock(StackImpl.class);
+        when(stack.getWorkspaceConfig()).thenReturn(workspaceConfig);
+        when(stackDao.searchStacks(any(), any(), anyInt(), anyInt())).thenReturn(singletonList(stack));
+        CheServiceImpl service = new CheServiceImpl().withBuild(new CheServiceBuildContextImpl().withDockerfileContent(
+                "FROM registry.com:5000/codenvy/ubuntu_jdk8:1.0\nRUN echo hello"));
+        when(environmentParser.parse(any(EnvironmentImpl.class))).thenReturn(new CheServicesEnvironmentImpl(singletonMap("dev", service)));
+
+        createWarmer(10).run();
+
+        verify(docker).pull(eq(PullParams.create("codenvy/ubuntu_jdk8").withTag("1.0").withRegistry("registry.com:5000")),
+                            any(ProgressMonitor.class));
+    }
+
+    @Test
+    public void shouldNotWarmImagesWhenWarmingIsDisabled() throws Exception {
+        DockerImageWarmer warmer = createWarmer(0);
+
+        assertFalse(warmer.registerStart(new CheServiceImpl().withImage("codenvy/ubuntu_jdk8")));
+        warmer.run();
+
+        verifyZeroInteractions(docker, stackDao);
+        assertEquals(warmer.getMissesCount(), 0);
+    }
+
+    private DockerImageWarmer createWarmer(int maxImages) {
+        return new DockerImageWarmer(dockerConnectorProvider, stackDao, environmentParser, maxImages, 1, 60);
+    }
+}
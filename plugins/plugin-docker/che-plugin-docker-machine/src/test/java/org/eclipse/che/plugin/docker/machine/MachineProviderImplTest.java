@@ -116,6 +116,9 @@ public class MachineProviderImplTest {
     @Mock
     private DockerInstanceStopDetector dockerInstanceStopDetector;
 
+    @Mock
+    private DockerImageWarmer imageWarmer;
+
     @Mock
     private RequestTransmitter transmitter;
 
@@ -226,6 +229,28 @@ public class MachineProviderImplTest {
         verify(dockerConnector).pull(any(PullParams.class), any(ProgressMonitor.class));
     }
 
+    @Test
+    public void shouldNotPullDockerImageIfAlwaysPullIsTrueButTheImageIsWarm() throws Exception {
+        provider = new MachineProviderBuilder().setDoForcePullImage(true).build();
+        doReturn(true).when(provider).isDockerImageExistLocally(anyString());
+        when(imageWarmer.registerStart(any(CheServiceImpl.class))).thenReturn(true);
+
+        createInstanceFromRecipe();
+
+        verify(dockerConnector, never()).pull(any(PullParams.class), any(ProgressMonitor.class));
+    }
+
+    @Test
+    public void shouldPullWarmDockerImageIfItDoesNotExistLocally() throws Exception {
+        provider = new MachineProviderBuilder().setDoForcePullImage(true).build();
+        doReturn(false).when(provider).isDockerImageExistLocally(anyString());
+        when(imageWarmer.registerStart(any(CheServiceImpl.class))).thenReturn(true);
+
+        createInstanceFromRecipe();
+
+        verify(dockerConnector).pull(any(PullParams.class), any(ProgressMonitor.class));
+    }
+
     @Test
     public void shouldPullDockerImageIfAlwaysPullIsFalseButImageDoesNotExist() throws Exception {
         provider = new MachineProviderBuilder().setDoForcePullImage(false).build();
@@ -1782,6 +1807,7 @@ public class MachineProviderImplTest {
                                                                           credentialsReader,
                                                                           dockerMachineFactory,
                                                                           dockerInstanceStopDetector,
+                                                                          imageWarmer,
                                                                           transmitter,
                                                                           jsonRpcEndpointToMachineNameHolder,
                                                                           devMachineServers,
@@ -17,6 +17,7 @@ import com.google.inject.Singleton;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.notification.AsyncEventSubscriber;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.project.server.EditorWorkingCopy;
@@ -111,12 +112,19 @@ public class JavaReconciler {
         eventService.subscribe(fileOperationEventSubscriber);
         subscribers.add(fileOperationEventSubscriber);
 
-        EventSubscriber<EditorWorkingCopyUpdatedEvent> editorContentUpdateEventSubscriber = new EventSubscriber<EditorWorkingCopyUpdatedEvent>() {
-            @Override
-            public void onEvent(EditorWorkingCopyUpdatedEvent event) {
-                onEditorContentUpdated(event);
-            }
-        };
+        // reconciled by dispatching threads of event service, so a slow reconcile of one file doesn't hold back other files
+        EventSubscriber<EditorWorkingCopyUpdatedEvent> editorContentUpdateEventSubscriber =
+                new AsyncEventSubscriber<EditorWorkingCopyUpdatedEvent>() {
+                    @Override
+                    public void onEvent(EditorWorkingCopyUpdatedEvent event) {
+                        onEditorContentUpdated(event);
+                    }
+
+                    @Override
+                    public Object getPartitionKey(EditorWorkingCopyUpdatedEvent event) {
+                        return event.getChanges().getFileLocation();
+                    }
+                };
         eventService.subscribe(editorContentUpdateEventSubscriber);
         subscribers.add(editorContentUpdateEventSubscriber);
     }
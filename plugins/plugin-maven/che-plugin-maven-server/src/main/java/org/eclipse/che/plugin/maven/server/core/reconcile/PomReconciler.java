@@ -22,6 +22,7 @@ package org.eclipse.che.plugin.maven.server.core.reconcile;
 
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.AsyncEventSubscriber;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.languageserver.service.LanguageServiceUtils;
@@ -94,11 +95,17 @@ public class PomReconciler {
         this.eventService = eventService;
         this.client = client;
 
-        editorContentUpdateEventSubscriber = new EventSubscriber<EditorWorkingCopyUpdatedEvent>() {
+        // poms of different files are reconciled concurrently by dispatching threads of event service
+        editorContentUpdateEventSubscriber = new AsyncEventSubscriber<EditorWorkingCopyUpdatedEvent>() {
             @Override
             public void onEvent(EditorWorkingCopyUpdatedEvent event) {
                 onEditorContentUpdated(event);
             }
+
+            @Override
+            public Object getPartitionKey(EditorWorkingCopyUpdatedEvent event) {
+                return event.getChanges().getFileLocation();
+            }
         };
         eventService.subscribe(editorContentUpdateEventSubscriber);
     }
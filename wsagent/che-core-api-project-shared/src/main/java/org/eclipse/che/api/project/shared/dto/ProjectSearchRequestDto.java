@@ -33,4 +33,9 @@ public interface ProjectSearchRequestDto {
     int getSkipCount();
 
     ProjectSearchRequestDto withSkipCount(int skipCount);
+
+    /** Cursor returned with previous page of search results. Takes precedence over skip count when set. */
+    String getCursor();
+
+    ProjectSearchRequestDto withCursor(String cursor);
 }
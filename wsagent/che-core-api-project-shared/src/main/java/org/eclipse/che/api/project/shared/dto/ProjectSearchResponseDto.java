@@ -19,4 +19,14 @@ public interface ProjectSearchResponseDto {
     List<ItemReference> getItemReferences();
 
     ProjectSearchResponseDto withItemReferences(List<ItemReference> itemReferences);
+
+    /** Matched files with lines that match the text query. */
+    List<SearchResultDto> getSearchResults();
+
+    ProjectSearchResponseDto withSearchResults(List<SearchResultDto> searchResults);
+
+    /** Cursor for retrieving next page of search results or {@code null} if there are no more results. */
+    String getNextPageCursor();
+
+    ProjectSearchResponseDto withNextPageCursor(String nextPageCursor);
 }
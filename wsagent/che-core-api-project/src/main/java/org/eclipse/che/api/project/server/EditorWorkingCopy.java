@@ -12,12 +12,14 @@ package org.eclipse.che.api.project.server;
 
 import com.google.common.io.ByteStreams;
 
+import org.apache.commons.io.input.ReaderInputStream;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 
 import static java.lang.String.format;
@@ -26,13 +28,19 @@ import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOV
 
 /**
  * In-memory implementation of working copy for opened editor on client.
+ * <p>
+ * Editor changes are applied to a {@link PieceTable}, so an edit does not copy the whole content.
+ * Content is materialized as bytes or string only when it is requested.
  *
  * @author Roman Nikitenko
  */
 public class EditorWorkingCopy {
-    private String path;
-    private String projectPath;
-    private byte[] content;
+    private String     path;
+    private String     projectPath;
+    /** Content as bytes, {@code null} when it is out of date and has to be rebuilt from {@link #text}. */
+    private byte[]     content;
+    /** Content as text, {@code null} until the first change is applied. */
+    private PieceTable text;
 
     /**
      * Creates a working copy for opened editor on client.
@@ -55,11 +63,9 @@ public class EditorWorkingCopy {
      *
      * @return content ot the working copy
      */
-    public byte[] getContentAsBytes() {
-        if (content == null) {
-            content = new byte[0];
-        }
-        return Arrays.copyOf(content, content.length);
+    public synchronized byte[] getContentAsBytes() {
+        byte[] bytes = bytes();
+        return Arrays.copyOf(bytes, bytes.length);
     }
 
     /**
@@ -67,16 +73,20 @@ public class EditorWorkingCopy {
      *
      * @return content ot the working copy
      */
-    public String getContentAsString() {
-        return new String(getContentAsBytes());
+    public synchronized String getContentAsString() {
+        return text != null ? text.toString() : new String(bytes());
     }
 
     /**
-     * Gets content of the working copy.
+     * Gets content of the working copy. Content is encoded while the stream is read,
+     * the stream is not affected by changes applied after the call.
      *
      * @return content ot the working copy
      */
-    public InputStream getContent() {
+    public synchronized InputStream getContent() {
+        if (content == null && text != null) {
+            return new ReaderInputStream(text.reader(), Charset.defaultCharset());
+        }
         return new ByteArrayInputStream(getContentAsBytes());
     }
 
@@ -87,8 +97,9 @@ public class EditorWorkingCopy {
      *         content
      * @return current working copy after updating content
      */
-    EditorWorkingCopy updateContent(byte[] content) {
+    synchronized EditorWorkingCopy updateContent(byte[] content) {
         this.content = content;
+        this.text = null;
         return this;
     }
 
@@ -133,21 +144,32 @@ public class EditorWorkingCopy {
             int offset = changes.getOffset();
             int removedCharCount = changes.getRemovedCharCount();
 
-            String newContent = null;
-            String oldContent = getContentAsString();
             EditorChangesDto.Type type = changes.getType();
             if (type == INSERT) {
-                newContent = new StringBuilder(oldContent).insert(offset, text).toString();
+                text().insert(offset, text);
+                content = null;
             }
 
             if (type == REMOVE && removedCharCount > 0) {
-                newContent = new StringBuilder(oldContent).delete(offset, offset + removedCharCount).toString();
+                text().delete(offset, removedCharCount);
+                content = null;
             }
+        }
+    }
 
-            if (newContent != null) {
-                updateContent(newContent);
-            }
+    private byte[] bytes() {
+        if (content == null) {
+            // materialized text is cheaper to keep as a single piece
+            content = text != null ? text.compact().getBytes() : new byte[0];
+        }
+        return content;
+    }
+
+    private PieceTable text() {
+        if (text == null) {
+            text = new PieceTable(new String(bytes()));
         }
+        return text;
     }
 
     /** Returns the path to the persistent working copy */
@@ -11,6 +11,8 @@
 package org.eclipse.che.api.project.server;
 
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -24,6 +26,7 @@ import org.eclipse.che.api.project.shared.dto.ServerError;
 import org.eclipse.che.api.project.shared.dto.event.FileTrackingOperationDto;
 import org.eclipse.che.api.vfs.impl.file.event.detectors.FileTrackingOperationEvent;
 import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,16 +36,34 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.Lock;
 
 import static java.lang.String.format;
 import static java.nio.charset.Charset.defaultCharset;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.INSERT;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOVE;
 import static org.eclipse.che.api.project.shared.Constants.CHE_DIR;
 
 /**
  * The class contains methods to simplify the work with editor working copies.
+ * <p>
+ * Editor changes are queued per file, adjacent inserts and removals are coalesced, and the queue is applied
+ * to the working copy as one batch after {@link #CHANGES_DEBOUNCE_DELAY_MS}. One {@link EditorWorkingCopyUpdatedEvent}
+ * is published per batch and endpoint, so reconcilers run once per burst of typing instead of once per keystroke.
+ * Changes of different endpoints are never merged, and a change which can not be applied is reported to its own
+ * endpoint without affecting the rest of the batch.
+ * Queued changes are applied immediately when the working copy is requested with {@link #getWorkingCopy(String)},
+ * and are applied and published before the working copy is dropped or moved when the file is closed or moved.
  *
  * @author Roman Nikitenko
  */
@@ -51,13 +72,17 @@ public class EditorWorkingCopyManager {
     private static final Logger LOG                       = LoggerFactory.getLogger(EditorWorkingCopyManager.class);
     private static final String WORKING_COPIES_DIR        = "/" + CHE_DIR + "/workingCopies";
     private static final String WORKING_COPY_ERROR_METHOD = "track:editor-working-copy-error";
+    private static final long   CHANGES_DEBOUNCE_DELAY_MS = 50;
 
     private Provider<ProjectManager>                    projectManagerProvider;
     private EventService                                eventService;
     private RequestTransmitter                          transmitter;
     private EventSubscriber<FileTrackingOperationEvent> fileOperationEventSubscriber;
 
-    private final Map<String, EditorWorkingCopy> workingCopiesStorage = new HashMap<>();
+    private final Map<String, EditorWorkingCopy> workingCopiesStorage = new ConcurrentHashMap<>();
+    private final Map<String, PendingChanges>    pendingChanges       = new ConcurrentHashMap<>();
+    private final Striped<Lock>                  pathLocks            = Striped.lazyWeakLock(32);
+    private final ScheduledExecutorService       changesExecutor;
 
     @Inject
     public EditorWorkingCopyManager(Provider<ProjectManager> projectManagerProvider,
@@ -66,6 +91,11 @@ public class EditorWorkingCopyManager {
         this.projectManagerProvider = projectManagerProvider;
         this.eventService = eventService;
         this.transmitter = transmitter;
+        this.changesExecutor = newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat(EditorWorkingCopyManager.class.getSimpleName() + "-%d")
+                                          .setDaemon(true)
+                                          .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                                          .build());
 
         fileOperationEventSubscriber = new EventSubscriber<FileTrackingOperationEvent>() {
             @Override
@@ -86,26 +116,41 @@ public class EditorWorkingCopyManager {
      */
     @Nullable
     public EditorWorkingCopy getWorkingCopy(String filePath) {
-        return workingCopiesStorage.get(filePath);
+        Lock lock = pathLocks.get(filePath);
+        lock.lock();
+        try {
+            applyPendingChanges(filePath);
+            return workingCopiesStorage.get(filePath);
+        } finally {
+            lock.unlock();
+        }
     }
 
     void onEditorContentUpdated(String endpointId, EditorChangesDto changes) {
         String filePath = changes.getFileLocation();
         String projectPath = changes.getProjectPath();
 
+        Lock lock = pathLocks.get(filePath);
+        lock.lock();
         try {
             if (filePath.isEmpty() || projectPath.isEmpty()) {
                 throw new NotFoundException("Paths for file and project should be defined");
             }
 
-            EditorWorkingCopy workingCopy = workingCopiesStorage.get(filePath);
-            if (workingCopy == null) {
-                workingCopy = createWorkingCopy(filePath);
+            if (!workingCopiesStorage.containsKey(filePath)) {
+                createWorkingCopy(filePath);
             }
 
-            workingCopy.applyChanges(changes);
-            eventService.publish(new EditorWorkingCopyUpdatedEvent(endpointId, changes));
-
+            PendingChanges pending = pendingChanges.get(filePath);
+            if (pending == null) {
+                pending = new PendingChanges();
+                pendingChanges.put(filePath, pending);
+            }
+            pending.add(endpointId, changes);
+            if (!pending.scheduled) {
+                pending.scheduled = true;
+                changesExecutor.schedule(() -> publishPendingChanges(filePath), CHANGES_DEBOUNCE_DELAY_MS, MILLISECONDS);
+            }
         } catch (IOException | ForbiddenException | ConflictException | ServerException e) {
             String errorMessage = "Can not handle editor changes: " + e.getLocalizedMessage();
 
@@ -118,15 +163,91 @@ public class EditorWorkingCopyManager {
             LOG.error(errorMessage);
 
             transmitError(400, errorMessage, endpointId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Applies changes that were queued during debounce window and notifies about them with a single event. */
+    private void publishPendingChanges(String filePath) {
+        PendingChanges pending;
+        Lock lock = pathLocks.get(filePath);
+        lock.lock();
+        try {
+            pending = pendingChanges.remove(filePath);
+            if (pending == null) {
+                return;
+            }
+            apply(filePath, pending);
+        } finally {
+            lock.unlock();
+        }
+
+        publish(pending);
+    }
+
+    private void publish(PendingChanges pending) {
+        pending.applied.forEach((endpointId, change) -> eventService.publish(new EditorWorkingCopyUpdatedEvent(endpointId, change)));
+    }
+
+    /** Applies queued changes to the working copy, the changes are still published by scheduled task. */
+    private void applyPendingChanges(String filePath) {
+        PendingChanges pending = pendingChanges.get(filePath);
+        if (pending != null) {
+            apply(filePath, pending);
+        }
+    }
+
+    private void apply(String filePath, PendingChanges pending) {
+        EditorWorkingCopy workingCopy = workingCopiesStorage.get(filePath);
+        List<PendingChange> changes = pending.drain();
+        if (workingCopy == null) {
+            return;
+        }
+
+        for (PendingChange change : changes) {
+            try {
+                workingCopy.applyChanges(change.change);
+                pending.applied.put(change.endpointId, change.change);
+            } catch (RuntimeException e) {
+                String errorMessage = "Can not apply editor changes: " + e.getLocalizedMessage();
+
+                LOG.error(errorMessage);
+
+                transmitError(500, errorMessage, change.endpointId);
+            }
         }
     }
 
     private void onFileOperation(String endpointId, FileTrackingOperationDto operation) {
+        String path = operation.getPath();
+        String oldPath = operation.getOldPath();
+        Iterable<Lock> locks = oldPath == null ? asList(pathLocks.get(path)) : pathLocks.bulkGet(asList(path, oldPath));
+        locks.forEach(Lock::lock);
+        try {
+            applyPendingChanges(path);
+            if (oldPath != null) {
+                applyPendingChanges(oldPath);
+            }
+            FileTrackingOperationDto.Type type = operation.getType();
+            if (type == FileTrackingOperationDto.Type.STOP || type == FileTrackingOperationDto.Type.MOVE) {
+                // working copy is going to be dropped or moved, so changes are published now rather than by scheduled task
+                PendingChanges pending = pendingChanges.remove(type == FileTrackingOperationDto.Type.STOP ? path : oldPath);
+                if (pending != null) {
+                    publish(pending);
+                }
+            }
+            onFileOperation(endpointId, operation, path, oldPath);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    private void onFileOperation(String endpointId, FileTrackingOperationDto operation, String path, String oldPath) {
         try {
             FileTrackingOperationDto.Type type = operation.getType();
             switch (type) {
                 case START: {
-                    String path = operation.getPath();
                     EditorWorkingCopy workingCopy = workingCopiesStorage.get(path);
                     if (workingCopy == null) {
                         createWorkingCopy(path);
@@ -136,7 +257,6 @@ public class EditorWorkingCopyManager {
                     break;
                 }
                 case STOP: {
-                    String path = operation.getPath();
                     EditorWorkingCopy workingCopy = workingCopiesStorage.get(path);
                     if (workingCopy == null) {
                         return;
@@ -155,8 +275,7 @@ public class EditorWorkingCopyManager {
                 }
 
                 case MOVE: {
-                    String oldPath = operation.getOldPath();
-                    String newPath = operation.getPath();
+                    String newPath = path;
 
                     EditorWorkingCopy workingCopy = workingCopiesStorage.remove(oldPath);
                     if (workingCopy == null) {
@@ -336,5 +455,95 @@ public class EditorWorkingCopyManager {
     @PreDestroy
     private void unsubscribe() {
         eventService.unsubscribe(fileOperationEventSubscriber);
+        changesExecutor.shutdownNow();
+    }
+
+    /** Editor change along with the endpoint it is received from. */
+    private static class PendingChange {
+        final String     endpointId;
+        EditorChangesDto change;
+
+        PendingChange(String endpointId, EditorChangesDto change) {
+            this.endpointId = endpointId;
+            this.change = change;
+        }
+    }
+
+    /**
+     * Editor changes of a file which are not applied to its working copy yet.
+     * Guarded by the lock of the file path.
+     */
+    private static class PendingChanges {
+        final List<PendingChange>           changes = new ArrayList<>();
+        /** The last applied change of each endpoint, which is published when the batch is done. */
+        final Map<String, EditorChangesDto> applied = new LinkedHashMap<>();
+
+        boolean scheduled;
+
+        void add(String endpointId, EditorChangesDto change) {
+            int last = changes.size() - 1;
+            PendingChange previous = last < 0 ? null : changes.get(last);
+            EditorChangesDto merged = null;
+            if (previous != null && Objects.equals(previous.endpointId, endpointId)) {
+                merged = coalesce(previous.change, change);
+            }
+            if (merged != null) {
+                previous.change = merged;
+            } else {
+                changes.add(new PendingChange(endpointId, change));
+            }
+        }
+
+        List<PendingChange> drain() {
+            List<PendingChange> drained = new ArrayList<>(changes);
+            changes.clear();
+            return drained;
+        }
+
+        /**
+         * Merges two consecutive changes into one when the second continues the first one: text typed
+         * right after inserted text, or characters removed right before or right after removed ones.
+         *
+         * @return merged change or {@code null} when changes can not be merged
+         */
+        private static EditorChangesDto coalesce(EditorChangesDto previous, EditorChangesDto next) {
+            if (previous.getType() != next.getType()) {
+                return null;
+            }
+
+            if (previous.getType() == INSERT) {
+                String text = previous.getText();
+                if (text == null || next.getText() == null || next.getOffset() != previous.getOffset() + text.length()) {
+                    return null;
+                }
+                return copy(previous).withOffset(previous.getOffset())
+                                     .withText(text + next.getText())
+                                     .withLength(previous.getLength() + next.getLength());
+            }
+
+            if (previous.getType() == REMOVE) {
+                int offset;
+                if (next.getOffset() == previous.getOffset()) {
+                    offset = previous.getOffset();
+                } else if (next.getOffset() + next.getRemovedCharCount() == previous.getOffset()) {
+                    offset = next.getOffset();
+                } else {
+                    return null;
+                }
+                return copy(previous).withOffset(offset)
+                                     .withRemovedCharCount(previous.getRemovedCharCount() + next.getRemovedCharCount())
+                                     .withLength(previous.getLength() + next.getLength());
+            }
+
+            return null;
+        }
+
+        private static EditorChangesDto copy(EditorChangesDto change) {
+            return DtoFactory.newDto(EditorChangesDto.class)
+                             .withFileLocation(change.getFileLocation())
+                             .withProjectPath(change.getProjectPath())
+                             .withType(change.getType())
+                             .withText(change.getText());
+        }
     }
 }
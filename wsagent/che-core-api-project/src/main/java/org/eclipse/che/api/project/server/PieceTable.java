@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Text stored as a sequence of pieces which refer to ranges of immutable strings: the original
+ * content and texts of inserts. Pieces are kept in a randomized balanced tree ordered by their
+ * position in the text, so insertion and removal take O(log n) time and never copy the text.
+ * <p>
+ * Not thread safe, but readers taken with {@link #reader()} stay valid after the text is changed, since
+ * range of a piece is never changed, a piece is replaced with two new ones when it has to be cut.
+ */
+class PieceTable {
+    /** When the tree has more pieces than this, it is compacted on the next edit. */
+    private static final int MAX_PIECES = 1 << 14;
+
+    private Piece root;
+
+    PieceTable(String text) {
+        reset(text);
+    }
+
+    /** Replaces the whole text. */
+    void reset(String text) {
+        root = text.isEmpty() ? null : new Piece(text, 0, text.length(), ThreadLocalRandom.current().nextInt());
+    }
+
+    /** Returns number of characters in the text. */
+    int length() {
+        return length(root);
+    }
+
+    /**
+     * Inserts text at the given offset.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if offset is negative or greater than length of the text
+     */
+    void insert(int offset, String text) {
+        if (offset < 0 || offset > length()) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length());
+        }
+        if (text.isEmpty()) {
+            return;
+        }
+        Piece[] split = split(root, offset);
+        root = merge(merge(split[0], new Piece(text, 0, text.length(), ThreadLocalRandom.current().nextInt())), split[1]);
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes characters starting at the given offset. As in {@link StringBuilder#delete(int, int)},
+     * characters beyond the end of the text are ignored.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if offset is negative or greater than length of the text
+     */
+    void delete(int offset, int count) {
+        if (offset < 0 || offset > length()) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length());
+        }
+        if (count <= 0) {
+            return;
+        }
+        Piece[] head = split(root, offset);
+        Piece[] tail = split(head[1], Math.min(count, length(head[1])));
+        root = merge(head[0], tail[1]);
+        compactIfNeeded();
+    }
+
+    /** Returns number of pieces the text is stored in. */
+    int pieces() {
+        return root == null ? 0 : root.count;
+    }
+
+    /**
+     * Collapses all the pieces into a single one, so the tree does not grow deeper and the text
+     * does not keep references to the strings of removed pieces.
+     *
+     * @return the whole text
+     */
+    String compact() {
+        String text = toString();
+        reset(text);
+        return text;
+    }
+
+    /** Returns reader over the current text, it is not affected by subsequent changes. */
+    Reader reader() {
+        List<Piece> pieces = new ArrayList<>();
+        collect(root, pieces);
+        return new PiecesReader(pieces);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length());
+        append(root, builder);
+        return builder.toString();
+    }
+
+    private void compactIfNeeded() {
+        if (pieces() > MAX_PIECES) {
+            compact();
+        }
+    }
+
+    private static int length(Piece piece) {
+        return piece == null ? 0 : piece.size;
+    }
+
+    /** Splits tree into a tree with first {@code offset} characters and a tree with the rest. */
+    private static Piece[] split(Piece piece, int offset) {
+        if (piece == null) {
+            return new Piece[2];
+        }
+        int leftSize = length(piece.left);
+        if (offset <= leftSize) {
+            Piece[] split = split(piece.left, offset);
+            piece.left = split[1];
+            piece.update();
+            return new Piece[]{split[0], piece};
+        }
+        if (offset >= leftSize + piece.length) {
+            Piece[] split = split(piece.right, offset - leftSize - piece.length);
+            piece.right = split[0];
+            piece.update();
+            return new Piece[]{piece, split[1]};
+        }
+        // offset is inside the piece itself, cut it in two
+        int cut = offset - leftSize;
+        Piece head = new Piece(piece.text, piece.start, cut, piece.priority);
+        head.left = piece.left;
+        head.update();
+        Piece tail = new Piece(piece.text, piece.start + cut, piece.length - cut, piece.priority);
+        tail.right = piece.right;
+        tail.update();
+        return new Piece[]{head, tail};
+    }
+
+    private static Piece merge(Piece left, Piece right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static void append(Piece piece, StringBuilder builder) {
+        if (piece != null) {
+            append(piece.left, builder);
+            builder.append(piece.text, piece.start, piece.start + piece.length);
+            append(piece.right, builder);
+        }
+    }
+
+    private static void collect(Piece piece, List<Piece> pieces) {
+        if (piece != null) {
+            collect(piece.left, pieces);
+            pieces.add(piece);
+            collect(piece.right, pieces);
+        }
+    }
+
+    private static class Piece {
+        final String text;
+        final int    start;
+        final int    length;
+        final int    priority;
+
+        Piece left;
+        Piece right;
+        int   size;
+        int   count;
+
+        Piece(String text, int start, int length, int priority) {
+            this.text = text;
+            this.start = start;
+            this.length = length;
+            this.priority = priority;
+            update();
+        }
+
+        void update() {
+            size = length + length(left) + length(right);
+            count = 1 + (left == null ? 0 : left.count) + (right == null ? 0 : right.count);
+        }
+    }
+
+    private static class PiecesReader extends Reader {
+        private final List<Piece> pieces;
+
+        private int index;
+        private int position;
+
+        PiecesReader(List<Piece> pieces) {
+            this.pieces = pieces;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (index == pieces.size()) {
+                return -1;
+            }
+            int read = 0;
+            while (read < length && index < pieces.size()) {
+                Piece piece = pieces.get(index);
+                int count = Math.min(length - read, piece.length - position);
+                piece.text.getChars(piece.start + position, piece.start + position + count, buffer, offset + read);
+                read += count;
+                position += count;
+                if (position == piece.length) {
+                    index++;
+                    position = 0;
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
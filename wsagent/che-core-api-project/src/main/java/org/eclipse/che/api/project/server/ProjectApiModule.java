@@ -42,6 +42,7 @@ import org.eclipse.che.api.vfs.watcher.FileWatcherIgnoreFileTracker;
 import org.eclipse.che.api.vfs.watcher.IndexedFileCreateConsumer;
 import org.eclipse.che.api.vfs.watcher.IndexedFileDeleteConsumer;
 import org.eclipse.che.api.vfs.watcher.IndexedFileUpdateConsumer;
+import org.eclipse.che.api.vfs.watcher.VirtualFileCacheInvalidateConsumer;
 
 import java.io.IOException;
 import java.nio.file.FileSystems;
@@ -135,6 +136,13 @@ public class ProjectApiModule extends AbstractModule {
         fileDeleteConsumers.addBinding().to(FileWatcherByPathMatcher.class);
         directoryCreateConsumers.addBinding().to(FileWatcherByPathMatcher.class);
         directoryDeleteConsumers.addBinding().to(FileWatcherByPathMatcher.class);
+
+        fileCreateConsumers.addBinding().to(VirtualFileCacheInvalidateConsumer.OfFiles.class);
+        fileUpdateConsumers.addBinding().to(VirtualFileCacheInvalidateConsumer.OfFiles.class);
+        fileDeleteConsumers.addBinding().to(VirtualFileCacheInvalidateConsumer.OfFiles.class);
+        directoryCreateConsumers.addBinding().to(VirtualFileCacheInvalidateConsumer.OfDirectories.class);
+        directoryUpdateConsumers.addBinding().to(VirtualFileCacheInvalidateConsumer.OfDirectories.class);
+        directoryDeleteConsumers.addBinding().to(VirtualFileCacheInvalidateConsumer.OfDirectories.class);
     }
 
     private void configureVfsFilters(Multibinder<PathMatcher> excludeMatcher) {
@@ -44,6 +44,8 @@ import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
 import org.eclipse.che.api.project.shared.dto.ProjectSearchRequestDto;
 import org.eclipse.che.api.project.shared.dto.ProjectSearchResponseDto;
+import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
+import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.vfs.VirtualFile;
@@ -874,33 +876,39 @@ public class ProjectService extends Service {
     @Path("/search/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
     @ApiOperation(value = "Search for resources",
-                  notes = "Search for resources applying a number of search filters as query parameters",
-                  response = ItemReference.class,
+                  notes = "Search for resources applying a number of search filters as query parameters, " +
+                          "each found file is returned with lines that match the text query",
+                  response = SearchResultDto.class,
                   responseContainer = "List")
     @ApiResponses({@ApiResponse(code = 200, message = "OK"),
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
                    @ApiResponse(code = 409, message = "Conflict error"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
-    public List<ItemReference> search(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
-                                      @PathParam("path") String path,
-                                      @ApiParam(value = "Resource name")
-                                      @QueryParam("name") String name,
-                                      @ApiParam(value = "Search keywords")
-                                      @QueryParam("text") String text,
-                                      @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
-                                      @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
-                                      @ApiParam(value = "Skip count")
-                                      @QueryParam("skipCount") int skipCount) throws NotFoundException,
-                                                                                     ForbiddenException,
-                                                                                     ConflictException,
-                                                                                     ServerException {
+    public List<SearchResultDto> search(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                                        @PathParam("path") String path,
+                                        @ApiParam(value = "Resource name")
+                                        @QueryParam("name") String name,
+                                        @ApiParam(value = "Search keywords")
+                                        @QueryParam("text") String text,
+                                        @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
+                                        @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                                        @ApiParam(value = "Skip count")
+                                        @QueryParam("skipCount") int skipCount) throws NotFoundException,
+                                                                                       ForbiddenException,
+                                                                                       ConflictException,
+                                                                                       ServerException {
+        return search(path, name, text, maxItems, skipCount, null).getSearchResults();
+    }
+
+    private ProjectSearchResponseDto search(String path, String name, String text, int maxItems, int skipCount, String cursor)
+            throws NotFoundException, ForbiddenException, ConflictException, ServerException {
         final Searcher searcher;
         try {
             searcher = projectManager.getSearcher();
         } catch (NotFoundException e) {
             LOG.warn(e.getLocalizedMessage());
-            return Collections.emptyList();
+            return newDto(ProjectSearchResponseDto.class).withSearchResults(Collections.emptyList());
         }
 
         if (skipCount < 0) {
@@ -912,22 +920,59 @@ public class ProjectService extends Service {
                 .setName(name)
                 .setText(text)
                 .setMaxItems(maxItems)
-                .setSkipCount(skipCount);
+                .setSkipCount(skipCount)
+                .setCursor(cursor);
 
         final SearchResult result = searcher.search(expr);
         final List<SearchResultEntry> searchResultEntries = result.getResults();
-        final List<ItemReference> items = new ArrayList<>(searchResultEntries.size());
-        final FolderEntry root = projectManager.getProjectsRoot();
+        final List<SearchResultDto> results = new ArrayList<>(searchResultEntries.size());
+        final Map<String, FileEntry> files = resolveFiles(projectManager.getProjectsRoot(), searchResultEntries);
 
         for (SearchResultEntry searchResultEntry : searchResultEntries) {
-            final VirtualFileEntry child = root.getChild(searchResultEntry.getFilePath());
-
-            if (child != null && child.isFile()) {
-                items.add(injectFileLinks(asDto((FileEntry)child)));
+            final FileEntry child = files.get(searchResultEntry.getFilePath());
+
+            if (child != null) {
+                final List<SearchOccurrenceDto> occurrences = searchResultEntry.getOccurrences()
+                                                                               .stream()
+                                                                               .map(DtoConverter::asDto)
+                                                                               .collect(Collectors.toList());
+                results.add(newDto(SearchResultDto.class).withItemReference(injectFileLinks(asDto(child)))
+                                                         .withSearchOccurrences(occurrences));
             }
         }
 
-        return items;
+        final String nextPageCursor = result.getNextPageQueryExpression().isPresent()
+                                      ? result.getNextPageQueryExpression().get().getCursor()
+                                      : null;
+        return newDto(ProjectSearchResponseDto.class).withSearchResults(results).withNextPageCursor(nextPageCursor);
+    }
+
+    /**
+     * Resolves files of the search hits by their paths. Each folder which contains hits is resolved once, and only
+     * names of the hits are looked up in it, so files are neither looked up one by one from the root nor listed.
+     */
+    private Map<String, FileEntry> resolveFiles(FolderEntry root, List<SearchResultEntry> searchResultEntries) throws ServerException {
+        final Map<String, List<String>> pathsByParent = new HashMap<>();
+        for (SearchResultEntry searchResultEntry : searchResultEntries) {
+            final String filePath = searchResultEntry.getFilePath();
+            pathsByParent.computeIfAbsent(filePath.substring(0, Math.max(filePath.lastIndexOf('/'), 0)), k -> new ArrayList<>())
+                         .add(filePath);
+        }
+
+        final Map<String, FileEntry> files = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : pathsByParent.entrySet()) {
+            final FolderEntry parent = entry.getKey().isEmpty() ? root : root.getChildFolder(entry.getKey());
+            if (parent == null) {
+                continue;
+            }
+            for (String filePath : entry.getValue()) {
+                final VirtualFileEntry file = parent.getChild(filePath.substring(filePath.lastIndexOf('/') + 1));
+                if (file != null && file.isFile()) {
+                    files.put(filePath, (FileEntry)file);
+                }
+            }
+        }
+        return files;
     }
 
     @Inject
@@ -947,7 +992,11 @@ public class ProjectService extends Service {
         int skipCount = request.getSkipCount();
 
         try {
-            return newDto(ProjectSearchResponseDto.class).withItemReferences(search(path, name, text, maxItems, skipCount));
+            final ProjectSearchResponseDto response = search(path, name, text, maxItems, skipCount, request.getCursor());
+            return response.withItemReferences(response.getSearchResults()
+                                                       .stream()
+                                                       .map(SearchResultDto::getItemReference)
+                                                       .collect(Collectors.toList()));
         } catch (ServerException | ConflictException | NotFoundException | ForbiddenException e) {
             throw new JsonRpcException(-27000, e.getMessage());
         }
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash sums of files computed by {@link HashSumsCounter}. Hash sum of file is reused while length and
+ * modification date of file stay the same. Content of cache may be written to and read from a file to
+ * keep it between restarts of virtual file system, {@link #isModified()} tells whether it needs to be
+ * written again. Cache keeps at most {@code maxEntries} hash sums, least recently used ones are dropped first.
+ */
+public class HashSumsCache {
+    /** Default maximum number of entries, about 20MB of memory with typical paths. */
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private static final class Entry {
+        final long   length;
+        final long   lastModified;
+        final String hashSum;
+
+        Entry(long length, long lastModified, String hashSum) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hashSum = hashSum;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    private volatile boolean modified;
+
+    public HashSumsCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public HashSumsCache(int maxEntries) {
+        final Cache<String, Entry> cache = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+        entries = cache.asMap();
+    }
+
+    /** Returns cached hash sum of file or {@code null} if file is not cached or was changed since it was cached. */
+    public String get(Path path, long length, long lastModified) {
+        Entry entry = entries.get(path.toString());
+        if (entry != null && entry.length == length && entry.lastModified == lastModified) {
+            return entry.hashSum;
+        }
+        return null;
+    }
+
+    public void put(Path path, long length, long lastModified, String hashSum) {
+        entries.put(path.toString(), new Entry(length, lastModified, hashSum));
+        modified = true;
+    }
+
+    /** Removes entries of files located under {@code folder} that are not in {@code existed}. */
+    public void retain(Path folder, Collection<Path> existed) {
+        String prefix = folder.isRoot() ? "/" : folder.toString() + '/';
+        Set<String> keep = new HashSet<>(existed.size());
+        for (Path path : existed) {
+            keep.add(path.toString());
+        }
+        if (entries.keySet().removeIf(path -> path.startsWith(prefix) && !keep.contains(path))) {
+            modified = true;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        modified = true;
+    }
+
+    /** Checks whether cache was changed since it was last written or read. */
+    public boolean isModified() {
+        return modified;
+    }
+
+    public void write(DataOutput output) throws IOException {
+        modified = false;
+        Map<String, Entry> snapshot = new HashMap<>(entries);
+        output.writeInt(snapshot.size());
+        for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeLong(entry.getValue().length);
+            output.writeLong(entry.getValue().lastModified);
+            output.writeUTF(entry.getValue().hashSum);
+        }
+    }
+
+    public void read(DataInput input) throws IOException {
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            String path = input.readUTF();
+            long length = input.readLong();
+            long lastModified = input.readLong();
+            String hashSum = input.readUTF();
+            entries.put(path, new Entry(length, lastModified, hashSum));
+        }
+        modified = false;
+    }
+}
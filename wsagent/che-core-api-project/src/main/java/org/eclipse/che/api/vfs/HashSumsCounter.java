@@ -13,32 +13,97 @@ package org.eclipse.che.api.vfs;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hasher;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.hash.Funnels.asOutputStream;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Traverses recursively all files in folder given in constructor and calculates hash sum for each file.
  * Algorithm specified by {@code hashFunction} is used for calculating hash sum.
+ * <p>
+ * Files are hashed in parallel in a pool of threads of its own, hashing blocks on path locks and disk reads so
+ * it doesn't belong to a fork/join pool. Hash sums are still delivered in the order of traversal, children of
+ * folder are sorted by {@link VirtualFile#getChildren()}, and at most a few of them are kept in memory waiting
+ * for the slowest one. Files that have local representation (see {@link VirtualFile#toIoFile()}) are read
+ * directly from disk, large ones through memory mapped regions, under shared path lock if {@link PathLockFactory}
+ * is given, so content is not changed through the virtual file system while it is hashed.
+ * If {@link HashSumsCache} is given then hash sums of files which length and modification date, read from disk
+ * right before hashing, are the same as in previous run are taken from it.
  */
 public class HashSumsCounter implements VirtualFileVisitor {
+    /** Files larger than this are read through memory mapped regions. */
+    private static final long MAPPED_READ_THRESHOLD      = 1024 * 1024;
+    private static final long MAPPED_REGION_SIZE         = 64 * 1024 * 1024;
+    private static final int  READ_BUFFER_SIZE           = 64 * 1024;
+    private static final long WAIT_FOR_FILE_LOCK_TIMEOUT = 60000; // 60 seconds
+
+    private static final int HASHING_THREADS       = Runtime.getRuntime().availableProcessors();
+    /** Hash sums calculated ahead of the one that is delivered next. */
+    private static final int MAX_PENDING_HASH_SUMS = HASHING_THREADS * 4;
+
+    /** When queue is full files are hashed by the thread that traverses the folder. */
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("HashSumsCounter-%d")
+                                                                      .setUncaughtExceptionHandler(
+                                                                              LoggingUncaughtExceptionHandler.getInstance())
+                                                                      .setDaemon(true)
+                                                                      .build();
+        EXECUTOR = new ThreadPoolExecutor(HASHING_THREADS,
+                                          HASHING_THREADS,
+                                          60L,
+                                          SECONDS,
+                                          new ArrayBlockingQueue<>(HASHING_THREADS * 16),
+                                          threadFactory,
+                                          new ThreadPoolExecutor.CallerRunsPolicy());
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     private final VirtualFile                folder;
     private final HashFunction               hashFunction;
+    private final HashSumsCache              cache;
+    private final PathLockFactory            lockFactory;
     private final List<Pair<String, String>> hashSums;
 
 
     public HashSumsCounter(VirtualFile folder, HashFunction hashFunction) {
+        this(folder, hashFunction, null, null);
+    }
+
+    public HashSumsCounter(VirtualFile folder, HashFunction hashFunction, HashSumsCache cache, PathLockFactory lockFactory) {
         this.folder = folder;
         this.hashFunction = hashFunction;
-        hashSums = newArrayList();
+        this.cache = cache;
+        this.lockFactory = lockFactory;
+        hashSums = new ArrayList<>();
     }
 
     /**
@@ -54,22 +119,138 @@ public class HashSumsCounter implements VirtualFileVisitor {
         return hashSums;
     }
 
+    /**
+     * Same as {@link #countHashSums()} but passes each hash sum to {@code consumer} as soon as it and all the hash sums
+     * before it are calculated instead of collecting all of them in memory. Consumer is called in the current thread.
+     */
+    public void countHashSums(Consumer<Pair<String, String>> consumer) throws ServerException {
+        count(folder, consumer);
+    }
+
     @Override
     public void visit(VirtualFile virtualFile) throws ServerException {
+        count(virtualFile, hashSums::add);
+    }
+
+    private void count(VirtualFile virtualFile, Consumer<Pair<String, String>> consumer) throws ServerException {
+        final Deque<Future<Pair<String, String>>> pending = new ArrayDeque<>();
+        final List<Path> counted = cache == null ? null : new ArrayList<>();
+        try {
+            traverse(virtualFile, consumer, pending, counted);
+            while (!pending.isEmpty()) {
+                consumer.accept(next(pending));
+            }
+        } finally {
+            for (Future<Pair<String, String>> future : pending) {
+                future.cancel(false);
+            }
+        }
+        if (counted != null && virtualFile.isFolder()) {
+            cache.retain(virtualFile.getPath(), counted);
+        }
+    }
+
+    private void traverse(VirtualFile virtualFile,
+                          Consumer<Pair<String, String>> consumer,
+                          Deque<Future<Pair<String, String>>> pending,
+                          List<Path> counted) throws ServerException {
         if (virtualFile.isFile()) {
-            try (InputStream in = virtualFile.getContent()) {
-                final Hasher hasher = hashFunction.newHasher();
-                ByteStreams.copy(in, asOutputStream(hasher));
-                final String hexHash = hasher.hash().toString();
-                hashSums.add(Pair.of(hexHash, virtualFile.getPath().subPath(folder.getPath()).toString()));
-            } catch (IOException e) {
-                throw new ServerException(e);
-            } catch (ForbiddenException e) {
-                throw new ServerException(e.getServiceError());
+            if (pending.size() >= MAX_PENDING_HASH_SUMS) {
+                consumer.accept(next(pending));
+            }
+            final String relativePath = virtualFile.getPath().subPath(folder.getPath()).toString();
+            pending.add(EXECUTOR.submit(() -> Pair.of(countHashSum(virtualFile), relativePath)));
+            if (counted != null) {
+                counted.add(virtualFile.getPath());
             }
         } else {
             for (VirtualFile child : virtualFile.getChildren()) {
-                child.accept(this);
+                traverse(child, consumer, pending, counted);
+            }
+        }
+    }
+
+    private Pair<String, String> next(Deque<Future<Pair<String, String>>> pending) throws ServerException {
+        try {
+            return pending.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while counting hash sums");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServerException) {
+                throw (ServerException)e.getCause();
+            }
+            throw new ServerException(e.getCause());
+        }
+    }
+
+    private String countHashSum(VirtualFile file) throws ServerException {
+        final File ioFile = file.toIoFile();
+        if (ioFile == null || lockFactory == null) {
+            return countHashSum(file, ioFile);
+        }
+        final PathLockFactory.PathLock lock = lockFactory.getLock(file.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+        try {
+            return countHashSum(file, ioFile);
+        } finally {
+            lock.release();
+        }
+    }
+
+    private String countHashSum(VirtualFile file, File ioFile) throws ServerException {
+        try {
+            long[] sizeAndModified = null;
+            if (cache != null) {
+                sizeAndModified = readSizeAndModified(file, ioFile);
+                String hashSum = cache.get(file.getPath(), sizeAndModified[0], sizeAndModified[1]);
+                if (hashSum != null) {
+                    return hashSum;
+                }
+            }
+            final Hasher hasher = hashFunction.newHasher();
+            if (ioFile == null) {
+                try (InputStream in = file.getContent()) {
+                    ByteStreams.copy(in, asOutputStream(hasher));
+                }
+            } else {
+                hashIoFile(ioFile, hasher);
+            }
+            final String hashSum = hasher.hash().toString();
+            if (sizeAndModified != null) {
+                cache.put(file.getPath(), sizeAndModified[0], sizeAndModified[1], hashSum);
+            }
+            return hashSum;
+        } catch (IOException e) {
+            throw new ServerException(e);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+    }
+
+    /** Attributes of local files are read from disk, those kept by the virtual file system may be stale. */
+    private long[] readSizeAndModified(VirtualFile file, File ioFile) throws IOException, ServerException {
+        if (ioFile == null) {
+            return new long[]{file.getLength(), file.getLastModificationDate()};
+        }
+        final BasicFileAttributes attributes = Files.readAttributes(ioFile.toPath(), BasicFileAttributes.class);
+        return new long[]{attributes.size(), attributes.lastModifiedTime().toMillis()};
+    }
+
+    private void hashIoFile(File ioFile, Hasher hasher) throws IOException {
+        try (FileChannel channel = FileChannel.open(ioFile.toPath(), READ)) {
+            final long size = channel.size();
+            if (size < MAPPED_READ_THRESHOLD) {
+                ByteStreams.copy(Channels.newInputStream(channel), asOutputStream(hasher));
+                return;
+            }
+            final byte[] buffer = new byte[READ_BUFFER_SIZE];
+            for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+                final MappedByteBuffer region = channel.map(READ_ONLY, position, Math.min(MAPPED_REGION_SIZE, size - position));
+                while (region.hasRemaining()) {
+                    final int count = Math.min(buffer.length, region.remaining());
+                    region.get(buffer, 0, count);
+                    hasher.putBytes(buffer, 0, count);
+                }
             }
         }
     }
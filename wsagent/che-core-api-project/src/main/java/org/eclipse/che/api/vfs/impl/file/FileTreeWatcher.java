@@ -14,6 +14,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.watcher.PathIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,9 +36,8 @@ import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -46,7 +46,6 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.Files.getLastModifiedTime;
@@ -59,7 +58,17 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
-
+import static org.eclipse.che.api.vfs.watcher.PathIndex.NOT_TRACKED;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.TREE_DIRECTORY;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.TREE_FILE;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.TREE_WATCHED;
+
+/**
+ * Watches the whole tree of the workspace storage and notifies about created, modified and deleted items.
+ * <p>
+ * Entries of watched directories along with their modification times are kept in shared {@link PathIndex},
+ * so the tree is not held as {@link Path} objects per file.
+ */
 @Singleton
 public class FileTreeWatcher {
     private static final Logger LOG = LoggerFactory.getLogger(FileTreeWatcher.class);
@@ -68,7 +77,7 @@ public class FileTreeWatcher {
 
     private final File                           watchRoot;
     private final Path                           watchRootPath;
-    private final Map<Path, WatchedDirectory>    watchedDirectories;
+    private final PathIndex                      index;
     private final List<PathMatcher>              excludePatterns;
     private final FileWatcherNotificationHandler fileWatcherNotificationHandler;
     private final ExecutorService                executor;
@@ -76,10 +85,18 @@ public class FileTreeWatcher {
     private       WatchService                   watchService;
     private       WatchEvent.Modifier[]          watchEventModifiers;
 
+    public FileTreeWatcher(File watchRoot,
+                           Set<PathMatcher> excludePatterns,
+                           FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this(watchRoot, excludePatterns, fileWatcherNotificationHandler, new PathIndex());
+    }
+
     @Inject
     public FileTreeWatcher(@Named("che.user.workspaces.storage") File watchRoot,
                            @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
-                           FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+                           FileWatcherNotificationHandler fileWatcherNotificationHandler,
+                           PathIndex index) {
+        this.index = index;
         watchEventModifiers = new WatchEvent.Modifier[0];
         this.watchRoot = toCanonicalFile(watchRoot);
         this.watchRootPath = this.watchRoot.toPath();
@@ -93,7 +110,6 @@ public class FileTreeWatcher {
                                                                 .build();
         executor = Executors.newSingleThreadExecutor(threadFactory);
         running = new AtomicBoolean();
-        watchedDirectories = newHashMap();
     }
 
     private static File toCanonicalFile(File file) {
@@ -146,16 +162,12 @@ public class FileTreeWatcher {
         }
 
         try {
-            walkTreeAndRemoveWatches(watchRootPath);
-        } catch (IOException e) {
-            LOG.warn(e.getMessage());
-        }
-
-        try {
+            // closing of the service cancels all the watch keys
             watchService.close();
         } catch (IOException e) {
             LOG.warn(e.getMessage());
         }
+        index.removeTree(watchRootPath, (byte)(TREE_FILE | TREE_DIRECTORY | TREE_WATCHED));
 
         if (interrupted) {
             Thread.currentThread().interrupt();
@@ -192,16 +204,6 @@ public class FileTreeWatcher {
         return true;
     }
 
-    private void walkTreeAndRemoveWatches(Path root) throws IOException {
-        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                cancelDirectoryWatcher(dir);
-                return CONTINUE;
-            }
-        });
-    }
-
     private void walkTreeAndFireCreatedEvents(Path root) throws IOException {
         Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
             @Override
@@ -221,29 +223,21 @@ public class FileTreeWatcher {
     }
 
     private void setupDirectoryWatcher(Path directory) throws IOException {
-        if (watchedDirectories.get(directory) == null) {
-            WatchKey watchKey = directory.register(watchService,
-                                                   new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
-                                                   watchEventModifiers);
-            WatchedDirectory watchedDirectory = new WatchedDirectory(directory, watchKey);
+        if (!index.contains(directory, TREE_WATCHED)) {
+            directory.register(watchService,
+                               new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
+                               watchEventModifiers);
+            index.update(directory, TREE_WATCHED, 0);
             try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
                 for (Path entry : entries) {
-                    watchedDirectory
-                            .addItem(new DirectoryItem(entry.getFileName(), Files.isDirectory(entry), getLastModifiedInMillis(entry)));
+                    boolean isDirectory = Files.isDirectory(entry);
+                    index.update(entry, isDirectory ? TREE_DIRECTORY : TREE_FILE, getLastModifiedInMillis(entry));
 
-                    if (Files.isDirectory(entry)) {
+                    if (isDirectory) {
                         setupDirectoryWatcher(entry);
                     }
                 }
             }
-            watchedDirectories.put(directory, watchedDirectory);
-        }
-    }
-
-    private void cancelDirectoryWatcher(Path path) {
-        WatchedDirectory watchedDirectory = watchedDirectories.remove(path);
-        if (watchedDirectory != null) {
-            watchedDirectory.getWatchKey().cancel();
         }
     }
 
@@ -282,27 +276,27 @@ public class FileTreeWatcher {
     private void processPendingEvents(Collection<PendingEvent> pendingEvents) throws IOException {
         for (PendingEvent pendingEvent : pendingEvents) {
             Path eventDirectoryPath = pendingEvent.getPath();
-            WatchedDirectory watchedDirectory = watchedDirectories.get(eventDirectoryPath);
-            if (watchedDirectory == null){
+            if (!index.contains(eventDirectoryPath, TREE_WATCHED)) {
                 continue;
             }
             if (Files.exists(eventDirectoryPath)) {
                 boolean isModifiedNotYetReported = true;
 
-                final int hitCounter = watchedDirectory.incrementHitCounter();
+                final Set<String> existingNames = new HashSet<>();
                 try (DirectoryStream<Path> entries = Files.newDirectoryStream(eventDirectoryPath)) {
                     for (Path fsItem : entries) {
-                        DirectoryItem directoryItem = watchedDirectory.getItem(fsItem.getFileName());
-                        if (directoryItem == null) {
+                        existingNames.add(fsItem.getFileName().toString());
+                        byte trackedAs = index.contains(fsItem, TREE_DIRECTORY) ? TREE_DIRECTORY : TREE_FILE;
+                        long trackedLastModified = index.getModified(fsItem, trackedAs);
+                        if (trackedLastModified == NOT_TRACKED) {
                             try {
                                 boolean directory = Files.isDirectory(fsItem);
-                                directoryItem = new DirectoryItem(fsItem.getFileName(), directory, getLastModifiedInMillis(fsItem));
-                                watchedDirectory.addItem(directoryItem);
+                                index.update(fsItem, directory ? TREE_DIRECTORY : TREE_FILE, getLastModifiedInMillis(fsItem));
                                 if (isModifiedNotYetReported){
                                     isModifiedNotYetReported = false;
                                     fireWatchEvent(MODIFIED, eventDirectoryPath, true);
                                 }
-                                fireWatchEvent(CREATED, fsItem, directoryItem.isDirectory());
+                                fireWatchEvent(CREATED, fsItem, directory);
                                 if (directory) {
                                     walkTreeAndFireCreatedEvents(fsItem);
                                     setupDirectoryWatcher(fsItem);
@@ -316,31 +310,36 @@ public class FileTreeWatcher {
                             } catch (IOException ignored) {
                                 continue;
                             }
-                            if (lastModified != directoryItem.getLastModified() && Files.isRegularFile(fsItem)) {
+                            if (lastModified != trackedLastModified && Files.isRegularFile(fsItem)) {
                                 fireWatchEvent(MODIFIED, fsItem, false);
                             }
-                            directoryItem.touch(lastModified);
-                            directoryItem.updateHitCounter(hitCounter);
+                            index.update(fsItem, trackedAs, lastModified);
                         }
                     }
                 }
 
-                for (Iterator<DirectoryItem> iterator = watchedDirectory.getItems().iterator(); iterator.hasNext(); ) {
-                    DirectoryItem directoryItem = iterator.next();
-                    if (hitCounter != directoryItem.getHitCount()) {
-                        iterator.remove();
-                        if (isModifiedNotYetReported){
-                            isModifiedNotYetReported = false;
-                            fireWatchEvent(MODIFIED, eventDirectoryPath, true);
+                for (byte trackedAs : new byte[]{TREE_FILE, TREE_DIRECTORY}) {
+                    for (String name : index.getChildNames(eventDirectoryPath, trackedAs)) {
+                        if (!existingNames.contains(name)) {
+                            Path deleted = eventDirectoryPath.resolve(name);
+                            index.remove(deleted, trackedAs);
+                            if (isModifiedNotYetReported){
+                                isModifiedNotYetReported = false;
+                                fireWatchEvent(MODIFIED, eventDirectoryPath, true);
+                            }
+                            fireWatchEvent(DELETED, deleted, trackedAs == TREE_DIRECTORY);
                         }
-                        fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
                     }
                 }
             } else {
-                for (DirectoryItem directoryItem : watchedDirectory.getItems()) {
-                    fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
+                for (byte trackedAs : new byte[]{TREE_FILE, TREE_DIRECTORY}) {
+                    for (String name : index.getChildNames(eventDirectoryPath, trackedAs)) {
+                        Path deleted = eventDirectoryPath.resolve(name);
+                        index.remove(deleted, trackedAs);
+                        fireWatchEvent(DELETED, deleted, trackedAs == TREE_DIRECTORY);
+                    }
                 }
-                watchedDirectories.remove(eventDirectoryPath);
+                index.remove(eventDirectoryPath, TREE_WATCHED);
             }
         }
     }
@@ -384,84 +383,4 @@ public class FileTreeWatcher {
             return Objects.hashCode(path);
         }
     }
-
-    static class WatchedDirectory {
-        final Path                path;
-        final WatchKey            watchKey;
-        final List<DirectoryItem> items;
-        int hitCounter;
-
-        WatchedDirectory(Path path, WatchKey watchKey) {
-            this.path = path;
-            this.watchKey = watchKey;
-            items = newArrayList();
-        }
-
-        WatchKey getWatchKey() {
-            return watchKey;
-        }
-
-        Path getPath() {
-            return path;
-        }
-
-        DirectoryItem getItem(Path name) {
-            for (DirectoryItem item : items) {
-                if (item.getName().equals(name)) {
-                    return item;
-                }
-            }
-            return null;
-        }
-
-        void addItem(DirectoryItem item) {
-            item.updateHitCounter(this.hitCounter);
-            items.add(item);
-        }
-
-        List<DirectoryItem> getItems() {
-            return items;
-        }
-
-        int incrementHitCounter() {
-            return ++hitCounter;
-        }
-    }
-
-    static class DirectoryItem {
-        final Path    name;
-        final boolean directory;
-        long lastModified;
-        int  hitCounter;
-
-        DirectoryItem(Path name, boolean directory, long lastModified) {
-            this.name = name;
-            this.directory = directory;
-            this.lastModified = lastModified;
-        }
-
-        long getLastModified() {
-            return lastModified;
-        }
-
-        Path getName() {
-            return name;
-        }
-
-        boolean isDirectory() {
-            return directory;
-        }
-
-        void touch(long lastModified) {
-            this.lastModified = lastModified;
-        }
-
-        int getHitCount() {
-            return hitCounter;
-        }
-
-        void updateHitCounter(int hitCounter) {
-            this.hitCounter = hitCounter;
-        }
-    }
 }
@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -69,12 +70,14 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public boolean isFile() {
-        return toIoFile().isFile();
+        final BasicFileAttributes attributes = fileSystem.getCachedAttributes(this);
+        return attributes != null ? attributes.isRegularFile() : toIoFile().isFile();
     }
 
     @Override
     public boolean isFolder() {
-        return toIoFile().isDirectory();
+        final BasicFileAttributes attributes = fileSystem.getCachedAttributes(this);
+        return attributes != null ? attributes.isDirectory() : toIoFile().isDirectory();
     }
 
     @Override
@@ -157,11 +160,16 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public long getLastModificationDate() {
-        return toIoFile().lastModified();
+        final BasicFileAttributes attributes = fileSystem.getCachedAttributes(this);
+        return attributes != null ? attributes.lastModifiedTime().toMillis() : toIoFile().lastModified();
     }
 
     @Override
     public long getLength() throws ServerException {
+        final BasicFileAttributes attributes = fileSystem.getCachedAttributes(this);
+        if (attributes != null) {
+            return attributes.isDirectory() ? 0 : attributes.size();
+        }
         if (isFolder()) {
             return 0;
         }
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -25,6 +26,7 @@ import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.HashSumsCache;
 import org.eclipse.che.api.vfs.HashSumsCounter;
 import org.eclipse.che.api.vfs.LockedFileFinder;
 import org.eclipse.che.api.vfs.Path;
@@ -52,10 +54,12 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -65,7 +69,9 @@ import static com.google.common.collect.Maps.newLinkedHashMap;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
+import static java.nio.file.Files.readAttributes;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
@@ -88,9 +94,22 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private static final FileLock NO_LOCK                = new FileLock("no_lock", 0);
     private static final String   FILE_PROPERTIES_DIR    = VFS_SERVICE_DIR + File.separatorChar + "props";
     private static final String   PROPERTIES_FILE_SUFFIX = "_props";
+    private static final String   MD5_SUMS_FILE          = VFS_SERVICE_DIR + File.separatorChar + "md5sums";
 
     private static final FilenameFilter DOT_VFS_DIR_FILTER = (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
 
+    /**
+     * Listing of a directory modified more recently than this is not cached, since a change made within
+     * the resolution of file system timestamps would not change modification time of the directory.
+     */
+    private static final long RACY_LISTING_INTERVAL = 2000;
+
+    /**
+     * Attributes read while listing a directory are reused for this time, it is long enough for a tree
+     * request to check type, size and modification date of listed items without going to the disk again.
+     */
+    private static final long ATTRIBUTES_EXPIRATION_SECONDS = 5;
+
     private static final FilenameFilter VFS_LOCK_FILTER =
             (dir, name) -> !(dir.getAbsolutePath().endsWith(FILE_LOCKS_DIR) || name.endsWith(LOCK_FILE_SUFFIX));
 
@@ -136,6 +155,13 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private final FileMetadataSerializer                  metadataSerializer;
     private final LoadingCache<Path, Map<String, String>> metadataCache;
 
+    private final Cache<Path, DirectoryListing> childrenCache;
+    /** Attributes of listed items by path of their parent folder and by their names. */
+    private final Cache<Path, Map<String, BasicFileAttributes>> attributesCache;
+
+    private final HashSumsCache md5SumsCache;
+    private       boolean       md5SumsCacheLoaded;
+
     @SuppressWarnings("unchecked")
     public LocalVirtualFileSystem(File ioRoot,
                                   ArchiverFactory archiverFactory,
@@ -162,6 +188,20 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                                     .maximumSize(256)
                                     .expireAfterAccess(10, MINUTES)
                                     .build(new FilePropertiesCacheLoader());
+
+        childrenCache = CacheBuilder.newBuilder()
+                                    .concurrencyLevel(8)
+                                    .maximumSize(512)
+                                    .expireAfterAccess(10, MINUTES)
+                                    .build();
+
+        attributesCache = CacheBuilder.newBuilder()
+                                      .concurrencyLevel(8)
+                                      .maximumSize(512)
+                                      .expireAfterWrite(ATTRIBUTES_EXPIRATION_SECONDS, SECONDS)
+                                      .build();
+
+        md5SumsCache = new HashSumsCache();
     }
 
     @Override
@@ -208,6 +248,51 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private void cleanUpCaches() {
         lockTokensCache.invalidateAll();
         metadataCache.invalidateAll();
+        childrenCache.invalidateAll();
+        attributesCache.invalidateAll();
+    }
+
+    /**
+     * Drops cached listings of the item and of its parent and cached attributes of the item, and of its
+     * descendants when the item is a folder. Used when file watcher notifies about changes of the item.
+     */
+    public void invalidateCaches(Path path, boolean folder) {
+        childrenCache.invalidate(path);
+        if (!path.isRoot()) {
+            childrenCache.invalidate(path.getParent());
+        }
+        if (folder) {
+            invalidateAttributes(path);
+        } else {
+            invalidateFileAttributes(path);
+        }
+    }
+
+    /** Drops cached attributes of the item and of its descendants. */
+    private void invalidateAttributes(Path path) {
+        invalidateFileAttributes(path);
+        attributesCache.invalidate(path);
+        // keys are folders only, so there are far fewer of them than cached items
+        attributesCache.asMap().keySet().removeIf(folder -> folder.isChild(path));
+    }
+
+    private void invalidateFileAttributes(Path path) {
+        if (!path.isRoot()) {
+            final Map<String, BasicFileAttributes> siblings = attributesCache.getIfPresent(path.getParent());
+            if (siblings != null) {
+                siblings.remove(path.getName());
+            }
+        }
+    }
+
+    /** Returns attributes read while the parent folder was listed recently or {@code null} if there are no such attributes. */
+    BasicFileAttributes getCachedAttributes(LocalVirtualFile virtualFile) {
+        final Path path = virtualFile.getPath();
+        if (path.isRoot()) {
+            return null;
+        }
+        final Map<String, BasicFileAttributes> siblings = attributesCache.getIfPresent(path.getParent());
+        return siblings == null ? null : siblings.get(path.getName());
     }
 
     /** Used in tests. Need this to check state of PathLockFactory. All locks MUST be released at the end of request lifecycle. */
@@ -243,9 +328,11 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return newArrayList(path.elements()).contains(".vfs");
     }
 
-    synchronized List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
+    List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
         if (parent.isFolder()) {
-            final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
+            // listing of a directory is atomic at the OS level, path lock would only make listing of
+            // ancestors wait for exclusive locks of their descendants
+            final List<VirtualFile> children = doGetChildren(parent, filter);
             Collections.sort(children);
             return children;
         }
@@ -253,25 +340,21 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
-    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, FilenameFilter ioFileFilter, VirtualFileFilter vfsFilter)
-            throws ServerException {
-        if (ioFileFilter == null) {
-            ioFileFilter = IoUtil.ANY_FILTER;
-        }
-
-        final String[] names = parent.toIoFile().list(ioFileFilter);
-        if (names == null) {
-            throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
-        }
+    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, VirtualFileFilter vfsFilter) throws ServerException {
+        final String[] names = listChildNames(parent);
 
         if (vfsFilter == null) {
             vfsFilter = VirtualFileFilter.ACCEPT_ALL;
         }
 
+        // published before it is filled, so that changes made while listing drop it
+        final Map<String, BasicFileAttributes> attributes = new ConcurrentHashMap<>();
+        attributesCache.put(parent.getPath(), attributes);
         final List<VirtualFile> children = newArrayListWithCapacity(names.length);
         for (String name : names) {
             final Path childPath = parent.getPath().newPath(name);
             final LocalVirtualFile child = new LocalVirtualFile(new File(ioRoot, toIoPath(childPath)), childPath, this);
+            cacheAttributes(child, attributes);
             if (vfsFilter.accept(child)) {
                 children.add(child);
             }
@@ -280,6 +363,50 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return children;
     }
 
+    /** Reads attributes of listed item with single call, so that checks of its type, size and modification date do not stat it again. */
+    private void cacheAttributes(LocalVirtualFile virtualFile, Map<String, BasicFileAttributes> attributes) {
+        try {
+            attributes.put(virtualFile.getName(), readAttributes(virtualFile.toIoFile().toPath(), BasicFileAttributes.class));
+        } catch (IOException e) {
+            // item is removed after listing, java.io.File is used for it as usual
+        }
+    }
+
+    /**
+     * Returns names of the directory entries. Listing is taken from cache if modification time of the directory
+     * is not changed since it was cached. Returned array is shared and must not be modified.
+     */
+    private String[] listChildNames(LocalVirtualFile parent) throws ServerException {
+        final File ioFile = parent.toIoFile();
+        final long lastModified = ioFile.lastModified();
+
+        final DirectoryListing cached = childrenCache.getIfPresent(parent.getPath());
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.names;
+        }
+
+        final String[] names = ioFile.list(DOT_VFS_DIR_FILTER);
+        if (names == null) {
+            throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
+        }
+        if (System.currentTimeMillis() - lastModified > RACY_LISTING_INTERVAL) {
+            childrenCache.put(parent.getPath(), new DirectoryListing(lastModified, names));
+        } else {
+            childrenCache.invalidate(parent.getPath());
+        }
+        return names;
+    }
+
+    private static class DirectoryListing {
+        final long     lastModified;
+        final String[] names;
+
+        DirectoryListing(long lastModified, String[] names) {
+            this.lastModified = lastModified;
+            this.names = names;
+        }
+    }
+
 
     LocalVirtualFile createFile(LocalVirtualFile parent, String name, InputStream content)
             throws ForbiddenException, ConflictException, ServerException {
@@ -304,6 +431,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             }
 
             final LocalVirtualFile newVirtualFile = new LocalVirtualFile(newIoFile, newPath, this);
+            invalidateAttributes(newPath);
 
             if (content != null) {
                 doUpdateContent(newVirtualFile, content);
@@ -331,6 +459,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 }
             }
 
+            invalidateAttributes(newPath);
             return new LocalVirtualFile(newIoFile, newPath, this);
         } else {
             throw new ForbiddenException("Unable create folder. Item specified as parent is not a folder");
@@ -386,6 +515,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             String errorMessage = String.format("Unable copy '%s' to '%s'", from, to);
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
+        } finally {
+            invalidateAttributes(to.getPath());
         }
     }
 
@@ -544,6 +675,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             String errorMessage = String.format("Unable set content of '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
+        } finally {
+            // after the write, otherwise a concurrent listing may cache attributes of the old content
+            invalidateFileAttributes(virtualFile.getPath());
         }
     }
 
@@ -572,26 +706,30 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
 
         cleanUpCaches();
+        try {
+            final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
+            if (fileLockIoFile.delete()) {
+                if (fileLockIoFile.exists()) {
+                    LOG.error("Unable delete lock file {}", fileLockIoFile);
+                    throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
+                }
+            }
 
-        final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-        if (fileLockIoFile.delete()) {
-            if (fileLockIoFile.exists()) {
-                LOG.error("Unable delete lock file {}", fileLockIoFile);
-                throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
+            final File metadataIoFile = getMetadataIoFile(virtualFile.getPath());
+            if (metadataIoFile.delete()) {
+                if (metadataIoFile.exists()) {
+                    LOG.error("Unable delete metadata file {}", metadataIoFile);
+                    throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
+                }
             }
-        }
 
-        final File metadataIoFile = getMetadataIoFile(virtualFile.getPath());
-        if (metadataIoFile.delete()) {
-            if (metadataIoFile.exists()) {
-                LOG.error("Unable delete metadata file {}", metadataIoFile);
+            if (!deleteRecursive(virtualFile.toIoFile())) {
+                LOG.error("Unable delete file {}", virtualFile.toIoFile());
                 throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
             }
-        }
-
-        if (!deleteRecursive(virtualFile.toIoFile())) {
-            LOG.error("Unable delete file {}", virtualFile.toIoFile());
-            throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
+        } finally {
+            // once more after the delete, a concurrent read may have cached the item while it was being deleted
+            cleanUpCaches();
         }
     }
 
@@ -615,6 +753,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
         if (parent.isFolder()) {
             extract(archiverFactory.createArchiver(parent, "zip"), zipped, overwrite, stripNumber);
+            invalidateAttributes(parent.getPath());
             addInSearcher(parent);
         } else {
             throw new ForbiddenException(String.format("Unable import zip content. Item '%s' is not a folder", parent.getPath()));
@@ -640,6 +779,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
         if (parent.isFolder()) {
             extract(archiverFactory.createArchiver(parent, "tar"), tarArchive, overwrite, stripNumber);
+            invalidateAttributes(parent.getPath());
             addInSearcher(parent);
         } else {
             throw new ForbiddenException(String.format("Unable import tar archive. Item '%s' is not a folder", parent.getPath()));
@@ -908,7 +1048,44 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         if (virtualFile.isFile()) {
             return emptyList();
         }
-        return new HashSumsCounter(virtualFile, Hashing.md5()).countHashSums();
+        final List<Pair<String, String>> md5Sums =
+                new HashSumsCounter(virtualFile, Hashing.md5(), loadMd5SumsCache(), pathLockFactory).countHashSums();
+        saveMd5SumsCache();
+        return md5Sums;
+    }
+
+    /** Reads hash sums saved by previous run of {@link #countMd5Sums(LocalVirtualFile)}, once per file system instance. */
+    private HashSumsCache loadMd5SumsCache() {
+        synchronized (md5SumsCache) {
+            if (!md5SumsCacheLoaded) {
+                md5SumsCacheLoaded = true;
+                final File md5SumsIoFile = new File(ioRoot, MD5_SUMS_FILE);
+                if (md5SumsIoFile.exists()) {
+                    try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(md5SumsIoFile)))) {
+                        md5SumsCache.read(dis);
+                    } catch (IOException e) {
+                        LOG.warn("Unable read saved md5 sums from {}. {}", md5SumsIoFile, e.getMessage());
+                        md5SumsCache.clear();
+                    }
+                }
+            }
+        }
+        return md5SumsCache;
+    }
+
+    private void saveMd5SumsCache() {
+        synchronized (md5SumsCache) {
+            if (!md5SumsCache.isModified()) {
+                return;
+            }
+            final File md5SumsIoFile = new File(ioRoot, MD5_SUMS_FILE);
+            md5SumsIoFile.getParentFile().mkdirs();
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(md5SumsIoFile)))) {
+                md5SumsCache.write(dos);
+            } catch (IOException e) {
+                LOG.warn("Unable save md5 sums to {}. {}", md5SumsIoFile, e.getMessage());
+            }
+        }
     }
 
 
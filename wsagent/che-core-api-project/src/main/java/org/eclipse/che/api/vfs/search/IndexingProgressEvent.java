@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search;
+
+/**
+ * Published by {@link Searcher} implementations while a file tree is being indexed.
+ * One event is sent after each committed batch of files and one more when indexing of the tree is done.
+ */
+public class IndexingProgressEvent {
+    private final String  treePath;
+    private final int     indexedFiles;
+    private final long    elapsedTimeMillis;
+    private final boolean done;
+
+    public IndexingProgressEvent(String treePath, int indexedFiles, long elapsedTimeMillis, boolean done) {
+        this.treePath = treePath;
+        this.indexedFiles = indexedFiles;
+        this.elapsedTimeMillis = elapsedTimeMillis;
+        this.done = done;
+    }
+
+    /** Returns path of the root folder of indexed tree. */
+    public String getTreePath() {
+        return treePath;
+    }
+
+    /** Returns number of files that are already added in index. */
+    public int getIndexedFiles() {
+        return indexedFiles;
+    }
+
+    /** Returns time since indexing of the tree was started. */
+    public long getElapsedTimeMillis() {
+        return elapsedTimeMillis;
+    }
+
+    /** Returns {@code true} when whole tree is indexed. */
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexingProgressEvent{" +
+               "treePath='" + treePath + '\'' +
+               ", indexedFiles=" + indexedFiles +
+               ", elapsedTimeMillis=" + elapsedTimeMillis +
+               ", done=" + done +
+               '}';
+    }
+}
@@ -17,6 +17,7 @@ public class QueryExpression {
     private String text;
     private int    skipCount;
     private int    maxItems;
+    private String cursor;
 
     /** Optional file path parameter. Only file with the specified path or children are included in result. */
     public String getPath() {
@@ -68,6 +69,20 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Opaque position of the last item of previous page of search result, see {@link SearchResult#getNextPageQueryExpression()}.
+     * Cursor is used only with the same criteria and {@link #getSkipCount() skip count} as in the next page query expression,
+     * otherwise it is ignored.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    public QueryExpression setCursor(String cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
@@ -76,6 +91,7 @@ public class QueryExpression {
                ", path='" + path + '\'' +
                ", skipCount=" + skipCount +
                ", maxItems=" + maxItems +
+               ", cursor='" + cursor + '\'' +
                '}';
     }
 }
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search;
+
+/**
+ * Single match of the text query inside of file.
+ * Line numbers start from 1, columns start from 0 and are relative to the beginning of the line.
+ */
+public class SearchOccurrence {
+    private final int    lineNumber;
+    private final int    startColumn;
+    private final int    endColumn;
+    private final String lineContent;
+
+    public SearchOccurrence(int lineNumber, int startColumn, int endColumn, String lineContent) {
+        this.lineNumber = lineNumber;
+        this.startColumn = startColumn;
+        this.endColumn = endColumn;
+        this.lineContent = lineContent;
+    }
+
+    /** Number of line that contains the match. */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /** Column of the first character of the match. */
+    public int getStartColumn() {
+        return startColumn;
+    }
+
+    /** Column that follows the last character of the match. */
+    public int getEndColumn() {
+        return endColumn;
+    }
+
+    /** Preview of the line that contains the match. Very long lines are cut around the match. */
+    public String getLineContent() {
+        return lineContent;
+    }
+}
@@ -11,8 +11,11 @@
 package org.eclipse.che.api.vfs.search.impl;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
 
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
@@ -35,6 +38,14 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
     protected final AtomicReference<Searcher> searcherReference = new AtomicReference<>();
     private final ExecutorService executor;
 
+    /** Number of threads that add files in index during initial indexing, by default equals to number of processors. */
+    @Inject(optional = true)
+    @Named("vfs.index.threads")
+    private int indexingThreads = Runtime.getRuntime().availableProcessors();
+
+    @Inject(optional = true)
+    private EventService eventService;
+
     /**
      * @param excludeFileIndexFilters
      *         set filter for files that should not be indexed
@@ -66,6 +77,8 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
         Searcher cachedSearcher = searcherReference.get();
         if (cachedSearcher == null && create) {
             LuceneSearcher searcher = createLuceneSearcher(() -> searcherReference.set(null));
+            searcher.setIndexingThreads(indexingThreads);
+            searcher.setEventService(eventService);
             if (searcherReference.compareAndSet(null, searcher)) {
                 searcher.initAsynchronously(executor, virtualFileSystem);
             }
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+
+import java.util.Objects;
+
+/**
+ * Position of the last returned hit of a search. Cursor is passed to client as opaque string and allows retrieving the
+ * next page with single {@code searchAfter} call as long as searcher with the same version is still available.
+ * If it is not the number of already retrieved hits is used for skipping them. Cursor keeps hash of the query it was
+ * produced for and is ignored if it is passed with another query.
+ */
+class LuceneSearchCursor {
+    private static final String SEPARATOR = "-";
+
+    private final int   queryHash;
+    private final long  searcherVersion;
+    private final int   doc;
+    private final float score;
+    private final int   offset;
+
+    LuceneSearchCursor(QueryExpression query, long searcherVersion, ScoreDoc lastScoreDoc, int offset) {
+        this(queryHash(query), searcherVersion, lastScoreDoc.doc, lastScoreDoc.score, offset);
+    }
+
+    private LuceneSearchCursor(int queryHash, long searcherVersion, int doc, float score, int offset) {
+        this.queryHash = queryHash;
+        this.searcherVersion = searcherVersion;
+        this.doc = doc;
+        this.score = score;
+        this.offset = offset;
+    }
+
+    private static int queryHash(QueryExpression query) {
+        return Objects.hash(query.getText(), query.getName(), query.getPath());
+    }
+
+    /**
+     * Restores cursor from its string representation.
+     *
+     * @return restored cursor or {@code null} if {@code cursor} is {@code null} or malformed
+     */
+    static LuceneSearchCursor parse(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        final String[] parts = cursor.split(SEPARATOR);
+        if (parts.length != 5) {
+            return null;
+        }
+        try {
+            return new LuceneSearchCursor(Integer.parseUnsignedInt(parts[0], 16),
+                                          Long.parseLong(parts[1], 16),
+                                          Integer.parseInt(parts[2], 16),
+                                          Float.intBitsToFloat(Integer.parseUnsignedInt(parts[3], 16)),
+                                          Integer.parseInt(parts[4], 16));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Checks whether the cursor is produced for the query, i.e. for the same criteria and the same skip count. */
+    boolean matches(QueryExpression query) {
+        return queryHash == queryHash(query) && offset == query.getSkipCount();
+    }
+
+    /** Version of searcher that produced the hit. */
+    long getSearcherVersion() {
+        return searcherVersion;
+    }
+
+    /** Last returned hit. Valid only for searcher with {@link #getSearcherVersion() version} of this cursor. */
+    ScoreDoc getScoreDoc() {
+        return new ScoreDoc(doc, score);
+    }
+
+    /** Number of hits that are already retrieved. */
+    int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toHexString(queryHash) + SEPARATOR +
+               Long.toHexString(searcherVersion) + SEPARATOR +
+               Integer.toHexString(doc) + SEPARATOR +
+               Integer.toHexString(Float.floatToIntBits(score)) + SEPARATOR +
+               Integer.toHexString(offset);
+    }
+}
@@ -10,9 +10,13 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
 import org.apache.lucene.document.Document;
@@ -27,25 +31,35 @@ import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherLifetimeManager;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.automaton.CharacterRunAutomaton;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.search.IndexingProgressEvent;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,12 +67,22 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.stream.Collectors.toSet;
 
 /**
  * Lucene based searcher.
@@ -72,11 +96,27 @@ public abstract class LuceneSearcher implements Searcher {
     private static final String NAME_FIELD   = "name";
     private static final String TEXT_FIELD   = "text";
 
+    /** Time during which next page of search result is retrieved from the same index snapshot as previous one. */
+    private static final int MAX_SEARCHER_AGE_SECONDS = 60;
+
+    /** Number of files after which index is committed and indexing progress is reported while initial indexing. */
+    private static final int INDEXING_BATCH_SIZE       = 5000;
+    /** Max number of files per indexing thread that are waiting to be added in index. */
+    private static final int INDEXING_QUEUE_PER_THREAD = 16;
+
+    private static final int MAX_OCCURRENCES_PER_FILE = 100;
+    private static final int MAX_LINE_PREVIEW_LENGTH  = 256;
+
     private final List<VirtualFileFilter>                      excludeFileIndexFilters;
     private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
 
-    private IndexWriter     luceneIndexWriter;
-    private SearcherManager searcherManager;
+    private IndexWriter             luceneIndexWriter;
+    private SearcherManager         searcherManager;
+    private SearcherLifetimeManager searcherLifetimeManager;
+    private VirtualFileSystem       virtualFileSystem;
+    private ExecutorService         indexingExecutor;
+    private int                     indexingThreads = Runtime.getRuntime().availableProcessors();
+    private EventService            eventService;
 
     private boolean closed = true;
 
@@ -109,6 +149,19 @@ public abstract class LuceneSearcher implements Searcher {
         return excludeFileIndexFilters.remove(indexFilter);
     }
 
+    /**
+     * Set number of threads that build and add documents in index when file tree is indexed.
+     * Must be set before searcher is initialized.
+     */
+    public synchronized void setIndexingThreads(int indexingThreads) {
+        this.indexingThreads = Math.max(1, indexingThreads);
+    }
+
+    /** Set event service that is used for publishing of {@link IndexingProgressEvent}. */
+    public synchronized void setEventService(EventService eventService) {
+        this.eventService = eventService;
+    }
+
     protected Analyzer makeAnalyzer() {
         return new Analyzer() {
             @Override
@@ -131,16 +184,18 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error occurs
      */
     public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
-        addTree(virtualFileSystem.getRoot());
+        addTree(virtualFileSystem.getRoot(), true);
     }
 
     public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
         if (!executor.isShutdown()) {
             executor.execute(() -> {
                 try {
-                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot());
+                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot(), true);
                 } catch (ServerException e) {
                     LOG.error(e.getMessage());
                 }
@@ -152,6 +207,16 @@ public abstract class LuceneSearcher implements Searcher {
         try {
             luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
+            searcherLifetimeManager = new SearcherLifetimeManager();
+            if (indexingExecutor != null) {
+                // searcher is initialized again, threads of the previous initialization are not needed any more
+                indexingExecutor.shutdownNow();
+            }
+            indexingExecutor = Executors.newFixedThreadPool(indexingThreads, new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                    .setNameFormat("LuceneIndexingThread-%d")
+                    .build());
             closed = false;
         } catch (IOException e) {
             throw new ServerException(e);
@@ -160,8 +225,9 @@ public abstract class LuceneSearcher implements Searcher {
 
     public final synchronized void close() {
         if (!closed) {
+            indexingExecutor.shutdownNow();
             try {
-                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                IOUtils.close(searcherLifetimeManager, getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
                 afterClose();
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
@@ -190,14 +256,30 @@ public abstract class LuceneSearcher implements Searcher {
         IndexSearcher luceneSearcher = null;
         try {
             final long startTime = System.currentTimeMillis();
-            searcherManager.maybeRefresh();
-            luceneSearcher = searcherManager.acquire();
+            LuceneSearchCursor cursor = LuceneSearchCursor.parse(query.getCursor());
+            if (cursor != null && !cursor.matches(query)) {
+                // cursor of another query, e.g. criteria or skip count were changed but cursor was kept
+                cursor = null;
+            }
+            if (cursor != null) {
+                // try to continue with the same searcher that produced previous page, it might be already pruned
+                luceneSearcher = searcherLifetimeManager.acquire(cursor.getSearcherVersion());
+            }
+            final boolean sameSearcher = luceneSearcher != null;
+            if (!sameSearcher) {
+                searcherManager.maybeRefresh();
+                luceneSearcher = searcherManager.acquire();
+            }
 
-            Query luceneQuery = createLuceneQuery(query);
+            final Query textQuery = query.getText() == null ? null : createTextQuery(query.getText());
+            final Query luceneQuery = createLuceneQuery(query, textQuery);
+            final Predicate<String> textMatcher = textQuery == null ? null : createTermMatcher(textQuery);
 
             ScoreDoc after = null;
-            final int numSkipDocs = Math.max(0, query.getSkipCount());
-            if (numSkipDocs > 0) {
+            final int numSkipDocs = cursor != null ? cursor.getOffset() : Math.max(0, query.getSkipCount());
+            if (sameSearcher) {
+                after = cursor.getScoreDoc();
+            } else if (numSkipDocs > 0) {
                 after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
             }
 
@@ -208,8 +290,15 @@ public abstract class LuceneSearcher implements Searcher {
             List<SearchResultEntry> results = newArrayList();
             for (int i = 0; i < topDocs.scoreDocs.length; i++) {
                 ScoreDoc scoreDoc = topDocs.scoreDocs[i];
-                String filePath = luceneSearcher.doc(scoreDoc.doc).getField(PATH_FIELD).stringValue();
-                results.add(new SearchResultEntry(filePath));
+                Document doc = luceneSearcher.doc(scoreDoc.doc);
+                String filePath = doc.getField(PATH_FIELD).stringValue();
+                VirtualFile file = textMatcher == null || virtualFileSystem == null
+                                   ? null : virtualFileSystem.getRoot().getChild(Path.of(filePath));
+                if (file != null && file.isFile()) {
+                    results.add(new SearchResultEntry(filePath, findOccurrences(file, textMatcher)));
+                } else {
+                    results.add(new SearchResultEntry(filePath));
+                }
             }
 
             final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
@@ -217,8 +306,16 @@ public abstract class LuceneSearcher implements Searcher {
             boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
             QueryExpression nextPageQueryExpression = null;
             if (hasMoreToRetrieve) {
-                nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+                final int newSkipCount = numSkipDocs + topDocs.scoreDocs.length;
+                String nextPageCursor = null;
+                if (topDocs.scoreDocs.length > 0) {
+                    final ScoreDoc last = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+                    final long searcherVersion = searcherLifetimeManager.record(luceneSearcher);
+                    nextPageCursor = new LuceneSearchCursor(query, searcherVersion, last, newSkipCount).toString();
+                }
+                nextPageQueryExpression = createNextPageQuery(query, newSkipCount, nextPageCursor);
             }
+            searcherLifetimeManager.prune(new SearcherLifetimeManager.PruneByAge(MAX_SEARCHER_AGE_SECONDS));
 
             return SearchResult.aSearchResult()
                                .withResults(results)
@@ -237,11 +334,10 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
-    private Query createLuceneQuery(QueryExpression query) throws ParseException {
+    private Query createLuceneQuery(QueryExpression query, Query textQuery) throws ParseException {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
         final String path = query.getPath();
-        final String text = query.getText();
         if (path != null) {
             luceneQuery.add(new PrefixQuery(new Term(PATH_FIELD, path)), BooleanClause.Occur.MUST);
         }
@@ -250,14 +346,133 @@ public abstract class LuceneSearcher implements Searcher {
             qParser.setAllowLeadingWildcard(true);
             luceneQuery.add(qParser.parse(name), BooleanClause.Occur.MUST);
         }
-        if (text != null) {
-            QueryParser qParser = new QueryParser(TEXT_FIELD, makeAnalyzer());
-            qParser.setAllowLeadingWildcard(true);
-            luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
+        if (textQuery != null) {
+            luceneQuery.add(textQuery, BooleanClause.Occur.MUST);
         }
         return luceneQuery;
     }
 
+    private Query createTextQuery(String text) throws ParseException {
+        QueryParser qParser = new QueryParser(TEXT_FIELD, makeAnalyzer());
+        qParser.setAllowLeadingWildcard(true);
+        return qParser.parse(text);
+    }
+
+    /** Creates predicate that checks whether single token of file content matches any of terms of the text query. */
+    private Predicate<String> createTermMatcher(Query textQuery) {
+        if (textQuery instanceof TermQuery) {
+            final String text = ((TermQuery)textQuery).getTerm().text();
+            return text::equals;
+        }
+        if (textQuery instanceof PrefixQuery) {
+            final String prefix = ((PrefixQuery)textQuery).getPrefix().text();
+            return token -> token.startsWith(prefix);
+        }
+        if (textQuery instanceof WildcardQuery) {
+            final Term wildcard = ((WildcardQuery)textQuery).getTerm();
+            final CharacterRunAutomaton automaton = new CharacterRunAutomaton(WildcardQuery.toAutomaton(wildcard));
+            return automaton::run;
+        }
+        if (textQuery instanceof PhraseQuery) {
+            final Set<String> terms = Arrays.stream(((PhraseQuery)textQuery).getTerms()).map(Term::text).collect(toSet());
+            return terms::contains;
+        }
+        if (textQuery instanceof BooleanQuery) {
+            Predicate<String> matcher = token -> false;
+            for (BooleanClause clause : ((BooleanQuery)textQuery).clauses()) {
+                if (!clause.isProhibited()) {
+                    matcher = matcher.or(createTermMatcher(clause.getQuery()));
+                }
+            }
+            return matcher;
+        }
+        return token -> false;
+    }
+
+    /**
+     * Finds tokens of file content that match the text query and resolves their positions into lines and columns.
+     * Content of files is not stored in index, so file is read twice: to find offsets of matched tokens and
+     * then to find lines that contain them, only one line of file is kept in memory at a time.
+     */
+    private List<SearchOccurrence> findOccurrences(VirtualFile file, Predicate<String> textMatcher) throws ServerException {
+        try {
+            final List<int[]> matches = findMatchedTokens(file, textMatcher);
+            final List<SearchOccurrence> occurrences = newArrayList();
+            if (matches.isEmpty()) {
+                return occurrences;
+            }
+            try (Reader reader = openContent(file)) {
+                final StringBuilder line = new StringBuilder();
+                int lineNumber = 1;
+                int lineStart = 0;
+                int next = 0;
+                int c;
+                while (next < matches.size() && (c = reader.read()) != -1) {
+                    if (c == '\n') {
+                        next = addOccurrences(occurrences, matches, next, lineNumber++, lineStart, line.toString());
+                        lineStart += line.length() + 1;
+                        line.setLength(0);
+                    } else {
+                        line.append((char)c);
+                    }
+                }
+                addOccurrences(occurrences, matches, next, lineNumber, lineStart, line.toString());
+            }
+            return occurrences;
+        } catch (IOException e) {
+            LOG.warn("Unable to find occurrences of text in file '{}'. {}", file.getPath(), e.getMessage());
+        } catch (ForbiddenException e) {
+            LOG.warn("Unable to find occurrences of text in file '{}'. {}", file.getPath(), e.getServiceError().getMessage());
+        }
+        return newArrayList();
+    }
+
+    /** Returns start and end offsets of tokens that match the text query. */
+    private List<int[]> findMatchedTokens(VirtualFile file, Predicate<String> textMatcher)
+            throws IOException, ServerException, ForbiddenException {
+        final List<int[]> matches = newArrayList();
+        try (Reader reader = openContent(file);
+             TokenStream tokenStream = makeAnalyzer().tokenStream(TEXT_FIELD, reader)) {
+            final CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            final OffsetAttribute offsetAttribute = tokenStream.addAttribute(OffsetAttribute.class);
+            tokenStream.reset();
+            while (matches.size() < MAX_OCCURRENCES_PER_FILE && tokenStream.incrementToken()) {
+                if (textMatcher.test(termAttribute.toString())) {
+                    matches.add(new int[]{offsetAttribute.startOffset(), offsetAttribute.endOffset()});
+                }
+            }
+            tokenStream.end();
+        }
+        return matches;
+    }
+
+    /** Adds occurrences for matched tokens that are located in the given line, returns index of the next not added token. */
+    private int addOccurrences(List<SearchOccurrence> occurrences, List<int[]> matches, int next, int lineNumber, int lineStart,
+                               String line) {
+        for (; next < matches.size() && matches.get(next)[0] <= lineStart + line.length(); next++) {
+            final int startColumn = matches.get(next)[0] - lineStart;
+            final int endColumn = Math.min(matches.get(next)[1] - lineStart, line.length());
+            occurrences.add(new SearchOccurrence(lineNumber,
+                                                 startColumn,
+                                                 endColumn,
+                                                 linePreview(line, 0, line.length(), startColumn, endColumn)));
+        }
+        return next;
+    }
+
+    private String linePreview(String content, int lineStart, int lineEnd, int startOffset, int endOffset) {
+        if (lineEnd > lineStart && content.charAt(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        if (lineEnd - lineStart <= MAX_LINE_PREVIEW_LENGTH) {
+            return content.substring(lineStart, lineEnd);
+        }
+        final int margin = Math.max(0, (MAX_LINE_PREVIEW_LENGTH - (endOffset - startOffset)) / 2);
+        final int previewStart = Math.max(lineStart, startOffset - margin);
+        final int previewEnd = Math.min(lineEnd, Math.max(endOffset, previewStart + MAX_LINE_PREVIEW_LENGTH));
+        return content.substring(previewStart, previewEnd);
+    }
+
     private ScoreDoc skipScoreDocs(IndexSearcher luceneSearcher, Query luceneQuery, int numSkipDocs) throws IOException {
         final int readFrameSize = Math.min(numSkipDocs, RESULT_LIMIT);
         ScoreDoc scoreDoc = null;
@@ -279,11 +494,12 @@ public abstract class LuceneSearcher implements Searcher {
         return scoreDoc;
     }
 
-    private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount) {
+    private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount, String cursor) {
         return new QueryExpression().setText(originalQuery.getText())
                                     .setName(originalQuery.getName())
                                     .setPath(originalQuery.getPath())
                                     .setSkipCount(newSkipCount)
+                                    .setCursor(cursor)
                                     .setMaxItems(originalQuery.getMaxItems());
     }
 
@@ -301,42 +517,127 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     protected void addTree(VirtualFile tree) throws ServerException {
+        addTree(tree, false);
+    }
+
+    /**
+     * Adds all files of the tree in index. Folders are walked in the calling thread and files are added in index
+     * by the pool of indexing threads, the number of files waiting for indexing thread is bounded. While initial
+     * indexing index is committed and progress is reported after each {@value #INDEXING_BATCH_SIZE} files and
+     * once all files are added, trees added later are visible to search as any other added file.
+     */
+    private void addTree(VirtualFile tree, boolean initial) throws ServerException {
         final long start = System.currentTimeMillis();
+        final ExecutorService executor;
+        final int maxPendingFiles;
+        synchronized (this) {
+            executor = indexingExecutor;
+            maxPendingFiles = indexingThreads * INDEXING_QUEUE_PER_THREAD;
+        }
+        final Semaphore pendingFiles = new Semaphore(maxPendingFiles);
+        final AtomicInteger indexedFiles = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
         final LinkedList<VirtualFile> q = new LinkedList<>();
         q.add(tree);
-        int indexedFiles = 0;
-        while (!q.isEmpty()) {
-            final VirtualFile folder = q.pop();
-            if (folder.exists()) {
-                for (VirtualFile child : folder.getChildren()) {
-                    if (child.isFolder()) {
-                        q.push(child);
-                    } else {
-                        addFile(child);
-                        indexedFiles++;
+        int submittedFiles = 0;
+        try {
+            while (!q.isEmpty() && failure.get() == null) {
+                final VirtualFile folder = q.pop();
+                if (folder.exists()) {
+                    for (VirtualFile child : folder.getChildren()) {
+                        if (child.isFolder()) {
+                            q.push(child);
+                        } else {
+                            awaitPendingFiles(executor, pendingFiles, 1, tree);
+                            executor.execute(() -> {
+                                try {
+                                    addFile(child);
+                                    indexedFiles.incrementAndGet();
+                                } catch (Throwable e) {
+                                    failure.compareAndSet(null, e);
+                                } finally {
+                                    pendingFiles.release();
+                                }
+                            });
+                            if (initial && ++submittedFiles % INDEXING_BATCH_SIZE == 0) {
+                                commit();
+                                publishProgress(tree, indexedFiles.get(), start, false);
+                            }
+                        }
                     }
                 }
             }
+            // wait until all submitted files are indexed
+            awaitPendingFiles(executor, pendingFiles, maxPendingFiles, tree);
+            pendingFiles.release(maxPendingFiles);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Indexing of " + tree.getPath() + " was interrupted");
+        } catch (RejectedExecutionException e) {
+            throw new ServerException("Indexing of " + tree.getPath() + " was stopped, searcher is closed");
+        }
+        rethrowIndexingFailure(failure.get());
+        if (initial) {
+            commit();
+            publishProgress(tree, indexedFiles.get(), start, true);
         }
         final long end = System.currentTimeMillis();
-        LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
+        LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles.get(), tree.getPath(), (end - start));
+    }
+
+    /**
+     * Acquires permits from the semaphore of pending files. Files that are queued for indexing never release their
+     * permits if executor is shut down when searcher is closed, so stop waiting as soon as executor is terminated.
+     */
+    private void awaitPendingFiles(ExecutorService executor, Semaphore pendingFiles, int permits, VirtualFile tree)
+            throws InterruptedException, ServerException {
+        while (!pendingFiles.tryAcquire(permits, 1, TimeUnit.SECONDS)) {
+            if (executor.isTerminated()) {
+                throw new ServerException("Indexing of " + tree.getPath() + " was stopped, searcher is closed");
+            }
+        }
+    }
+
+    private void commit() throws ServerException {
+        try {
+            getIndexWriter().commit();
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    private void publishProgress(VirtualFile tree, int indexedFiles, long start, boolean done) {
+        final EventService eventService;
+        synchronized (this) {
+            eventService = this.eventService;
+        }
+        if (eventService != null) {
+            eventService.publish(new IndexingProgressEvent(tree.getPath().toString(),
+                                                           indexedFiles,
+                                                           System.currentTimeMillis() - start,
+                                                           done));
+        }
+    }
+
+    private void rethrowIndexingFailure(Throwable failure) throws ServerException {
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof ServerException) {
+            throw (ServerException)failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error)failure;
+        }
+        throw new ServerException(failure.getMessage(), failure);
     }
 
     protected void addFile(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.exists()) {
-            try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                         ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                         : null) {
-                getIndexWriter().updateDocument(new Term(PATH_FIELD, virtualFile.getPath().toString()),
-                                                createDocument(virtualFile, fContentReader));
-            } catch (OutOfMemoryError oome) {
-                close();
-                throw oome;
-            } catch (IOException e) {
-                throw new ServerException(e.getMessage(), e);
-            } catch (ForbiddenException e) {
-                throw new ServerException(e.getServiceError());
-            }
+            updateDocument(new Term(PATH_FIELD, virtualFile.getPath().toString()), virtualFile);
         }
     }
 
@@ -364,10 +665,22 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
-        try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                     ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                     : null) {
-            getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
+        updateDocument(deleteTerm, virtualFile);
+    }
+
+    /**
+     * Content of files is only indexed, not stored, lines that match the text query are found by reading of
+     * matched files, see {@link #findOccurrences(VirtualFile, Predicate)}.
+     */
+    private void updateDocument(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
+        try {
+            if (!shouldIndexContent(virtualFile)) {
+                getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, null));
+            } else {
+                try (Reader fContentReader = openContent(virtualFile)) {
+                    getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
+                }
+            }
         } catch (OutOfMemoryError oome) {
             close();
             throw oome;
@@ -378,6 +691,11 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /** Content is read in the same way for indexing and for finding occurrences, so offsets of tokens are the same. */
+    private Reader openContent(VirtualFile virtualFile) throws ForbiddenException, ServerException {
+        return new BufferedReader(new InputStreamReader(virtualFile.getContent()));
+    }
+
     protected Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
         final Document doc = new Document();
         doc.add(new StringField(PATH_FIELD, virtualFile.getPath().toString(), Field.Store.YES));
@@ -10,12 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.watcher;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
@@ -25,27 +27,51 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent.Kind;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
+import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.Files.exists;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.readAttributes;
 import static java.nio.file.Files.walkFileTree;
-import static java.util.stream.Collectors.toSet;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.DIRECTORY;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.FILE;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.NOT_TRACKED;
+import static org.eclipse.che.api.vfs.watcher.FileWatcherUtils.isExcluded;
 
 /**
- * Walks a file system tree, register addition, update and removal of file system items.
+ * Keeps model of a file system tree, register addition, update and removal of file system items.
  * On events runs corresponding consumers that can be registered in DI configuration modules.
+ * <p>
+ * Tree is walked completely only once, after that the model is updated by events of {@link FileWatcherService}
+ * which watches every tracked directory. Directories which events were lost, because of overflowing or because
+ * watcher was suspended, are marked as dirty and only they are rescanned periodically, as well as directories
+ * that can't be watched, e.g. when system limit of watches is reached. Events received while the tree is walked
+ * for the first time mark their directories as dirty as well, they are rescanned right after the walk.
+ * Newly created directories are walked in a thread of the walker, so file watcher thread is never blocked by I/O.
+ * <p>
+ * Tracked files and directories are kept in shared {@link PathIndex}.
  */
 @Singleton
 public class FileTreeWalker {
     private static final Logger LOG = LoggerFactory.getLogger(FileTreeWalker.class);
 
-    private final File root;
+    private final File               root;
+    private final FileWatcherService service;
+    private final PathIndex          index;
 
     private final Set<Consumer<Path>> directoryUpdateConsumers;
     private final Set<Consumer<Path>> directoryCreateConsumers;
@@ -57,11 +83,20 @@ public class FileTreeWalker {
     private final Set<Consumer<Path>> fileDeleteConsumers;
     private final Set<PathMatcher>    fileExcludes;
 
-    private final Map<Path, Long> files       = new HashMap<>();
-    private final Map<Path, Long> directories = new HashMap<>();
+    private final Set<Path>     dirty     = newConcurrentHashSet();
+    private final Set<Path>     unwatched = new TreeSet<>();
+    private final ReentrantLock lock      = new ReentrantLock();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("FileTreeWalker-%d")
+                                                                                                       .setDaemon(true)
+                                                                                                       .build());
+
+    private volatile boolean initialized;
 
     @Inject
     public FileTreeWalker(@Named("che.user.workspaces.storage") File root,
+                          FileWatcherService service,
+                          PathIndex index,
 
                           @Named("che.fs.directory.update") Set<Consumer<Path>> directoryUpdateConsumers,
                           @Named("che.fs.directory.create") Set<Consumer<Path>> directoryCreateConsumers,
@@ -73,6 +108,8 @@ public class FileTreeWalker {
                           @Named("che.fs.file.delete") Set<Consumer<Path>> fileDeleteConsumers,
                           @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes) {
         this.root = root;
+        this.service = service;
+        this.index = index;
 
         this.directoryUpdateConsumers = directoryUpdateConsumers;
         this.directoryCreateConsumers = directoryCreateConsumers;
@@ -84,70 +121,195 @@ public class FileTreeWalker {
 
         this.directoryExcludes = directoryExcludes;
         this.fileExcludes = fileExcludes;
+
+        service.addEventListener(this::handle);
     }
 
+    /**
+     * Walks the whole tree on the first run, on subsequent runs rescans only
+     * directories which events were lost and directories which are not watched.
+     */
     @ScheduleRate(period = 10)
     void walk() {
+        lock.lock();
+        try {
+            if (!initialized) {
+                LOG.debug("Tree walk started");
+                walkTree(root.toPath());
+                initialized = true;
+                LOG.debug("Tree walk finished");
+                // directories which events were received during the walk
+                rescan(drainDirty());
+                return;
+            }
+
+            Set<Path> rescan = drainDirty();
+            rescan.addAll(unwatched);
+            rescan(rescan);
+        } catch (Exception e) {
+            LOG.error("Error while walking file tree", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    private Set<Path> drainDirty() {
+        Set<Path> drained = new TreeSet<>(dirty);
+        dirty.removeAll(drained);
+        return drained;
+    }
+
+    private void rescan(Set<Path> directories) throws IOException {
+        Path previous = null;
+        for (Path dir : directories) {
+            // sub-directories are rescanned together with their ancestor
+            if (previous != null && dir.startsWith(previous)) {
+                continue;
+            }
+            previous = dir;
+
+            LOG.debug("Rescanning directory '{}'", dir);
+            removeMissing(dir);
+            if (exists(dir)) {
+                walkTree(dir);
+            }
+        }
+    }
+
+    /**
+     * Updates tree model on file watcher event. Never blocks file watcher
+     * thread, if the tree is being walked at the moment, directory of event
+     * is marked as dirty and processed with next {@link #walk()}.
+     */
+    private void handle(Path path, Kind<?> kind) {
+        Path dir = kind == OVERFLOW ? path : path.getParent();
+        if (!initialized || kind == OVERFLOW || !lock.tryLock()) {
+            dirty.add(dir);
+            return;
+        }
+
         try {
-            LOG.debug("Tree walk started");
+            if (!index.contains(dir, DIRECTORY)) {
+                return;
+            }
 
-            Set<Path> deletedFiles = files.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-            fileDeleteConsumers.forEach(deletedFiles::forEach);
-            files.keySet().removeAll(deletedFiles);
+            if (kind == ENTRY_DELETE) {
+                removeMissing(path);
+            } else if (isDirectory(path)) {
+                if (index.contains(path, DIRECTORY)) {
+                    update(path, readAttributes(path, BasicFileAttributes.class));
+                } else {
+                    executor.execute(() -> walkCreatedDirectory(path));
+                }
+            } else if (exists(path)) {
+                update(path, readAttributes(path, BasicFileAttributes.class));
+            }
+
+            if (exists(dir)) {
+                update(dir, readAttributes(dir, BasicFileAttributes.class));
+            }
+        } catch (NoSuchFileException e) {
+            LOG.debug("Trying to process a file, however seems like it is already not present: {}", e.getMessage());
+            dirty.add(dir);
+        } catch (Exception e) {
+            LOG.error("Error while processing '{}' event of '{}'", kind, path, e);
+            dirty.add(dir);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            Set<Path> deletedDirectories = directories.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-            directoryDeleteConsumers.forEach(deletedDirectories::forEach);
-            directories.keySet().removeAll(deletedDirectories);
+    private void walkCreatedDirectory(Path dir) {
+        lock.lock();
+        try {
+            if (exists(dir) && !index.contains(dir, DIRECTORY)) {
+                walkTree(dir);
+            }
+        } catch (Exception e) {
+            LOG.error("Error while walking created directory '{}'", dir, e);
+            dirty.add(dir.getParent());
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+    private void walkTree(Path start) throws IOException {
+        try {
+            walkFileTree(start, new SimpleFileVisitor<Path>() {
                 @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    for (PathMatcher matcher : directoryExcludes) {
-                        if (matcher.matches(dir)) {
-                            return SKIP_SUBTREE;
-                        }
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (isExcluded(directoryExcludes, dir)) {
+                        return SKIP_SUBTREE;
                     }
 
-                    updateFsTreeAndAcceptConsumables(directories, directoryUpdateConsumers, directoryCreateConsumers, dir, attrs);
+                    update(dir, attrs);
 
                     return CONTINUE;
                 }
 
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                    for (PathMatcher matcher : fileExcludes) {
-                        if (matcher.matches(file)) {
-                            return CONTINUE;
-                        }
-                    }
+                    update(file, attrs);
+
+                    return CONTINUE;
+                }
 
-                    updateFsTreeAndAcceptConsumables(files, fileUpdateConsumers, fileCreateConsumers, file, attrs);
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    LOG.debug("Trying to process a file, however seems like it is already not present: {}", e.getMessage());
 
                     return CONTINUE;
                 }
             });
-            LOG.debug("Tree walk finished");
         } catch (NoSuchFileException e) {
             LOG.debug("Trying to process a file, however seems like it is already not present: {}", e.getMessage());
-        } catch (Exception e) {
-            LOG.error("Error while walking file tree", e);
         }
     }
 
-    private void updateFsTreeAndAcceptConsumables(Map<Path, Long> items, Set<Consumer<Path>> updateConsumer,
+    private void update(Path path, BasicFileAttributes attrs) {
+        if (attrs.isDirectory()) {
+            if (!index.contains(path, DIRECTORY) && !service.register(path)) {
+                unwatched.add(path);
+            }
+            updateFsTreeAndAcceptConsumables(DIRECTORY, directoryUpdateConsumers, directoryCreateConsumers, path, attrs);
+        } else if (!isExcluded(fileExcludes, path)) {
+            updateFsTreeAndAcceptConsumables(FILE, fileUpdateConsumers, fileCreateConsumers, path, attrs);
+        }
+    }
+
+    /** Removes path and all its descendants that do not exist any more from the tree. */
+    private void removeMissing(Path path) {
+        List<Path> deletedFiles = findMissing(FILE, path);
+        deletedFiles.forEach(it -> index.remove(it, FILE));
+        fileDeleteConsumers.forEach(deletedFiles::forEach);
+
+        List<Path> deletedDirectories = findMissing(DIRECTORY, path);
+        deletedDirectories.forEach(it -> index.remove(it, DIRECTORY));
+        unwatched.removeAll(deletedDirectories);
+        deletedDirectories.forEach(service::unRegister);
+        directoryDeleteConsumers.forEach(deletedDirectories::forEach);
+    }
+
+    /** Finds path and its descendants that do not exist, ancestors go before their descendants. */
+    private List<Path> findMissing(byte flag, Path path) {
+        return index.find(path, flag).stream().filter(it -> !exists(it)).collect(toList());
+    }
+
+    private void updateFsTreeAndAcceptConsumables(byte flag, Set<Consumer<Path>> updateConsumer,
                                                   Set<Consumer<Path>> createConsumer,
                                                   Path path, BasicFileAttributes attrs) {
-        Long lastModifiedActual = attrs.lastModifiedTime().toMillis();
+        long lastModifiedActual = attrs.lastModifiedTime().toMillis();
+        long lastModifiedStored = index.update(path, flag, lastModifiedActual);
 
-        if (items.containsKey(path)) {
-            Long lastModifiedStored = items.get(path);
-            if (!lastModifiedActual.equals(lastModifiedStored)) {
-                updateConsumer.forEach(it -> it.accept(path));
-                items.put(path, lastModifiedActual);
-            }
-        } else {
+        if (lastModifiedStored == NOT_TRACKED) {
             createConsumer.forEach(it -> it.accept(path));
-            items.put(path, lastModifiedActual);
+        } else if (lastModifiedStored != lastModifiedActual) {
+            updateConsumer.forEach(it -> it.accept(path));
         }
     }
 }
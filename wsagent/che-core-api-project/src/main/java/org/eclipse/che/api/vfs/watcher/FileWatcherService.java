@@ -31,13 +31,11 @@ import java.nio.file.WatchEvent.Modifier;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Predicate;
+import java.util.function.BiConsumer;
 
 import static java.lang.Thread.currentThread;
 import static java.nio.file.Files.exists;
@@ -56,6 +54,8 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * java file system paths in counter to che virtual file system which may have
  * custom root element and structure. Transforming one we of path representation
  * into another and backwards is the responsibility of upper services.
+ * <p>
+ * Registration counters and watch keys of watched directories are kept in shared {@link PathIndex}.
  */
 @Singleton
 public class FileWatcherService {
@@ -64,12 +64,12 @@ public class FileWatcherService {
     private final AtomicBoolean suspended = new AtomicBoolean(true);
     private final AtomicBoolean running   = new AtomicBoolean();
 
-    private final Map<WatchKey, Path> keys          = new ConcurrentHashMap<>();
-    private final Map<Path, Integer>  registrations = new ConcurrentHashMap<>();
+    private final List<BiConsumer<Path, Kind<?>>> eventListeners = new CopyOnWriteArrayList<>();
 
     private final FileWatcherExcludePatternsRegistry excludePatternsRegistry;
     private final FileWatcherEventHandler            handler;
     private final WatchService                       service;
+    private final PathIndex                          index;
     private final Modifier[]                         eventModifiers;
     private final Kind<?>[]                          eventKinds;
 
@@ -78,10 +78,12 @@ public class FileWatcherService {
     @Inject
     public FileWatcherService(FileWatcherExcludePatternsRegistry excludePatternsRegistry,
                               FileWatcherEventHandler handler,
-                              WatchService service) {
+                              WatchService service,
+                              PathIndex index) {
         this.excludePatternsRegistry = excludePatternsRegistry;
         this.handler = handler;
         this.service = service;
+        this.index = index;
 
         this.eventModifiers = getWatchEventModifiers();
         this.eventKinds = getWatchEventKinds();
@@ -142,7 +144,7 @@ public class FileWatcherService {
 
         try {
             LOG.debug("Cancelling watch keys");
-            keys.keySet().forEach(WatchKey::cancel);
+            index.getWatchKeys().forEach(WatchKey::cancel);
             LOG.debug("Closing java watch service");
             service.close();
         } catch (IOException e) {
@@ -181,27 +183,30 @@ public class FileWatcherService {
      *
      * @param dir
      *         directory
+     * @return {@code true} if directory is being watched after the call and {@code false} otherwise
      */
-    public void register(Path dir) {
+    public synchronized boolean register(Path dir) {
         if (!Files.exists(dir)) {
             LOG.debug("Trying to register directory '{}' but it does not exist", dir);
-            return;
+            return false;
         }
         LOG.debug("Registering directory '{}'", dir);
-        if (keys.values().contains(dir)) {
-            int previous = registrations.get(dir);
+        if (index.getWatchKey(dir) != null) {
+            int previous = index.register(dir) - 1;
             LOG.debug("Directory is already being watched, increasing watch counter, previous value: {}", previous);
-            registrations.put(dir, previous + 1);
         } else {
             try {
                 LOG.debug("Starting watching directory '{}'", dir);
                 WatchKey watchKey = dir.register(service, eventKinds, eventModifiers);
-                keys.put(watchKey, dir);
-                registrations.put(dir, 1);
+                index.removeRegistrations(dir);
+                index.register(dir);
+                index.setWatchKey(dir, watchKey);
             } catch (IOException e) {
                 LOG.error("Can't register dir {} in file watch service", dir, e);
+                return false;
             }
         }
+        return true;
     }
 
     /**
@@ -217,40 +222,52 @@ public class FileWatcherService {
      * @param dir
      *         directory
      */
-    void unRegister(Path dir) {
+    synchronized void unRegister(Path dir) {
         LOG.debug("Canceling directory '{}' registration", dir);
 
-        Predicate<Entry<WatchKey, Path>> equalsDir = it -> it.getValue().equals(dir);
-
         if (!exists(dir)) {
             LOG.debug("Trying to unregister directory '{}' while it does not exist", dir);
 
-            registrations.remove(dir);
-
-            keys.entrySet().stream().filter(equalsDir).map(Entry::getKey).forEach(WatchKey::cancel);
-            keys.entrySet().removeIf(equalsDir);
+            cancel(index.removeRegistrations(dir));
 
             return;
         }
 
-        if (!registrations.containsKey(dir)) {
+        WatchKey watchKey = index.getWatchKey(dir);
+        if (watchKey == null) {
             LOG.debug("Trying to unregister directory '{}' while it is not registered", dir);
             return;
         }
 
-        int previous = registrations.get(dir);
-        if (previous == 1) {
+        int remaining = index.unRegister(dir);
+        if (remaining == 0) {
             LOG.debug("Stopping watching directory '{}'", dir);
-            registrations.remove(dir);
-
-            keys.entrySet().stream().filter(equalsDir).map(Entry::getKey).forEach(WatchKey::cancel);
-            keys.entrySet().removeIf(equalsDir);
+            cancel(watchKey);
         } else {
-            LOG.debug("Directory is being watched by someone else, decreasing watch counter, previous value: {}", previous);
-            registrations.put(dir, previous - 1);
+            LOG.debug("Directory is being watched by someone else, decreasing watch counter, previous value: {}", remaining + 1);
+        }
+    }
+
+    private void cancel(WatchKey watchKey) {
+        if (watchKey != null) {
+            watchKey.cancel();
         }
     }
 
+    /**
+     * Adds listener that is notified about every event of every watched
+     * directory regardless of exclude patterns. Besides entry create,
+     * modification and deletion events listener receives {@code OVERFLOW}
+     * event with the directory path when events of that directory were lost,
+     * either due to overflowing or due to service being suspended.
+     *
+     * @param listener
+     *         consumer of path and event kind
+     */
+    void addEventListener(BiConsumer<Path, Kind<?>> listener) {
+        eventListeners.add(listener);
+    }
+
     /**
      * Resumes service after it was in suspended state. If method is called
      * when the service is already not in a suspended state nothing happens.
@@ -279,12 +296,19 @@ public class FileWatcherService {
         while (running.get()) {
             try {
                 WatchKey watchKey = service.take();
-                Path dir = keys.get(watchKey);
+                Path dir = (Path)watchKey.watchable();
+                if (index.getWatchKey(dir) != watchKey) {
+                    // key was cancelled or replaced by newer registration
+                    dir = null;
+                }
 
                 List<WatchEvent<?>> watchEvents = watchKey.pollEvents();
 
                 if (suspended.get()) {
                     resetAndRemove(watchKey, dir);
+                    if (dir != null && !watchEvents.isEmpty()) {
+                        notifyEventListeners(dir, OVERFLOW);
+                    }
 
                     LOG.debug("File watchers are running in suspended mode - skipping.");
                     continue;
@@ -295,13 +319,21 @@ public class FileWatcherService {
 
                     if (kind == OVERFLOW) {
                         LOG.warn("Detected file system events overflowing");
+                        if (dir != null) {
+                            notifyEventListeners(dir, OVERFLOW);
+                        }
                         continue;
                     }
 
                     WatchEvent<Path> ev = cast(event);
                     Path item = ev.context();
+                    if (dir == null) {
+                        continue;
+                    }
                     Path path = dir.resolve(item).toAbsolutePath();
 
+                    notifyEventListeners(path, kind);
+
                     if (excludePatternsRegistry.isExcluded(path)) {
                         LOG.debug("Path is within exclude list, skipping...");
                         continue;
@@ -321,12 +353,19 @@ public class FileWatcherService {
         }
     }
 
-    private void resetAndRemove(WatchKey watchKey, Path dir) {
-        if (!watchKey.reset()) {
-            if (dir != null) {
-                registrations.remove(dir);
+    private void notifyEventListeners(Path path, Kind<?> kind) {
+        for (BiConsumer<Path, Kind<?>> listener : eventListeners) {
+            try {
+                listener.accept(path, kind);
+            } catch (RuntimeException e) {
+                LOG.error("Error while notifying listener about '{}' event of '{}'", kind, path, e);
             }
-            keys.remove(watchKey);
+        }
+    }
+
+    private void resetAndRemove(WatchKey watchKey, Path dir) {
+        if (!watchKey.reset() && dir != null) {
+            index.removeRegistrations(dir, watchKey);
         }
     }
 }
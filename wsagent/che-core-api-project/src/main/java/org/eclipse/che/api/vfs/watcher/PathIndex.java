@@ -0,0 +1,513 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.watcher;
+
+import javax.inject.Singleton;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact table of file system paths shared by file watching components.
+ * <p>
+ * Every path is a node that keeps only index of its parent node and identifier
+ * of its interned name, so each path is stored once no matter how many
+ * components track it and names repeated across the tree (e.g. 'src', 'main',
+ * 'target') are stored once as well. Interned names are reference counted and
+ * released together with the last node that uses them. Nodes are kept in parallel primitive
+ * arrays, children are looked up with open addressing hash table of node
+ * indexes, that costs about 48 bytes per tracked path instead of several
+ * hundreds for {@link Path} keyed hash maps.
+ * <p>
+ * Besides structure every node keeps flags, modification times and watch
+ * registrations counter of the path. Modification times are kept separately
+ * for {@link FileTreeWalker} and {@link org.eclipse.che.api.vfs.impl.file.FileTreeWatcher FileTreeWatcher}, since they observe the
+ * same files at different moments. Watch keys of registered directories are kept
+ * in a sparse table along with the registrations. Node is removed as soon as it
+ * has no flags, no registrations and no children.
+ */
+@Singleton
+public class PathIndex {
+    /** Path is tracked by {@link FileTreeWalker} as a file. */
+    static final byte FILE      = 1;
+    /** Path is tracked by {@link FileTreeWalker} as a directory. */
+    static final byte DIRECTORY = 1 << 1;
+    /** Path is registered in {@link FileWatcherService} at least once. */
+    static final byte WATCHED   = 1 << 2;
+
+    /** Path is a file entry of a directory watched by {@link org.eclipse.che.api.vfs.impl.file.FileTreeWatcher FileTreeWatcher}. */
+    public static final byte TREE_FILE      = 1 << 3;
+    /** Path is a directory entry of a directory watched by {@link org.eclipse.che.api.vfs.impl.file.FileTreeWatcher FileTreeWatcher}. */
+    public static final byte TREE_DIRECTORY = 1 << 4;
+    /** Path is a directory registered by {@link org.eclipse.che.api.vfs.impl.file.FileTreeWatcher FileTreeWatcher}. */
+    public static final byte TREE_WATCHED   = 1 << 5;
+
+    private static final byte TREE_ENTRY = TREE_FILE | TREE_DIRECTORY;
+
+    /** Modification time that is returned for paths that are not tracked. */
+    public static final long NOT_TRACKED = Long.MIN_VALUE;
+
+    private static final int NO_NODE          = -1;
+    private static final int SUPER_ROOT       = 0;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    /** Registrations above the first one are rare, so they are not kept in array. */
+    private final Map<Integer, Integer> extraRegistrations = new HashMap<>();
+    /** Watch keys of the nodes which have {@link #WATCHED} flag. */
+    private final Map<Integer, WatchKey> watchKeys         = new HashMap<>();
+
+    private int[]  parents;
+    private int[]  nameOf;
+    private int[]  firstChild;
+    private int[]  nextSibling;
+    private int[]  prevSibling;
+    private long[] modified;
+    private long[] treeModified;
+    private byte[] flags;
+    private int    allocated;
+    private int    freeHead;
+    private int    size;
+
+    private int[] table;
+    private int   tableSize;
+
+    private String[] names;
+    /** Number of nodes using the name, released names are chained through this array as through free list. */
+    private int[]    nameRefs;
+    private int      allocatedNames;
+    private int      freeNameHead;
+
+    public PathIndex() {
+        parents = new int[INITIAL_CAPACITY];
+        nameOf = new int[INITIAL_CAPACITY];
+        firstChild = new int[INITIAL_CAPACITY];
+        nextSibling = new int[INITIAL_CAPACITY];
+        prevSibling = new int[INITIAL_CAPACITY];
+        modified = new long[INITIAL_CAPACITY];
+        treeModified = new long[INITIAL_CAPACITY];
+        flags = new byte[INITIAL_CAPACITY];
+        table = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(table, NO_NODE);
+        names = new String[INITIAL_CAPACITY];
+        nameRefs = new int[INITIAL_CAPACITY];
+        freeNameHead = NO_NODE;
+
+        // virtual parent of file system roots
+        parents[SUPER_ROOT] = NO_NODE;
+        nameOf[SUPER_ROOT] = NO_NODE;
+        firstChild[SUPER_ROOT] = NO_NODE;
+        nextSibling[SUPER_ROOT] = NO_NODE;
+        prevSibling[SUPER_ROOT] = NO_NODE;
+        allocated = 1;
+        freeHead = NO_NODE;
+    }
+
+    /** Returns number of paths in the index including intermediate directories. */
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Returns number of distinct names of the paths in the index. */
+    synchronized int namesSize() {
+        return nameIds.size();
+    }
+
+    /** Checks whether path is in the index and has the flag. */
+    public synchronized boolean contains(Path path, byte flag) {
+        int node = find(path, false);
+        return node != NO_NODE && (flags[node] & flag) != 0;
+    }
+
+    /**
+     * Marks path with the flag and stores its modification time.
+     *
+     * @return previous modification time if path already had the flag or {@link #NOT_TRACKED} otherwise
+     */
+    public synchronized long update(Path path, byte flag, long lastModified) {
+        int node = find(path, true);
+        long[] times = timesOf(flag);
+        long previous = (flags[node] & flag) != 0 ? times[node] : NOT_TRACKED;
+        flags[node] |= flag;
+        times[node] = lastModified;
+        return previous;
+    }
+
+    /** Returns modification time of the path if it has the flag or {@link #NOT_TRACKED} otherwise. */
+    public synchronized long getModified(Path path, byte flag) {
+        int node = find(path, false);
+        return node != NO_NODE && (flags[node] & flag) != 0 ? timesOf(flag)[node] : NOT_TRACKED;
+    }
+
+    /** Clears flag of the path, path is removed from the index if it is not used any more. */
+    public synchronized void remove(Path path, byte flag) {
+        int node = find(path, false);
+        if (node != NO_NODE) {
+            flags[node] &= ~flag;
+            releaseIfUnused(node);
+        }
+    }
+
+    /** Clears flag of the path and all its descendants, paths which are not used any more are removed from the index. */
+    public synchronized void removeTree(Path path, byte flag) {
+        int start = find(path, false);
+        if (start == NO_NODE) {
+            return;
+        }
+        List<Integer> nodes = new ArrayList<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            flags[node] &= ~flag;
+            nodes.add(node);
+            for (int child = firstChild[node]; child != NO_NODE; child = nextSibling[child]) {
+                stack.push(child);
+            }
+        }
+        // descendants go after their ancestors, so they are released first
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            int node = nodes.get(i);
+            if (parents[node] != NO_NODE) {
+                releaseIfUnused(node);
+            }
+        }
+    }
+
+    /** Returns the path and all its descendants which have the flag. */
+    public synchronized List<Path> find(Path path, byte flag) {
+        List<Path> result = new ArrayList<>();
+        int start = find(path, false);
+        if (start == NO_NODE) {
+            return result;
+        }
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if ((flags[node] & flag) != 0) {
+                result.add(toPath(node));
+            }
+            for (int child = firstChild[node]; child != NO_NODE; child = nextSibling[child]) {
+                stack.push(child);
+            }
+        }
+        return result;
+    }
+
+    /** Returns names of the direct children of the path which have the flag. */
+    public synchronized List<String> getChildNames(Path path, byte flag) {
+        List<String> result = new ArrayList<>();
+        int parent = find(path, false);
+        if (parent == NO_NODE) {
+            return result;
+        }
+        for (int child = firstChild[parent]; child != NO_NODE; child = nextSibling[child]) {
+            if ((flags[child] & flag) != 0) {
+                result.add(names[nameOf[child]]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Increases watch registrations counter of the path.
+     *
+     * @return number of registrations after increasing
+     */
+    public synchronized int register(Path path) {
+        int node = find(path, true);
+        if ((flags[node] & WATCHED) == 0) {
+            flags[node] |= WATCHED;
+            return 1;
+        }
+        return 1 + extraRegistrations.merge(node, 1, Integer::sum);
+    }
+
+    /**
+     * Decreases watch registrations counter of the path.
+     *
+     * @return number of registrations after decreasing
+     */
+    public synchronized int unRegister(Path path) {
+        int node = find(path, false);
+        if (node == NO_NODE || (flags[node] & WATCHED) == 0) {
+            return 0;
+        }
+        Integer extra = extraRegistrations.remove(node);
+        if (extra != null) {
+            if (extra > 1) {
+                extraRegistrations.put(node, extra - 1);
+            }
+            return extra;
+        }
+        watchKeys.remove(node);
+        flags[node] &= ~WATCHED;
+        releaseIfUnused(node);
+        return 0;
+    }
+
+    /** Returns number of watch registrations of the path. */
+    public synchronized int getRegistrations(Path path) {
+        int node = find(path, false);
+        if (node == NO_NODE || (flags[node] & WATCHED) == 0) {
+            return 0;
+        }
+        return 1 + extraRegistrations.getOrDefault(node, 0);
+    }
+
+    /**
+     * Drops all watch registrations of the path.
+     *
+     * @return watch key of the path or {@code null} if it had none
+     */
+    public synchronized WatchKey removeRegistrations(Path path) {
+        int node = find(path, false);
+        if (node == NO_NODE) {
+            return null;
+        }
+        extraRegistrations.remove(node);
+        WatchKey watchKey = watchKeys.remove(node);
+        flags[node] &= ~WATCHED;
+        releaseIfUnused(node);
+        return watchKey;
+    }
+
+    /**
+     * Drops all watch registrations of the path if its watch key is the given one.
+     *
+     * @return {@code true} if registrations are dropped
+     */
+    public synchronized boolean removeRegistrations(Path path, WatchKey watchKey) {
+        int node = find(path, false);
+        if (node == NO_NODE || watchKeys.get(node) != watchKey) {
+            return false;
+        }
+        removeRegistrations(path);
+        return true;
+    }
+
+    /** Sets watch key of the path which is registered at least once. */
+    public synchronized void setWatchKey(Path path, WatchKey watchKey) {
+        int node = find(path, false);
+        if (node == NO_NODE || (flags[node] & WATCHED) == 0) {
+            throw new IllegalStateException("Path '" + path + "' is not registered");
+        }
+        watchKeys.put(node, watchKey);
+    }
+
+    /** Returns watch key of the path or {@code null} if it is not registered. */
+    public synchronized WatchKey getWatchKey(Path path) {
+        int node = find(path, false);
+        return node == NO_NODE ? null : watchKeys.get(node);
+    }
+
+    /** Returns watch keys of all the registered paths. */
+    public synchronized List<WatchKey> getWatchKeys() {
+        return new ArrayList<>(watchKeys.values());
+    }
+
+    private int find(Path path, boolean create) {
+        int node = SUPER_ROOT;
+        Path root = path.getRoot();
+        if (root != null) {
+            node = child(node, root.toString(), create);
+        }
+        for (Path name : path) {
+            if (node == NO_NODE) {
+                return NO_NODE;
+            }
+            node = child(node, name.toString(), create);
+        }
+        return node;
+    }
+
+    private Path toPath(int node) {
+        Deque<String> segments = new ArrayDeque<>();
+        for (int current = node; current != SUPER_ROOT; current = parents[current]) {
+            segments.push(names[nameOf[current]]);
+        }
+        String first = segments.pop();
+        return Paths.get(first, segments.toArray(new String[segments.size()]));
+    }
+
+    private int child(int parent, String name, boolean create) {
+        Integer nameId = nameIds.get(name);
+        if (nameId == null) {
+            if (!create) {
+                return NO_NODE;
+            }
+            nameId = internName(name);
+        }
+
+        int mask = table.length - 1;
+        int slot = hash(parent, nameId) & mask;
+        for (int node = table[slot]; node != NO_NODE; node = table[slot]) {
+            if (parents[node] == parent && nameOf[node] == nameId) {
+                return node;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return NO_NODE;
+        }
+
+        int node = allocate(parent, nameId);
+        table[slot] = node;
+        if (++tableSize * 4 > table.length * 3) {
+            resizeTable();
+        }
+        return node;
+    }
+
+    private int allocate(int parent, int nameId) {
+        int node;
+        if (freeHead != NO_NODE) {
+            node = freeHead;
+            freeHead = nextSibling[node];
+        } else {
+            if (allocated == parents.length) {
+                grow();
+            }
+            node = allocated++;
+        }
+        parents[node] = parent;
+        nameOf[node] = nameId;
+        nameRefs[nameId]++;
+        firstChild[node] = NO_NODE;
+        prevSibling[node] = NO_NODE;
+        nextSibling[node] = firstChild[parent];
+        if (firstChild[parent] != NO_NODE) {
+            prevSibling[firstChild[parent]] = node;
+        }
+        firstChild[parent] = node;
+        modified[node] = 0;
+        treeModified[node] = 0;
+        flags[node] = 0;
+        size++;
+        return node;
+    }
+
+    private void releaseIfUnused(int node) {
+        while (node != SUPER_ROOT && flags[node] == 0 && firstChild[node] == NO_NODE) {
+            int parent = parents[node];
+            removeFromTable(node);
+            releaseName(nameOf[node]);
+
+            if (prevSibling[node] != NO_NODE) {
+                nextSibling[prevSibling[node]] = nextSibling[node];
+            } else {
+                firstChild[parent] = nextSibling[node];
+            }
+            if (nextSibling[node] != NO_NODE) {
+                prevSibling[nextSibling[node]] = prevSibling[node];
+            }
+
+            parents[node] = NO_NODE;
+            nextSibling[node] = freeHead;
+            freeHead = node;
+            size--;
+
+            node = parent;
+        }
+    }
+
+    /** Removes node from linear probing table shifting back following entries of the same cluster. */
+    private void removeFromTable(int node) {
+        int mask = table.length - 1;
+        int slot = hash(parents[node], nameOf[node]) & mask;
+        while (table[slot] != node) {
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        for (int next = (gap + 1) & mask; table[next] != NO_NODE; next = (next + 1) & mask) {
+            int home = hash(parents[table[next]], nameOf[table[next]]) & mask;
+            // entry may be moved into the gap only if its home slot is not between the gap and its current slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = NO_NODE;
+        tableSize--;
+    }
+
+    private int internName(String name) {
+        int nameId;
+        if (freeNameHead != NO_NODE) {
+            nameId = freeNameHead;
+            freeNameHead = nameRefs[nameId];
+        } else {
+            if (allocatedNames == names.length) {
+                names = Arrays.copyOf(names, allocatedNames * 2);
+                nameRefs = Arrays.copyOf(nameRefs, allocatedNames * 2);
+            }
+            nameId = allocatedNames++;
+        }
+        names[nameId] = name;
+        nameRefs[nameId] = 0;
+        nameIds.put(name, nameId);
+        return nameId;
+    }
+
+    private void releaseName(int nameId) {
+        if (--nameRefs[nameId] == 0) {
+            nameIds.remove(names[nameId]);
+            names[nameId] = null;
+            nameRefs[nameId] = freeNameHead;
+            freeNameHead = nameId;
+        }
+    }
+
+    private void resizeTable() {
+        int[] old = table;
+        table = new int[old.length * 2];
+        Arrays.fill(table, NO_NODE);
+        int mask = table.length - 1;
+        for (int node : old) {
+            if (node != NO_NODE) {
+                int slot = hash(parents[node], nameOf[node]) & mask;
+                while (table[slot] != NO_NODE) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = node;
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = parents.length * 2;
+        parents = Arrays.copyOf(parents, capacity);
+        nameOf = Arrays.copyOf(nameOf, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        prevSibling = Arrays.copyOf(prevSibling, capacity);
+        modified = Arrays.copyOf(modified, capacity);
+        treeModified = Arrays.copyOf(treeModified, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    private long[] timesOf(byte flag) {
+        return (flag & TREE_ENTRY) != 0 ? treeModified : modified;
+    }
+
+    private static int hash(int parent, int nameId) {
+        int h = parent * 0x9E3779B9 + nameId;
+        return h ^ (h >>> 16);
+    }
+}
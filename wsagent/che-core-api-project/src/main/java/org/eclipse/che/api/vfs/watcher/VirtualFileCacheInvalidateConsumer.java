@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.watcher;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static org.eclipse.che.api.vfs.Path.ROOT;
+
+/**
+ * Drops cached directory listings and attributes of {@link LocalVirtualFileSystem} for
+ * created, updated and deleted file system items. Type of the item is defined by the
+ * set of consumers the instance is bound to, deleted items can't be checked on disk.
+ */
+public abstract class VirtualFileCacheInvalidateConsumer implements Consumer<Path> {
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualFileCacheInvalidateConsumer.class);
+
+    private final File                      root;
+    private final VirtualFileSystemProvider vfsProvider;
+    private final boolean                   directory;
+
+    VirtualFileCacheInvalidateConsumer(File root, VirtualFileSystemProvider vfsProvider, boolean directory) {
+        this.root = root;
+        this.vfsProvider = vfsProvider;
+        this.directory = directory;
+    }
+
+    @Override
+    public void accept(Path path) {
+        try {
+            VirtualFileSystem virtualFileSystem = vfsProvider.getVirtualFileSystem(false);
+            if (virtualFileSystem instanceof LocalVirtualFileSystem) {
+                Path innerPath = root.toPath().relativize(path);
+                ((LocalVirtualFileSystem)virtualFileSystem).invalidateCaches(ROOT.newPath(innerPath.toString()), directory);
+            }
+        } catch (ServerException e) {
+            LOG.error("Issue happened during invalidating caches of virtual file system", e);
+        }
+    }
+
+    /** Consumer of file events. */
+    @Singleton
+    public static class OfFiles extends VirtualFileCacheInvalidateConsumer {
+        @Inject
+        public OfFiles(@Named("che.user.workspaces.storage") File root, VirtualFileSystemProvider vfsProvider) {
+            super(root, vfsProvider, false);
+        }
+    }
+
+    /** Consumer of directory events. */
+    @Singleton
+    public static class OfDirectories extends VirtualFileCacheInvalidateConsumer {
+        @Inject
+        public OfDirectories(@Named("che.user.workspaces.storage") File root, VirtualFileSystemProvider vfsProvider) {
+            super(root, vfsProvider, true);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
+import org.eclipse.che.api.project.shared.dto.event.FileTrackingOperationDto;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.event.detectors.FileTrackingOperationEvent;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.INSERT;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOVE;
+import static org.eclipse.che.api.project.shared.dto.event.FileTrackingOperationDto.Type.STOP;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests for {@link EditorWorkingCopyManager}
+ */
+@Listeners(value = {MockitoTestNGListener.class})
+public class EditorWorkingCopyManagerTest {
+    private static final String ENDPOINT_ID       = "endpoint";
+    private static final String OTHER_ENDPOINT_ID = "other-endpoint";
+    private static final String PROJECT_PATH      = "/project";
+    private static final String FILE_PATH         = "/project/file.txt";
+
+    @Mock
+    private ProjectManager     projectManager;
+    @Mock
+    private FileEntry          file;
+    @Mock
+    private VirtualFile        virtualFile;
+    @Mock
+    private EventService       eventService;
+    @Mock(answer = RETURNS_DEEP_STUBS)
+    private RequestTransmitter transmitter;
+
+    private EditorWorkingCopyManager manager;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        when(projectManager.asFile(FILE_PATH)).thenReturn(file);
+        when(file.getProject()).thenReturn(PROJECT_PATH);
+        when(file.contentAsBytes()).thenReturn("content".getBytes());
+
+        manager = new EditorWorkingCopyManager(() -> projectManager, eventService, transmitter);
+    }
+
+    @Test
+    public void shouldPublishOneEventForBurstOfChanges() throws Exception {
+        manager.onEditorContentUpdated(ENDPOINT_ID, insert(0, "a"));
+        manager.onEditorContentUpdated(ENDPOINT_ID, insert(1, "b"));
+        manager.onEditorContentUpdated(ENDPOINT_ID, insert(2, "c"));
+
+        ArgumentCaptor<EditorWorkingCopyUpdatedEvent> captor = ArgumentCaptor.forClass(EditorWorkingCopyUpdatedEvent.class);
+        verify(eventService, timeout(1_000)).publish(captor.capture());
+        assertEquals(captor.getValue().getEndpointId(), ENDPOINT_ID);
+        assertEquals(captor.getValue().getChanges().getFileLocation(), FILE_PATH);
+        assertEquals(manager.getWorkingCopy(FILE_PATH).getContentAsString(), "abccontent");
+    }
+
+    @Test
+    public void shouldApplyQueuedChangesWhenWorkingCopyIsRequested() throws Exception {
+        manager.onEditorContentUpdated(ENDPOINT_ID, insert(7, "!!"));
+        manager.onEditorContentUpdated(ENDPOINT_ID, remove(8, 1));
+        manager.onEditorContentUpdated(ENDPOINT_ID, remove(7, 1));
+        manager.onEditorContentUpdated(ENDPOINT_ID, remove(3, 2));
+
+        assertEquals(manager.getWorkingCopy(FILE_PATH).getContentAsString(), "conent");
+        verify(eventService, timeout(1_000)).publish(any(EditorWorkingCopyUpdatedEvent.class));
+    }
+
+    @Test
+    public void shouldPublishEventForEachEndpointOfBatch() throws Exception {
+        manager.onEditorContentUpdated(ENDPOINT_ID, insert(0, "a"));
+        manager.onEditorContentUpdated(OTHER_ENDPOINT_ID, insert(1, "b"));
+
+        ArgumentCaptor<EditorWorkingCopyUpdatedEvent> captor = ArgumentCaptor.forClass(EditorWorkingCopyUpdatedEvent.class);
+        verify(eventService, timeout(1_000).times(2)).publish(captor.capture());
+        assertEquals(captor.getAllValues().get(0).getEndpointId(), ENDPOINT_ID);
+        assertEquals(captor.getAllValues().get(1).getEndpointId(), OTHER_ENDPOINT_ID);
+        assertEquals(manager.getWorkingCopy(FILE_PATH).getContentAsString(), "abcontent");
+    }
+
+    @Test
+    public void shouldReportFailedChangeToItsEndpointAndApplyRestOfBatch() throws Exception {
+        manager.onEditorContentUpdated(OTHER_ENDPOINT_ID, insert(100, "x"));
+        manager.onEditorContentUpdated(ENDPOINT_ID, insert(0, "a"));
+
+        assertEquals(manager.getWorkingCopy(FILE_PATH).getContentAsString(), "acontent");
+        verify(transmitter.newRequest()).endpointId(OTHER_ENDPOINT_ID);
+        verify(transmitter.newRequest(), never()).endpointId(ENDPOINT_ID);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPublishQueuedChangesWhenFileIsClosed() throws Exception {
+        when(file.getVirtualFile()).thenReturn(virtualFile);
+        when(virtualFile.getContentAsString()).thenReturn("acontent");
+        ArgumentCaptor<EventSubscriber> subscriberCaptor = ArgumentCaptor.forClass(EventSubscriber.class);
+        verify(eventService).subscribe(subscriberCaptor.capture());
+        FileTrackingOperationEvent stop = mock(FileTrackingOperationEvent.class);
+        when(stop.getEndpointId()).thenReturn(ENDPOINT_ID);
+        when(stop.getFileTrackingOperation()).thenReturn(newDto(FileTrackingOperationDto.class).withPath(FILE_PATH).withType(STOP));
+
+        manager.onEditorContentUpdated(ENDPOINT_ID, insert(0, "a"));
+        subscriberCaptor.getValue().onEvent(stop);
+
+        ArgumentCaptor<EditorWorkingCopyUpdatedEvent> captor = ArgumentCaptor.forClass(EditorWorkingCopyUpdatedEvent.class);
+        verify(eventService).publish(captor.capture());
+        assertEquals(captor.getValue().getChanges().getText(), "a");
+        assertNull(manager.getWorkingCopy(FILE_PATH));
+    }
+
+    private static EditorChangesDto insert(int offset, String text) {
+        return newDto(EditorChangesDto.class).withFileLocation(FILE_PATH)
+                                             .withProjectPath(PROJECT_PATH)
+                                             .withType(INSERT)
+                                             .withOffset(offset)
+                                             .withText(text)
+                                             .withLength(text.length());
+    }
+
+    private static EditorChangesDto remove(int offset, int count) {
+        return newDto(EditorChangesDto.class).withFileLocation(FILE_PATH)
+                                             .withProjectPath(PROJECT_PATH)
+                                             .withType(REMOVE)
+                                             .withOffset(offset)
+                                             .withRemovedCharCount(count);
+    }
+}
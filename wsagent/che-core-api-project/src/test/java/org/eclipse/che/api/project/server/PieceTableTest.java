@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+import java.io.Reader;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link PieceTable}
+ */
+public class PieceTableTest {
+
+    @Test
+    public void shouldInsertAndDeleteText() throws Exception {
+        PieceTable table = new PieceTable("hello world");
+
+        table.insert(5, ",");
+        table.insert(12, "!");
+        table.delete(0, 1);
+        table.insert(0, "H");
+
+        assertEquals(table.toString(), "Hello, world!");
+        assertEquals(table.length(), 13);
+    }
+
+    @Test
+    public void shouldIgnoreRemovedCharactersBeyondTheEnd() throws Exception {
+        PieceTable table = new PieceTable("abc");
+
+        table.delete(1, 10);
+
+        assertEquals(table.toString(), "a");
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void shouldNotInsertBeyondTheEnd() throws Exception {
+        new PieceTable("abc").insert(4, "d");
+    }
+
+    @Test
+    public void shouldNotChangeReaderContentOnSubsequentChanges() throws Exception {
+        PieceTable table = new PieceTable("abc");
+        table.insert(1, "xyz");
+
+        Reader reader = table.reader();
+        table.delete(0, 4);
+        table.insert(0, "123");
+
+        assertEquals(IOUtils.toString(reader), "axyzbc");
+        assertEquals(table.toString(), "123bc");
+    }
+
+    @Test
+    public void shouldNotCompactPiecesOnToString() throws Exception {
+        PieceTable table = new PieceTable("abc");
+        table.insert(1, "xyz");
+
+        assertEquals(table.toString(), "axyzbc");
+        assertEquals(table.pieces(), 3);
+    }
+
+    @Test
+    public void shouldCompactPiecesIntoSingleOne() throws Exception {
+        PieceTable table = new PieceTable("abc");
+        table.insert(1, "xyz");
+        table.delete(0, 2);
+
+        assertEquals(table.compact(), "yzbc");
+        assertEquals(table.pieces(), 1);
+        assertEquals(table.toString(), "yzbc");
+        assertEquals(table.length(), 4);
+    }
+
+    @Test
+    public void shouldApplyRandomChangesAsStringBuilder() throws Exception {
+        Random random = new Random(42);
+        StringBuilder expected = new StringBuilder("initial content");
+        PieceTable table = new PieceTable(expected.toString());
+
+        for (int i = 0; i < 20_000; i++) {
+            int offset = random.nextInt(expected.length() + 1);
+            if (random.nextInt(3) == 0) {
+                int count = random.nextInt(5);
+                expected.delete(offset, offset + count);
+                table.delete(offset, count);
+            } else {
+                String text = Integer.toString(i);
+                expected.insert(offset, text);
+                table.insert(offset, text);
+            }
+            if (i % 5_000 == 0) {
+                assertEquals(IOUtils.toString(table.reader()), expected.toString());
+            }
+        }
+
+        assertEquals(table.length(), expected.length());
+        assertEquals(table.toString(), expected.toString());
+    }
+}
@@ -43,6 +43,8 @@ import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
+import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
+import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.user.server.spi.UserDao;
@@ -1754,7 +1756,7 @@ public class ProjectServiceTest {
                                                       "http://localhost:8080/api/project/search/my_project?name=test.txt",
                                                       "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 2);
         Set<String> paths = new LinkedHashSet<>(2);
         for (ItemReference itemReference : result) {
@@ -1776,13 +1778,34 @@ public class ProjectServiceTest {
                                                       "http://localhost:8080/api/project/search/my_project?text=searchhit",
                                                       "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 2);
         Set<String> paths = new LinkedHashSet<>(1);
         paths.addAll(result.stream().map(ItemReference::getPath).collect(Collectors.toList()));
         Assert.assertTrue(paths.contains("/my_project/x/y/__test.txt"));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSearchReturnsOccurrencesOfText() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "hello\nsay searchhit".getBytes(Charset.defaultCharset()));
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/search/my_project?text=searchhit",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<SearchResultDto> result = (List<SearchResultDto>)response.getEntity();
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getItemReference().getPath(), "/my_project/x/y/test.txt");
+        List<SearchOccurrenceDto> occurrences = result.get(0).getSearchOccurrences();
+        assertEquals(occurrences.size(), 1);
+        assertEquals(occurrences.get(0).getLineNumber(), 2);
+        assertEquals(occurrences.get(0).getStartColumn(), 4);
+        assertEquals(occurrences.get(0).getEndColumn(), 13);
+        assertEquals(occurrences.get(0).getLineContent(), "say searchhit");
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testSearchByTextWhenFileWasNotIndexed() throws Exception {
@@ -1795,7 +1818,7 @@ public class ProjectServiceTest {
                                                       "http://localhost:8080/api/project/search/my_project?text=searchhit",
                                                       "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 1);
         Set<String> paths = new LinkedHashSet<>(1);
         paths.addAll(result.stream().map(ItemReference::getPath).collect(Collectors.toList()));
@@ -1826,7 +1849,7 @@ public class ProjectServiceTest {
                 launcher.service(GET, "http://localhost:8080/api/project/search/my_project" + queryToSearch,
                                  "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 1);
         Set<String> paths = new LinkedHashSet<>(1);
         paths.addAll(result.stream().map(ItemReference::getPath).collect(Collectors.toList()));
@@ -1856,7 +1879,7 @@ public class ProjectServiceTest {
                 launcher.service(GET, "http://localhost:8080/api/project/search/my_project" + queryToSearch,
                                  "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 2);
         Set<String> paths = new LinkedHashSet<>(2);
         paths.addAll(result.stream().map(ItemReference::getPath).collect(Collectors.toList()));
@@ -1885,7 +1908,7 @@ public class ProjectServiceTest {
                 launcher.service(GET, "http://localhost:8080/api/project/search/my_project" + queryToSearch,
                                  "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 2);
         Set<String> paths = new LinkedHashSet<>(2);
         paths.addAll(result.stream().map(ItemReference::getPath).collect(Collectors.toList()));
@@ -1914,7 +1937,7 @@ public class ProjectServiceTest {
                 launcher.service(GET, "http://localhost:8080/api/project/search/my_project" + queryToSearch,
                                  "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 1);
         Set<String> paths = new LinkedHashSet<>(1);
         paths.addAll(result.stream().map(ItemReference::getPath).collect(Collectors.toList()));
@@ -1943,7 +1966,7 @@ public class ProjectServiceTest {
         ContainerResponse response = launcher.service(GET, "http://localhost:8080/api/project/search/my_project" + queryToSearch,
                                                       "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 1);
         Set<String> paths = new LinkedHashSet<>(1);
         paths.addAll(result.stream().map(ItemReference::getPath).collect(Collectors.toList()));
@@ -1962,7 +1985,7 @@ public class ProjectServiceTest {
                                                       "http://localhost:8080/api/project/search/my_project?text=test&name=test.txt",
                                                       "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 2);
         assertEqualsNoOrder(new Object[]{
                                     result.get(0).getPath(),
@@ -1986,11 +2009,18 @@ public class ProjectServiceTest {
                                                       "http://localhost:8080/api/project/search/?text=test&name=test.txt",
                                                       "http://localhost:8080/api", null, null, null);
         assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
-        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        List<ItemReference> result = getSearchedItems(response);
         assertEquals(result.size(), 1);
         Assert.assertTrue(result.get(0).getPath().equals("/my_project/c/test.txt"));
     }
 
+    @SuppressWarnings("unchecked")
+    private List<ItemReference> getSearchedItems(ContainerResponse response) {
+        return ((List<SearchResultDto>)response.getEntity()).stream()
+                                                            .map(SearchResultDto::getItemReference)
+                                                            .collect(Collectors.toList());
+    }
+
     private void validateFileLinks(ItemReference item) {
         Link link = item.getLink("delete");
         assertNotNull(link);
@@ -12,6 +12,7 @@ package org.eclipse.che.api.vfs;
 
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
 
 import org.eclipse.che.commons.lang.Pair;
 import org.junit.Test;
@@ -19,14 +20,24 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HashSumsCounterTest {
@@ -45,6 +56,108 @@ public class HashSumsCounterTest {
         assertEquals(expected, hashSums);
     }
 
+    @Test
+    public void reusesCachedHashSumsOfNotModifiedFiles() throws Exception {
+        VirtualFile file = mockFile("/a/file", "file1".getBytes());
+        when(file.getLength()).thenReturn(5L);
+        when(file.getLastModificationDate()).thenReturn(1000L);
+        VirtualFile folder = mockFolder("/a", file);
+        HashSumsCache cache = new HashSumsCache();
+
+        new HashSumsCounter(folder, Hashing.md5(), cache, null).countHashSums();
+        List<Pair<String, String>> hashSums = new HashSumsCounter(folder, Hashing.md5(), cache, null).countHashSums();
+
+        assertEquals(newArrayList(Pair.of(countMd5Sum("file1".getBytes()), "file")), hashSums);
+        verify(file, times(1)).getContent();
+    }
+
+    @Test
+    public void doesNotMarkCacheModifiedWhenNothingChanged() throws Exception {
+        VirtualFile file = mockFile("/a/file", "file1".getBytes());
+        when(file.getLength()).thenReturn(5L);
+        when(file.getLastModificationDate()).thenReturn(1000L);
+        VirtualFile folder = mockFolder("/a", file);
+        HashSumsCache cache = new HashSumsCache();
+
+        new HashSumsCounter(folder, Hashing.md5(), cache, null).countHashSums();
+        assertTrue(cache.isModified());
+        cache.write(new DataOutputStream(new ByteArrayOutputStream()));
+        new HashSumsCounter(folder, Hashing.md5(), cache, null).countHashSums();
+
+        assertFalse(cache.isModified());
+    }
+
+    @Test
+    public void countsHashSumsOfLargeLocalFiles() throws Exception {
+        File ioFile = File.createTempFile("hash-sums", null);
+        ioFile.deleteOnExit();
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random().nextBytes(content);
+        Files.write(content, ioFile);
+        VirtualFile file = mockFile("/a/file", new byte[0]);
+        when(file.toIoFile()).thenReturn(ioFile);
+        VirtualFile folder = mockFolder("/a", file);
+
+        PathLockFactory lockFactory = new PathLockFactory(10);
+
+        List<Pair<String, String>> hashSums = new HashSumsCounter(folder, Hashing.md5(), null, lockFactory).countHashSums();
+
+        assertEquals(newArrayList(Pair.of(countMd5Sum(content), "file")), hashSums);
+        lockFactory.checkClean();
+    }
+
+    @Test
+    public void passesHashSumsToConsumerInOrderOfTraversal() throws Exception {
+        List<VirtualFile> files = new ArrayList<>();
+        List<Pair<String, String>> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            byte[] content = ("file" + i).getBytes();
+            files.add(mockFile("/a/b/file" + i, content));
+            expected.add(Pair.of(countMd5Sum(content), "b/file" + i));
+        }
+        VirtualFile fileA = mockFile("/a/file", "file".getBytes());
+        expected.add(Pair.of(countMd5Sum("file".getBytes()), "file"));
+        VirtualFile folder = mockFolder("/a", mockFolder("/a/b", files.toArray(new VirtualFile[files.size()])), fileA);
+
+        List<Pair<String, String>> hashSums = new ArrayList<>();
+        new HashSumsCounter(folder, Hashing.md5()).countHashSums(hashSums::add);
+
+        assertEquals(expected, hashSums);
+    }
+
+    @Test
+    public void recountsHashSumOfLocalFileChangedOnDisk() throws Exception {
+        File ioFile = File.createTempFile("hash-sums", null);
+        ioFile.deleteOnExit();
+        Files.write("file1".getBytes(), ioFile);
+        VirtualFile file = mockFile("/a/file", new byte[0]);
+        when(file.toIoFile()).thenReturn(ioFile);
+        // attributes cached by file system are not updated
+        when(file.getLength()).thenReturn(5L);
+        when(file.getLastModificationDate()).thenReturn(1000L);
+        VirtualFile folder = mockFolder("/a", file);
+        HashSumsCache cache = new HashSumsCache();
+
+        new HashSumsCounter(folder, Hashing.md5(), cache, null).countHashSums();
+        Files.write("file2".getBytes(), ioFile);
+        ioFile.setLastModified(ioFile.lastModified() + 10000);
+        List<Pair<String, String>> hashSums = new HashSumsCounter(folder, Hashing.md5(), cache, null).countHashSums();
+
+        assertEquals(newArrayList(Pair.of(countMd5Sum("file2".getBytes()), "file")), hashSums);
+    }
+
+    @Test
+    public void keepsLimitedNumberOfHashSums() throws Exception {
+        HashSumsCache cache = new HashSumsCache(100);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(Path.of("/a/file" + i), 1, 1, "hash" + i);
+        }
+
+        assertTrue(cache.size() <= 100);
+        assertEquals("hash999", cache.get(Path.of("/a/file999"), 1, 1));
+    }
+
     private String countMd5Sum(byte[] bytes) throws Exception {
         return ByteSource.wrap(bytes).hash(Hashing.md5()).toString();
     }
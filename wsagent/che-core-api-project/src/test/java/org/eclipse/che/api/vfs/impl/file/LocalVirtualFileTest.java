@@ -23,6 +23,7 @@ import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathLockFactory;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileVisitor;
@@ -50,6 +51,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
@@ -356,6 +358,66 @@ public class LocalVirtualFileTest {
         assertEquals(expectedResult, children);
     }
 
+    @Test
+    public void getsChildrenAfterFolderIsUpdatedWhenListingIsCached() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file1 = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        assertTrue(folder.toIoFile().setLastModified(System.currentTimeMillis() - 60_000));
+        assertEquals(newArrayList(file1), folder.getChildren());
+
+        VirtualFile file2 = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+
+        List<VirtualFile> expectedResult = newArrayList(file1, file2);
+        Collections.sort(expectedResult);
+        assertEquals(expectedResult, folder.getChildren());
+    }
+
+    @Test(timeout = 10_000)
+    public void getsChildrenWhileDescendantIsLockedExclusively() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch listed = new CountDownLatch(1);
+        Thread locker = new Thread(() -> {
+            PathLockFactory.PathLock lock = fileSystem.getPathLockFactory().getLock(file.getPath(), true).acquire();
+            try {
+                locked.countDown();
+                listed.await();
+            } catch (InterruptedException ignored) {
+            } finally {
+                lock.release();
+            }
+        });
+        locker.start();
+        locked.await();
+
+        try {
+            assertEquals(newArrayList(file), folder.getChildren());
+            assertEquals(newArrayList(folder), root.getChildren());
+        } finally {
+            listed.countDown();
+            locker.join();
+        }
+    }
+
+    @Test
+    public void getsActualLengthOfListedFileAfterContentIsUpdated() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        folder.createFile(generateFileName(), DEFAULT_CONTENT);
+
+        VirtualFile file = folder.getChildren().get(0);
+        assertTrue(file.isFile());
+        assertEquals(DEFAULT_CONTENT_BYTES.length, file.getLength());
+
+        file.updateContent("updated content");
+
+        assertEquals("updated content".length(), file.getLength());
+        assertEquals("updated content".length(), folder.getChildren().get(0).getLength());
+    }
+
     @Test
     public void getsChild() throws Exception {
         VirtualFile root = getRoot();
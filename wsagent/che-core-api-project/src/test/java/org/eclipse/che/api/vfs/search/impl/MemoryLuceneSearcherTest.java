@@ -12,16 +12,20 @@ package org.eclipse.che.api.vfs.search.impl;
 
 import com.google.common.base.Optional;
 
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.IndexingProgressEvent;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 
 import java.util.Collections;
@@ -30,11 +34,13 @@ import java.util.List;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class MemoryLuceneSearcherTest {
@@ -102,6 +108,84 @@ public class MemoryLuceneSearcherTest {
         assertEquals(newArrayList("/folder/zzz.txt"), paths);
     }
 
+    @Test
+    public void indexesFileTreeWithSeveralThreadsAndNotifiesAboutProgress() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 10; i++) {
+            VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder" + i);
+            for (int j = 0; j < 20; j++) {
+                folder.createFolder("sub" + j).createFile("file.txt", TEST_CONTENT[j % TEST_CONTENT.length]);
+            }
+        }
+        EventService eventService = mock(EventService.class);
+        searcher.setIndexingThreads(4);
+        searcher.setEventService(eventService);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("be"));
+        assertEquals(50, result.getTotalHits());
+        ArgumentCaptor<IndexingProgressEvent> eventCaptor = ArgumentCaptor.forClass(IndexingProgressEvent.class);
+        verify(eventService).publish(eventCaptor.capture());
+        assertTrue(eventCaptor.getValue().isDone());
+        assertEquals(200, eventCaptor.getValue().getIndexedFiles());
+    }
+
+    @Test
+    public void doesNotNotifyAboutProgressWhenFileTreeIsAddedAfterInitialization() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        EventService eventService = mock(EventService.class);
+        searcher.setEventService(eventService);
+        searcher.init(virtualFileSystem);
+        verify(eventService).publish(any(IndexingProgressEvent.class));
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+
+        searcher.add(folder);
+
+        assertEquals(newArrayList("/folder/xxx.txt"), searcher.search(new QueryExpression().setText("be")).getFilePaths());
+        verifyNoMoreInteractions(eventService);
+    }
+
+    @Test
+    public void returnsLinesThatMatchTextQuery() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFolder("folder").createFile("xxx.txt", TEST_CONTENT[0] + '\n' + TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("be"));
+
+        List<SearchOccurrence> occurrences = result.getResults().get(0).getOccurrences();
+        assertEquals(2, occurrences.size());
+        assertEquals(2, occurrences.get(0).getLineNumber());
+        assertEquals(3, occurrences.get(0).getStartColumn());
+        assertEquals(5, occurrences.get(0).getEndColumn());
+        assertEquals(TEST_CONTENT[2], occurrences.get(0).getLineContent());
+        assertEquals(16, occurrences.get(1).getStartColumn());
+    }
+
+    @Test
+    public void returnsLinesThatMatchTextQueryInLargeFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        StringBuilder content = new StringBuilder();
+        int lines = 0;
+        while (content.length() < 2 * 1024 * 1024) {
+            content.append(TEST_CONTENT[1]).append('\n');
+            lines++;
+        }
+        content.append(TEST_CONTENT[0]);
+        virtualFileSystem.getRoot().createFolder("folder").createFile("xxx.txt", content.toString());
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("spaceflight"));
+
+        List<SearchOccurrence> occurrences = result.getResults().get(0).getOccurrences();
+        assertEquals(1, occurrences.size());
+        assertEquals(lines + 1, occurrences.get(0).getLineNumber());
+        assertEquals(31, occurrences.get(0).getStartColumn());
+        assertEquals(42, occurrences.get(0).getEndColumn());
+        assertEquals(TEST_CONTENT[0], occurrences.get(0).getLineContent());
+    }
+
     @Test
     public void updatesSingleFileInIndex() throws Exception {
         VirtualFileSystem virtualFileSystem = virtualFileSystem();
@@ -284,6 +368,49 @@ public class MemoryLuceneSearcherTest {
         assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
     }
 
+    @Test
+    public void retrievesSearchResultWithPagesUsingCursor() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(10));
+        QueryExpression secondPageQueryExpression = firstPage.getNextPageQueryExpression().get();
+        assertNotNull(secondPageQueryExpression.getCursor());
+
+        SearchResult secondPage = searcher.search(secondPageQueryExpression);
+        assertEquals(10, secondPage.getFilePaths().size());
+
+        searcher.add(virtualFileSystem.getRoot().createFile("file100", TEST_CONTENT[0]));
+
+        SearchResult lastPage = searcher.search(secondPage.getNextPageQueryExpression().get().setMaxItems(100));
+        assertEquals(5, lastPage.getFilePaths().size());
+
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), secondPage.getFilePaths()));
+        assertTrue(Collections.disjoint(secondPage.getFilePaths(), lastPage.getFilePaths()));
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+    }
+
+    @Test
+    public void ignoresCursorOfAnotherQuery() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(10));
+        String cursor = firstPage.getNextPageQueryExpression().get().getCursor();
+
+        SearchResult otherText = searcher.search(new QueryExpression().setText("be").setSkipCount(10).setCursor(cursor));
+        SearchResult otherSkipCount = searcher.search(new QueryExpression().setText("spaceflight").setSkipCount(5).setCursor(cursor));
+
+        assertEquals(searcher.search(new QueryExpression().setText("be").setSkipCount(10)).getFilePaths(), otherText.getFilePaths());
+        assertEquals(searcher.search(new QueryExpression().setText("spaceflight").setSkipCount(5)).getFilePaths(),
+                     otherSkipCount.getFilePaths());
+    }
+
     private VirtualFileSystem virtualFileSystem() throws Exception {
         return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
     }
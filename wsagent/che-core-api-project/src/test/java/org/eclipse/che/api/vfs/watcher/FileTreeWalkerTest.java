@@ -16,21 +16,31 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.WatchEvent.Kind;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import static java.io.File.createTempFile;
 import static java.lang.Thread.sleep;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static org.apache.commons.io.FileUtils.write;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests for {@link FileTreeWalker}
@@ -72,9 +82,17 @@ public class FileTreeWalkerTest {
     @Mock
     Consumer<Path> directoryDeleteConsumerMock;
 
+    @Mock
+    FileWatcherService service;
+
+    BiConsumer<Path, Kind<?>> eventListener;
+
     @Before
     public void setUp() throws Exception {
+        when(service.register(any(Path.class))).thenReturn(true);
         fileTreeWalker = new FileTreeWalker(rootFolder.getRoot(),
+                                            service,
+                                            new PathIndex(),
                                             directoryUpdateConsumers,
                                             directoryCreateConsumers,
                                             directoryDeleteConsumers,
@@ -83,10 +101,14 @@ public class FileTreeWalkerTest {
                                             fileCreateConsumers,
                                             fileDeleteConsumers,
                                             fileExcludes);
+        ArgumentCaptor<BiConsumer> listenerCaptor = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(service).addEventListener(listenerCaptor.capture());
+        eventListener = listenerCaptor.getValue();
     }
 
     @After
     public void tearDown() throws Exception {
+        fileTreeWalker.stop();
         directoryUpdateConsumers.clear();
         directoryCreateConsumers.clear();
         directoryDeleteConsumers.clear();
@@ -117,7 +139,7 @@ public class FileTreeWalkerTest {
 
         write(file, TEST_FILE_CONTENT);
         sleep(FS_LATENCY_DELAY);
-        fileTreeWalker.walk();
+        eventListener.accept(file.toPath(), ENTRY_MODIFY);
 
         verify(fileUpdateConsumerMock).accept(file.toPath());
     }
@@ -132,7 +154,7 @@ public class FileTreeWalkerTest {
 
         file.delete();
         sleep(FS_LATENCY_DELAY);
-        fileTreeWalker.walk();
+        eventListener.accept(file.toPath(), ENTRY_DELETE);
 
         verify(fileDeleteConsumerMock).accept(file.toPath());
     }
@@ -155,9 +177,9 @@ public class FileTreeWalkerTest {
         sleep(FS_LATENCY_DELAY);
         fileTreeWalker.walk();
 
-        createTempFile(TEST_FILE_NAME, "", file);
+        File child = createTempFile(TEST_FILE_NAME, "", file);
         sleep(FS_LATENCY_DELAY);
-        fileTreeWalker.walk();
+        eventListener.accept(child.toPath(), ENTRY_CREATE);
 
         verify(directoryUpdateConsumerMock).accept(file.toPath());
     }
@@ -172,9 +194,10 @@ public class FileTreeWalkerTest {
 
         file.delete();
         sleep(FS_LATENCY_DELAY);
-        fileTreeWalker.walk();
+        eventListener.accept(file.toPath(), ENTRY_DELETE);
 
         verify(directoryDeleteConsumerMock).accept(file.toPath());
+        verify(service).unRegister(file.toPath());
     }
 
     @Test
@@ -198,4 +221,67 @@ public class FileTreeWalkerTest {
         fileTreeWalker.walk();
         verify(directoryCreatedConsumerMock, never()).accept(file.toPath());
     }
+
+    @Test
+    public void shouldRunFileCreatedConsumerForFilesOfCreatedDirectory() throws Exception {
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        fileTreeWalker.walk();
+
+        File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+        File file = new File(folder, TEST_FILE_NAME);
+        write(file, TEST_FILE_CONTENT);
+        eventListener.accept(folder.toPath(), ENTRY_CREATE);
+
+        verify(fileCreatedConsumerMock, timeout(1000)).accept(file.toPath());
+        verify(service).register(folder.toPath());
+    }
+
+    @Test
+    public void shouldProcessEventsReceivedWhileTreeIsWalked() throws Exception {
+        File file = rootFolder.newFile(TEST_FILE_NAME);
+        fileCreateConsumers.add(path -> {
+            file.setLastModified(file.lastModified() + 10_000);
+            eventListener.accept(path, ENTRY_MODIFY);
+        });
+        fileUpdateConsumers.add(fileUpdateConsumerMock);
+
+        fileTreeWalker.walk();
+
+        verify(fileUpdateConsumerMock).accept(file.toPath());
+    }
+
+    @Test
+    public void shouldNotRescanTreeWithoutEvents() throws Exception {
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        fileTreeWalker.walk();
+
+        File file = rootFolder.newFile(TEST_FILE_NAME);
+        fileTreeWalker.walk();
+
+        verify(fileCreatedConsumerMock, never()).accept(file.toPath());
+    }
+
+    @Test
+    public void shouldRescanDirectoryAfterEventsOverflow() throws Exception {
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        fileTreeWalker.walk();
+
+        File file = rootFolder.newFile(TEST_FILE_NAME);
+        eventListener.accept(rootFolder.getRoot().toPath(), OVERFLOW);
+        fileTreeWalker.walk();
+
+        verify(fileCreatedConsumerMock).accept(file.toPath());
+    }
+
+    @Test
+    public void shouldRescanDirectoryThatCanNotBeWatched() throws Exception {
+        when(service.register(any(Path.class))).thenReturn(false);
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        fileTreeWalker.walk();
+
+        File file = rootFolder.newFile(TEST_FILE_NAME);
+        fileTreeWalker.walk();
+
+        verify(fileCreatedConsumerMock).accept(file.toPath());
+    }
 }
@@ -61,7 +61,7 @@ public class FileWatcherServiceTest {
 
     @BeforeClass
     public void setUp() throws Exception {
-        service = new FileWatcherService(fileWatcherExcludePatternsRegistry, handler, watchService);
+        service = new FileWatcherService(fileWatcherExcludePatternsRegistry, handler, watchService, new PathIndex());
 
         service.start();
     }
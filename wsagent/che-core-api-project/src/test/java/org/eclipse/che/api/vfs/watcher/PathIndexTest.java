@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.watcher;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.Watchable;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.DIRECTORY;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.FILE;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.NOT_TRACKED;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.TREE_DIRECTORY;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.TREE_FILE;
+import static org.eclipse.che.api.vfs.watcher.PathIndex.TREE_WATCHED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link PathIndex}
+ */
+public class PathIndexTest {
+    PathIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new PathIndex();
+    }
+
+    @Test
+    public void shouldReturnPreviousModificationTimeOfTrackedPath() throws Exception {
+        Path path = Paths.get("/projects/a/src/Main.java");
+
+        assertEquals(NOT_TRACKED, index.update(path, FILE, 1));
+        assertEquals(1, index.update(path, FILE, 2));
+        assertEquals(NOT_TRACKED, index.update(path, DIRECTORY, 3));
+        assertTrue(index.contains(path, FILE));
+        assertFalse(index.contains(path.getParent(), FILE));
+    }
+
+    @Test
+    public void shouldFindPathAndItsDescendantsWithFlag() throws Exception {
+        index.update(Paths.get("/projects/a"), DIRECTORY, 0);
+        index.update(Paths.get("/projects/a/file"), FILE, 0);
+        index.update(Paths.get("/projects/a/dir/file"), FILE, 0);
+        index.update(Paths.get("/projects/a.txt"), FILE, 0);
+
+        List<Path> files = index.find(Paths.get("/projects/a"), FILE);
+
+        assertEquals(2, files.size());
+        assertTrue(files.containsAll(asList(Paths.get("/projects/a/file"), Paths.get("/projects/a/dir/file"))));
+        assertEquals(emptyList(), index.find(Paths.get("/projects/b"), FILE));
+    }
+
+    @Test
+    public void shouldRemoveUnusedPathsWithAncestors() throws Exception {
+        Path file = Paths.get("/projects/a/b/c/file");
+        index.update(Paths.get("/projects"), DIRECTORY, 0);
+        index.update(file, FILE, 0);
+
+        index.remove(file, FILE);
+
+        // '/' and '/projects'
+        assertEquals(2, index.size());
+        assertFalse(index.contains(file, FILE));
+        assertTrue(index.contains(Paths.get("/projects"), DIRECTORY));
+    }
+
+    @Test
+    public void shouldCountRegistrations() throws Exception {
+        Path dir = Paths.get("/projects/a");
+
+        assertEquals(1, index.register(dir));
+        assertEquals(2, index.register(dir));
+        assertEquals(1, index.unRegister(dir));
+        assertEquals(1, index.getRegistrations(dir));
+        assertEquals(0, index.unRegister(dir));
+        assertEquals(0, index.getRegistrations(dir));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void shouldKeepPathsConsistentAfterManyAdditionsAndRemovals() throws Exception {
+        for (int i = 0; i < 5_000; i++) {
+            index.update(Paths.get("/projects", "dir" + i % 50, "file" + i), FILE, i);
+        }
+        for (int i = 0; i < 5_000; i += 2) {
+            index.remove(Paths.get("/projects", "dir" + i % 50, "file" + i), FILE);
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            Path path = Paths.get("/projects", "dir" + i % 50, "file" + i);
+            assertEquals(i % 2 == 1, index.contains(path, FILE));
+        }
+        assertEquals(2_500, index.find(Paths.get("/projects"), FILE).size());
+    }
+
+    @Test
+    public void shouldReleaseNamesOfRemovedPaths() throws Exception {
+        index.update(Paths.get("/projects/a/src"), DIRECTORY, 0);
+        index.update(Paths.get("/projects/b/src"), DIRECTORY, 0);
+        index.update(Paths.get("/projects/b/target"), DIRECTORY, 0);
+        assertEquals(6, index.namesSize());
+
+        index.remove(Paths.get("/projects/b/target"), DIRECTORY);
+        index.remove(Paths.get("/projects/a/src"), DIRECTORY);
+        assertEquals(4, index.namesSize());
+
+        index.update(Paths.get("/projects/c/target"), DIRECTORY, 0);
+        index.remove(Paths.get("/projects/b/src"), DIRECTORY);
+        index.remove(Paths.get("/projects/c/target"), DIRECTORY);
+        assertEquals(0, index.namesSize());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void shouldKeepModificationTimesOfTreeEntriesSeparately() throws Exception {
+        Path path = Paths.get("/projects/a/src/Main.java");
+
+        index.update(path, FILE, 1);
+        assertEquals(NOT_TRACKED, index.update(path, TREE_FILE, 2));
+
+        assertEquals(1, index.getModified(path, FILE));
+        assertEquals(2, index.getModified(path, TREE_FILE));
+        assertEquals(NOT_TRACKED, index.getModified(path, DIRECTORY));
+    }
+
+    @Test
+    public void shouldListNamesOfChildrenWithFlag() throws Exception {
+        index.update(Paths.get("/projects/a/src"), TREE_DIRECTORY, 0);
+        index.update(Paths.get("/projects/a/pom.xml"), TREE_FILE, 0);
+        index.update(Paths.get("/projects/a/src/Main.java"), TREE_FILE, 0);
+        index.update(Paths.get("/projects/a/README"), FILE, 0);
+
+        assertEquals(asList("pom.xml"), index.getChildNames(Paths.get("/projects/a"), TREE_FILE));
+        assertEquals(asList("src"), index.getChildNames(Paths.get("/projects/a"), TREE_DIRECTORY));
+        assertEquals(emptyList(), index.getChildNames(Paths.get("/projects/b"), TREE_FILE));
+    }
+
+    @Test
+    public void shouldRemoveFlagFromWholeTree() throws Exception {
+        index.update(Paths.get("/projects/a"), (byte)(TREE_DIRECTORY | TREE_WATCHED), 0);
+        index.update(Paths.get("/projects/a/src"), (byte)(TREE_DIRECTORY | TREE_WATCHED), 0);
+        index.update(Paths.get("/projects/a/src/Main.java"), TREE_FILE, 0);
+        index.update(Paths.get("/projects/a/pom.xml"), FILE, 0);
+
+        index.removeTree(Paths.get("/projects/a"), (byte)(TREE_FILE | TREE_DIRECTORY | TREE_WATCHED));
+
+        assertFalse(index.contains(Paths.get("/projects/a/src"), TREE_WATCHED));
+        assertFalse(index.contains(Paths.get("/projects/a/src/Main.java"), TREE_FILE));
+        assertTrue(index.contains(Paths.get("/projects/a/pom.xml"), FILE));
+
+        index.remove(Paths.get("/projects/a/pom.xml"), FILE);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void shouldKeepWatchKeyWhileDirectoryIsRegistered() throws Exception {
+        Path dir = Paths.get("/projects/a");
+        WatchKey watchKey = new TestWatchKey();
+
+        index.register(dir);
+        index.register(dir);
+        index.setWatchKey(dir, watchKey);
+
+        assertSame(watchKey, index.getWatchKey(dir));
+        assertEquals(asList(watchKey), index.getWatchKeys());
+        assertEquals(1, index.unRegister(dir));
+        assertSame(watchKey, index.getWatchKey(dir));
+        assertEquals(0, index.unRegister(dir));
+        assertNull(index.getWatchKey(dir));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void shouldRemoveRegistrationsOnlyForCurrentWatchKey() throws Exception {
+        Path dir = Paths.get("/projects/a");
+        WatchKey watchKey = new TestWatchKey();
+        index.register(dir);
+        index.setWatchKey(dir, watchKey);
+
+        assertFalse(index.removeRegistrations(dir, new TestWatchKey()));
+        assertEquals(1, index.getRegistrations(dir));
+        assertTrue(index.removeRegistrations(dir, watchKey));
+        assertEquals(0, index.getRegistrations(dir));
+        assertNull(index.getWatchKey(dir));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotSetWatchKeyOfUnregisteredDirectory() throws Exception {
+        index.setWatchKey(Paths.get("/projects/a"), new TestWatchKey());
+    }
+
+    private static class TestWatchKey implements WatchKey {
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public List<WatchEvent<?>> pollEvents() {
+            return emptyList();
+        }
+
+        @Override
+        public boolean reset() {
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public Watchable watchable() {
+            return null;
+        }
+    }
+}
@@ -11,6 +11,10 @@
 package org.eclipse.che.api.environment.server;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
 
 import org.eclipse.che.api.agent.server.AgentRegistry;
 import org.eclipse.che.api.agent.server.exception.AgentException;
@@ -35,7 +39,7 @@ import org.eclipse.che.api.core.util.AbstractLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.MessageConsumer;
 import org.eclipse.che.api.core.util.lineconsumer.ConcurrentCompositeLineConsumer;
-import org.eclipse.che.api.core.util.lineconsumer.ConcurrentFileLineConsumer;
+import org.eclipse.che.api.core.util.lineconsumer.GroupCommitFileLineConsumer;
 import org.eclipse.che.api.environment.server.exception.EnvironmentException;
 import org.eclipse.che.api.environment.server.exception.EnvironmentNotRunningException;
 import org.eclipse.che.api.environment.server.exception.EnvironmentStartInterruptedException;
@@ -67,28 +71,37 @@ import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Size;
 import org.eclipse.che.commons.lang.concurrent.StripedLocks;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
 import org.slf4j.Logger;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import javax.inject.Inject;
-import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.che.api.machine.server.event.InstanceStateEvent.Type.DIE;
 import static org.eclipse.che.api.machine.server.event.InstanceStateEvent.Type.OOM;
@@ -108,6 +121,8 @@ public class CheEnvironmentEngine {
     private static final NoOpStartedHandler NO_OP_HANDLER = new NoOpStartedHandler();
     private static final Logger             LOG           = getLogger(CheEnvironmentEngine.class);
 
+    private static final int DEFAULT_MACHINE_START_THREADS = 10;
+
     private final Map<String, EnvironmentHolder> environments;
     private final StripedLocks                   stripedLocks;
     private final File                           machineLogsDir;
@@ -125,6 +140,24 @@ public class CheEnvironmentEngine {
     private final AgentRegistry                  agentRegistry;
     private final WorkspaceSharedPool            sharedPool;
 
+    @Inject(optional = true)
+    @Named("che.workspace.logs.flush_threshold")
+    private int logsFlushThreshold = GroupCommitFileLineConsumer.DEFAULT_FLUSH_THRESHOLD;
+
+    @Inject(optional = true)
+    @Named("che.workspace.logs.flush_interval_ms")
+    private long logsFlushIntervalMs = GroupCommitFileLineConsumer.DEFAULT_FLUSH_INTERVAL_MS;
+
+    @Inject(optional = true)
+    @Named("che.workspace.logs.max_file_size")
+    private long logsMaxFileSize = GroupCommitFileLineConsumer.DEFAULT_MAX_FILE_SIZE;
+
+    @Inject(optional = true)
+    @Named("che.workspace.machine_start.threads")
+    private int machineStartThreads = DEFAULT_MACHINE_START_THREADS;
+
+    private ExecutorService machineStartExecutor;
+
     private volatile boolean isPreDestroyInvoked;
 
     @Inject
@@ -579,11 +612,11 @@ public class CheEnvironmentEngine {
                   workspaceId,
                   internalEnv);
 
-        List<String> servicesOrder = startStrategy.order(internalEnv);
+        List<List<String>> startLevels = startStrategy.orderByLevels(internalEnv);
 
         normalizeNames(internalEnv);
 
-        EnvironmentHolder environmentHolder = new EnvironmentHolder(servicesOrder,
+        EnvironmentHolder environmentHolder = new EnvironmentHolder(startLevels,
                                                                     internalEnv,
                                                                     envConfig,
                                                                     messageConsumer,
@@ -734,9 +767,9 @@ public class CheEnvironmentEngine {
             throws ServerException,
                    AgentException,
                    EnvironmentException {
-        // Starting all machines in environment one by one by getting configs
-        // from the corresponding starting queue.
-        // Config will be null only if there are no machines left in the queue
+        // Starting machines of the environment level by level, machines of the same
+        // level don't depend on each other and are started simultaneously.
+        // Level will be null only if there are no machines left to start
         String envName;
         MessageConsumer<MachineLogMessage> envLogger;
         String creator = EnvironmentContext.getCurrent().getSubject().getUserId();
@@ -749,124 +782,27 @@ public class CheEnvironmentEngine {
             envLogger = environmentHolder.logger;
         }
 
+        EnvironmentStarter starter = new EnvironmentStarter(ownerName,
+                                                            workspaceId,
+                                                            envName,
+                                                            devMachineName,
+                                                            networkId,
+                                                            creator,
+                                                            envLogger,
+                                                            recover,
+                                                            startedHandler);
         try {
             machineProvider.createNetwork(networkId);
 
-            String machineName = queuePeekOrFail(workspaceId);
-            while (machineName != null) {
-                boolean isDev = devMachineName.equals(machineName);
-                // Environment start is failed when any machine start is failed, so if any error
-                // occurs during machine creation then environment start fail is reported and
-                // start resources such as queue and descriptor must be cleaned up
-
-                CheServiceImpl service;
-                @Nullable ExtendedMachine extendedMachine;
-                try (@SuppressWarnings("unused") Unlocker u = stripedLocks.readLock(workspaceId)) {
-                    EnvironmentHolder environmentHolder = environments.get(workspaceId);
-                    if (environmentHolder == null) {
-                        throw new EnvironmentStartInterruptedException(workspaceId, envName);
-                    }
-                    service = environmentHolder.environment.getServices().get(machineName);
-                    extendedMachine = environmentHolder.environmentConfig.getMachines().get(machineName);
-                }
-                // should not happen
-                if (service == null) {
-                    LOG.error("Start of machine with name {} in workspace {} failed. Machine not found in start queue",
-                              machineName, workspaceId);
-                    throw new ServerException(
-                            format("Environment of workspace with ID '%s' failed due to internal error", workspaceId));
-                }
-
-                final String finalMachineName = machineName;
-                // needed to reuse startInstance method and
-                // create machine instances by different implementation-specific providers
-                MachineStarter machineStarter = (machineLogger, machineSource) -> {
-                    CheServiceImpl serviceWithNormalizedSource = normalizeServiceSource(service, machineSource);
-                    return machineProvider.startService(ownerName,
-                                                        workspaceId,
-                                                        envName,
-                                                        finalMachineName,
-                                                        isDev,
-                                                        networkId,
-                                                        serviceWithNormalizedSource,
-                                                        machineLogger);
-                };
-
-                MachineImpl machine =
-                        MachineImpl.builder()
-                                   .setConfig(MachineConfigImpl.builder()
-                                                               .setDev(isDev)
-                                                               .setLimits(new MachineLimitsImpl(
-                                                                       bytesToMB(service.getMemLimit())))
-                                                               .setType("docker")
-                                                               .setName(machineName)
-                                                               .setEnvVariables(service.getEnvironment())
-                                                               .build())
-                                   .setId(service.getId())
-                                   .setWorkspaceId(workspaceId)
-                                   .setStatus(MachineStatus.CREATING)
-                                   .setEnvName(envName)
-                                   .setOwner(creator)
-                                   .build();
-
-                checkInterruption(workspaceId, envName);
-                Instance instance = startInstance(recover,
-                                                  envLogger,
-                                                  machine,
-                                                  machineStarter);
-                checkInterruption(workspaceId, envName);
-
-                startedHandler.started(instance, extendedMachine);
-                checkInterruption(workspaceId, envName);
-
-                // Machine destroying is an expensive operation which must be
-                // performed outside of the lock, this section checks if
-                // the environment wasn't stopped while it is starting and sets
-                // polled flag to true if the environment wasn't stopped.
-                // Also polls the proceeded machine configuration from the queue
-                boolean queuePolled = false;
-                try (@SuppressWarnings("unused") Unlocker u = stripedLocks.writeLock(workspaceId)) {
-                    ensurePreDestroyIsNotExecuted();
-                    EnvironmentHolder environmentHolder = environments.get(workspaceId);
-                    if (environmentHolder != null) {
-                        final Queue<String> queue = environmentHolder.startQueue;
-                        if (queue != null) {
-                            queue.poll();
-                            queuePolled = true;
-                        }
-                    }
-                }
-
-                // If machine config is not polled from the queue
-                // then environment was stopped and newly created machine
-                // must be destroyed
-                if (!queuePolled) {
-                    try {
-                        eventService.publish(newDto(MachineStatusEvent.class)
-                                                     .withEventType(MachineStatusEvent.EventType.DESTROYING)
-                                                     .withDev(isDev)
-                                                     .withMachineName(machineName)
-                                                     .withMachineId(instance.getId())
-                                                     .withWorkspaceId(workspaceId));
-
-                        instance.destroy();
-
-                        removeMachine(workspaceId, instance.getId());
-
-                        eventService.publish(newDto(MachineStatusEvent.class)
-                                                     .withEventType(MachineStatusEvent.EventType.DESTROYED)
-                                                     .withDev(isDev)
-                                                     .withMachineName(machineName)
-                                                     .withMachineId(instance.getId())
-                                                     .withWorkspaceId(workspaceId));
-                    } catch (MachineException e) {
-                        LOG.error(e.getLocalizedMessage(), e);
-                    }
-                    throw new ServerException("Workspace '" + workspaceId +
-                                              "' start interrupted. Workspace stopped before all its machines started");
+            int level = 0;
+            List<String> machineNames = levelOrFail(workspaceId, level);
+            while (machineNames != null) {
+                if (machineNames.size() == 1) {
+                    starter.start(machineNames.get(0));
+                } else {
+                    startInParallel(starter, machineNames);
                 }
-
-                machineName = queuePeekOrFail(workspaceId);
+                machineNames = levelOrFail(workspaceId, ++level);
             }
         } catch (Exception e) {
             boolean interrupted = Thread.interrupted();
@@ -1013,6 +949,154 @@ public class CheEnvironmentEngine {
         }
     }
 
+    /**
+     * Starts machines of the environment, is used by start of machines one by one and in parallel.
+     */
+    private class EnvironmentStarter {
+        final String                             ownerName;
+        final String                             workspaceId;
+        final String                             envName;
+        final String                             devMachineName;
+        final String                             networkId;
+        final String                             creator;
+        final MessageConsumer<MachineLogMessage> envLogger;
+        final boolean                            recover;
+        final MachineStartedHandler              startedHandler;
+
+        EnvironmentStarter(String ownerName,
+                           String workspaceId,
+                           String envName,
+                           String devMachineName,
+                           String networkId,
+                           String creator,
+                           MessageConsumer<MachineLogMessage> envLogger,
+                           boolean recover,
+                           MachineStartedHandler startedHandler) {
+            this.ownerName = ownerName;
+            this.workspaceId = workspaceId;
+            this.envName = envName;
+            this.devMachineName = devMachineName;
+            this.networkId = networkId;
+            this.creator = creator;
+            this.envLogger = envLogger;
+            this.recover = recover;
+            this.startedHandler = startedHandler;
+        }
+
+        void start(String machineName) throws ServerException, AgentException, EnvironmentException {
+            boolean isDev = devMachineName.equals(machineName);
+            // Environment start is failed when any machine start is failed, so if any error
+            // occurs during machine creation then environment start fail is reported and
+            // start resources such as queue and descriptor must be cleaned up
+
+            CheServiceImpl service;
+            @Nullable ExtendedMachine extendedMachine;
+            try (@SuppressWarnings("unused") Unlocker u = stripedLocks.readLock(workspaceId)) {
+                EnvironmentHolder environmentHolder = environments.get(workspaceId);
+                if (environmentHolder == null) {
+                    throw new EnvironmentStartInterruptedException(workspaceId, envName);
+                }
+                service = environmentHolder.environment.getServices().get(machineName);
+                extendedMachine = environmentHolder.environmentConfig.getMachines().get(machineName);
+            }
+            // should not happen
+            if (service == null) {
+                LOG.error("Start of machine with name {} in workspace {} failed. Machine not found in start queue",
+                          machineName, workspaceId);
+                throw new ServerException(
+                        format("Environment of workspace with ID '%s' failed due to internal error", workspaceId));
+            }
+
+            // needed to reuse startInstance method and
+            // create machine instances by different implementation-specific providers
+            MachineStarter machineStarter = (machineLogger, machineSource) -> {
+                CheServiceImpl serviceWithNormalizedSource = normalizeServiceSource(service, machineSource);
+                return machineProvider.startService(ownerName,
+                                                    workspaceId,
+                                                    envName,
+                                                    machineName,
+                                                    isDev,
+                                                    networkId,
+                                                    serviceWithNormalizedSource,
+                                                    machineLogger);
+            };
+
+            MachineImpl machine =
+                    MachineImpl.builder()
+                               .setConfig(MachineConfigImpl.builder()
+                                                           .setDev(isDev)
+                                                           .setLimits(new MachineLimitsImpl(
+                                                                   bytesToMB(service.getMemLimit())))
+                                                           .setType("docker")
+                                                           .setName(machineName)
+                                                           .setEnvVariables(service.getEnvironment())
+                                                           .build())
+                               .setId(service.getId())
+                               .setWorkspaceId(workspaceId)
+                               .setStatus(MachineStatus.CREATING)
+                               .setEnvName(envName)
+                               .setOwner(creator)
+                               .build();
+
+            checkInterruption(workspaceId, envName);
+            Instance instance = startInstance(recover,
+                                              envLogger,
+                                              machine,
+                                              machineStarter);
+            checkInterruption(workspaceId, envName);
+
+            startedHandler.started(instance, extendedMachine);
+            checkInterruption(workspaceId, envName);
+
+            // Machine destroying is an expensive operation which must be
+            // performed outside of the lock, this section checks if
+            // the environment wasn't stopped while it is starting and sets
+            // polled flag to true if the environment wasn't stopped.
+            // Also removes the proceeded machine from the queue
+            boolean queuePolled = false;
+            try (@SuppressWarnings("unused") Unlocker u = stripedLocks.writeLock(workspaceId)) {
+                ensurePreDestroyIsNotExecuted();
+                EnvironmentHolder environmentHolder = environments.get(workspaceId);
+                if (environmentHolder != null) {
+                    final Queue<String> queue = environmentHolder.startQueue;
+                    if (queue != null) {
+                        queue.remove(machineName);
+                        queuePolled = true;
+                    }
+                }
+            }
+
+            // If machine is not removed from the queue
+            // then environment was stopped and newly created machine
+            // must be destroyed
+            if (!queuePolled) {
+                try {
+                    eventService.publish(newDto(MachineStatusEvent.class)
+                                                 .withEventType(MachineStatusEvent.EventType.DESTROYING)
+                                                 .withDev(isDev)
+                                                 .withMachineName(machineName)
+                                                 .withMachineId(instance.getId())
+                                                 .withWorkspaceId(workspaceId));
+
+                    instance.destroy();
+
+                    removeMachine(workspaceId, instance.getId());
+
+                    eventService.publish(newDto(MachineStatusEvent.class)
+                                                 .withEventType(MachineStatusEvent.EventType.DESTROYED)
+                                                 .withDev(isDev)
+                                                 .withMachineName(machineName)
+                                                 .withMachineId(instance.getId())
+                                                 .withWorkspaceId(workspaceId));
+                } catch (MachineException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+                throw new ServerException("Workspace '" + workspaceId +
+                                          "' start interrupted. Workspace stopped before all its machines started");
+            }
+        }
+    }
+
     private interface MachineStarter {
         Instance startMachine(LineConsumer machineLogger,
                               MachineSource machineSource) throws ServerException,
@@ -1123,21 +1207,21 @@ public class CheEnvironmentEngine {
     }
 
     /**
-     * Gets head config from the queue associated with the given {@code workspaceId}.
+     * Gets names of the machines of the start level with the given index.
      *
-     * <p>Note that this method won't actually poll the queue.
+     * <p>Machines of the same level don't depend on each other and may be started simultaneously.
      *
      * <p>Fails if environment start was interrupted by stop(queue doesn't exist).
      *
-     * @return machine config which is in the queue head, or null
-     * if there are no machine configs left
+     * @return names of the machines of the level, or null
+     * if there are no levels left
      * @throws ServerException
      *         if queue doesn't exist which means that {@link #stop(String)} executed
      *         before all the machines started
      * @throws ServerException
-     *         if pre destroy has been invoked before peek config retrieved
+     *         if pre destroy has been invoked before level retrieved
      */
-    private String queuePeekOrFail(String workspaceId) throws ServerException {
+    private List<String> levelOrFail(String workspaceId, int level) throws ServerException {
         try (@SuppressWarnings("unused") Unlocker u = stripedLocks.readLock(workspaceId)) {
             ensurePreDestroyIsNotExecuted();
             EnvironmentHolder environmentHolder = environments.get(workspaceId);
@@ -1145,10 +1229,124 @@ public class CheEnvironmentEngine {
                 throw new ServerException("Workspace " + workspaceId +
                                           " start interrupted. Workspace was stopped before all its machines were started");
             }
-            return environmentHolder.startQueue.peek();
+            return level < environmentHolder.startLevels.size() ? environmentHolder.startLevels.get(level) : null;
         }
     }
 
+    /**
+     * Starts machines which don't depend on each other simultaneously.
+     *
+     * <p>The first machine is started in the calling thread, the others in the {@link #getMachineStartExecutor() pool}.
+     * When any machine start fails the others are interrupted, the method returns only when all the
+     * started tasks are finished, so the environment can be safely cleaned up after that.
+     */
+    private void startInParallel(EnvironmentStarter starter, List<String> machineNames) throws ServerException,
+                                                                                               AgentException,
+                                                                                               EnvironmentException {
+        final CountDownLatch finished = new CountDownLatch(machineNames.size() - 1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Set<Thread> threads = new HashSet<>();
+        final Runnable interruptAll = () -> {
+            synchronized (threads) {
+                threads.forEach(Thread::interrupt);
+            }
+        };
+
+        final ExecutorService executor = getMachineStartExecutor();
+        for (String machineName : machineNames.subList(1, machineNames.size())) {
+            try {
+                executor.execute(ThreadLocalPropagateContext.wrap(() -> {
+                    synchronized (threads) {
+                        threads.add(Thread.currentThread());
+                    }
+                    try {
+                        if (failure.get() == null) {
+                            starter.start(machineName);
+                        }
+                    } catch (Exception e) {
+                        final Exception cause = Thread.interrupted() ? new EnvironmentStartInterruptedException(starter.workspaceId,
+                                                                                                                starter.envName)
+                                                                     : e;
+                        if (failure.compareAndSet(null, cause)) {
+                            interruptAll.run();
+                        }
+                    } finally {
+                        synchronized (threads) {
+                            threads.remove(Thread.currentThread());
+                            Thread.interrupted();
+                        }
+                        finished.countDown();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                failure.compareAndSet(null, new ServerException("Machine start rejected, server is overloaded"));
+                finished.countDown();
+            }
+        }
+
+        final Thread current = Thread.currentThread();
+        synchronized (threads) {
+            threads.add(current);
+        }
+        boolean failedFirst = false;
+        try {
+            if (failure.get() == null) {
+                starter.start(machineNames.get(0));
+            }
+        } catch (ServerException | AgentException | EnvironmentException | RuntimeException e) {
+            failedFirst = failure.compareAndSet(null, e);
+        } finally {
+            synchronized (threads) {
+                threads.remove(current);
+                // interruption caused by failure of another machine is not the caller's interruption
+                if (failure.get() != null && !failedFirst) {
+                    Thread.interrupted();
+                }
+            }
+        }
+        if (failedFirst) {
+            interruptAll.run();
+        }
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, new EnvironmentStartInterruptedException(starter.workspaceId, starter.envName));
+            interruptAll.run();
+            Uninterruptibles.awaitUninterruptibly(finished);
+            current.interrupt();
+        }
+
+        final Exception e = failure.get();
+        if (e instanceof ServerException) {
+            throw (ServerException)e;
+        } else if (e instanceof AgentException) {
+            throw (AgentException)e;
+        } else if (e instanceof EnvironmentException) {
+            throw (EnvironmentException)e;
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException)e;
+        } else if (e != null) {
+            throw new ServerException(e.getLocalizedMessage(), e);
+        }
+    }
+
+    private synchronized ExecutorService getMachineStartExecutor() {
+        if (machineStartExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(machineStartThreads,
+                                                                 machineStartThreads,
+                                                                 60L,
+                                                                 TimeUnit.SECONDS,
+                                                                 new LinkedBlockingQueue<>(),
+                                                                 new ThreadFactoryBuilder().setNameFormat("MachineStarter-%d")
+                                                                                           .setDaemon(true)
+                                                                                           .build());
+            executor.allowCoreThreadTimeOut(true);
+            machineStartExecutor = executor;
+        }
+        return machineStartExecutor;
+    }
+
     /**
      * Destroys provided machines and associated network.
      */
@@ -1209,6 +1407,11 @@ public class CheEnvironmentEngine {
     @SuppressWarnings("unused")
     void cleanup() {
         isPreDestroyInvoked = true;
+        synchronized (this) {
+            if (machineStartExecutor != null) {
+                machineStartExecutor.shutdownNow();
+            }
+        }
         final java.io.File[] files = machineLogsDir.listFiles();
         if (files != null && files.length > 0) {
             for (java.io.File f : files) {
@@ -1231,7 +1434,10 @@ public class CheEnvironmentEngine {
             }
         };
         try {
-            return new ConcurrentCompositeLineConsumer(new ConcurrentFileLineConsumer(getMachineLogsFile(machineId)),
+            return new ConcurrentCompositeLineConsumer(new GroupCommitFileLineConsumer(getMachineLogsFile(machineId),
+                                                                                       logsFlushThreshold,
+                                                                                       logsFlushIntervalMs,
+                                                                                       logsMaxFileSize),
                                                        lineConsumer);
         } catch (IOException e) {
             throw new MachineException(format("Unable create log file '%s' for machine '%s'.",
@@ -1319,6 +1525,7 @@ public class CheEnvironmentEngine {
     }
 
     private static class EnvironmentHolder {
+        final List<List<String>>                 startLevels;
         final Queue<String>                      startQueue;
         final CheServicesEnvironmentImpl         environment;
         final MessageConsumer<MachineLogMessage> logger;
@@ -1329,14 +1536,17 @@ public class CheEnvironmentEngine {
         List<Instance> machines;
         EnvStatus      status;
 
-        EnvironmentHolder(List<String> startQueue,
+        EnvironmentHolder(List<List<String>> startLevels,
                           CheServicesEnvironmentImpl environment,
                           Environment environmentConfig,
                           MessageConsumer<MachineLogMessage> envLogger,
                           EnvStatus envStatus,
                           String name,
                           String networkId) {
-            this.startQueue = new ArrayDeque<>(startQueue);
+            this.startLevels = startLevels;
+            this.startQueue = startLevels.stream()
+                                         .flatMap(List::stream)
+                                         .collect(toCollection(ArrayDeque::new));
             this.machines = new CopyOnWriteArrayList<>();
             this.logger = envLogger;
             this.status = envStatus;
@@ -16,12 +16,14 @@ import com.google.common.collect.Sets;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.environment.server.model.CheServicesEnvironmentImpl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -46,6 +48,24 @@ public class DefaultServicesStartStrategy {
         return sortByWeight(weights);
     }
 
+    /**
+     * Resolves groups of machines in an environment which can be started at once.
+     * Machines of the same group don't depend on each other, each of them depends only
+     * on machines of the previous groups.
+     *
+     * @throws IllegalArgumentException
+     *         if order of machines can not be calculated
+     */
+    public List<List<String>> orderByLevels(CheServicesEnvironmentImpl composeEnvironment) throws IllegalArgumentException {
+        Map<String, Integer> weights = weightMachines(composeEnvironment.getServices());
+
+        TreeMap<Integer, List<String>> levels = new TreeMap<>();
+        for (String service : sortByWeight(weights)) {
+            levels.computeIfAbsent(weights.get(service), weight -> new ArrayList<>()).add(service);
+        }
+        return new ArrayList<>(levels.values());
+    }
+
     /**
      * Returns mapping of names of machines to its weights in dependency graph.
      *
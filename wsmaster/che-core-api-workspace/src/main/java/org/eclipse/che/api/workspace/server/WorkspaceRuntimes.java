@@ -12,6 +12,8 @@ package org.eclipse.che.api.workspace.server;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
 
 import org.eclipse.che.api.agent.server.AgentRegistry;
 import org.eclipse.che.api.agent.server.exception.AgentException;
@@ -47,12 +49,14 @@ import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent.EventType;
 import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.lang.concurrent.StripedLocks;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.slf4j.Logger;
 
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -68,11 +72,15 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -107,6 +115,17 @@ public class WorkspaceRuntimes {
 
     private static final Logger LOG = getLogger(WorkspaceRuntimes.class);
 
+    /**
+     * Agent property which tells whether the agent installs packages with a system package manager
+     * without waiting for other installations in the machine, when it is absent the agent script is
+     * checked for package manager calls. Bundled agents take turns at installing packages by means
+     * of a lock in the machine, so they set it to {@code false} and are launched simultaneously.
+     */
+    public static final String INSTALLS_PACKAGES_PROPERTY = "installsPackages";
+
+    private static final Pattern PACKAGE_MANAGER_CALL         = Pattern.compile("\\b(apt-get|yum|dnf|zypper|apk)\\b");
+    private static final int     DEFAULT_AGENT_LAUNCH_THREADS = 10;
+
     private final ConcurrentMap<String, RuntimeState> states;
     private final EventService                        eventsService;
     private final StripedLocks                        locks;
@@ -121,6 +140,12 @@ public class WorkspaceRuntimes {
     private final AtomicBoolean         isStartRefused        = new AtomicBoolean(false);
     private final MachineAgentsLauncher machineAgentsLauncher = new MachineAgentsLauncher();
 
+    @Inject(optional = true)
+    @Named("che.workspace.agent_launch.threads")
+    private int agentLaunchThreads = DEFAULT_AGENT_LAUNCH_THREADS;
+
+    private ExecutorService agentsLaunchPool;
+
     @Inject
     public WorkspaceRuntimes(EventService eventsService,
                              CheEnvironmentEngine envEngine,
@@ -605,6 +630,34 @@ public class WorkspaceRuntimes {
         return isStartRefused.compareAndSet(false, true);
     }
 
+    private synchronized ExecutorService getAgentsLaunchPool() {
+        if (agentsLaunchPool == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(agentLaunchThreads,
+                                                             agentLaunchThreads,
+                                                             60L,
+                                                             TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<>(),
+                                                             new ThreadFactoryBuilder().setNameFormat("AgentsLaunchPool-%d")
+                                                                                       .setUncaughtExceptionHandler(
+                                                                                               LoggingUncaughtExceptionHandler
+                                                                                                       .getInstance())
+                                                                                       .setDaemon(true)
+                                                                                       .build());
+            pool.allowCoreThreadTimeOut(true);
+            agentsLaunchPool = pool;
+        }
+        return agentsLaunchPool;
+    }
+
+    /** Interrupts agents launches which are still in progress and releases the agents launching pool. */
+    @PreDestroy
+    @VisibleForTesting
+    synchronized void shutdownAgentsLaunchPool() {
+        if (agentsLaunchPool != null) {
+            agentsLaunchPool.shutdownNow();
+        }
+    }
+
     /**
      * Terminates workspace runtimes service, so no more workspaces are allowed to start
      * or to be stopped directly, all the running workspaces are going to be stopped,
@@ -686,15 +739,118 @@ public class WorkspaceRuntimes {
         return state;
     }
 
+    /**
+     * Launches agents level by level, agents of the same level don't depend
+     * on each other so they are launched simultaneously, except the agents which
+     * install packages without guarding the installation, those are launched one by one
+     * as package managers hold exclusive locks on their databases and fail concurrent installations.
+     */
     protected void launchAgents(Instance instance, List<String> agents) throws ServerException, AgentException {
-        for (AgentKey agentKey : agentSorter.sort(agents)) {
-            if (!Thread.currentThread().isInterrupted()) {
-                LOG.info("Launching '{}' agent at workspace {}", agentKey.getId(), instance.getWorkspaceId());
-                Agent agent = agentRegistry.getAgent(agentKey);
-                AgentLauncher launcher = launcherFactory.find(agentKey.getId(), instance.getConfig().getType());
-                launcher.launch(instance, agent);
+        for (List<AgentKey> level : agentSorter.sortByLevels(agents)) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            List<List<AgentKey>> sequences = splitIntoSequences(level);
+            if (sequences.size() == 1) {
+                launchAgentsSequentially(instance, sequences.get(0));
+            } else {
+                launchAgentsInParallel(instance, sequences);
+            }
+        }
+    }
+
+    /**
+     * Splits agents of one level into sequences which can be launched simultaneously,
+     * all the agents installing packages go to a single sequence, each other agent gets its own.
+     */
+    private List<List<AgentKey>> splitIntoSequences(List<AgentKey> level) throws AgentException {
+        List<List<AgentKey>> sequences = new ArrayList<>(level.size());
+        List<AgentKey> installingPackages = new ArrayList<>();
+        for (AgentKey agentKey : level) {
+            if (installsPackages(agentRegistry.getAgent(agentKey))) {
+                installingPackages.add(agentKey);
+            } else {
+                sequences.add(Collections.singletonList(agentKey));
             }
         }
+        if (!installingPackages.isEmpty()) {
+            sequences.add(0, installingPackages);
+        }
+        return sequences;
+    }
+
+    private static boolean installsPackages(Agent agent) {
+        String property = agent.getProperties() == null ? null : agent.getProperties().get(INSTALLS_PACKAGES_PROPERTY);
+        if (property != null) {
+            return Boolean.parseBoolean(property);
+        }
+        return agent.getScript() != null && PACKAGE_MANAGER_CALL.matcher(agent.getScript()).find();
+    }
+
+    private void launchAgentsSequentially(Instance instance, List<AgentKey> agentKeys) throws ServerException, AgentException {
+        for (AgentKey agentKey : agentKeys) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            launchAgent(instance, agentKey);
+        }
+    }
+
+    private void launchAgent(Instance instance, AgentKey agentKey) throws ServerException, AgentException {
+        LOG.info("Launching '{}' agent at workspace {}", agentKey.getId(), instance.getWorkspaceId());
+        Agent agent = agentRegistry.getAgent(agentKey);
+        AgentLauncher launcher = launcherFactory.find(agentKey.getId(), instance.getConfig().getType());
+        launcher.launch(instance, agent);
+    }
+
+    /**
+     * Launches the first sequence of agents in the calling thread and the others in the agents launching pool.
+     * If any launch fails or the calling thread is interrupted the other launches are cancelled.
+     */
+    private void launchAgentsInParallel(Instance instance, List<List<AgentKey>> sequences) throws ServerException, AgentException {
+        ExecutorService pool = getAgentsLaunchPool();
+        List<Future<?>> launches = new ArrayList<>(sequences.size() - 1);
+        for (List<AgentKey> sequence : sequences.subList(1, sequences.size())) {
+            launches.add(pool.submit(ThreadLocalPropagateContext.wrap(() -> {
+                launchAgentsSequentially(instance, sequence);
+                return null;
+            })));
+        }
+
+        Exception failure = null;
+        try {
+            launchAgentsSequentially(instance, sequences.get(0));
+        } catch (ServerException | AgentException | RuntimeException x) {
+            failure = x;
+            launches.forEach(future -> future.cancel(true));
+        }
+        for (Future<?> launch : launches) {
+            try {
+                launch.get();
+            } catch (CancellationException ignored) {
+                // failure is already recorded
+            } catch (ExecutionException x) {
+                if (failure == null) {
+                    failure = x.getCause() instanceof Exception ? (Exception)x.getCause()
+                                                                : new ServerException(x.getCause().getMessage(), x.getCause());
+                    launches.forEach(future -> future.cancel(true));
+                }
+            } catch (InterruptedException x) {
+                launches.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (failure instanceof ServerException) {
+            throw (ServerException)failure;
+        } else if (failure instanceof AgentException) {
+            throw (AgentException)failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException)failure;
+        } else if (failure != null) {
+            throw new ServerException(failure.getMessage(), failure);
+        }
     }
 
     /**
@@ -13,8 +13,8 @@ package org.eclipse.che.api.workspace.server.event;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.AsyncEventSubscriber;
 import org.eclipse.che.api.core.notification.EventService;
-import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
@@ -31,11 +31,13 @@ import static org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent.Ev
 
 /**
  * The class listens changing of machine status and perform some actions when status is changed.
+ * Events are handled asynchronously, so stopping of a workspace does not delay the publisher
+ * of the event, events of the same workspace are handled in order they were published.
  *
  * @author Dmitry Shnurenko
  */
 @Singleton
-public class MachineStateListener implements EventSubscriber<MachineStatusEvent> {
+public class MachineStateListener implements AsyncEventSubscriber<MachineStatusEvent> {
     private static final Logger LOG = LoggerFactory.getLogger(MachineStateListener.class);
 
     private final WorkspaceManager workspaceManager;
@@ -66,6 +68,11 @@ public class MachineStateListener implements EventSubscriber<MachineStatusEvent>
         }
     }
 
+    @Override
+    public Object getPartitionKey(MachineStatusEvent event) {
+        return event.getWorkspaceId();
+    }
+
     @PostConstruct
     private void subscribe() {
         eventService.subscribe(this);
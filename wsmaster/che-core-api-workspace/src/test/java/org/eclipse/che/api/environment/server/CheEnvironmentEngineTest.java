@@ -71,6 +71,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
@@ -95,6 +99,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertEqualsNoOrder;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -230,7 +235,7 @@ public class CheEnvironmentEngineTest {
         EnvironmentImpl env = createEnv();
         String envName = "env-1";
         String workspaceId = "wsId";
-        List<Instance> expectedMachines = new ArrayList<>();
+        List<Instance> expectedMachines = new CopyOnWriteArrayList<>();
         when(machineProvider.startService(anyString(),
                                           eq(workspaceId),
                                           eq(envName),
@@ -264,7 +269,7 @@ public class CheEnvironmentEngineTest {
                                                startedHandler);
 
         // then
-        assertEquals(machines, expectedMachines);
+        assertEqualsNoOrder(machines.toArray(), expectedMachines.toArray());
         for (Instance expectedMachine : expectedMachines) {
             verify(startedHandler).started(eq(expectedMachine), any(ExtendedMachine.class));
         }
@@ -277,8 +282,8 @@ public class CheEnvironmentEngineTest {
         String envName = "env-1";
         String workspaceId = "wsId";
 
-        int[] counter = new int[] {env.getMachines().size()};
-        ArrayList<Instance> created = new ArrayList<>();
+        AtomicInteger counter = new AtomicInteger(env.getMachines().size());
+        List<Instance> created = new CopyOnWriteArrayList<>();
         when(machineProvider.startService(anyString(),
                                           eq(workspaceId),
                                           eq(envName),
@@ -289,7 +294,7 @@ public class CheEnvironmentEngineTest {
                                           any(LineConsumer.class)))
                 .thenAnswer(invocationOnMock -> {
                     // interrupt when the last machine from environment is started
-                    if (--counter[0] == 0) {
+                    if (counter.decrementAndGet() == 0) {
                         Thread.currentThread().interrupt();
                         throw new ServerException("interrupted!");
                     }
@@ -332,6 +337,89 @@ public class CheEnvironmentEngineTest {
         }
     }
 
+    @Test
+    public void shouldStartIndependentMachinesSimultaneously() throws Exception {
+        // given
+        EnvironmentImpl env = createEnv();
+        String envName = "env-1";
+        String workspaceId = "wsId";
+        CountDownLatch allStarting = new CountDownLatch(env.getMachines().size());
+        when(machineProvider.startService(anyString(),
+                                          eq(workspaceId),
+                                          eq(envName),
+                                          anyString(),
+                                          anyBoolean(),
+                                          anyString(),
+                                          any(CheServiceImpl.class),
+                                          any(LineConsumer.class)))
+                .thenAnswer(invocationOnMock -> {
+                    // fails if machines are started one by one
+                    allStarting.countDown();
+                    if (!allStarting.await(10, TimeUnit.SECONDS)) {
+                        throw new ServerException("machines are not started simultaneously");
+                    }
+                    Object[] arguments = invocationOnMock.getArguments();
+                    return new NoOpMachineInstance(createMachine(workspaceId,
+                                                                 envName,
+                                                                 (CheServiceImpl)arguments[6],
+                                                                 (String)arguments[3],
+                                                                 (boolean)arguments[4]));
+                });
+        when(environmentParser.parse(env)).thenReturn(createCheServicesEnv());
+
+        // when
+        List<Instance> machines = engine.start(workspaceId,
+                                               envName,
+                                               env,
+                                               false,
+                                               messageConsumer,
+                                               startedHandler);
+
+        // then
+        assertEquals(machines.size(), 2);
+        verify(startedHandler, times(2)).started(any(Instance.class), any(ExtendedMachine.class));
+    }
+
+    @Test
+    public void shouldStartMachineAfterMachinesItDependsOn() throws Exception {
+        // given
+        EnvironmentImpl env = createEnv();
+        String envName = "env-1";
+        String workspaceId = "wsId";
+        List<String> started = new CopyOnWriteArrayList<>();
+        when(machineProvider.startService(anyString(),
+                                          eq(workspaceId),
+                                          eq(envName),
+                                          anyString(),
+                                          anyBoolean(),
+                                          anyString(),
+                                          any(CheServiceImpl.class),
+                                          any(LineConsumer.class)))
+                .thenAnswer(invocationOnMock -> {
+                    Object[] arguments = invocationOnMock.getArguments();
+                    started.add((String)arguments[3]);
+                    return new NoOpMachineInstance(createMachine(workspaceId,
+                                                                 envName,
+                                                                 (CheServiceImpl)arguments[6],
+                                                                 (String)arguments[3],
+                                                                 (boolean)arguments[4]));
+                });
+        CheServicesEnvironmentImpl servicesEnv = createCheServicesEnv();
+        servicesEnv.getServices().get("dev-machine").setDependsOn(singletonList("machine2"));
+        when(environmentParser.parse(env)).thenReturn(servicesEnv);
+
+        // when
+        engine.start(workspaceId,
+                     envName,
+                     env,
+                     false,
+                     messageConsumer,
+                     startedHandler);
+
+        // then
+        assertEquals(started, asList("machine2", "dev-machine"));
+    }
+
     @Test
     public void shouldSetDefaultRamToMachinesWithoutRamOnEnvironmentStart() throws Exception {
         // given
@@ -529,7 +617,7 @@ public class CheEnvironmentEngineTest {
         EnvironmentImpl env = createEnv();
         String envName = "env-1";
         String workspaceId = "wsId";
-        List<Instance> expectedMachines = new ArrayList<>();
+        List<Instance> expectedMachines = new CopyOnWriteArrayList<>();
         when(machineProvider.startService(anyString(),
                                           eq(workspaceId),
                                           eq(envName),
@@ -562,7 +650,7 @@ public class CheEnvironmentEngineTest {
                                                messageConsumer);
 
         // then
-        assertEquals(machines, expectedMachines);
+        assertEqualsNoOrder(machines.toArray(), expectedMachines.toArray());
 
         ArgumentCaptor<CheServiceImpl> captor = ArgumentCaptor.forClass(CheServiceImpl.class);
         verify(machineProvider).startService(anyString(),
@@ -587,7 +675,7 @@ public class CheEnvironmentEngineTest {
         EnvironmentImpl env = createEnv();
         String envName = "env-1";
         String workspaceId = "wsId";
-        List<Instance> expectedMachines = new ArrayList<>();
+        List<Instance> expectedMachines = new CopyOnWriteArrayList<>();
         when(machineProvider.startService(anyString(),
                                           eq(workspaceId),
                                           eq(envName),
@@ -624,7 +712,7 @@ public class CheEnvironmentEngineTest {
                                                messageConsumer);
 
         // then
-        assertEquals(machines, expectedMachines);
+        assertEqualsNoOrder(machines.toArray(), expectedMachines.toArray());
 
         ArgumentCaptor<CheServiceImpl> captor = ArgumentCaptor.forClass(CheServiceImpl.class);
         verify(machineProvider).startService(anyString(),
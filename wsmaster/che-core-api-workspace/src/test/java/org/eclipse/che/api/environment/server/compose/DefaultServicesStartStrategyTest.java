@@ -105,6 +105,26 @@ public class DefaultServicesStartStrategyTest {
         assertTrue(actual.contains("fifth"));
     }
 
+    @Test
+    public void shouldGroupServicesWhichDoNotDependOnEachOtherIntoLevels() throws Exception {
+        // given
+        CheServicesEnvironmentImpl composeEnvironment = new CheServicesEnvironmentImpl();
+        composeEnvironment.getServices().put("second", new CheServiceImpl().withDependsOn(singletonList("first")));
+        composeEnvironment.getServices().put("third", new CheServiceImpl().withDependsOn(singletonList("second")));
+        composeEnvironment.getServices().put("first", new CheServiceImpl().withDependsOn(emptyList()));
+        composeEnvironment.getServices().put("forth", new CheServiceImpl().withDependsOn(singletonList("second")));
+        composeEnvironment.getServices().put("fifth", new CheServiceImpl().withDependsOn(emptyList()));
+
+        // when
+        List<List<String>> actual = strategy.orderByLevels(composeEnvironment);
+
+        // then
+        assertEquals(actual.size(), 3);
+        assertEqualsNoOrder(actual.get(0).toArray(), new String[] {"first", "fifth"});
+        assertEquals(actual.get(1), singletonList("second"));
+        assertEqualsNoOrder(actual.get(2).toArray(), new String[] {"third", "forth"});
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class,
           expectedExceptionsMessageRegExp = "Launch order of machines '.*, .*' can't be evaluated. Circular dependency.")
     public void shouldFailIfCircularDependencyFound() throws Exception {
@@ -14,9 +14,24 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
 
+import org.eclipse.che.api.agent.ExecAgent;
+import org.eclipse.che.api.agent.GitCredentialsAgent;
+import org.eclipse.che.api.agent.LSCSharpAgent;
+import org.eclipse.che.api.agent.LSJsonAgent;
+import org.eclipse.che.api.agent.LSPhpAgent;
+import org.eclipse.che.api.agent.LSPythonAgent;
+import org.eclipse.che.api.agent.LSTypeScriptAgent;
+import org.eclipse.che.api.agent.SshAgent;
+import org.eclipse.che.api.agent.TerminalAgent;
+import org.eclipse.che.api.agent.UnisonAgent;
 import org.eclipse.che.api.agent.server.AgentRegistry;
 import org.eclipse.che.api.agent.server.impl.AgentSorter;
+import org.eclipse.che.api.agent.server.launcher.AgentLauncher;
 import org.eclipse.che.api.agent.server.launcher.AgentLauncherFactory;
+import org.eclipse.che.api.agent.shared.model.Agent;
+import org.eclipse.che.api.agent.shared.model.AgentKey;
+import org.eclipse.che.api.agent.shared.model.impl.AgentImpl;
+import org.eclipse.che.api.agent.shared.model.impl.AgentKeyImpl;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
@@ -79,14 +94,18 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -617,6 +636,114 @@ public class WorkspaceRuntimesTest {
         verify(envEngine).startMachine(eq("workspace"), eq(config), any());
     }
 
+    @Test
+    public void shouldLaunchIndependentAgentsOfStartedMachineSimultaneously() throws Exception {
+        // given
+        setRuntime("workspace", WorkspaceStatus.RUNNING, "env-name");
+        MachineConfig config = newMachine("workspace", "env-name", "new", false).getConfig();
+        Instance instance = mock(Instance.class);
+        when(envEngine.startMachine(anyString(), any(MachineConfig.class), any())).thenReturn(instance);
+        when(instance.getConfig()).thenReturn(config);
+        when(agentSorter.sortByLevels(any())).thenReturn(singletonList(Arrays.asList(AgentKeyImpl.parse("agent1"),
+                                                                                     AgentKeyImpl.parse("agent2"))));
+        when(agentRegistry.getAgent(any())).thenReturn(newAgent("echo launched", emptyMap()));
+        CountDownLatch allLaunching = new CountDownLatch(2);
+        AgentLauncher launcher = mock(AgentLauncher.class);
+        doAnswer(invocation -> {
+            // fails if agents are launched one by one
+            allLaunching.countDown();
+            if (!allLaunching.await(10, TimeUnit.SECONDS)) {
+                throw new ServerException("agents are not launched simultaneously");
+            }
+            return null;
+        }).when(launcher).launch(any(Instance.class), any());
+        when(launcherFactory.find(anyString(), anyString())).thenReturn(launcher);
+
+        // when
+        runtimes.startMachine("workspace", config);
+
+        // then
+        verify(launcher, times(2)).launch(eq(instance), any());
+    }
+
+    @Test
+    public void shouldLaunchBundledAgentsSimultaneously() throws Exception {
+        // given
+        setRuntime("workspace", WorkspaceStatus.RUNNING, "env-name");
+        MachineConfig config = newMachine("workspace", "env-name", "new", false).getConfig();
+        Instance instance = mock(Instance.class);
+        when(envEngine.startMachine(anyString(), any(MachineConfig.class), any())).thenReturn(instance);
+        when(instance.getConfig()).thenReturn(config);
+        List<Agent> agents = Arrays.asList(new ExecAgent(),
+                                           new GitCredentialsAgent(),
+                                           new LSCSharpAgent(),
+                                           new LSJsonAgent(),
+                                           new LSPhpAgent(),
+                                           new LSPythonAgent(),
+                                           new LSTypeScriptAgent(),
+                                           new SshAgent(),
+                                           new TerminalAgent(),
+                                           new UnisonAgent());
+        List<AgentKey> agentKeys = new ArrayList<>();
+        for (Agent agent : agents) {
+            AgentKey agentKey = new AgentKeyImpl(agent);
+            agentKeys.add(agentKey);
+            when(agentRegistry.getAgent(agentKey)).thenReturn(agent);
+        }
+        when(agentSorter.sortByLevels(any())).thenReturn(singletonList(agentKeys));
+        CountDownLatch allLaunching = new CountDownLatch(agents.size());
+        AgentLauncher launcher = mock(AgentLauncher.class);
+        doAnswer(invocation -> {
+            // fails if bundled agents are launched one by one
+            allLaunching.countDown();
+            if (!allLaunching.await(10, TimeUnit.SECONDS)) {
+                throw new ServerException("bundled agents are not launched simultaneously");
+            }
+            return null;
+        }).when(launcher).launch(any(Instance.class), any());
+        when(launcherFactory.find(anyString(), anyString())).thenReturn(launcher);
+
+        // when
+        runtimes.startMachine("workspace", config);
+
+        // then
+        verify(launcher, times(agents.size())).launch(eq(instance), any());
+    }
+
+    @Test
+    public void shouldLaunchAgentsInstallingPackagesOneByOne() throws Exception {
+        // given
+        setRuntime("workspace", WorkspaceStatus.RUNNING, "env-name");
+        MachineConfig config = newMachine("workspace", "env-name", "new", false).getConfig();
+        Instance instance = mock(Instance.class);
+        when(envEngine.startMachine(anyString(), any(MachineConfig.class), any())).thenReturn(instance);
+        when(instance.getConfig()).thenReturn(config);
+        when(agentSorter.sortByLevels(any())).thenReturn(singletonList(Arrays.asList(AgentKeyImpl.parse("agent1"),
+                                                                                     AgentKeyImpl.parse("agent2"),
+                                                                                     AgentKeyImpl.parse("agent3"))));
+        when(agentRegistry.getAgent(AgentKeyImpl.parse("agent1"))).thenReturn(newAgent("sudo apt-get install curl", emptyMap()));
+        when(agentRegistry.getAgent(AgentKeyImpl.parse("agent2"))).thenReturn(newAgent("sudo yum install curl", emptyMap()));
+        when(agentRegistry.getAgent(AgentKeyImpl.parse("agent3")))
+                .thenReturn(newAgent("./install.sh", singletonMap(WorkspaceRuntimes.INSTALLS_PACKAGES_PROPERTY, "true")));
+        AtomicInteger launching = new AtomicInteger();
+        AtomicInteger maxLaunching = new AtomicInteger();
+        AgentLauncher launcher = mock(AgentLauncher.class);
+        doAnswer(invocation -> {
+            maxLaunching.accumulateAndGet(launching.incrementAndGet(), Math::max);
+            Thread.sleep(100);
+            launching.decrementAndGet();
+            return null;
+        }).when(launcher).launch(any(Instance.class), any());
+        when(launcherFactory.find(anyString(), anyString())).thenReturn(launcher);
+
+        // when
+        runtimes.startMachine("workspace", config);
+
+        // then
+        verify(launcher, times(3)).launch(eq(instance), any());
+        assertEquals(maxLaunching.get(), 1);
+    }
+
     @Test(expectedExceptions = NotFoundException.class,
           expectedExceptionsMessageRegExp = "Workspace with id '.*' is not running")
     public void shouldNotStartMachineIfEnvironmentIsNotRunning() throws Exception {
@@ -1020,6 +1147,10 @@ public class WorkspaceRuntimesTest {
                             .build();
     }
 
+    private Agent newAgent(String script, Map<String, String> properties) {
+        return new AgentImpl("agent", "agent", "1.0", "test agent", Collections.emptyList(), properties, script, emptyMap());
+    }
+
     private void shutdownAndWaitPool(ExecutorService pool) throws InterruptedException {
         pool.shutdownNow();
         if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {